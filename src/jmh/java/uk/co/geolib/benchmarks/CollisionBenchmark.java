@@ -0,0 +1,91 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DVector;
+import uk.co.geolib.geopolygons.C2DCollisionWorld;
+import uk.co.geolib.geopolygons.C2DPolygon;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the overlapping pairs in a scene of small polygons, by testing every pair and with
+ * C2DCollisionWorld.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CollisionBenchmark {
+    /**
+     * Number of polygons.
+     */
+    @Param({"1000", "20000"})
+    public int polygonCount;
+
+    private ArrayList<C2DPolygon> Polygons;
+
+    private C2DCollisionWorld World;
+
+    /**
+     * Builds the polygons, about 1 in 10 overlapping another, and the world.
+     */
+    @Setup
+    public void Setup() {
+        Random Rand = new Random(17L);
+        double dSize = Math.sqrt(polygonCount) * 30;
+        Polygons = new ArrayList<C2DPolygon>();
+        World = new C2DCollisionWorld();
+        World.setMargin(1);
+        for (int i = 0; i < polygonCount; i++) {
+            C2DPoint Centre = new C2DPoint(Rand.nextDouble() * dSize, Rand.nextDouble() * dSize);
+            C2DPolygon Polygon = ShapeGenerator.CreateRegular(Centre, 2 + Rand.nextDouble() * 3, 6);
+            Polygons.add(Polygon);
+            World.Add(Polygon);
+        }
+    }
+
+    /**
+     * C2DPolygon.Overlaps on every pair.
+     */
+    @Benchmark
+    public void BruteForce(Blackhole bh) {
+        C2DVector vTrans = new C2DVector();
+        int nCount = 0;
+        for (int i = 0; i < Polygons.size(); i++) {
+            for (int j = i + 1; j < Polygons.size(); j++) {
+                if (Polygons.get(i).Overlaps(Polygons.get(j), vTrans))
+                    nCount++;
+            }
+        }
+        bh.consume(nCount);
+    }
+
+    /**
+     * C2DCollisionWorld.FindOverlaps.
+     */
+    @Benchmark
+    public void FindOverlaps(Blackhole bh) {
+        ArrayList<Integer> Firsts = new ArrayList<Integer>();
+        ArrayList<Integer> Seconds = new ArrayList<Integer>();
+        ArrayList<C2DVector> Translations = new ArrayList<C2DVector>();
+        World.FindOverlaps(Firsts, Seconds, Translations);
+        bh.consume(Translations);
+    }
+
+    /**
+     * Moving every polygon a little and back again, which updates the world.
+     */
+    @Benchmark
+    public void MoveAll(Blackhole bh) {
+        C2DVector Forward = new C2DVector(0.5, 0.5);
+        C2DVector Back = new C2DVector(-0.5, -0.5);
+        for (int i = 0; i < polygonCount; i++)
+            World.Move(i, Forward);
+        for (int i = 0; i < polygonCount; i++)
+            World.Move(i, Back);
+        bh.consume(World);
+    }
+}
@@ -0,0 +1,70 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DPointSet;
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geolib.CDelaunayTriangulator;
+import uk.co.geolib.geolib.CTriangleMesh;
+import uk.co.geolib.geopolygons.C2DPolygon;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delaunay triangulation and Voronoi cells of random points with CDelaunayTriangulator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DelaunayBenchmark {
+    /**
+     * Number of points.
+     */
+    @Param({"10000", "500000"})
+    public int pointCount;
+
+    private C2DRect Boundary;
+
+    private C2DPointSet Points;
+
+    /**
+     * Builds the points.
+     */
+    @Setup
+    public void Setup() {
+        Boundary = new C2DRect(0, 1000, 1000, 0);
+        Points = ShapeGenerator.CreatePoints(29L, Boundary, pointCount);
+    }
+
+    /**
+     * CDelaunayTriangulator.Triangulate.
+     */
+    @Benchmark
+    public void Triangulate(Blackhole bh) {
+        CTriangleMesh Mesh = new CTriangleMesh();
+        new CDelaunayTriangulator().Triangulate(Points, Mesh);
+        bh.consume(Mesh);
+    }
+
+    /**
+     * CDelaunayTriangulator.GetVoronoiCells.
+     */
+    @Benchmark
+    public void GetVoronoiCells(Blackhole bh) {
+        ArrayList<ArrayList<C2DPoint>> Cells = new ArrayList<ArrayList<C2DPoint>>();
+        new CDelaunayTriangulator().GetVoronoiCells(Points, Boundary, Cells);
+        bh.consume(Cells);
+    }
+
+    /**
+     * C2DPolygon.CreateVoronoiCells.
+     */
+    @Benchmark
+    public void CreateVoronoiCells(Blackhole bh) {
+        ArrayList<C2DPolygon> Cells = new ArrayList<C2DPolygon>();
+        C2DPolygon.CreateVoronoiCells(Points, Boundary, new CDelaunayTriangulator(), Cells);
+        bh.consume(Cells);
+    }
+}
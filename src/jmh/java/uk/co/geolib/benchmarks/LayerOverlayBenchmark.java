@@ -0,0 +1,97 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geolib.CGrid;
+import uk.co.geolib.geopolygons.C2DHoledPolyBase;
+import uk.co.geolib.geopolygons.C2DLayerOverlay;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * C2DLayerOverlay.GetOverlaps of a layer of irregular parcels against a layer of larger zones,
+ * against a loop over every pair calling C2DHoledPolyBase.GetOverlaps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LayerOverlayBenchmark {
+    /**
+     * Number of parcels. There are a hundredth as many zones.
+     */
+    @Param({"1000", "10000"})
+    public int parcelCount;
+
+    /**
+     * Threads for the overlay.
+     */
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ArrayList<C2DHoledPolyBase> Parcels;
+
+    private ArrayList<C2DHoledPolyBase> Zones;
+
+    /**
+     * Builds the parcels as random polygons in the overlapping squares of a jittered grid and the
+     * zones scattered over them.
+     */
+    @Setup
+    public void Setup() {
+        Random rand = new Random(13L);
+        int nSide = (int) Math.ceil(Math.sqrt(parcelCount));
+
+        Parcels = new ArrayList<C2DHoledPolyBase>();
+        for (int i = 0; i < parcelCount; i++) {
+            C2DPoint Centre = new C2DPoint((i % nSide) * 10 + rand.nextDouble(), (i / nSide) * 10 + rand.nextDouble());
+            C2DRect Boundary = new C2DRect(Centre.x - 6, Centre.y + 6, Centre.x + 6, Centre.y - 6);
+            C2DHoledPolyBase Parcel = new C2DHoledPolyBase();
+            Parcel.setRim(ShapeGenerator.CreateRandom(14L + i, Boundary, 8));
+            Parcels.add(Parcel);
+        }
+
+        Zones = new ArrayList<C2DHoledPolyBase>();
+        for (int i = 0; i < parcelCount / 100; i++) {
+            C2DPoint Centre = new C2DPoint(rand.nextDouble() * nSide * 10, rand.nextDouble() * nSide * 10);
+            C2DHoledPolyBase Zone = new C2DHoledPolyBase();
+            Zone.setRim(ShapeGenerator.CreateStar(15L + i, Centre, 40, 64, 0.3));
+            Zones.add(Zone);
+        }
+    }
+
+    /**
+     * C2DLayerOverlay.GetOverlaps, counting the pieces.
+     */
+    @Benchmark
+    public void Overlay(Blackhole bh) {
+        final int[] Count = new int[1];
+        C2DLayerOverlay Overlay = new C2DLayerOverlay();
+        Overlay.setParallelism(parallelism);
+        Overlay.GetOverlaps(Parcels, Zones, new CGrid(), new C2DLayerOverlay.IOverlap() {
+            public void Overlap(int nIndex1, int nIndex2, ArrayList<C2DHoledPolyBase> Pieces) {
+                Count[0] += Pieces.size();
+            }
+        });
+        bh.consume(Count[0]);
+    }
+
+    /**
+     * Every pair with C2DHoledPolyBase.GetOverlaps.
+     */
+    @Benchmark
+    public void NestedLoops(Blackhole bh) {
+        int nCount = 0;
+        for (int i = 0; i < Parcels.size(); i++) {
+            for (int j = 0; j < Zones.size(); j++) {
+                ArrayList<C2DHoledPolyBase> Pieces = new ArrayList<C2DHoledPolyBase>();
+                Parcels.get(i).GetOverlaps(Zones.get(j), Pieces, new CGrid());
+                nCount += Pieces.size();
+            }
+        }
+        bh.consume(nCount);
+    }
+}
@@ -0,0 +1,96 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DLineBaseSet;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geopolygons.C2DPolygon;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * C2DLineBaseSet.GetIntersections for both the self intersection and the two set variants, by
+ * comparing all nearby pairs and by the sweep line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LineIntersectionBenchmark {
+    /**
+     * Number of lines in the random network and vertices in each polygon.
+     */
+    @Param({"100", "1000", "10000"})
+    public int lineCount;
+
+    private C2DLineBaseSet Network;
+
+    private C2DPolygon Poly1;
+
+    private C2DPolygon Poly2;
+
+    /**
+     * Builds a random line network and 2 overlapping polygons.
+     */
+    @Setup
+    public void Setup() {
+        C2DRect Boundary = new C2DRect(0, 1000, 1000, 0);
+        Network = ShapeGenerator.CreateLines(3L, Boundary, lineCount, 100);
+
+        C2DPoint Centre = new C2DPoint(500, 500);
+        Poly1 = ShapeGenerator.CreateStar(4L, Centre, 300, lineCount, 0.3);
+        Poly2 = ShapeGenerator.CreateStar(5L, ShapeGenerator.GetOverlappingCentre(Centre, 300, 0.5),
+                300, lineCount, 0.3);
+    }
+
+    /**
+     * Intersections within a single set of random lines.
+     */
+    @Benchmark
+    public void SelfIntersections(Blackhole bh) {
+        ArrayList<C2DPoint> Points = new ArrayList<C2DPoint>();
+        ArrayList<Integer> Indexes1 = new ArrayList<Integer>();
+        ArrayList<Integer> Indexes2 = new ArrayList<Integer>();
+        Network.GetIntersections(Points, Indexes1, Indexes2);
+        bh.consume(Points.size());
+    }
+
+    /**
+     * Intersections between the lines of 2 overlapping polygons.
+     */
+    @Benchmark
+    public void TwoSetIntersections(Blackhole bh) {
+        ArrayList<C2DPoint> Points = new ArrayList<C2DPoint>();
+        ArrayList<Integer> Indexes1 = new ArrayList<Integer>();
+        ArrayList<Integer> Indexes2 = new ArrayList<Integer>();
+        Poly1.getLines().GetIntersections(Poly2.getLines(), Points, Indexes1, Indexes2,
+                Poly1.getBoundingRect(), Poly2.getBoundingRect());
+        bh.consume(Points.size());
+    }
+
+    /**
+     * Intersections within a single set of random lines using the sweep line.
+     */
+    @Benchmark
+    public void SelfIntersectionsSweep(Blackhole bh) {
+        ArrayList<C2DPoint> Points = new ArrayList<C2DPoint>();
+        ArrayList<Integer> Indexes1 = new ArrayList<Integer>();
+        ArrayList<Integer> Indexes2 = new ArrayList<Integer>();
+        Network.GetIntersectionsSweep(Points, Indexes1, Indexes2);
+        bh.consume(Points.size());
+    }
+
+    /**
+     * Intersections between the lines of 2 overlapping polygons using the sweep line.
+     */
+    @Benchmark
+    public void TwoSetIntersectionsSweep(Blackhole bh) {
+        ArrayList<C2DPoint> Points = new ArrayList<C2DPoint>();
+        ArrayList<Integer> Indexes1 = new ArrayList<Integer>();
+        ArrayList<Integer> Indexes2 = new ArrayList<Integer>();
+        Poly1.getLines().GetIntersectionsSweep(Poly2.getLines(), Points, Indexes1, Indexes2,
+                Poly1.getBoundingRect(), Poly2.getBoundingRect());
+        bh.consume(Points.size());
+    }
+}
@@ -0,0 +1,113 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DPointSet;
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geolib.CKDTree;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest point searches over a point cloud by checking every point and with a CKDTree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PointSearchBenchmark {
+    /**
+     * Number of points.
+     */
+    @Param({"10000", "1000000"})
+    public int pointCount;
+
+    private C2DPointSet Points;
+
+    private C2DPointSet SearchPoints;
+
+    private CKDTree Tree;
+
+    /**
+     * Builds the points, the tree and 1000 points to search from.
+     */
+    @Setup
+    public void Setup() {
+        C2DRect Boundary = new C2DRect(0, 1000, 1000, 0);
+        Points = ShapeGenerator.CreatePoints(11L, Boundary, pointCount);
+        SearchPoints = ShapeGenerator.CreatePoints(12L, Boundary, 1000);
+        Tree = new CKDTree(Points);
+    }
+
+    /**
+     * Creating the tree.
+     */
+    @Benchmark
+    public void Create(Blackhole bh) {
+        bh.consume(new CKDTree(Points));
+    }
+
+    /**
+     * The nearest point to each search point by checking every point.
+     */
+    @Benchmark
+    public void NearestBruteForce(Blackhole bh) {
+        for (int i = 0; i < SearchPoints.size(); i++) {
+            C2DPoint pt = SearchPoints.get(i);
+            int nNearest = -1;
+            double dNearest = Double.MAX_VALUE;
+            for (int j = 0; j < Points.size(); j++) {
+                double dDist = Points.get(j).Distance(pt);
+                if (dDist < dNearest) {
+                    dNearest = dDist;
+                    nNearest = j;
+                }
+            }
+            bh.consume(nNearest);
+        }
+    }
+
+    /**
+     * The nearest point to each search point with the tree.
+     */
+    @Benchmark
+    public void Nearest(Blackhole bh) {
+        for (int i = 0; i < SearchPoints.size(); i++)
+            bh.consume(Tree.GetNearest(SearchPoints.get(i)));
+    }
+
+    /**
+     * The nearest point to each search point with the tree, in parallel.
+     */
+    @Benchmark
+    public void NearestBulk(Blackhole bh) {
+        int[] Nearest = new int[SearchPoints.size()];
+        Tree.GetNearest(SearchPoints, Nearest);
+        bh.consume(Nearest);
+    }
+
+    /**
+     * The 10 nearest points to each search point with the tree.
+     */
+    @Benchmark
+    public void KNearest(Blackhole bh) {
+        int[] Found = new int[10];
+        double[] Distances = new double[10];
+        for (int i = 0; i < SearchPoints.size(); i++)
+            bh.consume(Tree.GetNearest(SearchPoints.get(i), 10, Found, Distances));
+    }
+
+    /**
+     * The points within 5 of each search point with the tree.
+     */
+    @Benchmark
+    public void WithinRadius(Blackhole bh) {
+        ArrayList<Integer> Found = new ArrayList<Integer>();
+        for (int i = 0; i < SearchPoints.size(); i++) {
+            Found.clear();
+            Tree.GetWithinRadius(SearchPoints.get(i), 5, Found);
+            bh.consume(Found.size());
+        }
+    }
+}
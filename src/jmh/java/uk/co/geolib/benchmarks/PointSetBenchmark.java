@@ -0,0 +1,189 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DCircle;
+import uk.co.geolib.geolib.C2DOrientedRect;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DPointArraySet;
+import uk.co.geolib.geolib.C2DPointSet;
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geolib.CConvexHull;
+import uk.co.geolib.geolib.CRotatingCalipers;
+import uk.co.geolib.geolib.GeoDouble;
+import uk.co.geolib.geolib.GeoInteger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting, deduplicating, bounding, hulling and measuring a point cloud held as a C2DPointSet and as a C2DPointArraySet.
+ * The nearly collinear points also check the hull and calipers where the floating point
+ * orientation of 3 points cannot be trusted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PointSetBenchmark {
+    /**
+     * Number of points.
+     */
+    @Param({"10000", "1000000"})
+    public int pointCount;
+
+    /**
+     * Uniform points in a square, or points rounded onto a line.
+     */
+    @Param({"Uniform", "NearlyCollinear"})
+    public String distribution;
+
+    private C2DPointSet Points;
+
+    private C2DPointArraySet ArrayPoints;
+
+    private final C2DPoint Origin = new C2DPoint(500, 500);
+
+    /**
+     * Builds the points. They are sorted in place so are built for every iteration.
+     */
+    @Setup(Level.Iteration)
+    public void Setup() {
+        C2DRect Boundary = new C2DRect(0, 1000, 1000, 0);
+        if (distribution.equals("NearlyCollinear"))
+            Points = ShapeGenerator.CreateNearlyCollinearPoints(10L, 1000, pointCount);
+        else
+            Points = ShapeGenerator.CreatePoints(10L, Boundary, pointCount);
+        ArrayPoints = new C2DPointArraySet(Points);
+    }
+
+    /**
+     * C2DPointSet.SortByDistance.
+     */
+    @Benchmark
+    public void SortByDistance(Blackhole bh) {
+        Points.SortByDistance(Origin);
+        bh.consume(Points.get(0));
+    }
+
+    /**
+     * C2DPointArraySet.SortByDistance.
+     */
+    @Benchmark
+    public void SortByDistanceArray(Blackhole bh) {
+        ArrayPoints.SortByDistance(Origin);
+        bh.consume(ArrayPoints.GetX(0));
+    }
+
+    /**
+     * C2DPointSet.RemoveRepeatedPoints.
+     */
+    @Benchmark
+    public void RemoveRepeatedPoints(Blackhole bh) {
+        Points.RemoveRepeatedPoints();
+        bh.consume(Points.size());
+    }
+
+    /**
+     * C2DPointArraySet.RemoveRepeatedPoints.
+     */
+    @Benchmark
+    public void RemoveRepeatedPointsArray(Blackhole bh) {
+        ArrayPoints.RemoveRepeatedPoints();
+        bh.consume(ArrayPoints.size());
+    }
+
+    /**
+     * C2DPointSet.GetBoundingRect.
+     */
+    @Benchmark
+    public void BoundingRect(Blackhole bh) {
+        C2DRect Rect = new C2DRect();
+        Points.GetBoundingRect(Rect);
+        bh.consume(Rect);
+    }
+
+    /**
+     * C2DPointArraySet.GetBoundingRect.
+     */
+    @Benchmark
+    public void BoundingRectArray(Blackhole bh) {
+        C2DRect Rect = new C2DRect();
+        ArrayPoints.GetBoundingRect(Rect);
+        bh.consume(Rect);
+    }
+
+    /**
+     * C2DPointSet.GetBoundingCircle.
+     */
+    @Benchmark
+    public void BoundingCircle(Blackhole bh) {
+        C2DCircle Circle = new C2DCircle();
+        Points.GetBoundingCircle(Circle);
+        bh.consume(Circle);
+    }
+
+    /**
+     * C2DPointArraySet.GetBoundingCircle.
+     */
+    @Benchmark
+    public void BoundingCircleArray(Blackhole bh) {
+        C2DCircle Circle = new C2DCircle();
+        ArrayPoints.GetBoundingCircle(Circle);
+        bh.consume(Circle);
+    }
+
+    /**
+     * CConvexHull of the C2DPointSet.
+     */
+    @Benchmark
+    public void ConvexHull(Blackhole bh) {
+        C2DPointSet Hull = new C2DPointSet();
+        new CConvexHull().GetHull(Points, Hull);
+        bh.consume(Hull);
+    }
+
+    /**
+     * CConvexHull of the C2DPointArraySet.
+     */
+    @Benchmark
+    public void ConvexHullArray(Blackhole bh) {
+        C2DPointArraySet Hull = new C2DPointArraySet();
+        new CConvexHull().GetHull(ArrayPoints, Hull);
+        bh.consume(Hull);
+    }
+
+    /**
+     * CConvexHull of the C2DPointArraySet without the Akl-Toussaint heuristic.
+     */
+    @Benchmark
+    public void ConvexHullArrayNoFilter(Blackhole bh) {
+        C2DPointArraySet Hull = new C2DPointArraySet();
+        CConvexHull Engine = new CConvexHull();
+        Engine.setAklToussaint(false);
+        Engine.GetHull(ArrayPoints, Hull);
+        bh.consume(Hull);
+    }
+
+    /**
+     * C2DPointSet.GetExtremePoints.
+     */
+    @Benchmark
+    public void ExtremePoints(Blackhole bh) {
+        GeoInteger nIndex1 = new GeoInteger(0);
+        GeoInteger nIndex2 = new GeoInteger(0);
+        GeoDouble dDist = new GeoDouble(0.0);
+        Points.GetExtremePoints(nIndex1, nIndex2, dDist);
+        bh.consume(dDist.value);
+    }
+
+    /**
+     * CRotatingCalipers minimum area rectangle of the C2DPointArraySet.
+     */
+    @Benchmark
+    public void MinAreaRectArray(Blackhole bh) {
+        CRotatingCalipers Calipers = new CRotatingCalipers();
+        Calipers.Create(ArrayPoints);
+        C2DOrientedRect Rect = new C2DOrientedRect();
+        Calipers.GetMinAreaRect(Rect);
+        bh.consume(Rect);
+    }
+}
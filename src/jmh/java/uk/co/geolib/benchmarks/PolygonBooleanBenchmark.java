@@ -0,0 +1,87 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.CGrid;
+import uk.co.geolib.geopolygons.C2DHoledPolyBase;
+import uk.co.geolib.geopolygons.C2DPolygon;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * C2DPolyBase.GetBoolean (union, intersection, difference) between 2 concave polygons, by the
+ * routes or by the sweep of C2DSweepBoolean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PolygonBooleanBenchmark {
+    /**
+     * Vertex count of each polygon.
+     */
+    @Param({"32", "256", "2048"})
+    public int vertexCount;
+
+    /**
+     * How much the 2 polygons overlap. 0 is just touching, 1 is concentric.
+     */
+    @Param({"0.1", "0.5", "0.9"})
+    public double overlapRatio;
+
+    /**
+     * The boolean engine.
+     */
+    @Param({"Routes", "Sweep"})
+    public CGrid.eBooleanEngine booleanEngine;
+
+    private C2DPolygon Poly1;
+
+    private C2DPolygon Poly2;
+
+    private CGrid Grid;
+
+    /**
+     * Builds the 2 polygons.
+     */
+    @Setup
+    public void Setup() {
+        C2DPoint Centre = new C2DPoint(1000, 1000);
+        Poly1 = ShapeGenerator.CreateStar(6L, Centre, 500, vertexCount, 0.3);
+        Poly2 = ShapeGenerator.CreateStar(7L, ShapeGenerator.GetOverlappingCentre(Centre, 500, overlapRatio),
+                500, vertexCount, 0.3);
+        Grid = new CGrid();
+        Grid.BooleanEngine = booleanEngine;
+    }
+
+    /**
+     * Union.
+     */
+    @Benchmark
+    public void Union(Blackhole bh) {
+        ArrayList<C2DHoledPolyBase> Result = new ArrayList<C2DHoledPolyBase>();
+        Poly1.GetUnion(Poly2, Result, new CGrid(Grid));
+        bh.consume(Result);
+    }
+
+    /**
+     * Intersection.
+     */
+    @Benchmark
+    public void Overlaps(Blackhole bh) {
+        ArrayList<C2DHoledPolyBase> Result = new ArrayList<C2DHoledPolyBase>();
+        Poly1.GetOverlaps(Poly2, Result, new CGrid(Grid));
+        bh.consume(Result);
+    }
+
+    /**
+     * Difference.
+     */
+    @Benchmark
+    public void NonOverlaps(Blackhole bh) {
+        ArrayList<C2DHoledPolyBase> Result = new ArrayList<C2DHoledPolyBase>();
+        Poly1.GetNonOverlaps(Poly2, Result, new CGrid(Grid));
+        bh.consume(Result);
+    }
+}
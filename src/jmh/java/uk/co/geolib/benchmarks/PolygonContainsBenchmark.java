@@ -0,0 +1,136 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DPointSet;
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geopolygons.C2DPackedPolygon;
+import uk.co.geolib.geopolygons.C2DPolyBase;
+import uk.co.geolib.geopolygons.C2DPolygon;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in polygon tests against a concave polygon, both line based and packed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PolygonContainsBenchmark {
+    /**
+     * Vertex count of the polygon.
+     */
+    @Param({"16", "256", "4096", "65536"})
+    public int vertexCount;
+
+    /**
+     * Number of points tested per invocation.
+     */
+    @Param({"1000"})
+    public int pointCount;
+
+    private C2DPolygon Polygon;
+
+    private C2DPolygon Indexed;
+
+    private C2DPolygon Counted;
+
+    private C2DPackedPolygon Packed;
+
+    private C2DPointSet Points;
+
+    /**
+     * Builds the polygon and the query points.
+     */
+    @Setup
+    public void Setup() {
+        C2DPoint Centre = new C2DPoint(1000, 1000);
+        Polygon = ShapeGenerator.CreateStar(1L, Centre, 500, vertexCount, 0.5);
+        Indexed = new C2DPolygon(Polygon);
+        Indexed.setContainmentMode(C2DPolyBase.eContainmentMode.EdgeIndex);
+        Counted = new C2DPolygon(Polygon);
+        Counted.setContainmentMode(C2DPolyBase.eContainmentMode.CrossingNumber);
+        Packed = new C2DPackedPolygon(Polygon);
+
+        // Cover the bounding rect plus a margin so roughly half the points fall outside.
+        C2DRect Boundary = new C2DRect(400, 1600, 1600, 400);
+        Points = ShapeGenerator.CreatePoints(2L, Boundary, pointCount);
+    }
+
+    /**
+     * C2DPolyBase.Contains(C2DPoint) for every point.
+     */
+    @Benchmark
+    public void Contains(Blackhole bh) {
+        int nInside = 0;
+        for (int i = 0; i < Points.size(); i++) {
+            if (Polygon.Contains(Points.get(i)))
+                nInside++;
+        }
+        bh.consume(nInside);
+    }
+
+    /**
+     * C2DPolyBase.Contains(C2DPoint) using the EdgeIndex containment mode for every point.
+     */
+    @Benchmark
+    public void ContainsEdgeIndex(Blackhole bh) {
+        int nInside = 0;
+        for (int i = 0; i < Points.size(); i++) {
+            if (Indexed.Contains(Points.get(i)))
+                nInside++;
+        }
+        bh.consume(nInside);
+    }
+
+    /**
+     * C2DPolyBase.Contains(C2DPoint) using the CrossingNumber containment mode for every point.
+     */
+    @Benchmark
+    public void ContainsCrossingNumber(Blackhole bh) {
+        int nInside = 0;
+        for (int i = 0; i < Points.size(); i++) {
+            if (Counted.Contains(Points.get(i)))
+                nInside++;
+        }
+        bh.consume(nInside);
+    }
+
+    /**
+     * C2DPolyBase.Distance(C2DPoint) for every point.
+     */
+    @Benchmark
+    public void Distance(Blackhole bh) {
+        double dTotal = 0;
+        for (int i = 0; i < Points.size(); i++) {
+            dTotal += Polygon.Distance(Points.get(i));
+        }
+        bh.consume(dTotal);
+    }
+
+    /**
+     * C2DPackedPolygon.Contains(C2DPoint) for every point.
+     */
+    @Benchmark
+    public void ContainsPacked(Blackhole bh) {
+        int nInside = 0;
+        for (int i = 0; i < Points.size(); i++) {
+            if (Packed.Contains(Points.get(i)))
+                nInside++;
+        }
+        bh.consume(nInside);
+    }
+
+    /**
+     * C2DPackedPolygon.Distance(C2DPoint) for every point.
+     */
+    @Benchmark
+    public void DistancePacked(Blackhole bh) {
+        double dTotal = 0;
+        for (int i = 0; i < Points.size(); i++) {
+            dTotal += Packed.Distance(Points.get(i));
+        }
+        bh.consume(dTotal);
+    }
+}
@@ -0,0 +1,86 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DPointSet;
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geopolygons.C2DHoledPolyBase;
+import uk.co.geolib.geopolygons.C2DHoledPolyBaseRTree;
+import uk.co.geolib.geopolygons.C2DHoledPolyBaseSet;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the zone containing each point from a set of small zones, by linear scan and with the R-tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PolygonIndexBenchmark {
+    /**
+     * Number of zones.
+     */
+    @Param({"1000", "50000"})
+    public int zoneCount;
+
+    /**
+     * Number of points tested per invocation.
+     */
+    @Param({"1000"})
+    public int pointCount;
+
+    private C2DHoledPolyBaseSet Zones;
+
+    private C2DHoledPolyBaseRTree Index;
+
+    private C2DPointSet Points;
+
+    /**
+     * Builds the zones, the index and the query points.
+     */
+    @Setup
+    public void Setup() {
+        Random Rand = new Random(11L);
+        Zones = new C2DHoledPolyBaseSet();
+        for (int i = 0; i < zoneCount; i++) {
+            C2DPoint Centre = new C2DPoint(Rand.nextDouble() * 100000, Rand.nextDouble() * 100000);
+            Zones.add(new C2DHoledPolyBase(ShapeGenerator.CreateStar(i, Centre, 200 + Rand.nextDouble() * 400, 16, 0.3)));
+        }
+        Index = new C2DHoledPolyBaseRTree(Zones);
+
+        Points = ShapeGenerator.CreatePoints(12L, new C2DRect(0, 100000, 100000, 0), pointCount);
+    }
+
+    /**
+     * C2DHoledPolyBase.Contains(C2DPoint) on every zone for every point.
+     */
+    @Benchmark
+    public void LinearScan(Blackhole bh) {
+        int nFound = 0;
+        for (int i = 0; i < Points.size(); i++) {
+            C2DPoint pt = Points.get(i);
+            for (int j = 0; j < Zones.size(); j++) {
+                if (Zones.get(j).Contains(pt)) {
+                    nFound++;
+                    break;
+                }
+            }
+        }
+        bh.consume(nFound);
+    }
+
+    /**
+     * C2DHoledPolyBaseRTree.GetFirstContaining(C2DPoint) for every point.
+     */
+    @Benchmark
+    public void RTree(Blackhole bh) {
+        int nFound = 0;
+        for (int i = 0; i < Points.size(); i++) {
+            if (Index.GetFirstContaining(Points.get(i)) >= 0)
+                nFound++;
+        }
+        bh.consume(nFound);
+    }
+}
@@ -0,0 +1,80 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.CGrid;
+import uk.co.geolib.geopolygons.C2DHoledPolyBase;
+import uk.co.geolib.geopolygons.C2DHoledPolyBaseSet;
+import uk.co.geolib.geopolygons.C2DPolygon;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * C2DHoledPolyBaseSet unification of many small overlapping polygons, basic, progressive and parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PolygonUnifyBenchmark {
+    /**
+     * Number of polygons to unify.
+     */
+    @Param({"500", "5000"})
+    public int polygonCount;
+
+    /**
+     * Threads for the parallel unification.
+     */
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private C2DHoledPolyBaseSet Polys;
+
+    /**
+     * Builds the polygons scattered so that they form many separate clumps. The set is
+     * unified in place so it is built for every invocation.
+     */
+    @Setup(Level.Invocation)
+    public void Setup() {
+        Random rand = new Random(8L);
+        double dSpread = Math.sqrt(polygonCount) * 30;
+
+        Polys = new C2DHoledPolyBaseSet();
+        for (int i = 0; i < polygonCount; i++) {
+            C2DPoint Centre = new C2DPoint(rand.nextDouble() * dSpread, rand.nextDouble() * dSpread);
+            C2DPolygon Poly = ShapeGenerator.CreateStar(9L + i, Centre, 5 + rand.nextDouble() * 10, 12, 0.3);
+            C2DHoledPolyBase HoledPoly = new C2DHoledPolyBase();
+            HoledPoly.setRim(Poly);
+            Polys.add(HoledPoly);
+        }
+    }
+
+    /**
+     * UnifyBasic.
+     */
+    @Benchmark
+    public void UnifyBasic(Blackhole bh) {
+        Polys.UnifyBasic();
+        bh.consume(Polys.size());
+    }
+
+    /**
+     * UnifyProgressive.
+     */
+    @Benchmark
+    public void UnifyProgressive(Blackhole bh) {
+        Polys.UnifyProgressive(new CGrid());
+        bh.consume(Polys.size());
+    }
+
+    /**
+     * UnifyParallel.
+     */
+    @Benchmark
+    public void UnifyParallel(Blackhole bh) {
+        Polys.UnifyParallel(new CGrid(), parallelism);
+        bh.consume(Polys.size());
+    }
+}
@@ -0,0 +1,106 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geoprojections.Projection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projection of a batch of lat longs, one call at a time and with the array versions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectionBenchmark {
+    /**
+     * The projection class name.
+     */
+    @Param({"Mercator", "LambertConformalConic", "AlbersEqualAreaConic", "Sinusoidal", "Orthographic"})
+    public String projection;
+
+    /**
+     * Number of coordinates projected per invocation.
+     */
+    @Param({"10000"})
+    public int pointCount;
+
+    private Projection Proj;
+
+    private double[] Lat;
+
+    private double[] Long;
+
+    private double[] X;
+
+    private double[] Y;
+
+    private double[] SmallX;
+
+    private double[] SmallY;
+
+    /**
+     * Creates the projection and the coordinates.
+     */
+    @Setup
+    public void Setup() throws Exception {
+        Proj = (Projection) Class.forName("uk.co.geolib.geoprojections." + projection).newInstance();
+
+        Lat = new double[pointCount];
+        Long = new double[pointCount];
+        ShapeGenerator.CreateLatLongs(8L, 60, 170, Lat, Long);
+
+        X = new double[pointCount];
+        Y = new double[pointCount];
+        SmallX = new double[pointCount];
+        SmallY = new double[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            SmallX[i] = Long[i] * 0.01;
+            SmallY[i] = Lat[i] * 0.01;
+        }
+    }
+
+    /**
+     * Projection.Project one coordinate at a time for every coordinate, using the array version
+     * with a length of 1 as the scalar version does not return the result.
+     */
+    @Benchmark
+    public void Project(Blackhole bh) {
+        for (int i = 0; i < Lat.length; i++) {
+            Proj.Project(Lat, Long, X, Y, i, 1);
+            bh.consume(X[i]);
+            bh.consume(Y[i]);
+        }
+    }
+
+    /**
+     * Projection.InverseProject one coordinate at a time for every coordinate, using the array
+     * version with a length of 1 as the scalar version does not return the result.
+     */
+    @Benchmark
+    public void InverseProject(Blackhole bh) {
+        for (int i = 0; i < Lat.length; i++) {
+            Proj.InverseProject(SmallX, SmallY, Y, X, i, 1);
+            bh.consume(X[i]);
+            bh.consume(Y[i]);
+        }
+    }
+
+    /**
+     * Projection.Project(double[], double[], double[], double[], int, int) over all the coordinates.
+     */
+    @Benchmark
+    public double[] ProjectBatch() {
+        Proj.Project(Lat, Long, X, Y, 0, pointCount);
+        return X;
+    }
+
+    /**
+     * Projection.InverseProject(double[], double[], double[], double[], int, int) over all the coordinates.
+     */
+    @Benchmark
+    public double[] InverseProjectBatch() {
+        Proj.InverseProject(SmallX, SmallY, Y, X, 0, pointCount);
+        return X;
+    }
+}
@@ -0,0 +1,68 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DLineBaseSet;
+import uk.co.geolib.geolib.C2DLineBaseSetSet;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geopolygons.C2DPolygon;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * C2DLineBaseSetSet.MergeJoining and MergeJoiningHashed on the lines of a polygon broken into
+ * short routes, shuffled and some reversed, as left by the boolean operations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RouteMergeBenchmark {
+    /**
+     * Number of routes.
+     */
+    @Param({"1000", "10000"})
+    public int routeCount;
+
+    private C2DLineBaseSetSet Routes;
+
+    /**
+     * Builds the routes. They are merged in place so are built for every invocation.
+     */
+    @Setup(Level.Invocation)
+    public void Setup() {
+        Random rand = new Random(12L);
+        C2DPolygon Poly = ShapeGenerator.CreateStar(11L, new C2DPoint(1000, 1000), 500, routeCount * 3, 0.3);
+        C2DLineBaseSet Lines = Poly.getLines();
+
+        Routes = new C2DLineBaseSetSet();
+        for (int i = 0; i < Lines.size(); i += 3) {
+            C2DLineBaseSet Route = new C2DLineBaseSet();
+            for (int j = i; j < i + 3 && j < Lines.size(); j++)
+                Route.add(Lines.get(j).CreateCopy());
+            if (rand.nextBoolean())
+                Route.ReverseDirection();
+            Routes.add(Route);
+        }
+        Collections.shuffle(Routes, rand);
+    }
+
+    /**
+     * MergeJoining.
+     */
+    @Benchmark
+    public void MergeJoining(Blackhole bh) {
+        Routes.MergeJoining();
+        bh.consume(Routes.size());
+    }
+
+    /**
+     * MergeJoiningHashed.
+     */
+    @Benchmark
+    public void MergeJoiningHashed(Blackhole bh) {
+        Routes.MergeJoiningHashed();
+        bh.consume(Routes.size());
+    }
+}
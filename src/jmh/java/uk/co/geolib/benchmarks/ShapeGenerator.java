@@ -0,0 +1,168 @@
+package uk.co.geolib.benchmarks;
+
+import uk.co.geolib.geolib.*;
+import uk.co.geolib.geopolygons.C2DPolygon;
+
+import java.util.Random;
+
+/**
+ * Reproducible shape generators for the benchmarks. Every generator takes a seed so that
+ * two runs (or two builds) measure exactly the same geometry.
+ */
+public class ShapeGenerator {
+    /**
+     * Constructor.
+     */
+    private ShapeGenerator() {
+    }
+
+    /**
+     * Creates a random polygon using C2DPolygon.CreateRandom with the shared generator seeded.
+     * CreateRandom reorders to remove crossing lines so keep the point count modest.
+     *
+     * @param lSeed     The seed.
+     * @param Boundary  The boundary of the random shape.
+     * @param nVertices The number of vertices.
+     */
+    public static C2DPolygon CreateRandom(long lSeed, C2DRect Boundary, int nVertices) {
+        CRandomNumber.SetSeed(lSeed);
+
+        C2DPolygon Result = new C2DPolygon();
+        Result.CreateRandom(Boundary, nVertices, nVertices);
+        return Result;
+    }
+
+    /**
+     * Creates a regular polygon using C2DPolygon.CreateRegular.
+     *
+     * @param Centre    The centre.
+     * @param dRadius   The distance to each point.
+     * @param nVertices The number of vertices.
+     */
+    public static C2DPolygon CreateRegular(C2DPoint Centre, double dRadius, int nVertices) {
+        C2DPolygon Result = new C2DPolygon();
+        Result.CreateRegular(Centre, dRadius, nVertices);
+        return Result;
+    }
+
+    /**
+     * Creates a simple but concave star shaped polygon by taking the points of a regular
+     * polygon and moving each one a random distance towards the centre. Large vertex counts
+     * are cheap to create because no reordering is required.
+     *
+     * @param lSeed     The seed.
+     * @param Centre    The centre.
+     * @param dRadius   The outer radius.
+     * @param nVertices The number of vertices.
+     * @param dJitter   The maximum fraction of the radius each point can move in by (0 to 1).
+     */
+    public static C2DPolygon CreateStar(long lSeed, C2DPoint Centre, double dRadius, int nVertices,
+                                        double dJitter) {
+        C2DPolygon Regular = CreateRegular(Centre, dRadius, nVertices);
+
+        C2DPointSet Points = new C2DPointSet();
+        Regular.GetPointsCopy(Points);
+
+        Random rn = new Random(lSeed);
+        for (int i = 0; i < Points.size(); i++) {
+            C2DPoint pt = Points.get(i);
+            double dFactor = 1.0 - dJitter * rn.nextDouble();
+            pt.x = Centre.x + (pt.x - Centre.x) * dFactor;
+            pt.y = Centre.y + (pt.y - Centre.y) * dFactor;
+        }
+
+        return new C2DPolygon(Points, false);
+    }
+
+    /**
+     * Creates the centre for a second star of the same radius so that the pair overlap by roughly
+     * the ratio given. 0 is just touching, 1 is concentric.
+     *
+     * @param Centre        The centre of the first shape.
+     * @param dRadius       The radius of both shapes.
+     * @param dOverlapRatio The overlap ratio.
+     */
+    public static C2DPoint GetOverlappingCentre(C2DPoint Centre, double dRadius, double dOverlapRatio) {
+        double dSeparation = 2 * dRadius * (1.0 - dOverlapRatio);
+        // Go off at a slight angle so that vertices of the 2 shapes don't line up.
+        return new C2DPoint(Centre.x + dSeparation * 0.96, Centre.y + dSeparation * 0.28);
+    }
+
+    /**
+     * Creates a set of uniformly distributed random points.
+     *
+     * @param lSeed    The seed.
+     * @param Boundary The rectangle to fill.
+     * @param nPoints  The number of points.
+     */
+    public static C2DPointSet CreatePoints(long lSeed, C2DRect Boundary, int nPoints) {
+        Random rn = new Random(lSeed);
+        C2DPointSet Result = new C2DPointSet();
+        double dWidth = Boundary.Width();
+        double dHeight = Boundary.Height();
+        for (int i = 0; i < nPoints; i++) {
+            Result.add(new C2DPoint(Boundary.GetLeft() + rn.nextDouble() * dWidth,
+                    Boundary.GetBottom() + rn.nextDouble() * dHeight));
+        }
+        return Result;
+    }
+
+    /**
+     * Creates a set of random points on the line y = 3x + 2, which rounding leaves just off it,
+     * to test the hull and calipers where the orientation of 3 points is too close to call in
+     * floating point.
+     *
+     * @param lSeed   The seed.
+     * @param dLength The largest x.
+     * @param nPoints The number of points.
+     */
+    public static C2DPointSet CreateNearlyCollinearPoints(long lSeed, double dLength, int nPoints) {
+        Random rn = new Random(lSeed);
+        C2DPointSet Result = new C2DPointSet();
+        for (int i = 0; i < nPoints; i++) {
+            double x = rn.nextDouble() * dLength;
+            Result.add(new C2DPoint(x, 3 * x + 2));
+        }
+        return Result;
+    }
+
+    /**
+     * Creates a set of random straight lines, like a dense road network.
+     *
+     * @param lSeed      The seed.
+     * @param Boundary   The rectangle to fill.
+     * @param nLines     The number of lines.
+     * @param dMaxLength The maximum length of each line.
+     */
+    public static C2DLineBaseSet CreateLines(long lSeed, C2DRect Boundary, int nLines, double dMaxLength) {
+        Random rn = new Random(lSeed);
+        C2DLineBaseSet Result = new C2DLineBaseSet();
+        double dWidth = Boundary.Width();
+        double dHeight = Boundary.Height();
+        for (int i = 0; i < nLines; i++) {
+            C2DPoint ptFrom = new C2DPoint(Boundary.GetLeft() + rn.nextDouble() * dWidth,
+                    Boundary.GetBottom() + rn.nextDouble() * dHeight);
+            double dAngle = rn.nextDouble() * Constants.conTWOPI;
+            double dLength = rn.nextDouble() * dMaxLength;
+            Result.add(new C2DLine(ptFrom, new C2DVector(Math.sin(dAngle) * dLength, Math.cos(dAngle) * dLength)));
+        }
+        return Result;
+    }
+
+    /**
+     * Creates latitude and longitude arrays in degrees covering the range given.
+     *
+     * @param lSeed    The seed.
+     * @param dMaxLat  The maximum absolute latitude in degrees.
+     * @param dMaxLong The maximum absolute longitude in degrees.
+     * @param Lat      Output. The latitudes.
+     * @param Long     Output. The longitudes.
+     */
+    public static void CreateLatLongs(long lSeed, double dMaxLat, double dMaxLong, double[] Lat, double[] Long) {
+        Random rn = new Random(lSeed);
+        for (int i = 0; i < Lat.length; i++) {
+            Lat[i] = (rn.nextDouble() * 2 - 1) * dMaxLat;
+            Long[i] = (rn.nextDouble() * 2 - 1) * dMaxLong;
+        }
+    }
+}
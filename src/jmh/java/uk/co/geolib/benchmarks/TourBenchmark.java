@@ -0,0 +1,73 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DPointSet;
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geolib.CTourOptimiser;
+import uk.co.geolib.geolib.CTravellingSalesman;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route optimisation through random stops with CTravellingSalesman and CTourOptimiser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TourBenchmark {
+    /**
+     * Number of stops.
+     */
+    @Param({"1000", "5000", "50000"})
+    public int stopCount;
+
+    private C2DPointSet Stops;
+
+    private CTourOptimiser Optimiser;
+
+    /**
+     * Builds the stops.
+     */
+    @Setup
+    public void Setup() {
+        C2DRect Boundary = new C2DRect(0, 1000, 1000, 0);
+        Stops = ShapeGenerator.CreatePoints(13L, Boundary, stopCount);
+        Optimiser = new CTourOptimiser(Stops);
+    }
+
+    /**
+     * CTravellingSalesman.Optimize.
+     */
+    @Benchmark
+    public void Optimize(Blackhole bh) {
+        CTravellingSalesman Route = new CTravellingSalesman();
+        Route.addAll(Stops);
+        Route.Optimize();
+        bh.consume(Route);
+    }
+
+    /**
+     * CTourOptimiser.Optimize on a closed tour in the order the stops were made.
+     */
+    @Benchmark
+    public void OptimizeClosedTour(Blackhole bh) {
+        int[] Tour = new int[stopCount];
+        for (int i = 0; i < stopCount; i++)
+            Tour[i] = i;
+        bh.consume(Optimiser.Optimize(Tour));
+    }
+
+    /**
+     * CTourOptimiser.OptimizeIterated for a fixed number of iterations on one thread.
+     */
+    @Benchmark
+    public void OptimizeIterated(Blackhole bh) {
+        int[] Tour = new int[stopCount];
+        for (int i = 0; i < stopCount; i++)
+            Tour[i] = i;
+        Optimiser.setParallelism(1);
+        Optimiser.setIterationLimit(1000);
+        bh.consume(Optimiser.OptimizeIterated(Tour, null));
+    }
+}
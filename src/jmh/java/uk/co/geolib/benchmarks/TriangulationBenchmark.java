@@ -0,0 +1,78 @@
+package uk.co.geolib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.CTriangleMesh;
+import uk.co.geolib.geopolygons.C2DPolygon;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Triangulation of star shaped polygons and convex decomposition, by the old
+ * C2DPolygon.CreateConvexSubAreas and from the triangulation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TriangulationBenchmark {
+    /**
+     * Number of vertices.
+     */
+    @Param({"1000", "100000"})
+    public int vertexCount;
+
+    private C2DPolygon Polygon;
+
+    private CTriangleMesh Mesh;
+
+    /**
+     * Builds the polygon and a triangulation of it.
+     */
+    @Setup
+    public void Setup() {
+        Polygon = ShapeGenerator.CreateStar(23L, new C2DPoint(0, 0), 1000, vertexCount, 0.5);
+        Mesh = new CTriangleMesh();
+        Polygon.Triangulate(Mesh, false);
+    }
+
+    /**
+     * C2DPolygon.Triangulate.
+     */
+    @Benchmark
+    public void Triangulate(Blackhole bh) {
+        CTriangleMesh Result = new CTriangleMesh();
+        Polygon.Triangulate(Result, false);
+        bh.consume(Result);
+    }
+
+    /**
+     * C2DPolygon.Triangulate followed by CTriangleMesh.MakeDelaunay.
+     */
+    @Benchmark
+    public void TriangulateDelaunay(Blackhole bh) {
+        CTriangleMesh Result = new CTriangleMesh();
+        Polygon.Triangulate(Result, true);
+        bh.consume(Result);
+    }
+
+    /**
+     * CTriangleMesh.GetConvexPolygons.
+     */
+    @Benchmark
+    public void GetConvexPolygons(Blackhole bh) {
+        ArrayList<ArrayList<Integer>> Pieces = new ArrayList<ArrayList<Integer>>();
+        Mesh.GetConvexPolygons(Pieces);
+        bh.consume(Pieces);
+    }
+
+    /**
+     * C2DPolygon.CreateConvexSubAreasByTriangulation.
+     */
+    @Benchmark
+    public void CreateConvexSubAreasByTriangulation(Blackhole bh) {
+        C2DPolygon Copy = new C2DPolygon(Polygon);
+        bh.consume(Copy.CreateConvexSubAreasByTriangulation());
+    }
+}
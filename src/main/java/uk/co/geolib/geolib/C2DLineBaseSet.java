@@ -237,6 +237,39 @@ public class C2DLineBaseSet extends ArrayList<C2DLineBase> {
 
     }
 
+    /**
+     * Returns the intersections within the set as GetIntersections but using a sweep line.
+     * Faster for large sets, especially with long lines.
+     *
+     * @param pPoints   Output. The point set.
+     * @param pIndexes1 Output. The indexes.
+     * @param pIndexes2 Output. The indexes.
+     */
+    public void GetIntersectionsSweep(ArrayList<C2DPoint> pPoints, ArrayList<Integer> pIndexes1,
+                                      ArrayList<Integer> pIndexes2) {
+        CSweepLineIntersector Intersector = new CSweepLineIntersector();
+        Intersector.GetIntersections(this, pPoints, pIndexes1, pIndexes2);
+    }
+
+    /**
+     * Returns the intersections with this set and the other as GetIntersections but using a
+     * sweep line. Faster for large sets, especially with long lines.
+     *
+     * @param Other              Input. The other line set.
+     * @param pPoints            Output. The intersection points.
+     * @param pIndexesThis       Output. The indexes for this.
+     * @param pIndexesOther      Output. The indexes for the other set.
+     * @param pBoundingRectThis  Input. The bounding rect for this.
+     * @param pBoundingRectOther Input. The bounding rect for the other.
+     */
+    public void GetIntersectionsSweep(ArrayList<C2DLineBase> Other, ArrayList<C2DPoint> pPoints,
+                                      ArrayList<Integer> pIndexesThis, ArrayList<Integer> pIndexesOther,
+                                      C2DRect pBoundingRectThis, C2DRect pBoundingRectOther) {
+        CSweepLineIntersector Intersector = new CSweepLineIntersector();
+        Intersector.GetIntersections(this, Other, pPoints, pIndexesThis, pIndexesOther,
+                pBoundingRectThis, pBoundingRectOther);
+    }
+
     /**
      * True if there are crossing lines within the set.
      */
@@ -0,0 +1,160 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+
+/**
+ * A rectangle which is not necessarily horizontal. It is defined by its centre, a unit vector
+ * along its length and the length and width, the width being measured at right angles to the
+ * length.
+ */
+public class C2DOrientedRect {
+    /**
+     * Constructor.
+     */
+    public C2DOrientedRect() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param Other The rectangle to copy.
+     */
+    public C2DOrientedRect(C2DOrientedRect Other) {
+        Set(Other);
+    }
+
+    /**
+     * Sets to a copy of the other.
+     *
+     * @param Other The rectangle to copy.
+     */
+    public void Set(C2DOrientedRect Other) {
+        Centre.Set(Other.Centre);
+        Axis.Set(Other.Axis);
+        Length = Other.Length;
+        Width = Other.Width;
+    }
+
+    /**
+     * Sets the rectangle.
+     *
+     * @param NewCentre The centre.
+     * @param NewAxis   The direction of the length. Need not be a unit vector.
+     * @param dLength   The length along the axis.
+     * @param dWidth    The width at right angles to the axis.
+     */
+    public void Set(C2DPoint NewCentre, C2DVector NewAxis, double dLength, double dWidth) {
+        Centre.Set(NewCentre);
+        Axis.Set(NewAxis);
+        Axis.SetLength(1);
+        Length = dLength;
+        Width = dWidth;
+    }
+
+    /**
+     * Sets to an empty rectangle at the origin.
+     */
+    public void Clear() {
+        Centre.Set(0, 0);
+        Axis.Set(1, 0);
+        Length = 0;
+        Width = 0;
+    }
+
+    /**
+     * The area.
+     */
+    public double GetArea() {
+        return Length * Width;
+    }
+
+    /**
+     * The perimeter.
+     */
+    public double GetPerimeter() {
+        return 2 * (Length + Width);
+    }
+
+    /**
+     * The angle of the axis from north, clockwise.
+     */
+    public double GetAngleFromNorth() {
+        return Axis.AngleFromNorth();
+    }
+
+    /**
+     * Adds the 4 corners to the set, clockwise.
+     *
+     * @param Corners Output. The corners.
+     */
+    public void GetCorners(ArrayList<C2DPoint> Corners) {
+        double dLengthX = Axis.i * Length / 2;
+        double dLengthY = Axis.j * Length / 2;
+        // At right angles to the right of the axis.
+        double dWidthX = Axis.j * Width / 2;
+        double dWidthY = -Axis.i * Width / 2;
+
+        Corners.add(new C2DPoint(Centre.x - dLengthX - dWidthX, Centre.y - dLengthY - dWidthY));
+        Corners.add(new C2DPoint(Centre.x + dLengthX - dWidthX, Centre.y + dLengthY - dWidthY));
+        Corners.add(new C2DPoint(Centre.x + dLengthX + dWidthX, Centre.y + dLengthY + dWidthY));
+        Corners.add(new C2DPoint(Centre.x - dLengthX + dWidthX, Centre.y - dLengthY + dWidthY));
+    }
+
+    /**
+     * Gets the line along one long side with the rest of the rectangle to its right. This is
+     * the side along the axis unless the width is greater than the length.
+     *
+     * @param Line Output. The line.
+     */
+    public void GetLine(C2DLine Line) {
+        ArrayList<C2DPoint> Corners = new ArrayList<C2DPoint>();
+        GetCorners(Corners);
+        if (Length >= Width)
+            Line.Set(Corners.get(0), Corners.get(1));
+        else
+            Line.Set(Corners.get(3), Corners.get(0));
+    }
+
+    /**
+     * True if the point is in the rectangle or on its edge.
+     *
+     * @param pt The point.
+     */
+    public boolean Contains(C2DPoint pt) {
+        double dx = pt.x - Centre.x;
+        double dy = pt.y - Centre.y;
+        return Math.abs(dx * Axis.i + dy * Axis.j) <= Length / 2 &&
+                Math.abs(dx * Axis.j - dy * Axis.i) <= Width / 2;
+    }
+
+    /**
+     * Gets the horizontal bounding rectangle.
+     *
+     * @param Rect Output. The bounding rectangle.
+     */
+    public void GetBoundingRect(C2DRect Rect) {
+        double dHalfWidth = (Math.abs(Axis.i) * Length + Math.abs(Axis.j) * Width) / 2;
+        double dHalfHeight = (Math.abs(Axis.j) * Length + Math.abs(Axis.i) * Width) / 2;
+        Rect.Set(Centre.x - dHalfWidth, Centre.y + dHalfHeight, Centre.x + dHalfWidth, Centre.y - dHalfHeight);
+    }
+
+    /**
+     * The centre.
+     */
+    public C2DPoint Centre = new C2DPoint();
+
+    /**
+     * The unit vector along the length.
+     */
+    public C2DVector Axis = new C2DVector(1, 0);
+
+    /**
+     * The length along the axis.
+     */
+    public double Length = 0;
+
+    /**
+     * The width at right angles to the axis.
+     */
+    public double Width = 0;
+}
@@ -239,21 +239,34 @@ public class C2DPoint extends C2DBase {
      * @param Other The other point.
      */
     public boolean PointEqualTo(C2DPoint Other) {
+        return PointEqualTo(x, y, Other.x, Other.y);
+    }
+
+    /**
+     * Equality test on raw coordinates which is the same as PointEqualTo for a point at x, y and
+     * another at dOtherX, dOtherY. The tolerance is relative to the first point.
+     *
+     * @param x       The x of the first point.
+     * @param y       The y of the first point.
+     * @param dOtherX The x of the other point.
+     * @param dOtherY The y of the other point.
+     */
+    public static boolean PointEqualTo(double x, double y, double dOtherX, double dOtherY) {
         boolean bxClose;
         boolean byClose;
 
         if (x == 0)
-            bxClose = Other.x == 0;
+            bxClose = dOtherX == 0;
         else
-            bxClose = Math.abs((Other.x - x) / x) < Constants.conEqualityTolerance;
+            bxClose = Math.abs((dOtherX - x) / x) < Constants.conEqualityTolerance;
 
         if (!bxClose)
             return false;        // Get out early if we can.
 
         if (y == 0)
-            byClose = Other.y == 0;
+            byClose = dOtherY == 0;
         else
-            byClose = Math.abs((Other.y - y) / y) < Constants.conEqualityTolerance;
+            byClose = Math.abs((dOtherY - y) / y) < Constants.conEqualityTolerance;
 
         return (byClose);        // We know x is close.
     }
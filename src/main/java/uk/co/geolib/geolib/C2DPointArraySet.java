@@ -0,0 +1,537 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A set of points held as 2 arrays of coordinates rather than as C2DPoint objects, for large
+ * point clouds. It takes around a third of the memory of a C2DPointSet and the points are
+ * contiguous. The sorts work on a permutation of indexes sorted by primitive keys and give the
+ * same order as the equivalent C2DPointSet sort. The other operations give the same results
+ * as C2DPointSet.
+ */
+public class C2DPointArraySet {
+    /**
+     * Constructor.
+     */
+    public C2DPointArraySet() {
+        this(const_nDefaultCapacity);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param nCapacity The initial number of points there is room for.
+     */
+    public C2DPointArraySet(int nCapacity) {
+        nCapacity = Math.max(1, nCapacity);
+        xs = new double[nCapacity];
+        ys = new double[nCapacity];
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param Points The points to copy.
+     */
+    public C2DPointArraySet(ArrayList<C2DPoint> Points) {
+        this(Points.size());
+        AddCopy(Points);
+    }
+
+    /**
+     * The number of points.
+     */
+    public int size() {
+        return Count;
+    }
+
+    /**
+     * Removes all the points.
+     */
+    public void clear() {
+        Count = 0;
+    }
+
+    /**
+     * The x coordinate of the point at the index given.
+     *
+     * @param nIndex The index.
+     */
+    public double GetX(int nIndex) {
+        assert nIndex < Count;
+        return xs[nIndex];
+    }
+
+    /**
+     * The y coordinate of the point at the index given.
+     *
+     * @param nIndex The index.
+     */
+    public double GetY(int nIndex) {
+        assert nIndex < Count;
+        return ys[nIndex];
+    }
+
+    /**
+     * The array of x coordinates, of which the first size() are used.
+     */
+    double[] GetXs() {
+        return xs;
+    }
+
+    /**
+     * The array of y coordinates, of which the first size() are used.
+     */
+    double[] GetYs() {
+        return ys;
+    }
+
+    /**
+     * Returns a new point for the index given.
+     *
+     * @param nIndex The index.
+     */
+    public C2DPoint GetPoint(int nIndex) {
+        assert nIndex < Count;
+        return new C2DPoint(xs[nIndex], ys[nIndex]);
+    }
+
+    /**
+     * Sets the point at the index given.
+     *
+     * @param nIndex The index.
+     * @param x      The x coordinate.
+     * @param y      The y coordinate.
+     */
+    public void Set(int nIndex, double x, double y) {
+        assert nIndex < Count;
+        xs[nIndex] = x;
+        ys[nIndex] = y;
+    }
+
+    /**
+     * Adds a point.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     */
+    public void Add(double x, double y) {
+        if (Count == xs.length) {
+            xs = Arrays.copyOf(xs, Count * 2);
+            ys = Arrays.copyOf(ys, Count * 2);
+        }
+        xs[Count] = x;
+        ys[Count] = y;
+        Count++;
+    }
+
+    /**
+     * Adds a copy of the point.
+     *
+     * @param P1 The point.
+     */
+    public void AddCopy(C2DPoint P1) {
+        Add(P1.x, P1.y);
+    }
+
+    /**
+     * Adds a copy of the point set.
+     *
+     * @param Other The point set.
+     */
+    public void AddCopy(ArrayList<C2DPoint> Other) {
+        for (int i = 0; i < Other.size(); i++)
+            Add(Other.get(i).x, Other.get(i).y);
+    }
+
+    /**
+     * Extracts all of the other set.
+     *
+     * @param Other The other set.
+     */
+    public void ExtractAllOf(C2DPointArraySet Other) {
+        for (int i = 0; i < Other.Count; i++)
+            Add(Other.xs[i], Other.ys[i]);
+        Other.clear();
+    }
+
+    /**
+     * Removes the point at the index given, keeping the order of the rest.
+     *
+     * @param nIndex The index.
+     */
+    public void Remove(int nIndex) {
+        assert nIndex < Count;
+        System.arraycopy(xs, nIndex + 1, xs, nIndex, Count - nIndex - 1);
+        System.arraycopy(ys, nIndex + 1, ys, nIndex, Count - nIndex - 1);
+        Count--;
+    }
+
+    /**
+     * Adds new points for all those in this to the set given.
+     *
+     * @param Points Output. The points.
+     */
+    public void GetPointsCopy(ArrayList<C2DPoint> Points) {
+        Points.ensureCapacity(Points.size() + Count);
+        for (int i = 0; i < Count; i++)
+            Points.add(new C2DPoint(xs[i], ys[i]));
+    }
+
+    /**
+     * Gets the bounding rectangle.
+     *
+     * @param Rect Ouput. The Rect.
+     */
+    public void GetBoundingRect(C2DRect Rect) {
+        if (Count == 0) {
+            Rect.Clear();
+            return;
+        }
+
+        double dLeft = xs[0];
+        double dRight = xs[0];
+        double dBottom = ys[0];
+        double dTop = ys[0];
+
+        for (int i = 1; i < Count; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            if (x < dLeft)
+                dLeft = x;
+            else if (x > dRight)
+                dRight = x;
+            if (y < dBottom)
+                dBottom = y;
+            else if (y > dTop)
+                dTop = y;
+        }
+
+        Rect.Set(dLeft, dTop, dRight, dBottom);
+    }
+
+    /**
+     * Gets the minimum bounding circle. Uses Welzl's algorithm, see CMinEnclosingCircle.
+     *
+     * @param Circle Ouput. The Circle.
+     */
+    public void GetBoundingCircle(C2DCircle Circle) {
+        if (size() == 0) {
+            assert false : "Point set with no points. Cannot calculate bounding circle.";
+            return;
+        }
+
+        new CMinEnclosingCircle().GetCircle(this, Circle);
+    }
+
+    /**
+     * Gets the points that are furthest apart as an estimate.
+     *
+     * @param nIndx1    Ouput. The first index.
+     * @param nIndx2    Ouput. The second index.
+     * @param dDist     Ouput. The distance between.
+     * @param nStartEst Input. The guess at one of the points.
+     */
+    public void GetExtremePointsEst(GeoInteger nIndx1, GeoInteger nIndx2,
+                                    GeoDouble dDist, int nStartEst) {
+        if (Count < 3) {
+            nIndx1.value = 0;
+            nIndx2.value = Count == 2 ? 1 : 0;
+            assert Count > 0 : "Point set with no points. Cannot calculate extreme points.";
+            return;
+        }
+
+        nIndx1.value = nStartEst;
+        nIndx2.value = GetFurthestPoint(nIndx1.value, dDist);
+
+        while (true) {
+            int nIndx3 = GetFurthestPoint(nIndx2.value, dDist);
+            if (nIndx3 == nIndx1.value) {
+                return;
+            } else {
+                nIndx1.value = nIndx2.value;
+                nIndx2.value = nIndx3;
+            }
+        }
+    }
+
+    /**
+     * Gets the points that are furthest apart. Uses rotating calipers round the convex hull,
+     * see CRotatingCalipers.
+     *
+     * @param nIndx1 Ouput. The first index.
+     * @param nIndx2 Ouput. The second index.
+     * @param dDist  Ouput. The distance.
+     */
+    public void GetExtremePoints(GeoInteger nIndx1, GeoInteger nIndx2,
+                                 GeoDouble dDist) {
+        if (Count < 3) {
+            GetExtremePointsEst(nIndx1, nIndx2, dDist, 0);
+            return;
+        }
+
+        CRotatingCalipers Calipers = new CRotatingCalipers();
+        Calipers.Create(this);
+        dDist.value = Calipers.GetDiameter(nIndx1, nIndx2);
+    }
+
+    /**
+     * Returns the index of the furthest point from the point specified by the
+     * index given.
+     *
+     * @param nIndex Input. The index.
+     * @param dDist  Ouput. The distance.
+     */
+    int GetFurthestPoint(int nIndex, GeoDouble dDist) {
+        if (Count < 2 || nIndex >= Count)
+            return 0;
+
+        int nResult = nIndex == 0 ? 1 : 0;
+        dDist.value = Distance(nResult, nIndex);
+
+        for (int i = 1; i < Count; i++) {
+            if (i != nIndex) {
+                double dD = Distance(i, nIndex);
+                if (dD > dDist.value) {
+                    dDist.value = dD;
+                    nResult = i;
+                }
+            }
+        }
+
+        return nResult;
+    }
+
+    /**
+     * Removes the convex hull from the point set given, the same as
+     * C2DPointSet.ExtractConvexHull. Will affect the input set.
+     *
+     * @param Other The other set.
+     */
+    public void ExtractConvexHull(C2DPointArraySet Other) {
+        clear();
+
+        if (Other.Count < 4) {
+            this.ExtractAllOf(Other);
+            return;
+        }
+
+        // Find left most
+        int nLeftMost = 0;
+        for (int i = 1; i < Other.Count; i++) {
+            if (Other.xs[i] < Other.xs[nLeftMost])
+                nLeftMost = i;
+        }
+
+        Add(Other.xs[nLeftMost], Other.ys[nLeftMost]);
+        Other.Remove(nLeftMost);
+
+        Other.SortByAngleFromNorth(xs[0], ys[0]);
+
+        // Always add the left most and the first of the rest.
+        Add(Other.xs[0], Other.ys[0]);
+
+        // The rest are taken from the front of the sorted set in turn.
+        C2DPointArraySet Unused = new C2DPointArraySet();
+        int nNext = 1;
+
+        while (nNext < Other.Count) {
+            int nLast = Count - 1;
+            double dLastAngle = AngleFromNorth(xs[nLast] - xs[nLast - 1], ys[nLast] - ys[nLast - 1]);
+            double dAng = AngleFromNorth(Other.xs[nNext] - xs[nLast], Other.ys[nNext] - ys[nLast]);
+
+            if (dAng < dLastAngle) {
+                Unused.Add(xs[nLast], ys[nLast]);
+                Count--;
+            } else {
+                Add(Other.xs[nNext], Other.ys[nNext]);
+                nNext++;
+            }
+        }
+
+        Other.clear();
+        Other.ExtractAllOf(Unused);
+    }
+
+    /**
+     * Removes all repeated points, keeping the first of each. The same as
+     * C2DPointSet.RemoveRepeatedPoints.
+     */
+    public void RemoveRepeatedPoints() {
+        if (Count < 2)
+            return;
+
+        boolean[] Removed = new CPointGridHash(xs, ys, Count).FindRepeated();
+
+        int nNewCount = 0;
+        for (int i = 0; i < Count; i++) {
+            if (!Removed[i]) {
+                xs[nNewCount] = xs[i];
+                ys[nNewCount] = ys[i];
+                nNewCount++;
+            }
+        }
+        Count = nNewCount;
+    }
+
+    /**
+     * Sorts by distance to the point.
+     *
+     * @param pt Input. The point.
+     */
+    public void SortByDistance(C2DPoint pt) {
+        double[] Keys = new double[Count];
+        for (int i = 0; i < Count; i++) {
+            double dXD = xs[i] - pt.x;
+            double dYD = ys[i] - pt.y;
+            Keys[i] = Math.sqrt(dXD * dXD + dYD * dYD);
+        }
+        SortByKeys(Keys);
+    }
+
+    /**
+     * Sorts left to right.
+     */
+    public void SortLeftToRight() {
+        SortByKeys(Arrays.copyOf(xs, Count));
+    }
+
+    /**
+     * Sorts by the angle from north relative to the origin given.
+     *
+     * @param Origin The origin.
+     */
+    public void SortByAngleFromNorth(C2DPoint Origin) {
+        SortByAngleFromNorth(Origin.x, Origin.y);
+    }
+
+    /**
+     * Sorts by the angle from north relative to the origin given.
+     */
+    private void SortByAngleFromNorth(double dOriginX, double dOriginY) {
+        double[] Keys = new double[Count];
+        for (int i = 0; i < Count; i++)
+            Keys[i] = AngleFromNorth(xs[i] - dOriginX, ys[i] - dOriginY);
+        SortByKeys(Keys);
+    }
+
+    /**
+     * Sorts the points by the keys given, one for each point. Equal keys keep their order.
+     */
+    private void SortByKeys(double[] Keys) {
+        int[] Order = GetIdentityOrder();
+        SortIndexes(Order, Keys, Count);
+
+        double[] NewXs = new double[xs.length];
+        double[] NewYs = new double[ys.length];
+        for (int i = 0; i < Count; i++) {
+            NewXs[i] = xs[Order[i]];
+            NewYs[i] = ys[Order[i]];
+        }
+        xs = NewXs;
+        ys = NewYs;
+    }
+
+    /**
+     * Returns the indexes of the points in order.
+     */
+    private int[] GetIdentityOrder() {
+        int[] Order = new int[Count];
+        for (int i = 0; i < Count; i++)
+            Order[i] = i;
+        return Order;
+    }
+
+    /**
+     * Distance between 2 points in the set.
+     */
+    private double Distance(int nIndex1, int nIndex2) {
+        double dXD = xs[nIndex1] - xs[nIndex2];
+        double dYD = ys[nIndex1] - ys[nIndex2];
+        return Math.sqrt(dXD * dXD + dYD * dYD);
+    }
+
+    /**
+     * The angle from north of the vector given, the same as C2DVector.AngleFromNorth.
+     */
+    private static double AngleFromNorth(double i, double j) {
+        if (j == 0) {
+            if (i > 0)
+                return Constants.conHALFPI;
+            else
+                return 3 * Constants.conHALFPI;
+        }
+        if (i == 0) {
+            if (j > 0)
+                return 0;
+            else
+                return Constants.conPI;
+        }
+
+        double ang = Math.atan(i / j);
+
+        if (j < 0) ang += Constants.conPI;
+        else if (i < 0) ang += 2 * Constants.conPI;
+
+        return ang;
+    }
+
+    /**
+     * Stable merge sort of the first nCount indexes by the key for each index.
+     */
+    private static void SortIndexes(int[] Order, double[] Keys, int nCount) {
+        int[] Temp = new int[nCount];
+        MergeSort(Order, Temp, Keys, 0, nCount);
+    }
+
+    /**
+     * Merge sort helper sorting Order from nStart to before nEnd, using Temp.
+     */
+    private static void MergeSort(int[] Order, int[] Temp, double[] Keys, int nStart, int nEnd) {
+        if (nEnd - nStart <= const_nInsertionSortSize) {
+            for (int i = nStart + 1; i < nEnd; i++) {
+                int nIndex = Order[i];
+                double dKey = Keys[nIndex];
+                int j = i - 1;
+                while (j >= nStart && Keys[Order[j]] > dKey) {
+                    Order[j + 1] = Order[j];
+                    j--;
+                }
+                Order[j + 1] = nIndex;
+            }
+            return;
+        }
+
+        int nMid = (nStart + nEnd) >>> 1;
+        MergeSort(Order, Temp, Keys, nStart, nMid);
+        MergeSort(Order, Temp, Keys, nMid, nEnd);
+
+        // Already in order.
+        if (Keys[Order[nMid - 1]] <= Keys[Order[nMid]])
+            return;
+
+        System.arraycopy(Order, nStart, Temp, nStart, nEnd - nStart);
+        int i = nStart;
+        int j = nMid;
+        int k = nStart;
+        while (i < nMid && j < nEnd)
+            Order[k++] = Keys[Temp[j]] < Keys[Temp[i]] ? Temp[j++] : Temp[i++];
+        while (i < nMid)
+            Order[k++] = Temp[i++];
+        while (j < nEnd)
+            Order[k++] = Temp[j++];
+    }
+
+    private static final int const_nDefaultCapacity = 16;
+
+    private static final int const_nInsertionSortSize = 16;
+
+    /**
+     * The coordinates. Only the first Count are used.
+     */
+    private double[] xs;
+    private double[] ys;
+
+    private int Count = 0;
+}
@@ -181,69 +181,27 @@ public class C2DPointSet extends ArrayList<C2DPoint> {
     }
 
     /**
-     * Gets the minimum bounding circle.
+     * Gets the minimum bounding circle. Uses Welzl's algorithm, see CMinEnclosingCircle.
      *
      * @param Circle Ouput. The Circle.
      */
     public void GetBoundingCircle(C2DCircle Circle) {
-        if (this.size() < 3) {
-            if (this.size() == 2) {
-                Circle.SetMinimum(this.get(0), this.get(1));
-            } else if (this.size() == 1) {
-                Circle.Set(this.get(0), 0);
-            } else {
-                assert false : "Point set with no points. Cannot calculate bounding circle.";
-            }
+        if (size() == 0) {
+            assert false : "Point set with no points. Cannot calculate bounding circle.";
             return;
         }
 
-        GeoInteger nIndx1 = new GeoInteger(0);
-        GeoInteger nIndx2 = new GeoInteger(0);
-        GeoInteger nIndx3 = new GeoInteger(0);
-        GeoDouble dDist = new GeoDouble(0.0);
-
-        // First get the points that are furthest away from each other.
-        GetExtremePoints(nIndx1, nIndx2, dDist);
-        // Set the circle to bound these.
-        Circle.SetMinimum(this.get(nIndx1.value), this.get(nIndx2.value));
-        // Set up a flag to show if we are circumscibed. (Once we are, we always will be).
-        boolean bCircum = false;
-        // Cycle through and if any points aren't in the circle, then set the circle to be circumscribed.
-        for (int i = 0; i < size(); i++) {
-            if (i != nIndx1.value && i != nIndx2.value) {
-                if (!Circle.Contains(this.get(i))) {
-                    nIndx3.value = i;
-                    Circle.SetCircumscribed(this.get(nIndx1.value), this.get(nIndx2.value), this.get(nIndx3.value));
-                    bCircum = true;
-                    // Break out and try again.
-                    break;
-                }
-            }
-        }
+        new CMinEnclosingCircle().GetCircle(this, Circle);
+    }
 
-        // If we didn't succeed first time then go through again setting it to be circumscribed every time.
-        if (bCircum) {
-            for (int i = 0; i < size(); i++) {
-                if (i != nIndx1.value && i != nIndx2.value && i != nIndx3.value) {
-                    if (!Circle.Contains(this.get(i))) {
-                        double Dist1 = this.get(i).Distance(this.get(nIndx1.value));
-                        double Dist2 = this.get(i).Distance(this.get(nIndx2.value));
-                        double Dist3 = this.get(i).Distance(this.get(nIndx3.value));
-                        if (Dist1 < Dist2 && Dist1 < Dist3) {
-                            // Closest to point 1 so elimitate this
-                            nIndx1.value = i;
-                        } else if (Dist2 < Dist3) {
-                            // Closest to point 2 so elimitate this
-                            nIndx2.value = i;
-                        } else {
-                            // Closest to point 3 so elimitate this
-                            nIndx3.value = i;
-                        }
-                        Circle.SetCircumscribed(this.get(nIndx1.value), this.get(nIndx2.value), this.get(nIndx3.value));
-                    }
-                }
-            }
-        }
+    /**
+     * Gets the Delaunay triangulation of the points, see CDelaunayTriangulator. The vertices of
+     * the mesh are the points in order.
+     *
+     * @param Mesh Output. The triangles.
+     */
+    public void GetDelaunayTriangulation(CTriangleMesh Mesh) {
+        new CDelaunayTriangulator().Triangulate(this, Mesh);
     }
 
     /**
@@ -291,7 +249,8 @@ public class C2DPointSet extends ArrayList<C2DPoint> {
     }
 
     /**
-     * Gets the points that are furthest apart.
+     * Gets the points that are furthest apart. Uses rotating calipers round the convex hull,
+     * see CRotatingCalipers, unless the points are all in a line.
      *
      * @param nIndx1 Ouput. The first index.
      * @param nIndx2 Ouput. The second index.
@@ -299,50 +258,48 @@ public class C2DPointSet extends ArrayList<C2DPoint> {
      */
     public void GetExtremePoints(GeoInteger nIndx1, GeoInteger nIndx2,
                                  GeoDouble dDist) {
-        // First take a guess at them.
-        GetExtremePointsEst(nIndx1, nIndx2, dDist, 0);
-
-        // Set up a circle to bound the 2 guesses.
-        C2DVector Vec = new C2DVector(this.get(nIndx1.value), this.get(nIndx2.value));
-        Vec.Multiply(0.5);
-        C2DCircle Circle = new C2DCircle(C2DPoint.Add(this.get(nIndx1.value), new C2DPoint(Vec)), dDist.value / 2);
-
-        // Now, if the guess was wrong, there must be a point outside the circle which is part of
-        // the right solution. Go through all these, check and reset the result each time.
-        for (int i = 0; i < size(); i++) {
-            if (i != nIndx1.value && i != nIndx2.value) {
-                if (!Circle.Contains(this.get(i))) {
-                    GeoDouble dDistCheck = new GeoDouble(0.0);
-                    int nCheck1 = GetFurthestPoint(i, dDistCheck);
-                    if (dDistCheck.value > dDist.value) {
-                        nIndx1.value = i;
-                        nIndx2.value = nCheck1;
-                        dDist.value = dDistCheck.value;
-                    }
-                }
+        if (size() >= 3) {
+            CRotatingCalipers Calipers = new CRotatingCalipers(this);
+            if (Calipers.GetHullCount() >= 3) {
+                dDist.value = Calipers.GetDiameter(nIndx1, nIndx2);
+                return;
             }
         }
+
+        // All in a line so the furthest point search is exact.
+        GetExtremePointsEst(nIndx1, nIndx2, dDist, 0);
+        if (size() > 0)
+            dDist.value = get(nIndx1.value).Distance(get(nIndx2.value));
     }
 
     /**
-     * Removes all repeated points.
+     * Removes all repeated points, keeping the first of each. The points are hashed on a grid
+     * the size of the equality tolerance, see CPointGridHash, so only points in neighbouring
+     * cells are compared and the set is compacted in one pass.
      */
     public void RemoveRepeatedPoints() {
-        if (size() < 2)
+        int nCount = size();
+        if (nCount < 2)
             return;
 
-        int i = 0;
-        while (i < size()) {
-            int r = i + 1;
-            while (r < size()) {
-                if (this.get(i).PointEqualTo(this.get(r))) {
-                    this.remove(r);
-                } else {
-                    r++;
-                }
+        double[] xs = new double[nCount];
+        double[] ys = new double[nCount];
+        for (int i = 0; i < nCount; i++) {
+            C2DPoint pt = this.get(i);
+            xs[i] = pt.x;
+            ys[i] = pt.y;
+        }
+
+        boolean[] Repeated = new CPointGridHash(xs, ys, nCount).FindRepeated();
+
+        int nNewCount = 0;
+        for (int i = 0; i < nCount; i++) {
+            if (!Repeated[i]) {
+                this.set(nNewCount, this.get(i));
+                nNewCount++;
             }
-            i++;
         }
+        this.subList(nNewCount, nCount).clear();
     }
 
     /**
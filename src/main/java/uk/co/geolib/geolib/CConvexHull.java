@@ -0,0 +1,349 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Convex hull of a set of points using Andrew's monotone chain algorithm, which is O(n log n).
+ * The points given are not changed. The hull is clockwise starting at the left most point
+ * (lowest if there are several) and points on the hull which are not at a corner are left out.
+ * <p>
+ * By default the Akl-Toussaint heuristic is used first to throw away the points inside the
+ * polygon formed by the most extreme points in 8 directions, which for most point sets is
+ * nearly all of them. For very large sets the work can be split over a number of threads,
+ * the hulls of parts of the set being found in parallel and then the hull of those hulls.
+ */
+public class CConvexHull {
+    /**
+     * Constructor.
+     */
+    public CConvexHull() {
+    }
+
+    /**
+     * Finds the convex hull of the points.
+     *
+     * @param Points The points.
+     * @param Hull   Output. Copies of the points on the hull are added to this.
+     */
+    public void GetHull(ArrayList<C2DPoint> Points, ArrayList<C2DPoint> Hull) {
+        int nCount = Points.size();
+        double[] xs = new double[nCount];
+        double[] ys = new double[nCount];
+        for (int i = 0; i < nCount; i++) {
+            xs[i] = Points.get(i).x;
+            ys[i] = Points.get(i).y;
+        }
+
+        int[] Indexes = new int[nCount + 1];
+        int nHullCount = GetHullIndexes(xs, ys, nCount, Indexes);
+
+        for (int i = 0; i < nHullCount; i++)
+            Hull.add(new C2DPoint(xs[Indexes[i]], ys[Indexes[i]]));
+    }
+
+    /**
+     * Finds the convex hull of the points.
+     *
+     * @param Points The points.
+     * @param Hull   Output. The points on the hull are added to this.
+     */
+    public void GetHull(C2DPointArraySet Points, C2DPointArraySet Hull) {
+        double[] xs = Points.GetXs();
+        double[] ys = Points.GetYs();
+
+        int[] Indexes = new int[Points.size() + 1];
+        int nHullCount = GetHullIndexes(xs, ys, Points.size(), Indexes);
+
+        for (int i = 0; i < nHullCount; i++)
+            Hull.Add(xs[Indexes[i]], ys[Indexes[i]]);
+    }
+
+    /**
+     * Finds the convex hull of the points given by their coordinates.
+     *
+     * @param xs      The x coordinates.
+     * @param ys      The y coordinates.
+     * @param nCount  The number of points, the first nCount coordinates are used.
+     * @param Indexes Output. The indexes of the points on the hull in order. Must have room for
+     *                nCount + 1 entries.
+     * @return The number of points on the hull.
+     */
+    public int GetHullIndexes(double[] xs, double[] ys, int nCount, int[] Indexes) {
+        if (Parallelism > 1 && nCount >= const_nParallelThreshold) {
+            ForkJoinPool Pool = new ForkJoinPool(Parallelism);
+            try {
+                int nLeafSize = Math.max(const_nParallelThreshold / 4, nCount / (Parallelism * 4));
+                int[] Hull = Pool.invoke(new CHullTask(xs, ys, 0, nCount, nLeafSize));
+                System.arraycopy(Hull, 0, Indexes, 0, Hull.length);
+                return Hull.length;
+            } finally {
+                Pool.shutdown();
+            }
+        }
+
+        int[] Candidates = GetCandidates(xs, ys, 0, nCount);
+        return MonotoneChain(xs, ys, Candidates, Candidates.length, Indexes);
+    }
+
+    /**
+     * Returns the indexes of the points from nStart to before nEnd which could be on the hull,
+     * which is all of them unless the Akl-Toussaint heuristic is being used.
+     */
+    private int[] GetCandidates(double[] xs, double[] ys, int nStart, int nEnd) {
+        int nCount = nEnd - nStart;
+        int[] Candidates = new int[nCount];
+
+        if (!AklToussaint || nCount < const_nAklToussaintMinimum) {
+            for (int i = 0; i < nCount; i++)
+                Candidates[i] = nStart + i;
+            return Candidates;
+        }
+
+        // The extreme points in 8 directions, clockwise from the west.
+        int[] Extremes = new int[8];
+        Arrays.fill(Extremes, nStart);
+        for (int i = nStart + 1; i < nEnd; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            if (x < xs[Extremes[0]]) Extremes[0] = i;
+            if (y - x > ys[Extremes[1]] - xs[Extremes[1]]) Extremes[1] = i;
+            if (y > ys[Extremes[2]]) Extremes[2] = i;
+            if (x + y > xs[Extremes[3]] + ys[Extremes[3]]) Extremes[3] = i;
+            if (x > xs[Extremes[4]]) Extremes[4] = i;
+            if (x - y > xs[Extremes[5]] - ys[Extremes[5]]) Extremes[5] = i;
+            if (y < ys[Extremes[6]]) Extremes[6] = i;
+            if (x + y < xs[Extremes[7]] + ys[Extremes[7]]) Extremes[7] = i;
+        }
+
+        // The polygon through them without repeats.
+        double[] PolyX = new double[8];
+        double[] PolyY = new double[8];
+        int nPolyCount = 0;
+        for (int i = 0; i < 8; i++) {
+            double x = xs[Extremes[i]];
+            double y = ys[Extremes[i]];
+            if (nPolyCount == 0 || x != PolyX[nPolyCount - 1] || y != PolyY[nPolyCount - 1]) {
+                PolyX[nPolyCount] = x;
+                PolyY[nPolyCount] = y;
+                nPolyCount++;
+            }
+        }
+        while (nPolyCount > 1 && PolyX[nPolyCount - 1] == PolyX[0] && PolyY[nPolyCount - 1] == PolyY[0])
+            nPolyCount--;
+
+        int nCandidates = 0;
+        for (int i = nStart; i < nEnd; i++) {
+            if (nPolyCount < 3 || !IsStrictlyInside(PolyX, PolyY, nPolyCount, xs[i], ys[i]))
+                Candidates[nCandidates++] = i;
+        }
+
+        return Arrays.copyOf(Candidates, nCandidates);
+    }
+
+    /**
+     * True if the point is strictly inside the clockwise convex polygon.
+     */
+    private static boolean IsStrictlyInside(double[] PolyX, double[] PolyY, int nPolyCount, double x, double y) {
+        int nPrev = nPolyCount - 1;
+        for (int i = 0; i < nPolyCount; i++) {
+            if (Cross(PolyX[nPrev], PolyY[nPrev], PolyX[i], PolyY[i], x, y) >= 0)
+                return false;
+            nPrev = i;
+        }
+        return true;
+    }
+
+    /**
+     * The monotone chain. Sorts the candidates and puts the hull in Indexes, returning the
+     * number of points on the hull.
+     */
+    private static int MonotoneChain(double[] xs, double[] ys, int[] Candidates, int nCount, int[] Indexes) {
+        if (nCount == 0)
+            return 0;
+
+        SortByXY(xs, ys, Candidates, nCount);
+
+        // The upper hull from left to right then the lower from right to left, keeping only
+        // right turns. The turns are tested exactly so the 2 chains only share their end points
+        // and there are at most nCount + 1 entries, the first point being repeated at the end.
+        int nHull = 0;
+        for (int i = 0; i < nCount; i++) {
+            int n = Candidates[i];
+            while (nHull >= 2 && Cross(xs[Indexes[nHull - 2]], ys[Indexes[nHull - 2]],
+                    xs[Indexes[nHull - 1]], ys[Indexes[nHull - 1]], xs[n], ys[n]) >= 0)
+                nHull--;
+            Indexes[nHull++] = n;
+        }
+
+        int nUpper = nHull + 1;
+        for (int i = nCount - 2; i >= 0; i--) {
+            int n = Candidates[i];
+            while (nHull >= nUpper && Cross(xs[Indexes[nHull - 2]], ys[Indexes[nHull - 2]],
+                    xs[Indexes[nHull - 1]], ys[Indexes[nHull - 1]], xs[n], ys[n]) >= 0)
+                nHull--;
+            Indexes[nHull++] = n;
+        }
+
+        // The last is the first again, unless all the points are the same.
+        if (nHull > 1)
+            nHull--;
+
+        if (nHull == 2 && xs[Indexes[0]] == xs[Indexes[1]] && ys[Indexes[0]] == ys[Indexes[1]])
+            nHull = 1;
+
+        return nHull;
+    }
+
+    /**
+     * The cross product of the vectors from point 1 to point 2 and from point 1 to point 3.
+     * Negative if point 3 is to the right of the line from 1 to 2. The sign is exact, see
+     * CPredicates, so the 2 chains agree on which way 3 points turn.
+     */
+    private static double Cross(double x1, double y1, double x2, double y2, double x3, double y3) {
+        return CPredicates.Orient(x1, y1, x2, y2, x3, y3);
+    }
+
+    /**
+     * Sorts the first nCount indexes by the x then the y of their points.
+     */
+    private static void SortByXY(double[] xs, double[] ys, int[] Order, int nCount) {
+        int[] Temp = new int[nCount];
+        MergeSort(xs, ys, Order, Temp, 0, nCount);
+    }
+
+    /**
+     * True if the first point is before the second in x then y.
+     */
+    private static boolean IsBefore(double[] xs, double[] ys, int n1, int n2) {
+        return xs[n1] < xs[n2] || (xs[n1] == xs[n2] && ys[n1] < ys[n2]);
+    }
+
+    /**
+     * Merge sort helper sorting Order from nStart to before nEnd, using Temp.
+     */
+    private static void MergeSort(double[] xs, double[] ys, int[] Order, int[] Temp, int nStart, int nEnd) {
+        if (nEnd - nStart <= const_nInsertionSortSize) {
+            for (int i = nStart + 1; i < nEnd; i++) {
+                int nIndex = Order[i];
+                int j = i - 1;
+                while (j >= nStart && IsBefore(xs, ys, nIndex, Order[j])) {
+                    Order[j + 1] = Order[j];
+                    j--;
+                }
+                Order[j + 1] = nIndex;
+            }
+            return;
+        }
+
+        int nMid = (nStart + nEnd) >>> 1;
+        MergeSort(xs, ys, Order, Temp, nStart, nMid);
+        MergeSort(xs, ys, Order, Temp, nMid, nEnd);
+
+        // Already in order.
+        if (!IsBefore(xs, ys, Order[nMid], Order[nMid - 1]))
+            return;
+
+        System.arraycopy(Order, nStart, Temp, nStart, nEnd - nStart);
+        int i = nStart;
+        int j = nMid;
+        int k = nStart;
+        while (i < nMid && j < nEnd)
+            Order[k++] = IsBefore(xs, ys, Temp[j], Temp[i]) ? Temp[j++] : Temp[i++];
+        while (i < nMid)
+            Order[k++] = Temp[i++];
+        while (j < nEnd)
+            Order[k++] = Temp[j++];
+    }
+
+    /**
+     * Task finding the hull indexes of a range of the points. Splits the range in 2 if it is
+     * large and finds the hull of the 2 hulls.
+     */
+    private class CHullTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        CHullTask(double[] xs, double[] ys, int nStart, int nEnd, int nLeafSize) {
+            this.xs = xs;
+            this.ys = ys;
+            this.nStart = nStart;
+            this.nEnd = nEnd;
+            this.nLeafSize = nLeafSize;
+        }
+
+        @Override
+        protected int[] compute() {
+            int[] Candidates;
+
+            if (nEnd - nStart <= nLeafSize) {
+                Candidates = GetCandidates(xs, ys, nStart, nEnd);
+            } else {
+                int nMid = (nStart + nEnd) >>> 1;
+                CHullTask Task1 = new CHullTask(xs, ys, nStart, nMid, nLeafSize);
+                CHullTask Task2 = new CHullTask(xs, ys, nMid, nEnd, nLeafSize);
+                Task2.fork();
+                int[] Hull1 = Task1.compute();
+                int[] Hull2 = Task2.join();
+
+                Candidates = Arrays.copyOf(Hull1, Hull1.length + Hull2.length);
+                System.arraycopy(Hull2, 0, Candidates, Hull1.length, Hull2.length);
+            }
+
+            int[] Hull = new int[Candidates.length + 1];
+            int nHull = MonotoneChain(xs, ys, Candidates, Candidates.length, Hull);
+            return Arrays.copyOf(Hull, nHull);
+        }
+
+        private final double[] xs;
+        private final double[] ys;
+        private final int nStart;
+        private final int nEnd;
+        private final int nLeafSize;
+    }
+
+    /**
+     * True if the Akl-Toussaint heuristic is used to discard points first.
+     */
+    public boolean getAklToussaint() {
+        return AklToussaint;
+    }
+
+    /**
+     * True if the Akl-Toussaint heuristic is used to discard points first.
+     */
+    public void setAklToussaint(boolean bAklToussaint) {
+        AklToussaint = bAklToussaint;
+    }
+
+    /**
+     * The number of threads used for large point sets.
+     */
+    public int getParallelism() {
+        return Parallelism;
+    }
+
+    /**
+     * The number of threads used for large point sets. 1, the default, uses the calling thread.
+     */
+    public void setParallelism(int nParallelism) {
+        Parallelism = Math.max(1, nParallelism);
+    }
+
+    /**
+     * The number of points below which the work is not split between threads.
+     */
+    public static final int const_nParallelThreshold = 1 << 18;
+
+    /**
+     * The number of points below which the Akl-Toussaint heuristic isn't worth it.
+     */
+    private static final int const_nAklToussaintMinimum = 64;
+
+    private static final int const_nInsertionSortSize = 16;
+
+    private boolean AklToussaint = true;
+
+    private int Parallelism = 1;
+}
@@ -0,0 +1,783 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Delaunay triangulation of a set of points by the Bowyer-Watson algorithm, and the Voronoi
+ * diagram from it. The points are added one at a time in order along a Hilbert curve so each
+ * is found by a short walk from the last, giving O(n log n) time overall for the sort. Each
+ * point added removes the triangles whose circumcircles contain it and fills the hole left
+ * with triangles joined to it.
+ * <p>
+ * The outside of the hull is covered by triangles with a vertex at infinity so points outside
+ * the triangles so far need no special treatment. A repeated point is only added once. The
+ * vertices of the mesh made are the points given so the triangles index the points.
+ * <p>
+ * The orientation and in circle tests are exact, see CPredicates, so nearly collinear or
+ * cocircular points, such as points rounded onto a line, give a valid triangulation of thin
+ * triangles. Only points exactly in a line give no triangles.
+ * <p>
+ * The Voronoi cell of a point is the part of a rectangle closer to it than to any other point.
+ * It is found by cutting the rectangle along the bisectors with the neighbours of the point in
+ * the triangulation. The cells are independent so are made in parallel.
+ */
+public class CDelaunayTriangulator {
+    /**
+     * Constructor.
+     */
+    public CDelaunayTriangulator() {
+    }
+
+    /**
+     * Triangulates the points.
+     *
+     * @param Points The points.
+     * @param Mesh   Output. The triangles.
+     */
+    public void Triangulate(ArrayList<C2DPoint> Points, CTriangleMesh Mesh) {
+        int nCount = Points.size();
+        double[] xs = new double[nCount];
+        double[] ys = new double[nCount];
+        for (int i = 0; i < nCount; i++) {
+            xs[i] = Points.get(i).x;
+            ys[i] = Points.get(i).y;
+        }
+
+        Triangulate(xs, ys, nCount, Mesh);
+    }
+
+    /**
+     * Triangulates points given by their coordinates. The arrays are held by the mesh.
+     *
+     * @param xs     The x coordinates.
+     * @param ys     The y coordinates.
+     * @param nCount The number of points, the first nCount coordinates are used.
+     * @param Mesh   Output. The triangles.
+     */
+    public void Triangulate(double[] xs, double[] ys, int nCount, CTriangleMesh Mesh) {
+        Build(xs, ys, nCount);
+
+        int[] Indexes = new int[TriangleCount * 3];
+        int nIndex = 0;
+        for (int t = 0; t < TriangleCount; t++) {
+            int nVertex = t * 3;
+            if (Vertices[nVertex] == const_nNone || Vertices[nVertex + 2] == Ghost)
+                continue;
+            Indexes[nIndex++] = Vertices[nVertex];
+            Indexes[nIndex++] = Vertices[nVertex + 1];
+            Indexes[nIndex++] = Vertices[nVertex + 2];
+        }
+
+        Mesh.Set(xs, ys, nCount, Indexes, nIndex / 3);
+
+        Release();
+    }
+
+    /**
+     * Finds the Voronoi cell of each point within the boundary.
+     *
+     * @param Points   The points.
+     * @param Boundary The rectangle the cells are cut to.
+     * @param Cells    Output. The points of the cell of each point in turn, clockwise. Empty
+     *                 if the cell is outside the boundary or the point is a repeat of an
+     *                 earlier one, whose cell it shares.
+     */
+    public void GetVoronoiCells(ArrayList<C2DPoint> Points, C2DRect Boundary, ArrayList<ArrayList<C2DPoint>> Cells) {
+        int nCount = Points.size();
+        double[] xs = new double[nCount];
+        double[] ys = new double[nCount];
+        for (int i = 0; i < nCount; i++) {
+            xs[i] = Points.get(i).x;
+            ys[i] = Points.get(i).y;
+        }
+
+        GetVoronoiCells(xs, ys, nCount, Boundary, Cells);
+    }
+
+    /**
+     * Finds the Voronoi cell of each point, given by their coordinates, within the boundary.
+     *
+     * @param xs       The x coordinates.
+     * @param ys       The y coordinates.
+     * @param nCount   The number of points, the first nCount coordinates are used.
+     * @param Boundary The rectangle the cells are cut to.
+     * @param Cells    Output. The points of the cell of each point in turn, clockwise. Empty
+     *                 if the cell is outside the boundary or the point is a repeat of an
+     *                 earlier one, whose cell it shares.
+     */
+    public void GetVoronoiCells(double[] xs, double[] ys, int nCount, C2DRect Boundary,
+                                ArrayList<ArrayList<C2DPoint>> Cells) {
+        Build(xs, ys, nCount);
+        if (!Collinear)
+            MakeNeighbours();
+
+        ArrayList<ArrayList<C2DPoint>> Results = new ArrayList<ArrayList<C2DPoint>>(nCount);
+        for (int i = 0; i < nCount; i++)
+            Results.add(null);
+
+        CCellsTask Task = new CCellsTask(Boundary, Results, 0, nCount);
+        if (Parallelism <= 1 || nCount <= const_nParallelGroupSize) {
+            Task.compute();
+        } else {
+            ForkJoinPool Pool = new ForkJoinPool(Parallelism);
+            try {
+                Pool.invoke(Task);
+            } finally {
+                Pool.shutdown();
+            }
+        }
+
+        Cells.addAll(Results);
+
+        Release();
+    }
+
+    /**
+     * The number of threads used to make the Voronoi cells.
+     */
+    public int getParallelism() {
+        return Parallelism;
+    }
+
+    /**
+     * The number of threads used to make the Voronoi cells. Defaults to the number of processors,
+     * 1 uses the calling thread.
+     */
+    public void setParallelism(int nParallelism) {
+        Parallelism = Math.max(1, nParallelism);
+    }
+
+    /**
+     * Makes the triangulation, including the triangles outside the hull.
+     */
+    private void Build(double[] xs, double[] ys, int nCount) {
+        X = xs;
+        Y = ys;
+        Count = nCount;
+        Ghost = nCount;
+        Repeats = new int[nCount];
+        Arrays.fill(Repeats, const_nNone);
+        Collinear = false;
+
+        int nCapacity = Math.max(16, nCount * 3);
+        Vertices = new int[nCapacity * 3];
+        Twins = new int[nCapacity * 3];
+        CavityMarks = new int[nCapacity];
+        TestedMarks = new int[nCapacity];
+        TriangleCount = 0;
+        Free = new int[16];
+        FreeCount = 0;
+        Cavity = new int[16];
+        Boundary = new int[16];
+        VertexEdges = new int[nCount + 1];
+        Mark = 0;
+
+        if (nCount == 0)
+            return;
+
+        int[] Order = GetHilbertOrder();
+
+        // The first triangle from the first 2 different points and the first not in line with them.
+        int nA = Order[0];
+        int nSecond = 1;
+        while (nSecond < nCount && SamePoint(Order[nSecond], nA))
+            Repeats[Order[nSecond++]] = nA;
+        int nThird = nSecond + 1;
+        while (nThird < nCount && Orient(nA, Order[nSecond], Order[nThird]) == 0)
+            nThird++;
+        if (nThird >= nCount) {
+            Collinear = true;
+            MakeCollinearNeighbours(Order);
+            return;
+        }
+
+        int nB = Order[nSecond];
+        int nC = Order[nThird];
+        if (Orient(nA, nB, nC) < 0) {
+            int nTemp = nB;
+            nB = nC;
+            nC = nTemp;
+        }
+
+        int t = AddTriangle(nA, nB, nC);
+        int g1 = AddTriangle(nB, nA, Ghost);
+        int g2 = AddTriangle(nC, nB, Ghost);
+        int g3 = AddTriangle(nA, nC, Ghost);
+        SetTwins(t * 3, g1 * 3);
+        SetTwins(t * 3 + 1, g2 * 3);
+        SetTwins(t * 3 + 2, g3 * 3);
+        SetTwins(g1 * 3 + 1, g3 * 3 + 2);
+        SetTwins(g2 * 3 + 1, g1 * 3 + 2);
+        SetTwins(g3 * 3 + 1, g2 * 3 + 2);
+        Last = t;
+
+        for (int i = nSecond + 1; i < nCount; i++) {
+            if (i != nThird)
+                Insert(Order[i]);
+        }
+    }
+
+    /**
+     * Adds a point to the triangulation.
+     */
+    private void Insert(int nPoint) {
+        int t = Locate(nPoint);
+        int nCorners = IsGhost(t) ? 2 : 3;
+        for (int k = 0; k < nCorners; k++) {
+            if (SamePoint(Vertices[t * 3 + k], nPoint)) {
+                Repeats[nPoint] = Vertices[t * 3 + k];
+                return;
+            }
+        }
+
+        // The triangles whose circumcircles contain the point, which are next to each other.
+        Mark++;
+        int nCavityCount = 0;
+        Cavity[nCavityCount++] = t;
+        CavityMarks[t] = Mark;
+        for (int c = 0; c < nCavityCount; c++) {
+            int nTriangle = Cavity[c];
+            for (int k = 0; k < 3; k++) {
+                int nNext = Twins[nTriangle * 3 + k] / 3;
+                if (CavityMarks[nNext] == Mark || TestedMarks[nNext] == Mark)
+                    continue;
+                if (InConflict(nNext, nPoint)) {
+                    if (nCavityCount == Cavity.length)
+                        Cavity = Arrays.copyOf(Cavity, nCavityCount * 2);
+                    Cavity[nCavityCount++] = nNext;
+                    CavityMarks[nNext] = Mark;
+                } else {
+                    TestedMarks[nNext] = Mark;
+                }
+            }
+        }
+
+        // The edges round the outside of the hole. The tests are exact so the hole is star shaped
+        // from the point and every edge faces it.
+        int nBoundaryCount = 0;
+        for (int c = 0; c < nCavityCount; c++) {
+            int nTriangle = Cavity[c];
+            for (int k = 0; k < 3; k++) {
+                int nEdge = nTriangle * 3 + k;
+                if (CavityMarks[Twins[nEdge] / 3] == Mark)
+                    continue;
+                if (nBoundaryCount == Boundary.length)
+                    Boundary = Arrays.copyOf(Boundary, nBoundaryCount * 2);
+                Boundary[nBoundaryCount++] = nEdge;
+            }
+        }
+
+        // A triangle from each boundary edge to the point, reusing the removed triangles.
+        int[] ToPoint = new int[nBoundaryCount];
+        int[] Froms = new int[nBoundaryCount];
+        int[] Tos = new int[nBoundaryCount];
+        int[] Outsides = new int[nBoundaryCount];
+        for (int b = 0; b < nBoundaryCount; b++) {
+            int nEdge = Boundary[b];
+            int nTriangle = nEdge / 3;
+            Froms[b] = Vertices[nEdge];
+            Tos[b] = Vertices[nTriangle * 3 + (nEdge + 1) % 3];
+            Outsides[b] = Twins[nEdge];
+        }
+        for (int c = nBoundaryCount; c < nCavityCount; c++)
+            RemoveTriangle(Cavity[c]);
+
+        for (int b = 0; b < nBoundaryCount; b++) {
+            int nFrom = Froms[b];
+            int nTo = Tos[b];
+            int nTriangle = b < nCavityCount ? Cavity[b] : NewTriangle();
+            int nBase = nTriangle * 3;
+
+            // Keep the vertex at infinity last.
+            if (nTo == Ghost) {
+                SetTriangle(nTriangle, nPoint, nFrom, Ghost);
+                SetTwins(nBase + 1, Outsides[b]);
+                ToPoint[b] = nBase + 2;
+                VertexEdges[nFrom] = nBase;
+            } else if (nFrom == Ghost) {
+                SetTriangle(nTriangle, nTo, nPoint, Ghost);
+                SetTwins(nBase + 2, Outsides[b]);
+                ToPoint[b] = nBase;
+                VertexEdges[nFrom] = nBase + 1;
+            } else {
+                SetTriangle(nTriangle, nFrom, nTo, nPoint);
+                SetTwins(nBase, Outsides[b]);
+                ToPoint[b] = nBase + 1;
+                VertexEdges[nFrom] = nBase + 2;
+                Last = nTriangle;
+            }
+        }
+
+        for (int b = 0; b < nBoundaryCount; b++)
+            SetTwins(ToPoint[b], VertexEdges[Tos[b]]);
+    }
+
+    /**
+     * Walks from the last triangle made to the one containing the point, or to a triangle
+     * outside the hull whose edge the point is beyond. The walk cannot go round in circles in a
+     * Delaunay triangulation but if it goes on for longer than it could the triangles are
+     * searched instead.
+     */
+    private int Locate(int nPoint) {
+        int t = Last;
+        int nStep = 0;
+        while (!IsGhost(t)) {
+            if (nStep > TriangleCount)
+                return LocateBySearch(nPoint);
+            int nBase = t * 3;
+            int nNext = const_nNone;
+            for (int m = 0; m < 3 && nNext == const_nNone; m++) {
+                int k = (nStep + m) % 3;
+                if (Orient(Vertices[nBase + k], Vertices[nBase + (k + 1) % 3], nPoint) < 0)
+                    nNext = Twins[nBase + k] / 3;
+            }
+            if (nNext == const_nNone)
+                return t;
+            t = nNext;
+            nStep++;
+        }
+        return t;
+    }
+
+    /**
+     * Finds the triangle containing the point by testing every triangle, or if none do a
+     * triangle outside the hull whose edge the point is beyond.
+     */
+    private int LocateBySearch(int nPoint) {
+        int nOutside = const_nNone;
+        for (int t = 0; t < TriangleCount; t++) {
+            int nBase = t * 3;
+            if (Vertices[nBase] == const_nNone)
+                continue;
+            if (IsGhost(t)) {
+                if (nOutside == const_nNone && Orient(Vertices[nBase], Vertices[nBase + 1], nPoint) > 0)
+                    nOutside = t;
+            } else if (Orient(Vertices[nBase], Vertices[nBase + 1], nPoint) >= 0 &&
+                    Orient(Vertices[nBase + 1], Vertices[nBase + 2], nPoint) >= 0 &&
+                    Orient(Vertices[nBase + 2], Vertices[nBase], nPoint) >= 0) {
+                return t;
+            }
+        }
+        return nOutside;
+    }
+
+    /**
+     * True if the point is in the circumcircle of the triangle. For a triangle outside the hull
+     * this is the open half plane beyond its edge of the hull, and the edge itself.
+     */
+    private boolean InConflict(int nTriangle, int nPoint) {
+        int nBase = nTriangle * 3;
+        int nA = Vertices[nBase];
+        int nB = Vertices[nBase + 1];
+        int nC = Vertices[nBase + 2];
+        if (nC != Ghost)
+            return InCircle(nA, nB, nC, nPoint);
+
+        double dOrient = Orient(nA, nB, nPoint);
+        if (dOrient != 0)
+            return dOrient > 0;
+        return (X[nPoint] - X[nA]) * (X[nB] - X[nA]) + (Y[nPoint] - Y[nA]) * (Y[nB] - Y[nA]) > 0 &&
+                (X[nPoint] - X[nB]) * (X[nA] - X[nB]) + (Y[nPoint] - Y[nB]) * (Y[nA] - Y[nB]) > 0;
+    }
+
+    /**
+     * The order of the points along a Hilbert curve through their bounding rectangle.
+     */
+    private int[] GetHilbertOrder() {
+        double dMinX = X[0];
+        double dMinY = Y[0];
+        double dMaxX = X[0];
+        double dMaxY = Y[0];
+        for (int i = 1; i < Count; i++) {
+            dMinX = Math.min(dMinX, X[i]);
+            dMinY = Math.min(dMinY, Y[i]);
+            dMaxX = Math.max(dMaxX, X[i]);
+            dMaxY = Math.max(dMaxY, Y[i]);
+        }
+        double dSize = Math.max(dMaxX - dMinX, dMaxY - dMinY);
+        double dScale = dSize > 0 ? (const_nHilbertSize - 1) / dSize : 0;
+
+        long[] Keys = new long[Count];
+        for (int i = 0; i < Count; i++) {
+            int x = (int) ((X[i] - dMinX) * dScale);
+            int y = (int) ((Y[i] - dMinY) * dScale);
+            Keys[i] = (HilbertIndex(x, y) << 31) | i;
+        }
+        Arrays.sort(Keys);
+
+        int[] Order = new int[Count];
+        for (int i = 0; i < Count; i++)
+            Order[i] = (int) (Keys[i] & 0x7FFFFFFFL);
+        return Order;
+    }
+
+    /**
+     * The distance along the Hilbert curve filling the grid of const_nHilbertSize squared cells.
+     */
+    private static long HilbertIndex(int x, int y) {
+        long lIndex = 0;
+        for (int s = const_nHilbertSize / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            lIndex += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = const_nHilbertSize - 1 - x;
+                    y = const_nHilbertSize - 1 - y;
+                }
+                int nTemp = x;
+                x = y;
+                y = nTemp;
+            }
+        }
+        return lIndex;
+    }
+
+    /**
+     * Sets the neighbours of each point from the edges of the triangles.
+     */
+    private void MakeNeighbours() {
+        NeighbourStarts = new int[Count + 1];
+        for (int t = 0; t < TriangleCount; t++) {
+            int nBase = t * 3;
+            if (Vertices[nBase] == const_nNone)
+                continue;
+            for (int k = 0; k < 3; k++) {
+                int nFrom = Vertices[nBase + k];
+                if (nFrom != Ghost && Vertices[nBase + (k + 1) % 3] != Ghost)
+                    NeighbourStarts[nFrom + 1]++;
+            }
+        }
+        for (int i = 0; i < Count; i++)
+            NeighbourStarts[i + 1] += NeighbourStarts[i];
+
+        Neighbours = new int[NeighbourStarts[Count]];
+        int[] Ends = Arrays.copyOf(NeighbourStarts, Count);
+        for (int t = 0; t < TriangleCount; t++) {
+            int nBase = t * 3;
+            if (Vertices[nBase] == const_nNone)
+                continue;
+            for (int k = 0; k < 3; k++) {
+                int nFrom = Vertices[nBase + k];
+                int nTo = Vertices[nBase + (k + 1) % 3];
+                if (nFrom != Ghost && nTo != Ghost)
+                    Neighbours[Ends[nFrom]++] = nTo;
+            }
+        }
+    }
+
+    /**
+     * Sets the neighbours of each point when they are all in a line, which are the points
+     * either side along it.
+     */
+    private void MakeCollinearNeighbours(int[] Order) {
+        int nFirst = Order[0];
+        int nSecond = Order[0];
+        for (int i = 1; i < Count && SamePoint(nSecond, nFirst); i++)
+            nSecond = Order[i];
+
+        final double[] Distances = new double[Count];
+        for (int i = 0; i < Count; i++)
+            Distances[i] = (X[i] - X[nFirst]) * (X[nSecond] - X[nFirst]) + (Y[i] - Y[nFirst]) * (Y[nSecond] - Y[nFirst]);
+        Integer[] Sorted = new Integer[Count];
+        for (int i = 0; i < Count; i++)
+            Sorted[i] = i;
+        Arrays.sort(Sorted, new Comparator<Integer>() {
+            public int compare(Integer n1, Integer n2) {
+                int nCompare = Double.compare(Distances[n1], Distances[n2]);
+                return nCompare != 0 ? nCompare : n1.compareTo(n2);
+            }
+        });
+
+        int[] Previous = new int[Count];
+        int[] Next = new int[Count];
+        Arrays.fill(Previous, const_nNone);
+        Arrays.fill(Next, const_nNone);
+        int nLast = const_nNone;
+        for (int i = 0; i < Count; i++) {
+            int n = Sorted[i];
+            if (nLast != const_nNone && SamePoint(n, nLast)) {
+                Repeats[n] = nLast;
+                continue;
+            }
+            Repeats[n] = const_nNone;
+            if (nLast != const_nNone) {
+                Next[nLast] = n;
+                Previous[n] = nLast;
+            }
+            nLast = n;
+        }
+
+        NeighbourStarts = new int[Count + 1];
+        Neighbours = new int[Count * 2];
+        int nNeighbour = 0;
+        for (int i = 0; i < Count; i++) {
+            NeighbourStarts[i] = nNeighbour;
+            if (Previous[i] != const_nNone)
+                Neighbours[nNeighbour++] = Previous[i];
+            if (Next[i] != const_nNone)
+                Neighbours[nNeighbour++] = Next[i];
+        }
+        NeighbourStarts[Count] = nNeighbour;
+    }
+
+    /**
+     * Makes the Voronoi cell of a point by cutting the boundary by the bisector with each
+     * neighbour in turn. The cell is kept relative to the point while it is cut.
+     */
+    private ArrayList<C2DPoint> MakeCell(int nPoint, C2DRect Rect, double[][] Buffers) {
+        ArrayList<C2DPoint> Cell = new ArrayList<C2DPoint>();
+        if (Repeats[nPoint] != const_nNone)
+            return Cell;
+
+        double x = X[nPoint];
+        double y = Y[nPoint];
+        double[] xs = Buffers[0];
+        double[] ys = Buffers[1];
+        xs[0] = Rect.GetLeft() - x;
+        ys[0] = Rect.GetTop() - y;
+        xs[1] = Rect.GetRight() - x;
+        ys[1] = Rect.GetTop() - y;
+        xs[2] = Rect.GetRight() - x;
+        ys[2] = Rect.GetBottom() - y;
+        xs[3] = Rect.GetLeft() - x;
+        ys[3] = Rect.GetBottom() - y;
+        int nCount = 4;
+
+        int nEnd = NeighbourStarts[nPoint + 1];
+        for (int n = NeighbourStarts[nPoint]; n < nEnd && nCount > 0; n++) {
+            int nOther = Neighbours[n];
+            double dx = X[nOther] - x;
+            double dy = Y[nOther] - y;
+            double dLimit = (dx * dx + dy * dy) / 2;
+
+            if (xs.length <= nCount) {
+                Buffers[0] = xs = Arrays.copyOf(xs, nCount * 2);
+                Buffers[1] = ys = Arrays.copyOf(ys, nCount * 2);
+                Buffers[2] = Arrays.copyOf(Buffers[2], nCount * 2);
+                Buffers[3] = Arrays.copyOf(Buffers[3], nCount * 2);
+            }
+            double[] NewXs = Buffers[2];
+            double[] NewYs = Buffers[3];
+
+            // Keeps the part nearer the point than the neighbour.
+            int nNewCount = 0;
+            double dPrevX = xs[nCount - 1];
+            double dPrevY = ys[nCount - 1];
+            double dPrevSide = dPrevX * dx + dPrevY * dy - dLimit;
+            for (int i = 0; i < nCount; i++) {
+                double dSide = xs[i] * dx + ys[i] * dy - dLimit;
+                if ((dPrevSide < 0 && dSide > 0) || (dPrevSide > 0 && dSide < 0)) {
+                    double dRatio = dPrevSide / (dPrevSide - dSide);
+                    NewXs[nNewCount] = dPrevX + (xs[i] - dPrevX) * dRatio;
+                    NewYs[nNewCount] = dPrevY + (ys[i] - dPrevY) * dRatio;
+                    nNewCount++;
+                }
+                if (dSide <= 0) {
+                    NewXs[nNewCount] = xs[i];
+                    NewYs[nNewCount] = ys[i];
+                    nNewCount++;
+                }
+                dPrevX = xs[i];
+                dPrevY = ys[i];
+                dPrevSide = dSide;
+            }
+
+            Buffers[2] = xs;
+            Buffers[3] = ys;
+            Buffers[0] = xs = NewXs;
+            Buffers[1] = ys = NewYs;
+            nCount = nNewCount;
+        }
+
+        if (nCount < 3)
+            return Cell;
+
+        Cell.ensureCapacity(nCount);
+        for (int i = 0; i < nCount; i++)
+            Cell.add(new C2DPoint(xs[i] + x, ys[i] + y));
+        return Cell;
+    }
+
+    /**
+     * Makes the Voronoi cells of a range of points, splitting the range between threads.
+     */
+    private class CCellsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        CCellsTask(C2DRect Rect, ArrayList<ArrayList<C2DPoint>> Results, int nStart, int nEnd) {
+            this.Rect = Rect;
+            this.Results = Results;
+            this.nStart = nStart;
+            this.nEnd = nEnd;
+        }
+
+        @Override
+        protected void compute() {
+            if (nEnd - nStart <= const_nParallelGroupSize || Parallelism <= 1) {
+                double[][] Buffers = new double[4][16];
+                for (int i = nStart; i < nEnd; i++)
+                    Results.set(i, MakeCell(i, Rect, Buffers));
+                return;
+            }
+
+            int nMid = (nStart + nEnd) >>> 1;
+            invokeAll(new CCellsTask(Rect, Results, nStart, nMid),
+                    new CCellsTask(Rect, Results, nMid, nEnd));
+        }
+
+        private final C2DRect Rect;
+        private final ArrayList<ArrayList<C2DPoint>> Results;
+        private final int nStart;
+        private final int nEnd;
+    }
+
+    private int AddTriangle(int nA, int nB, int nC) {
+        int t = NewTriangle();
+        SetTriangle(t, nA, nB, nC);
+        return t;
+    }
+
+    private int NewTriangle() {
+        if (FreeCount > 0)
+            return Free[--FreeCount];
+
+        if (TriangleCount == CavityMarks.length) {
+            int nCapacity = TriangleCount * 2;
+            Vertices = Arrays.copyOf(Vertices, nCapacity * 3);
+            Twins = Arrays.copyOf(Twins, nCapacity * 3);
+            CavityMarks = Arrays.copyOf(CavityMarks, nCapacity);
+            TestedMarks = Arrays.copyOf(TestedMarks, nCapacity);
+        }
+        return TriangleCount++;
+    }
+
+    private void RemoveTriangle(int nTriangle) {
+        Vertices[nTriangle * 3] = const_nNone;
+        if (FreeCount == Free.length)
+            Free = Arrays.copyOf(Free, FreeCount * 2);
+        Free[FreeCount++] = nTriangle;
+    }
+
+    private void SetTriangle(int nTriangle, int nA, int nB, int nC) {
+        int nBase = nTriangle * 3;
+        Vertices[nBase] = nA;
+        Vertices[nBase + 1] = nB;
+        Vertices[nBase + 2] = nC;
+    }
+
+    private void SetTwins(int nEdge, int nTwin) {
+        Twins[nEdge] = nTwin;
+        Twins[nTwin] = nEdge;
+    }
+
+    private boolean IsGhost(int nTriangle) {
+        return Vertices[nTriangle * 3 + 2] == Ghost;
+    }
+
+    private boolean SamePoint(int nA, int nB) {
+        return X[nA] == X[nB] && Y[nA] == Y[nB];
+    }
+
+    /**
+     * Twice the signed area of the triangle, positive if anticlockwise. The sign is exact.
+     */
+    private double Orient(int nA, int nB, int nC) {
+        return CPredicates.Orient(X[nA], Y[nA], X[nB], Y[nB], X[nC], Y[nC]);
+    }
+
+    /**
+     * True if d is inside the circumcircle of the anticlockwise triangle a, b, c.
+     */
+    private boolean InCircle(int nA, int nB, int nC, int nD) {
+        return CPredicates.InCircle(X[nA], Y[nA], X[nB], Y[nB], X[nC], Y[nC], X[nD], Y[nD]);
+    }
+
+    private void Release() {
+        X = null;
+        Y = null;
+        Repeats = null;
+        Vertices = null;
+        Twins = null;
+        CavityMarks = null;
+        TestedMarks = null;
+        Free = null;
+        Cavity = null;
+        Boundary = null;
+        VertexEdges = null;
+        NeighbourStarts = null;
+        Neighbours = null;
+        TriangleCount = 0;
+    }
+
+    private static final int const_nNone = -1;
+
+    /**
+     * The number of cells along each side of the grid the Hilbert curve is drawn through.
+     */
+    private static final int const_nHilbertSize = 1 << 16;
+
+    /**
+     * The number of cells made by each thread at once.
+     */
+    private static final int const_nParallelGroupSize = 1024;
+
+    private int Parallelism = Runtime.getRuntime().availableProcessors();
+
+    private double[] X;
+    private double[] Y;
+    private int Count;
+
+    /**
+     * The index of the vertex at infinity, which is always the last corner of its triangles.
+     */
+    private int Ghost;
+
+    /**
+     * For each point, the earlier point it repeats or const_nNone.
+     */
+    private int[] Repeats;
+
+    /**
+     * True if all the points are in a line so there are no triangles.
+     */
+    private boolean Collinear;
+
+    /**
+     * The corners of each triangle, 3 per triangle, anticlockwise. The first is const_nNone if
+     * the triangle has been removed.
+     */
+    private int[] Vertices;
+
+    /**
+     * For each edge of each triangle, the same edge in the neighbouring triangle. Edge k of
+     * triangle t is 3t + k, from corner k to the next.
+     */
+    private int[] Twins;
+    private int TriangleCount;
+    private int Last;
+
+    private int[] Free;
+    private int FreeCount;
+
+    /**
+     * Work space for adding a point. A triangle is in the current hole if its mark is Mark.
+     */
+    private int[] CavityMarks;
+    private int[] TestedMarks;
+    private int Mark;
+    private int[] Cavity;
+    private int[] Boundary;
+    private int[] VertexEdges;
+
+    /**
+     * The neighbours of each point in the triangulation, from NeighbourStarts[i] up to
+     * NeighbourStarts[i + 1].
+     */
+    private int[] NeighbourStarts;
+    private int[] Neighbours;
+}
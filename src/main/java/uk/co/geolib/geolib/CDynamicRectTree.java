@@ -0,0 +1,434 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Dynamic bounding rectangle tree over a changing set of rectangles. Each item is a leaf of a
+ * balanced binary tree whose nodes hold the bounding rectangle of their children. Items can be
+ * added, removed and moved at a cost of O(log n) so the tree can be kept up to date as the
+ * items change, unlike CRTree which must be created again. Items are identified by the handle
+ * returned when they are added which stays the same until the item is removed, after which it
+ * may be reused.
+ * <p>
+ * New items are placed next to the node which increases the total perimeter of the tree the
+ * least and the tree is kept balanced by rotations. Queries only read the tree so can be run
+ * from several threads at once, but not while it is being changed.
+ */
+public class CDynamicRectTree {
+    /**
+     * Constructor.
+     */
+    public CDynamicRectTree() {
+        Clear();
+    }
+
+    /**
+     * Removes all the items.
+     */
+    public void Clear() {
+        Root = const_nNull;
+        NodeCount = 0;
+        FreeList = const_nNull;
+        ItemCount = 0;
+        Grow(const_nInitialCapacity);
+    }
+
+    /**
+     * The number of items in the tree.
+     */
+    public int size() {
+        return ItemCount;
+    }
+
+    /**
+     * Adds an item.
+     *
+     * @param Rect The rectangle of the item.
+     * @return The handle of the item.
+     */
+    public int Insert(C2DRect Rect) {
+        int nLeaf = AllocateNode();
+        SetRect(nLeaf, Rect);
+        Height[nLeaf] = 0;
+        InsertLeaf(nLeaf);
+        ItemCount++;
+        return nLeaf;
+    }
+
+    /**
+     * Removes an item.
+     *
+     * @param nHandle The handle of the item.
+     */
+    public void Remove(int nHandle) {
+        assert IsLeaf(nHandle) : "Invalid handle";
+        RemoveLeaf(nHandle);
+        FreeNode(nHandle);
+        ItemCount--;
+    }
+
+    /**
+     * Changes the rectangle of an item. The handle is not changed.
+     *
+     * @param nHandle The handle of the item.
+     * @param Rect    The new rectangle.
+     */
+    public void Update(int nHandle, C2DRect Rect) {
+        assert IsLeaf(nHandle) : "Invalid handle";
+        RemoveLeaf(nHandle);
+        SetRect(nHandle, Rect);
+        InsertLeaf(nHandle);
+    }
+
+    /**
+     * Gets the rectangle of an item.
+     *
+     * @param nHandle The handle of the item.
+     * @param Rect    Output. The rectangle.
+     */
+    public void GetRect(int nHandle, C2DRect Rect) {
+        Rect.Set(NodeLeft[nHandle], NodeTop[nHandle], NodeRight[nHandle], NodeBottom[nHandle]);
+    }
+
+    /**
+     * Gets the bounding rectangle of all the items. The rectangle is cleared if there are none.
+     *
+     * @param Rect Output. The bounding rectangle.
+     */
+    public void GetBoundingRect(C2DRect Rect) {
+        if (Root == const_nNull)
+            Rect.Clear();
+        else
+            GetRect(Root, Rect);
+    }
+
+    /**
+     * Finds the items whose rectangles overlap or touch the rectangle given.
+     *
+     * @param Rect    The rectangle to search.
+     * @param Handles Output. The handles of the items found, in no particular order.
+     */
+    public void Query(C2DRect Rect, ArrayList<Integer> Handles) {
+        if (Root == const_nNull)
+            return;
+
+        double dLeft = Rect.GetLeft();
+        double dBottom = Rect.GetBottom();
+        double dRight = Rect.GetRight();
+        double dTop = Rect.GetTop();
+
+        int[] Stack = new int[64];
+        int nStack = 0;
+        Stack[nStack++] = Root;
+
+        while (nStack > 0) {
+            int nNode = Stack[--nStack];
+            if (NodeLeft[nNode] > dRight || NodeRight[nNode] < dLeft ||
+                    NodeBottom[nNode] > dTop || NodeTop[nNode] < dBottom)
+                continue;
+
+            if (Child1[nNode] == const_nNull) {
+                Handles.add(nNode);
+            } else {
+                if (nStack + 2 > Stack.length)
+                    Stack = Arrays.copyOf(Stack, Stack.length * 2);
+                Stack[nStack++] = Child1[nNode];
+                Stack[nStack++] = Child2[nNode];
+            }
+        }
+    }
+
+    /**
+     * Finds the items whose rectangles contain the point given, including on the edge.
+     *
+     * @param pt      The point.
+     * @param Handles Output. The handles of the items found, in no particular order.
+     */
+    public void Query(C2DPoint pt, ArrayList<Integer> Handles) {
+        Query(new C2DRect(pt), Handles);
+    }
+
+    /**
+     * True if the handle is of an item in the tree.
+     */
+    private boolean IsLeaf(int nNode) {
+        return nNode >= 0 && nNode < NodeLeft.length && Height[nNode] == 0 &&
+                (Parent[nNode] != const_nNull || Root == nNode);
+    }
+
+    /**
+     * Sets the rectangle of the node.
+     */
+    private void SetRect(int nNode, C2DRect Rect) {
+        NodeLeft[nNode] = Rect.GetLeft();
+        NodeBottom[nNode] = Rect.GetBottom();
+        NodeRight[nNode] = Rect.GetRight();
+        NodeTop[nNode] = Rect.GetTop();
+    }
+
+    /**
+     * Sets the rectangle of the node to that of its children.
+     */
+    private void FitToChildren(int nNode) {
+        int nChild1 = Child1[nNode];
+        int nChild2 = Child2[nNode];
+        NodeLeft[nNode] = Math.min(NodeLeft[nChild1], NodeLeft[nChild2]);
+        NodeBottom[nNode] = Math.min(NodeBottom[nChild1], NodeBottom[nChild2]);
+        NodeRight[nNode] = Math.max(NodeRight[nChild1], NodeRight[nChild2]);
+        NodeTop[nNode] = Math.max(NodeTop[nChild1], NodeTop[nChild2]);
+        Height[nNode] = 1 + Math.max(Height[nChild1], Height[nChild2]);
+    }
+
+    /**
+     * The perimeter of the node's rectangle.
+     */
+    private double Perimeter(int nNode) {
+        return 2 * (NodeRight[nNode] - NodeLeft[nNode] + NodeTop[nNode] - NodeBottom[nNode]);
+    }
+
+    /**
+     * The perimeter of the rectangle bounding the 2 nodes.
+     */
+    private double CombinedPerimeter(int nNode1, int nNode2) {
+        return 2 * (Math.max(NodeRight[nNode1], NodeRight[nNode2]) - Math.min(NodeLeft[nNode1], NodeLeft[nNode2]) +
+                Math.max(NodeTop[nNode1], NodeTop[nNode2]) - Math.min(NodeBottom[nNode1], NodeBottom[nNode2]));
+    }
+
+    /**
+     * The cost of descending into the child to place the leaf.
+     */
+    private double DescendCost(int nChild, int nLeaf, double dInheritanceCost) {
+        double dCost = CombinedPerimeter(nChild, nLeaf) + dInheritanceCost;
+        if (Child1[nChild] != const_nNull)
+            dCost -= Perimeter(nChild);
+        return dCost;
+    }
+
+    /**
+     * Adds the leaf to the tree.
+     */
+    private void InsertLeaf(int nLeaf) {
+        if (Root == const_nNull) {
+            Root = nLeaf;
+            Parent[Root] = const_nNull;
+            return;
+        }
+
+        // Find the best sibling, the one which increases the total perimeter least.
+        int nSibling = Root;
+        while (Child1[nSibling] != const_nNull) {
+            double dPerimeter = Perimeter(nSibling);
+            double dCombined = CombinedPerimeter(nSibling, nLeaf);
+
+            // The cost of making a new parent for this node and the leaf.
+            double dCost = dCombined;
+
+            // The minimum cost of pushing the leaf further down the tree.
+            double dInheritanceCost = dCombined - dPerimeter;
+
+            double dCost1 = DescendCost(Child1[nSibling], nLeaf, dInheritanceCost);
+            double dCost2 = DescendCost(Child2[nSibling], nLeaf, dInheritanceCost);
+
+            if (dCost < dCost1 && dCost < dCost2)
+                break;
+
+            nSibling = dCost1 < dCost2 ? Child1[nSibling] : Child2[nSibling];
+        }
+
+        // Make a new parent for the sibling and the leaf.
+        int nOldParent = Parent[nSibling];
+        int nNewParent = AllocateNode();
+        Parent[nNewParent] = nOldParent;
+        Child1[nNewParent] = nSibling;
+        Child2[nNewParent] = nLeaf;
+        Parent[nSibling] = nNewParent;
+        Parent[nLeaf] = nNewParent;
+        FitToChildren(nNewParent);
+
+        if (nOldParent == const_nNull) {
+            Root = nNewParent;
+        } else {
+            if (Child1[nOldParent] == nSibling)
+                Child1[nOldParent] = nNewParent;
+            else
+                Child2[nOldParent] = nNewParent;
+        }
+
+        RefitAncestors(Parent[nLeaf]);
+    }
+
+    /**
+     * Takes the leaf out of the tree, leaving the node allocated.
+     */
+    private void RemoveLeaf(int nLeaf) {
+        if (nLeaf == Root) {
+            Root = const_nNull;
+            return;
+        }
+
+        int nParent = Parent[nLeaf];
+        int nGrandParent = Parent[nParent];
+        int nSibling = Child1[nParent] == nLeaf ? Child2[nParent] : Child1[nParent];
+
+        if (nGrandParent == const_nNull) {
+            Root = nSibling;
+            Parent[nSibling] = const_nNull;
+        } else {
+            if (Child1[nGrandParent] == nParent)
+                Child1[nGrandParent] = nSibling;
+            else
+                Child2[nGrandParent] = nSibling;
+            Parent[nSibling] = nGrandParent;
+            RefitAncestors(nGrandParent);
+        }
+
+        FreeNode(nParent);
+        Parent[nLeaf] = const_nNull;
+    }
+
+    /**
+     * Balances and refits the node and all above it.
+     */
+    private void RefitAncestors(int nNode) {
+        while (nNode != const_nNull) {
+            nNode = Balance(nNode);
+            FitToChildren(nNode);
+            nNode = Parent[nNode];
+        }
+    }
+
+    /**
+     * Rotates the node if its children's heights differ by more than 1. Returns the node now at
+     * its position.
+     */
+    private int Balance(int nA) {
+        if (Child1[nA] == const_nNull || Height[nA] < 2)
+            return nA;
+
+        int nB = Child1[nA];
+        int nC = Child2[nA];
+        int nBalance = Height[nC] - Height[nB];
+
+        if (nBalance > 1)
+            return Rotate(nA, nC, nB);
+        if (nBalance < -1)
+            return Rotate(nA, nB, nC);
+
+        return nA;
+    }
+
+    /**
+     * Rotates the tall child up to replace the node. The node takes the tall child's shorter
+     * child. Returns the tall child.
+     */
+    private int Rotate(int nA, int nTall, int nShort) {
+        int nF = Child1[nTall];
+        int nG = Child2[nTall];
+
+        // The tall child replaces the node.
+        Child1[nTall] = nA;
+        Parent[nTall] = Parent[nA];
+        Parent[nA] = nTall;
+
+        if (Parent[nTall] == const_nNull) {
+            Root = nTall;
+        } else if (Child1[Parent[nTall]] == nA) {
+            Child1[Parent[nTall]] = nTall;
+        } else {
+            Child2[Parent[nTall]] = nTall;
+        }
+
+        // The taller grandchild stays with the tall child, the other goes to the node.
+        int nKeep = Height[nF] > Height[nG] ? nF : nG;
+        int nMove = nKeep == nF ? nG : nF;
+
+        Child2[nTall] = nKeep;
+        Child1[nA] = nShort;
+        Child2[nA] = nMove;
+        Parent[nMove] = nA;
+
+        FitToChildren(nA);
+        FitToChildren(nTall);
+
+        return nTall;
+    }
+
+    /**
+     * Gets a free node, growing the arrays if needed.
+     */
+    private int AllocateNode() {
+        if (FreeList == const_nNull) {
+            if (NodeCount == NodeLeft.length)
+                Grow(NodeLeft.length * 2);
+            FreeList = NodeCount++;
+            Parent[FreeList] = const_nNull;
+        }
+
+        int nNode = FreeList;
+        FreeList = Parent[nNode];
+        Parent[nNode] = const_nNull;
+        Child1[nNode] = const_nNull;
+        Child2[nNode] = const_nNull;
+        Height[nNode] = 0;
+        return nNode;
+    }
+
+    /**
+     * Returns the node to the free list.
+     */
+    private void FreeNode(int nNode) {
+        Parent[nNode] = FreeList;
+        Child1[nNode] = const_nNull;
+        Child2[nNode] = const_nNull;
+        Height[nNode] = -1;
+        FreeList = nNode;
+    }
+
+    /**
+     * Grows the node arrays, or creates them if the tree is empty.
+     */
+    private void Grow(int nCapacity) {
+        if (NodeCount == 0) {
+            NodeLeft = new double[nCapacity];
+            NodeBottom = new double[nCapacity];
+            NodeRight = new double[nCapacity];
+            NodeTop = new double[nCapacity];
+            Parent = new int[nCapacity];
+            Child1 = new int[nCapacity];
+            Child2 = new int[nCapacity];
+            Height = new int[nCapacity];
+        } else {
+            NodeLeft = Arrays.copyOf(NodeLeft, nCapacity);
+            NodeBottom = Arrays.copyOf(NodeBottom, nCapacity);
+            NodeRight = Arrays.copyOf(NodeRight, nCapacity);
+            NodeTop = Arrays.copyOf(NodeTop, nCapacity);
+            Parent = Arrays.copyOf(Parent, nCapacity);
+            Child1 = Arrays.copyOf(Child1, nCapacity);
+            Child2 = Arrays.copyOf(Child2, nCapacity);
+            Height = Arrays.copyOf(Height, nCapacity);
+        }
+    }
+
+    private static final int const_nNull = -1;
+
+    private static final int const_nInitialCapacity = 16;
+
+    /**
+     * The nodes. A leaf has no children and is an item, its index is the item's handle. Free
+     * nodes are linked through Parent and have a height of -1.
+     */
+    private double[] NodeLeft;
+    private double[] NodeBottom;
+    private double[] NodeRight;
+    private double[] NodeTop;
+    private int[] Parent;
+    private int[] Child1;
+    private int[] Child2;
+    private int[] Height;
+
+    private int Root;
+    private int NodeCount;
+    private int FreeList;
+    private int ItemCount;
+}
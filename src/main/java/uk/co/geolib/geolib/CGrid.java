@@ -20,6 +20,18 @@ public class CGrid {
 
     ;
 
+    /**
+     * Enumeration for the methods used for boolean operations on polygons.
+     */
+    public enum eBooleanEngine {
+        /// <summary> Find the routes of each polygon inside or outside the other and join them. </summary>
+        Routes,
+        /// <summary> Sweep both polygons together, see C2DSweepBoolean. Straight lines only. </summary>
+        Sweep,
+    }
+
+    ;
+
     /**
      * Constructor
      */
@@ -27,6 +39,17 @@ public class CGrid {
         ;
     }
 
+    /**
+     * Constructor copying the grid size, degenerate handling and boolean engine but not the error count.
+     *
+     * @param Other The grid to copy.
+     */
+    public CGrid(CGrid Other) {
+        gridSize = Other.gridSize;
+        DegenerateHandling = Other.DegenerateHandling;
+        BooleanEngine = Other.BooleanEngine;
+    }
+
 
     /**
      * Sets the size of the grid.
@@ -90,6 +113,13 @@ public class CGrid {
         degenerateErrors++;
     }
 
+    /**
+     * Used to log a number of degenerate errors e.g. from a copy of the grid.
+     */
+    public void LogDegenerateErrors(int nErrors) {
+        degenerateErrors += nErrors;
+    }
+
     /**
      * Grid size.
      */
@@ -119,6 +149,11 @@ public class CGrid {
      */
     public eDegenerateHandling DegenerateHandling = eDegenerateHandling.None;
 
+    /**
+     * Boolean engine. Polygons with arcs always use the routes.
+     */
+    public eBooleanEngine BooleanEngine = eBooleanEngine.Routes;
+
     /**
      * Equality Avoidance Factor.
      */
@@ -0,0 +1,573 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Static KD-tree over a set of points for nearest neighbour, radius and rectangle searches.
+ * Points are identified by their index in the set used to create the tree. The tree is held
+ * implicitly in arrays of primitives: the points in a range are split at the middle point of
+ * the range on whichever of x or y is more spread out, the points before it being no greater
+ * and those after no less. Small ranges are left as buckets and searched directly. The tree
+ * cannot be changed once created; create it again if the points change.
+ * <p>
+ * Searches for one point allocate nothing but their output, so the tree can be searched from
+ * many threads at once. The bulk searches do this with a fork join pool.
+ */
+public class CKDTree {
+    /**
+     * Constructor.
+     */
+    public CKDTree() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param Points The points to index.
+     */
+    public CKDTree(ArrayList<C2DPoint> Points) {
+        Create(Points);
+    }
+
+    /**
+     * Creates the tree.
+     *
+     * @param Points The points to index.
+     */
+    public void Create(ArrayList<C2DPoint> Points) {
+        int nCount = Points.size();
+        double[] xs = new double[nCount];
+        double[] ys = new double[nCount];
+        for (int i = 0; i < nCount; i++) {
+            C2DPoint pt = Points.get(i);
+            xs[i] = pt.x;
+            ys[i] = pt.y;
+        }
+        Create(xs, ys, nCount);
+    }
+
+    /**
+     * Creates the tree.
+     *
+     * @param Points The points to index.
+     */
+    public void Create(C2DPointArraySet Points) {
+        Create(Points.GetXs(), Points.GetYs(), Points.size());
+    }
+
+    /**
+     * Creates the tree from points given by their coordinates. The coordinates are copied.
+     *
+     * @param xs     The x coordinates.
+     * @param ys     The y coordinates.
+     * @param nCount The number of points, the first nCount coordinates are used.
+     */
+    public void Create(double[] xs, double[] ys, int nCount) {
+        X = new double[nCount];
+        Y = new double[nCount];
+        Indexes = new int[nCount];
+        SplitOnY = new boolean[nCount];
+
+        System.arraycopy(xs, 0, X, 0, nCount);
+        System.arraycopy(ys, 0, Y, 0, nCount);
+        for (int i = 0; i < nCount; i++)
+            Indexes[i] = i;
+
+        Build(0, nCount);
+    }
+
+    /**
+     * The number of points.
+     */
+    public int size() {
+        return Indexes.length;
+    }
+
+    /**
+     * Finds the nearest point.
+     *
+     * @param pt The point to search from.
+     * @return The index of the nearest point or -1 if there are none.
+     */
+    public int GetNearest(C2DPoint pt) {
+        if (Indexes.length == 0)
+            return -1;
+
+        return Indexes[Nearest(0, Indexes.length, pt.x, pt.y, -1)];
+    }
+
+    /**
+     * Finds the nearest point.
+     *
+     * @param pt    The point to search from.
+     * @param dDist Output. The distance to the nearest point.
+     * @return The index of the nearest point or -1 if there are none.
+     */
+    public int GetNearest(C2DPoint pt, GeoDouble dDist) {
+        if (Indexes.length == 0)
+            return -1;
+
+        int nNearest = Nearest(0, Indexes.length, pt.x, pt.y, -1);
+        dDist.value = Math.sqrt(DistanceSq(nNearest, pt.x, pt.y));
+        return Indexes[nNearest];
+    }
+
+    /**
+     * Finds the k nearest points.
+     *
+     * @param pt      The point to search from.
+     * @param k       The number of points required.
+     * @param Indexes Output. The indexes of the points found, nearest first.
+     */
+    public void GetNearest(C2DPoint pt, int k, ArrayList<Integer> Indexes) {
+        k = Math.min(k, this.Indexes.length);
+        if (k <= 0)
+            return;
+
+        int[] Found = new int[k];
+        int nFound = GetNearest(pt, k, Found, new double[k]);
+        for (int i = 0; i < nFound; i++)
+            Indexes.add(Found[i]);
+    }
+
+    /**
+     * Finds the k nearest points into arrays provided so nothing is allocated.
+     *
+     * @param pt        The point to search from.
+     * @param k         The number of points required.
+     * @param Found     Output. The indexes of the points found, nearest first. Must have room for k.
+     * @param Distances Output. The distances to the points found. Must have room for k.
+     * @return The number of points found, which is k unless there are fewer points.
+     */
+    public int GetNearest(C2DPoint pt, int k, int[] Found, double[] Distances) {
+        k = Math.min(k, Indexes.length);
+        if (k <= 0)
+            return 0;
+
+        // The points are kept in a heap with the furthest at the top while searching.
+        int nFound = Nearest(0, Indexes.length, pt.x, pt.y, k, Found, Distances, 0);
+
+        // Sort nearest first by taking the furthest off the heap each time.
+        for (int nEnd = nFound - 1; nEnd > 0; nEnd--) {
+            Swap(Found, Distances, 0, nEnd);
+            SiftDown(Found, Distances, 0, nEnd);
+        }
+
+        for (int i = 0; i < nFound; i++) {
+            Found[i] = Indexes[Found[i]];
+            Distances[i] = Math.sqrt(Distances[i]);
+        }
+        return nFound;
+    }
+
+    /**
+     * Finds the points within the distance given, including those at exactly the distance.
+     *
+     * @param pt      The point to search from.
+     * @param dRadius The distance.
+     * @param Indexes Output. The indexes of the points found, in no particular order.
+     */
+    public void GetWithinRadius(C2DPoint pt, double dRadius, ArrayList<Integer> Indexes) {
+        if (dRadius < 0)
+            return;
+
+        WithinRadius(0, this.Indexes.length, pt.x, pt.y, dRadius * dRadius, Indexes);
+    }
+
+    /**
+     * Finds the points in the rectangle, including those on the edge.
+     *
+     * @param Rect    The rectangle to search.
+     * @param Indexes Output. The indexes of the points found, in no particular order.
+     */
+    public void Query(C2DRect Rect, ArrayList<Integer> Indexes) {
+        InRect(0, this.Indexes.length, Rect.GetLeft(), Rect.GetBottom(), Rect.GetRight(), Rect.GetTop(), Indexes);
+    }
+
+    /**
+     * Finds the nearest point to each of the points given, in parallel.
+     *
+     * @param Points  The points to search from.
+     * @param Nearest Output. The index of the nearest point to each, or -1 if there are none.
+     *                Must have room for all the points.
+     */
+    public void GetNearest(final ArrayList<C2DPoint> Points, final int[] Nearest) {
+        RunParallel(Points.size(), new IQuery() {
+            public void Run(int i) {
+                Nearest[i] = GetNearest(Points.get(i));
+            }
+        });
+    }
+
+    /**
+     * Finds the points within the distance given of each of the points given, in parallel.
+     *
+     * @param Points  The points to search from.
+     * @param dRadius The distance.
+     * @param Results Output. A list for each point is added holding the indexes found.
+     */
+    public void GetWithinRadius(final ArrayList<C2DPoint> Points, final double dRadius,
+                                ArrayList<ArrayList<Integer>> Results) {
+        int nCount = Points.size();
+        final ArrayList<ArrayList<Integer>> Found = new ArrayList<ArrayList<Integer>>(nCount);
+        for (int i = 0; i < nCount; i++)
+            Found.add(new ArrayList<Integer>());
+
+        RunParallel(nCount, new IQuery() {
+            public void Run(int i) {
+                GetWithinRadius(Points.get(i), dRadius, Found.get(i));
+            }
+        });
+
+        Results.addAll(Found);
+    }
+
+    /**
+     * The nearest point to the query point, as a position in the tree, within the range given.
+     *
+     * @param nBest The nearest so far or -1 if none.
+     */
+    private int Nearest(int nStart, int nEnd, double x, double y, int nBest) {
+        double dBestSq = nBest < 0 ? Double.MAX_VALUE : DistanceSq(nBest, x, y);
+
+        if (nEnd - nStart <= const_nBucketSize) {
+            for (int i = nStart; i < nEnd; i++) {
+                double dDistSq = DistanceSq(i, x, y);
+                if (dDistSq < dBestSq) {
+                    dBestSq = dDistSq;
+                    nBest = i;
+                }
+            }
+            return nBest;
+        }
+
+        int nMid = (nStart + nEnd) >>> 1;
+        double dDistSq = DistanceSq(nMid, x, y);
+        if (dDistSq < dBestSq)
+            nBest = nMid;
+
+        double dDiff = SplitOnY[nMid] ? y - Y[nMid] : x - X[nMid];
+        if (dDiff < 0) {
+            nBest = Nearest(nStart, nMid, x, y, nBest);
+            if (dDiff * dDiff < DistanceSq(nBest, x, y))
+                nBest = Nearest(nMid + 1, nEnd, x, y, nBest);
+        } else {
+            nBest = Nearest(nMid + 1, nEnd, x, y, nBest);
+            if (dDiff * dDiff < DistanceSq(nBest, x, y))
+                nBest = Nearest(nStart, nMid, x, y, nBest);
+        }
+        return nBest;
+    }
+
+    /**
+     * Adds the points in the range to the heap of the k nearest.
+     *
+     * @return The number in the heap.
+     */
+    private int Nearest(int nStart, int nEnd, double x, double y, int k,
+                        int[] Heap, double[] HeapDistances, int nFound) {
+        if (nEnd - nStart <= const_nBucketSize) {
+            for (int i = nStart; i < nEnd; i++)
+                nFound = AddToHeap(i, DistanceSq(i, x, y), k, Heap, HeapDistances, nFound);
+            return nFound;
+        }
+
+        int nMid = (nStart + nEnd) >>> 1;
+        nFound = AddToHeap(nMid, DistanceSq(nMid, x, y), k, Heap, HeapDistances, nFound);
+
+        double dDiff = SplitOnY[nMid] ? y - Y[nMid] : x - X[nMid];
+        if (dDiff < 0) {
+            nFound = Nearest(nStart, nMid, x, y, k, Heap, HeapDistances, nFound);
+            if (nFound < k || dDiff * dDiff < HeapDistances[0])
+                nFound = Nearest(nMid + 1, nEnd, x, y, k, Heap, HeapDistances, nFound);
+        } else {
+            nFound = Nearest(nMid + 1, nEnd, x, y, k, Heap, HeapDistances, nFound);
+            if (nFound < k || dDiff * dDiff < HeapDistances[0])
+                nFound = Nearest(nStart, nMid, x, y, k, Heap, HeapDistances, nFound);
+        }
+        return nFound;
+    }
+
+    /**
+     * Adds the point to the heap of the k nearest if it is nearer than the furthest in it.
+     *
+     * @return The number in the heap.
+     */
+    private static int AddToHeap(int nPoint, double dDistSq, int k, int[] Heap, double[] HeapDistances, int nFound) {
+        if (nFound < k) {
+            // Add at the bottom and move up.
+            int i = nFound++;
+            while (i > 0) {
+                int nParent = (i - 1) / 2;
+                if (HeapDistances[nParent] >= dDistSq)
+                    break;
+                Heap[i] = Heap[nParent];
+                HeapDistances[i] = HeapDistances[nParent];
+                i = nParent;
+            }
+            Heap[i] = nPoint;
+            HeapDistances[i] = dDistSq;
+        } else if (dDistSq < HeapDistances[0]) {
+            // Replace the furthest.
+            Heap[0] = nPoint;
+            HeapDistances[0] = dDistSq;
+            SiftDown(Heap, HeapDistances, 0, nFound);
+        }
+        return nFound;
+    }
+
+    /**
+     * Moves the heap entry down until it is no nearer than its children.
+     */
+    private static void SiftDown(int[] Heap, double[] HeapDistances, int i, int nSize) {
+        while (true) {
+            int nChild = i * 2 + 1;
+            if (nChild >= nSize)
+                return;
+            if (nChild + 1 < nSize && HeapDistances[nChild + 1] > HeapDistances[nChild])
+                nChild++;
+            if (HeapDistances[nChild] <= HeapDistances[i])
+                return;
+            Swap(Heap, HeapDistances, i, nChild);
+            i = nChild;
+        }
+    }
+
+    private static void Swap(int[] Heap, double[] HeapDistances, int i, int j) {
+        int nTemp = Heap[i];
+        Heap[i] = Heap[j];
+        Heap[j] = nTemp;
+        double dTemp = HeapDistances[i];
+        HeapDistances[i] = HeapDistances[j];
+        HeapDistances[j] = dTemp;
+    }
+
+    /**
+     * Adds the points in the range within the distance.
+     */
+    private void WithinRadius(int nStart, int nEnd, double x, double y, double dRadiusSq,
+                              ArrayList<Integer> Found) {
+        if (nEnd - nStart <= const_nBucketSize) {
+            for (int i = nStart; i < nEnd; i++) {
+                if (DistanceSq(i, x, y) <= dRadiusSq)
+                    Found.add(Indexes[i]);
+            }
+            return;
+        }
+
+        int nMid = (nStart + nEnd) >>> 1;
+        if (DistanceSq(nMid, x, y) <= dRadiusSq)
+            Found.add(Indexes[nMid]);
+
+        double dDiff = SplitOnY[nMid] ? y - Y[nMid] : x - X[nMid];
+        if (dDiff <= 0 || dDiff * dDiff <= dRadiusSq)
+            WithinRadius(nStart, nMid, x, y, dRadiusSq, Found);
+        if (dDiff >= 0 || dDiff * dDiff <= dRadiusSq)
+            WithinRadius(nMid + 1, nEnd, x, y, dRadiusSq, Found);
+    }
+
+    /**
+     * Adds the points in the range inside the rectangle.
+     */
+    private void InRect(int nStart, int nEnd, double dLeft, double dBottom, double dRight, double dTop,
+                        ArrayList<Integer> Found) {
+        if (nEnd - nStart <= const_nBucketSize) {
+            for (int i = nStart; i < nEnd; i++) {
+                if (X[i] >= dLeft && X[i] <= dRight && Y[i] >= dBottom && Y[i] <= dTop)
+                    Found.add(Indexes[i]);
+            }
+            return;
+        }
+
+        int nMid = (nStart + nEnd) >>> 1;
+        double x = X[nMid];
+        double y = Y[nMid];
+        if (x >= dLeft && x <= dRight && y >= dBottom && y <= dTop)
+            Found.add(Indexes[nMid]);
+
+        double dSplit = SplitOnY[nMid] ? y : x;
+        double dMin = SplitOnY[nMid] ? dBottom : dLeft;
+        double dMax = SplitOnY[nMid] ? dTop : dRight;
+        if (dMin <= dSplit)
+            InRect(nStart, nMid, dLeft, dBottom, dRight, dTop, Found);
+        if (dMax >= dSplit)
+            InRect(nMid + 1, nEnd, dLeft, dBottom, dRight, dTop, Found);
+    }
+
+    private double DistanceSq(int i, double x, double y) {
+        double dx = X[i] - x;
+        double dy = Y[i] - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Builds the tree over the range by splitting at the middle and building each side.
+     */
+    private void Build(int nStart, int nEnd) {
+        if (nEnd - nStart <= const_nBucketSize)
+            return;
+
+        double dMinX = X[nStart];
+        double dMaxX = dMinX;
+        double dMinY = Y[nStart];
+        double dMaxY = dMinY;
+        for (int i = nStart + 1; i < nEnd; i++) {
+            dMinX = Math.min(dMinX, X[i]);
+            dMaxX = Math.max(dMaxX, X[i]);
+            dMinY = Math.min(dMinY, Y[i]);
+            dMaxY = Math.max(dMaxY, Y[i]);
+        }
+        boolean bSplitOnY = dMaxY - dMinY > dMaxX - dMinX;
+
+        int nMid = (nStart + nEnd) >>> 1;
+        Select(nStart, nEnd, nMid, bSplitOnY ? Y : X);
+        SplitOnY[nMid] = bSplitOnY;
+
+        Build(nStart, nMid);
+        Build(nMid + 1, nEnd);
+    }
+
+    /**
+     * Partially sorts the range on the key so the point at nTarget is in its sorted position,
+     * those before no greater and those after no less. Quickselect.
+     */
+    private void Select(int nStart, int nEnd, int nTarget, double[] Keys) {
+        int nLow = nStart;
+        int nHigh = nEnd - 1;
+        while (nLow < nHigh) {
+            // Median of 3 for the pivot.
+            int nMid = (nLow + nHigh) >>> 1;
+            double a = Keys[nLow];
+            double b = Keys[nMid];
+            double c = Keys[nHigh];
+            double dPivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+
+            int i = nLow;
+            int j = nHigh;
+            while (i <= j) {
+                while (Keys[i] < dPivot)
+                    i++;
+                while (Keys[j] > dPivot)
+                    j--;
+                if (i <= j) {
+                    SwapPoints(i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            if (nTarget <= j)
+                nHigh = j;
+            else if (nTarget >= i)
+                nLow = i;
+            else
+                return;
+        }
+    }
+
+    private void SwapPoints(int i, int j) {
+        double dTemp = X[i];
+        X[i] = X[j];
+        X[j] = dTemp;
+        dTemp = Y[i];
+        Y[i] = Y[j];
+        Y[j] = dTemp;
+        int nTemp = Indexes[i];
+        Indexes[i] = Indexes[j];
+        Indexes[j] = nTemp;
+    }
+
+    /**
+     * A search for one of the points in a bulk search.
+     */
+    private interface IQuery {
+        void Run(int i);
+    }
+
+    /**
+     * Runs the search for each point, in parallel if there are enough.
+     */
+    private void RunParallel(int nCount, IQuery Query) {
+        if (Parallelism <= 1 || nCount <= const_nParallelGroupSize) {
+            for (int i = 0; i < nCount; i++)
+                Query.Run(i);
+            return;
+        }
+
+        ForkJoinPool Pool = new ForkJoinPool(Parallelism);
+        try {
+            Pool.invoke(new CQueryTask(Query, 0, nCount));
+        } finally {
+            Pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the searches for a range of points, splitting it in half until it is small enough.
+     */
+    private static class CQueryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        CQueryTask(IQuery Query, int nStart, int nEnd) {
+            this.Query = Query;
+            this.nStart = nStart;
+            this.nEnd = nEnd;
+        }
+
+        @Override
+        protected void compute() {
+            if (nEnd - nStart <= const_nParallelGroupSize) {
+                for (int i = nStart; i < nEnd; i++)
+                    Query.Run(i);
+                return;
+            }
+
+            int nMid = (nStart + nEnd) >>> 1;
+            invokeAll(new CQueryTask(Query, nStart, nMid), new CQueryTask(Query, nMid, nEnd));
+        }
+
+        private final IQuery Query;
+        private final int nStart;
+        private final int nEnd;
+    }
+
+    /**
+     * The number of threads used by the bulk searches. Defaults to the number of processors.
+     */
+    public int getParallelism() {
+        return Parallelism;
+    }
+
+    /**
+     * Sets the number of threads used by the bulk searches. 1 to run them on the calling thread.
+     */
+    public void setParallelism(int nParallelism) {
+        Parallelism = Math.max(1, nParallelism);
+    }
+
+    /**
+     * The most points searched directly rather than split.
+     */
+    private static final int const_nBucketSize = 8;
+
+    /**
+     * The number of points searched from by each task in the bulk searches.
+     */
+    private static final int const_nParallelGroupSize = 1024;
+
+    /**
+     * The points in tree order and their indexes in the points used to create the tree.
+     */
+    private double[] X = new double[0];
+    private double[] Y = new double[0];
+    private int[] Indexes = new int[0];
+
+    /**
+     * For each point a range is split at, whether the split is on y rather than x.
+     */
+    private boolean[] SplitOnY = new boolean[0];
+
+    private int Parallelism = Runtime.getRuntime().availableProcessors();
+}
@@ -0,0 +1,197 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+
+/**
+ * Minimum enclosing circle of a set of points using Welzl's randomised incremental algorithm,
+ * which takes expected O(n) time. The points are visited in a random order and the circle is
+ * only recalculated, from 1, 2 or 3 of the points on its edge, when a point is found outside
+ * it. The order is from a fixed seed so the same points always give the same circle.
+ * <p>
+ * Nothing is allocated per point. The buffers are kept between calls so one instance can be
+ * reused for many point sets. Not thread safe.
+ */
+public class CMinEnclosingCircle {
+    /**
+     * Constructor.
+     */
+    public CMinEnclosingCircle() {
+    }
+
+    /**
+     * Finds the minimum enclosing circle of the points.
+     *
+     * @param Points The points.
+     * @param Circle Output. The circle.
+     */
+    public void GetCircle(ArrayList<C2DPoint> Points, C2DCircle Circle) {
+        int nCount = Points.size();
+        Reserve(nCount);
+        for (int i = 0; i < nCount; i++) {
+            C2DPoint pt = Points.get(i);
+            X[i] = pt.x;
+            Y[i] = pt.y;
+        }
+        GetCircle(X, Y, nCount, Circle);
+    }
+
+    /**
+     * Finds the minimum enclosing circle of the points.
+     *
+     * @param Points The points.
+     * @param Circle Output. The circle.
+     */
+    public void GetCircle(C2DPointArraySet Points, C2DCircle Circle) {
+        GetCircle(Points.GetXs(), Points.GetYs(), Points.size(), Circle);
+    }
+
+    /**
+     * Finds the minimum enclosing circle of the points given by their coordinates.
+     *
+     * @param xs     The x coordinates.
+     * @param ys     The y coordinates.
+     * @param nCount The number of points, the first nCount coordinates are used.
+     * @param Circle Output. The circle.
+     */
+    public void GetCircle(double[] xs, double[] ys, int nCount, C2DCircle Circle) {
+        if (nCount == 0) {
+            assert false : "Point set with no points. Cannot calculate bounding circle.";
+            return;
+        }
+
+        // A random order of the points.
+        if (Order.length < nCount)
+            Order = new int[nCount];
+        int[] Order = this.Order;
+        long lSeed = const_lSeed;
+        for (int i = 0; i < nCount; i++) {
+            lSeed ^= lSeed << 13;
+            lSeed ^= lSeed >>> 7;
+            lSeed ^= lSeed << 17;
+            int j = (int) ((lSeed >>> 1) % (i + 1));
+            Order[i] = Order[j];
+            Order[j] = i;
+        }
+
+        int n = Order[0];
+        CentreX = xs[n];
+        CentreY = ys[n];
+        Radius = 0;
+
+        for (int i = 1; i < nCount; i++) {
+            int ni = Order[i];
+            if (IsInside(xs[ni], ys[ni]))
+                continue;
+
+            // Point i must be on the edge of the circle for the first i + 1 points.
+            CentreX = xs[ni];
+            CentreY = ys[ni];
+            Radius = 0;
+
+            for (int j = 0; j < i; j++) {
+                int nj = Order[j];
+                if (IsInside(xs[nj], ys[nj]))
+                    continue;
+
+                // Points i and j must be on the edge.
+                SetDiameter(xs[ni], ys[ni], xs[nj], ys[nj]);
+
+                for (int k = 0; k < j; k++) {
+                    int nk = Order[k];
+                    if (IsInside(xs[nk], ys[nk]))
+                        continue;
+
+                    // Points i, j and k must be on the edge.
+                    SetCircumscribed(xs[ni], ys[ni], xs[nj], ys[nj], xs[nk], ys[nk]);
+                }
+            }
+        }
+
+        Circle.Set(new C2DPoint(CentreX, CentreY), Radius);
+    }
+
+    /**
+     * True if the point is in the current circle, allowing for rounding.
+     */
+    private boolean IsInside(double x, double y) {
+        double dx = x - CentreX;
+        double dy = y - CentreY;
+        return Math.sqrt(dx * dx + dy * dy) <= Radius * (1 + const_dRelativeTolerance);
+    }
+
+    /**
+     * Sets the circle to the one with the 2 points at either end of a diameter.
+     */
+    private void SetDiameter(double x1, double y1, double x2, double y2) {
+        CentreX = (x1 + x2) / 2;
+        CentreY = (y1 + y2) / 2;
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        Radius = Math.sqrt(dx * dx + dy * dy) / 2;
+    }
+
+    /**
+     * Sets the circle to the one through all 3 points. If they are in a line then the circle
+     * through the 2 furthest apart.
+     */
+    private void SetCircumscribed(double x1, double y1, double x2, double y2, double x3, double y3) {
+        // Relative to the first point to keep the precision.
+        double bx = x2 - x1;
+        double by = y2 - y1;
+        double cx = x3 - x1;
+        double cy = y3 - y1;
+        double d = 2 * (bx * cy - by * cx);
+
+        if (d == 0) {
+            double d12 = bx * bx + by * by;
+            double d13 = cx * cx + cy * cy;
+            double dx = x3 - x2;
+            double dy = y3 - y2;
+            double d23 = dx * dx + dy * dy;
+            if (d12 >= d13 && d12 >= d23)
+                SetDiameter(x1, y1, x2, y2);
+            else if (d13 >= d23)
+                SetDiameter(x1, y1, x3, y3);
+            else
+                SetDiameter(x2, y2, x3, y3);
+            return;
+        }
+
+        double b2 = bx * bx + by * by;
+        double c2 = cx * cx + cy * cy;
+        double ux = (cy * b2 - by * c2) / d;
+        double uy = (bx * c2 - cx * b2) / d;
+
+        CentreX = x1 + ux;
+        CentreY = y1 + uy;
+        Radius = Math.sqrt(ux * ux + uy * uy);
+    }
+
+    /**
+     * Makes sure the coordinate buffers have room for the number of points.
+     */
+    private void Reserve(int nCount) {
+        if (X.length < nCount) {
+            X = new double[nCount];
+            Y = new double[nCount];
+        }
+    }
+
+    /**
+     * The seed for the order the points are visited in.
+     */
+    private static final long const_lSeed = 0x2545F4914F6CDD1DL;
+
+    /**
+     * The tolerance on the radius for a point to be in the circle.
+     */
+    private static final double const_dRelativeTolerance = 0.000000000001;
+
+    private double[] X = new double[0];
+    private double[] Y = new double[0];
+    private int[] Order = new int[0];
+
+    private double CentreX;
+    private double CentreY;
+    private double Radius;
+}
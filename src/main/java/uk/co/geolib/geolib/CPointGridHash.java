@@ -0,0 +1,165 @@
+package uk.co.geolib.geolib;
+
+import java.util.Arrays;
+
+/**
+ * A spatial hash of points used to find repeated or equal points in expected O(1) time per point.
+ * <p>
+ * Points are equal if they pass C2DPoint.PointEqualTo, which is relative to the first point
+ * so the tolerance grows with the coordinates. The cells are made the size of the tolerance
+ * at the largest coordinate so 2 equal points are always in the same or neighbouring cells and
+ * only the 9 cells round a point need to be checked. The table is open addressed on the cell
+ * and the points in a cell are chained through an array, so there is no allocation per point.
+ */
+class CPointGridHash {
+    /**
+     * Constructor. Hashes the points.
+     *
+     * @param xs     The x coordinates.
+     * @param ys     The y coordinates.
+     * @param nCount The number of points, the first nCount coordinates are used.
+     */
+    CPointGridHash(double[] xs, double[] ys, int nCount) {
+        this.xs = xs;
+        this.ys = ys;
+        this.Count = nCount;
+
+        double dMaxAbs = 0;
+        for (int i = 0; i < nCount; i++) {
+            dMaxAbs = Math.max(dMaxAbs, Math.abs(xs[i]));
+            dMaxAbs = Math.max(dMaxAbs, Math.abs(ys[i]));
+        }
+        // Twice the tolerance so rounding in the division cannot split equal points by 2 cells.
+        CellSize = dMaxAbs * Constants.conEqualityTolerance * 2;
+        if (CellSize == 0)
+            CellSize = 1;
+
+        int nTableSize = 1;
+        while (nTableSize < nCount * 2)
+            nTableSize <<= 1;
+        Mask = nTableSize - 1;
+        CellXs = new long[nTableSize];
+        CellYs = new long[nTableSize];
+        Heads = new int[nTableSize];
+        Arrays.fill(Heads, -1);
+        Next = new int[nCount];
+
+        // Add in reverse so each chain is in index order.
+        for (int i = nCount - 1; i >= 0; i--) {
+            int nSlot = FindSlot(CellX(xs[i]), CellY(ys[i]));
+            if (Heads[nSlot] == -1) {
+                CellXs[nSlot] = CellX(xs[i]);
+                CellYs[nSlot] = CellY(ys[i]);
+            }
+            Next[i] = Heads[nSlot];
+            Heads[nSlot] = i;
+        }
+    }
+
+    /**
+     * Finds the repeated points. Going through the points in order, any later point equal to one
+     * that is kept is marked as repeated so the first of each is kept.
+     *
+     * @return True for each point that is a repeat of an earlier one.
+     */
+    boolean[] FindRepeated() {
+        boolean[] Repeated = new boolean[Count];
+
+        for (int i = 0; i < Count; i++) {
+            if (Repeated[i])
+                continue;
+
+            double x = xs[i];
+            double y = ys[i];
+            long nCellX = CellX(x);
+            long nCellY = CellY(y);
+
+            for (long cx = nCellX - 1; cx <= nCellX + 1; cx++) {
+                for (long cy = nCellY - 1; cy <= nCellY + 1; cy++) {
+                    for (int r = Heads[FindSlot(cx, cy)]; r != -1; r = Next[r]) {
+                        if (r > i && !Repeated[r] && C2DPoint.PointEqualTo(x, y, xs[r], ys[r]))
+                            Repeated[r] = true;
+                    }
+                }
+            }
+        }
+
+        return Repeated;
+    }
+
+    /**
+     * Finds the point equal to the one given with the lowest order, ignoring points with an order
+     * of -1. The test is relative to the hashed point, C2DPoint.PointEqualTo(xs[i], ys[i], x, y).
+     *
+     * @param x      The x coordinate.
+     * @param y      The y coordinate.
+     * @param Orders The order of each point, -1 to ignore it.
+     * @return The index of the point, -1 if there is none.
+     */
+    int FindEqual(double x, double y, int[] Orders) {
+        int nResult = -1;
+        long nCellX = CellX(x);
+        long nCellY = CellY(y);
+
+        for (long cx = nCellX - 1; cx <= nCellX + 1; cx++) {
+            for (long cy = nCellY - 1; cy <= nCellY + 1; cy++) {
+                for (int r = Heads[FindSlot(cx, cy)]; r != -1; r = Next[r]) {
+                    if (Orders[r] != -1 && (nResult == -1 || Orders[r] < Orders[nResult]) &&
+                            C2DPoint.PointEqualTo(xs[r], ys[r], x, y))
+                        nResult = r;
+                }
+            }
+        }
+
+        return nResult;
+    }
+
+    /**
+     * The column of the cell for the x coordinate.
+     */
+    private long CellX(double x) {
+        return (long) Math.floor(x / CellSize);
+    }
+
+    /**
+     * The row of the cell for the y coordinate.
+     */
+    private long CellY(double y) {
+        return (long) Math.floor(y / CellSize);
+    }
+
+    /**
+     * The slot in the table for the cell, either the one holding it or the empty one it would go in.
+     */
+    private int FindSlot(long nCellX, long nCellY) {
+        long lHash = nCellX * 0x9E3779B97F4A7C15L + nCellY;
+        lHash ^= lHash >>> 32;
+        lHash *= 0xC2B2AE3D27D4EB4FL;
+        int nSlot = (int) (lHash ^ (lHash >>> 29)) & Mask;
+
+        while (Heads[nSlot] != -1 && (CellXs[nSlot] != nCellX || CellYs[nSlot] != nCellY))
+            nSlot = (nSlot + 1) & Mask;
+
+        return nSlot;
+    }
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int Count;
+
+    private double CellSize;
+
+    private final int Mask;
+    private final long[] CellXs;
+    private final long[] CellYs;
+
+    /**
+     * The first point in each cell, -1 for an empty slot.
+     */
+    private final int[] Heads;
+
+    /**
+     * The next point in the same cell, -1 for the last.
+     */
+    private final int[] Next;
+}
@@ -0,0 +1,71 @@
+package uk.co.geolib.geolib;
+
+import java.math.BigDecimal;
+
+/**
+ * Exact orientation and in circle tests. They are worked out in floating point and again with
+ * BigDecimal only when the result is too near 0 to be sure of its sign, so the sign is always
+ * right and a test of 3 points gives the same answer whatever order they are given in.
+ */
+class CPredicates {
+    /**
+     * Twice the signed area of the triangle, positive if anticlockwise. The sign is exact, the
+     * value only when it is far enough from 0.
+     */
+    static double Orient(double ax, double ay, double bx, double by, double cx, double cy) {
+        double dLeft = (bx - ax) * (cy - ay);
+        double dRight = (by - ay) * (cx - ax);
+        double dDet = dLeft - dRight;
+        if (Math.abs(dDet) > const_dOrientErrorBound * (Math.abs(dLeft) + Math.abs(dRight)))
+            return dDet;
+
+        BigDecimal Ax = new BigDecimal(ax);
+        BigDecimal Ay = new BigDecimal(ay);
+        return new BigDecimal(bx).subtract(Ax).multiply(new BigDecimal(cy).subtract(Ay)).subtract(
+                new BigDecimal(by).subtract(Ay).multiply(new BigDecimal(cx).subtract(Ax))).signum();
+    }
+
+    /**
+     * True if d is inside the circumcircle of the anticlockwise triangle a, b, c.
+     */
+    static boolean InCircle(double ax, double ay, double bx, double by, double cx, double cy,
+                            double dx, double dy) {
+        double adx = ax - dx;
+        double ady = ay - dy;
+        double bdx = bx - dx;
+        double bdy = by - dy;
+        double cdx = cx - dx;
+        double cdy = cy - dy;
+
+        double dALift = adx * adx + ady * ady;
+        double dBLift = bdx * bdx + bdy * bdy;
+        double dCLift = cdx * cdx + cdy * cdy;
+        double dDet = dALift * (bdx * cdy - cdx * bdy) +
+                dBLift * (cdx * ady - adx * cdy) +
+                dCLift * (adx * bdy - bdx * ady);
+        double dPermanent = dALift * (Math.abs(bdx * cdy) + Math.abs(cdx * bdy)) +
+                dBLift * (Math.abs(cdx * ady) + Math.abs(adx * cdy)) +
+                dCLift * (Math.abs(adx * bdy) + Math.abs(bdx * ady));
+        if (Math.abs(dDet) > const_dInCircleErrorBound * dPermanent)
+            return dDet > 0;
+
+        BigDecimal Dx = new BigDecimal(dx);
+        BigDecimal Dy = new BigDecimal(dy);
+        BigDecimal Ax = new BigDecimal(ax).subtract(Dx);
+        BigDecimal Ay = new BigDecimal(ay).subtract(Dy);
+        BigDecimal Bx = new BigDecimal(bx).subtract(Dx);
+        BigDecimal By = new BigDecimal(by).subtract(Dy);
+        BigDecimal Cx = new BigDecimal(cx).subtract(Dx);
+        BigDecimal Cy = new BigDecimal(cy).subtract(Dy);
+        return Ax.multiply(Ax).add(Ay.multiply(Ay)).multiply(Bx.multiply(Cy).subtract(Cx.multiply(By))).add(
+                Bx.multiply(Bx).add(By.multiply(By)).multiply(Cx.multiply(Ay).subtract(Ax.multiply(Cy)))).add(
+                Cx.multiply(Cx).add(Cy.multiply(Cy)).multiply(Ax.multiply(By).subtract(Bx.multiply(Ay)))).signum() > 0;
+    }
+
+    /**
+     * Relative bounds on the rounding error of the floating point tests, from Shewchuk's
+     * adaptive predicates. Nearer 0 than this the sign is found exactly.
+     */
+    private static final double const_dOrientErrorBound = 3.3306690738754716E-16;
+    private static final double const_dInCircleErrorBound = 1.1102230246251577E-15;
+}
@@ -0,0 +1,467 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Static R-tree over a set of rectangles, bulk loaded using Sort-Tile-Recursive (STR) packing.
+ * Items are identified by their index in the set used to create the tree. The tree is held
+ * in arrays of primitives and cannot be changed once created; create it again if the
+ * rectangles change.
+ */
+public class CRTree {
+    /**
+     * Interface to provide the distance from a point to an item for nearest neighbour searches.
+     * The distance must be no less than the distance from the point to the item's rectangle.
+     */
+    public interface IDistance {
+        /**
+         * The distance from the point to the item.
+         *
+         * @param nIndex The index of the item.
+         * @param pt     The point.
+         */
+        double Distance(int nIndex, C2DPoint pt);
+    }
+
+    /**
+     * Constructor.
+     */
+    public CRTree() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param Rects The rectangles to index.
+     */
+    public CRTree(ArrayList<C2DRect> Rects) {
+        Create(Rects);
+    }
+
+    /**
+     * Creates the tree with the default node capacity.
+     *
+     * @param Rects The rectangles to index.
+     */
+    public void Create(ArrayList<C2DRect> Rects) {
+        Create(Rects, const_nDefaultNodeCapacity);
+    }
+
+    /**
+     * Creates the tree.
+     *
+     * @param Rects         The rectangles to index.
+     * @param nNodeCapacity The maximum number of children per node.
+     */
+    public void Create(ArrayList<C2DRect> Rects, int nNodeCapacity) {
+        NodeCapacity = Math.max(2, nNodeCapacity);
+
+        int nItems = Rects.size();
+
+        ItemIndexes = new int[nItems];
+        ItemLeft = new double[nItems];
+        ItemBottom = new double[nItems];
+        ItemRight = new double[nItems];
+        ItemTop = new double[nItems];
+
+        for (int i = 0; i < nItems; i++) {
+            C2DRect Rect = Rects.get(i);
+            ItemIndexes[i] = i;
+            ItemLeft[i] = Rect.GetLeft();
+            ItemBottom[i] = Rect.GetBottom();
+            ItemRight[i] = Rect.GetRight();
+            ItemTop[i] = Rect.GetTop();
+        }
+
+        NodeCount = 0;
+        LeafCount = 0;
+
+        if (nItems == 0) {
+            NodeLeft = new double[0];
+            NodeBottom = new double[0];
+            NodeRight = new double[0];
+            NodeTop = new double[0];
+            NodeFirst = new int[0];
+            NodeChildren = new int[0];
+            return;
+        }
+
+        // Work out how many nodes there will be over all the levels.
+        int nTotalNodes = 0;
+        int nLevelSize = nItems;
+        do {
+            nLevelSize = (nLevelSize + NodeCapacity - 1) / NodeCapacity;
+            nTotalNodes += nLevelSize;
+        } while (nLevelSize > 1);
+
+        NodeLeft = new double[nTotalNodes];
+        NodeBottom = new double[nTotalNodes];
+        NodeRight = new double[nTotalNodes];
+        NodeTop = new double[nTotalNodes];
+        NodeFirst = new int[nTotalNodes];
+        NodeChildren = new int[nTotalNodes];
+
+        // The leaves, made from the items in STR order.
+        int[] Order = SortTileRecursive(ItemLeft, ItemBottom, ItemRight, ItemTop, 0, nItems);
+        Reorder(ItemIndexes, Order, 0);
+        Reorder(ItemLeft, Order, 0);
+        Reorder(ItemBottom, Order, 0);
+        Reorder(ItemRight, Order, 0);
+        Reorder(ItemTop, Order, 0);
+
+        AddParents(ItemLeft, ItemBottom, ItemRight, ItemTop, 0, nItems);
+        LeafCount = NodeCount;
+
+        // Now each level up until there is just the root.
+        int nLevelStart = 0;
+        int nLevelCount = NodeCount;
+        while (nLevelCount > 1) {
+            Order = SortTileRecursive(NodeLeft, NodeBottom, NodeRight, NodeTop, nLevelStart, nLevelCount);
+            Reorder(NodeLeft, Order, nLevelStart);
+            Reorder(NodeBottom, Order, nLevelStart);
+            Reorder(NodeRight, Order, nLevelStart);
+            Reorder(NodeTop, Order, nLevelStart);
+            Reorder(NodeFirst, Order, nLevelStart);
+            Reorder(NodeChildren, Order, nLevelStart);
+
+            int nParentStart = NodeCount;
+            AddParents(NodeLeft, NodeBottom, NodeRight, NodeTop, nLevelStart, nLevelCount);
+
+            nLevelStart = nParentStart;
+            nLevelCount = NodeCount - nParentStart;
+        }
+    }
+
+    /**
+     * The number of items in the tree.
+     */
+    public int size() {
+        return ItemIndexes.length;
+    }
+
+    /**
+     * The bounding rectangle of all the items.
+     *
+     * @param Rect Output. The bounding rectangle.
+     */
+    public void GetBoundingRect(C2DRect Rect) {
+        if (NodeCount == 0) {
+            Rect.Clear();
+            return;
+        }
+
+        int nRoot = NodeCount - 1;
+        Rect.Set(NodeLeft[nRoot], NodeTop[nRoot], NodeRight[nRoot], NodeBottom[nRoot]);
+    }
+
+    /**
+     * Finds the items whose rectangles overlap or touch the rectangle given.
+     *
+     * @param Rect    The rectangle to search.
+     * @param Indexes Output. The indexes of the items found, in no particular order.
+     */
+    public void Query(C2DRect Rect, ArrayList<Integer> Indexes) {
+        if (NodeCount == 0)
+            return;
+
+        double dLeft = Rect.GetLeft();
+        double dBottom = Rect.GetBottom();
+        double dRight = Rect.GetRight();
+        double dTop = Rect.GetTop();
+
+        int[] Stack = new int[64];
+        int nStack = 0;
+        Stack[nStack++] = NodeCount - 1;
+
+        while (nStack > 0) {
+            int nNode = Stack[--nStack];
+            if (NodeLeft[nNode] > dRight || NodeRight[nNode] < dLeft ||
+                    NodeBottom[nNode] > dTop || NodeTop[nNode] < dBottom)
+                continue;
+
+            int nFirst = NodeFirst[nNode];
+            int nEnd = nFirst + NodeChildren[nNode];
+
+            if (nNode < LeafCount) {
+                for (int i = nFirst; i < nEnd; i++) {
+                    if (!(ItemLeft[i] > dRight || ItemRight[i] < dLeft ||
+                            ItemBottom[i] > dTop || ItemTop[i] < dBottom))
+                        Indexes.add(ItemIndexes[i]);
+                }
+            } else {
+                if (nStack + NodeCapacity > Stack.length)
+                    Stack = Arrays.copyOf(Stack, Stack.length * 2 + NodeCapacity);
+                for (int i = nFirst; i < nEnd; i++)
+                    Stack[nStack++] = i;
+            }
+        }
+    }
+
+    /**
+     * Finds the items whose rectangles contain the point given, including on the edge.
+     *
+     * @param pt      The point.
+     * @param Indexes Output. The indexes of the items found, in no particular order.
+     */
+    public void Query(C2DPoint pt, ArrayList<Integer> Indexes) {
+        Query(new C2DRect(pt), Indexes);
+    }
+
+    /**
+     * Finds the k items with the nearest rectangles to the point. Items whose rectangles
+     * contain the point are at distance 0.
+     *
+     * @param pt      The point.
+     * @param k       The number of items required.
+     * @param Indexes Output. The indexes of the items found, nearest first.
+     */
+    public void GetNearest(C2DPoint pt, int k, ArrayList<Integer> Indexes) {
+        GetNearest(pt, k, null, Indexes);
+    }
+
+    /**
+     * Finds the k nearest items to the point using the distance provided. Rectangle distances
+     * are used to decide which items need their distance calculating, so the items' distances
+     * are only found for items which could be in the result.
+     *
+     * @param pt        The point.
+     * @param k         The number of items required.
+     * @param pDistance The item distance, or null to use the distance to the item's rectangle.
+     * @param Indexes   Output. The indexes of the items found, nearest first.
+     */
+    public void GetNearest(C2DPoint pt, int k, IDistance pDistance, ArrayList<Integer> Indexes) {
+        if (NodeCount == 0 || k <= 0)
+            return;
+
+        int nItems = ItemIndexes.length;
+        // Heap values are node indexes, then items still needing their distance, then items with
+        // their distance found.
+        int nUnresolved = NodeCount;
+        int nResolved = NodeCount + nItems;
+
+        CHeap Heap = new CHeap();
+        Heap.Push(0, NodeCount - 1);
+
+        int nFound = 0;
+        while (Heap.Size > 0 && nFound < k) {
+            double dKey = Heap.Keys[0];
+            int nValue = Heap.Pop();
+
+            if (nValue >= nResolved) {
+                Indexes.add(ItemIndexes[nValue - nResolved]);
+                nFound++;
+            } else if (nValue >= nUnresolved) {
+                int nItem = nValue - nUnresolved;
+                if (pDistance == null)
+                    Indexes.add(ItemIndexes[nItem]);
+                else {
+                    double dDist = Math.max(dKey, pDistance.Distance(ItemIndexes[nItem], pt));
+                    Heap.Push(dDist, nResolved + nItem);
+                    continue;
+                }
+                nFound++;
+            } else {
+                int nFirst = NodeFirst[nValue];
+                int nEnd = nFirst + NodeChildren[nValue];
+
+                if (nValue < LeafCount) {
+                    for (int i = nFirst; i < nEnd; i++) {
+                        Heap.Push(RectDistance(pt, ItemLeft[i], ItemBottom[i], ItemRight[i], ItemTop[i]),
+                                nUnresolved + i);
+                    }
+                } else {
+                    for (int i = nFirst; i < nEnd; i++) {
+                        Heap.Push(RectDistance(pt, NodeLeft[i], NodeBottom[i], NodeRight[i], NodeTop[i]), i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The distance from the point to the rectangle. 0 if inside.
+     */
+    private static double RectDistance(C2DPoint pt, double dLeft, double dBottom, double dRight, double dTop) {
+        double dx = 0;
+        if (pt.x < dLeft)
+            dx = dLeft - pt.x;
+        else if (pt.x > dRight)
+            dx = pt.x - dRight;
+
+        double dy = 0;
+        if (pt.y < dBottom)
+            dy = dBottom - pt.y;
+        else if (pt.y > dTop)
+            dy = pt.y - dTop;
+
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Groups the entries given, which are already in STR order, into new nodes of up to the node
+     * capacity. The entries are items if the nodes are leaves, otherwise nodes.
+     */
+    private void AddParents(double[] Left, double[] Bottom, double[] Right, double[] Top,
+                            int nStart, int nCount) {
+        int nEnd = nStart + nCount;
+        for (int nFirst = nStart; nFirst < nEnd; nFirst += NodeCapacity) {
+            int nLast = Math.min(nFirst + NodeCapacity, nEnd);
+
+            double dLeft = Left[nFirst];
+            double dBottom = Bottom[nFirst];
+            double dRight = Right[nFirst];
+            double dTop = Top[nFirst];
+            for (int i = nFirst + 1; i < nLast; i++) {
+                dLeft = Math.min(dLeft, Left[i]);
+                dBottom = Math.min(dBottom, Bottom[i]);
+                dRight = Math.max(dRight, Right[i]);
+                dTop = Math.max(dTop, Top[i]);
+            }
+
+            NodeLeft[NodeCount] = dLeft;
+            NodeBottom[NodeCount] = dBottom;
+            NodeRight[NodeCount] = dRight;
+            NodeTop[NodeCount] = dTop;
+            NodeFirst[NodeCount] = nFirst;
+            NodeChildren[NodeCount] = nLast - nFirst;
+            NodeCount++;
+        }
+    }
+
+    /**
+     * Returns the order of the entries given for STR packing. The entries are sorted by the x of
+     * their centres, cut into vertical slices each of which will fill a whole number of nodes and
+     * then each slice is sorted by the y of the centres.
+     */
+    private int[] SortTileRecursive(final double[] Left, final double[] Bottom,
+                                    final double[] Right, final double[] Top, int nStart, int nCount) {
+        Integer[] Order = new Integer[nCount];
+        for (int i = 0; i < nCount; i++)
+            Order[i] = nStart + i;
+
+        Arrays.sort(Order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(Left[a] + Right[a], Left[b] + Right[b]);
+            }
+        });
+
+        int nNodes = (nCount + NodeCapacity - 1) / NodeCapacity;
+        int nSlices = (int) Math.ceil(Math.sqrt(nNodes));
+        int nSliceSize = nSlices * NodeCapacity;
+
+        Comparator<Integer> ByY = new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(Bottom[a] + Top[a], Bottom[b] + Top[b]);
+            }
+        };
+        for (int nSlice = 0; nSlice < nCount; nSlice += nSliceSize)
+            Arrays.sort(Order, nSlice, Math.min(nSlice + nSliceSize, nCount), ByY);
+
+        int[] Result = new int[nCount];
+        for (int i = 0; i < nCount; i++)
+            Result[i] = Order[i];
+
+        return Result;
+    }
+
+    /**
+     * Reorders the section of the array starting at nStart to the order given.
+     */
+    private static void Reorder(double[] Values, int[] Order, int nStart) {
+        double[] Temp = new double[Order.length];
+        for (int i = 0; i < Order.length; i++)
+            Temp[i] = Values[Order[i]];
+        System.arraycopy(Temp, 0, Values, nStart, Temp.length);
+    }
+
+    /**
+     * Reorders the section of the array starting at nStart to the order given.
+     */
+    private static void Reorder(int[] Values, int[] Order, int nStart) {
+        int[] Temp = new int[Order.length];
+        for (int i = 0; i < Order.length; i++)
+            Temp[i] = Values[Order[i]];
+        System.arraycopy(Temp, 0, Values, nStart, Temp.length);
+    }
+
+    /**
+     * Binary min heap of int values keyed by distance.
+     */
+    private static class CHeap {
+        double[] Keys = new double[64];
+        int[] Values = new int[64];
+        int Size = 0;
+
+        void Push(double dKey, int nValue) {
+            if (Size == Keys.length) {
+                Keys = Arrays.copyOf(Keys, Size * 2);
+                Values = Arrays.copyOf(Values, Size * 2);
+            }
+            int i = Size++;
+            while (i > 0) {
+                int nParent = (i - 1) / 2;
+                if (Keys[nParent] <= dKey)
+                    break;
+                Keys[i] = Keys[nParent];
+                Values[i] = Values[nParent];
+                i = nParent;
+            }
+            Keys[i] = dKey;
+            Values[i] = nValue;
+        }
+
+        int Pop() {
+            int nResult = Values[0];
+            Size--;
+            double dKey = Keys[Size];
+            int nValue = Values[Size];
+            int i = 0;
+            while (true) {
+                int nChild = i * 2 + 1;
+                if (nChild >= Size)
+                    break;
+                if (nChild + 1 < Size && Keys[nChild + 1] < Keys[nChild])
+                    nChild++;
+                if (Keys[nChild] >= dKey)
+                    break;
+                Keys[i] = Keys[nChild];
+                Values[i] = Values[nChild];
+                i = nChild;
+            }
+            Keys[i] = dKey;
+            Values[i] = nValue;
+            return nResult;
+        }
+    }
+
+    /**
+     * The default maximum number of children per node.
+     */
+    public static final int const_nDefaultNodeCapacity = 16;
+
+    private int NodeCapacity = const_nDefaultNodeCapacity;
+
+    /**
+     * The item indexes and rectangles in tree order.
+     */
+    private int[] ItemIndexes = new int[0];
+    private double[] ItemLeft = new double[0];
+    private double[] ItemBottom = new double[0];
+    private double[] ItemRight = new double[0];
+    private double[] ItemTop = new double[0];
+
+    /**
+     * The nodes. Leaves come first, the root is last. The children of a leaf are items, the
+     * children of other nodes are nodes, in both cases NodeChildren entries from NodeFirst.
+     */
+    private double[] NodeLeft = new double[0];
+    private double[] NodeBottom = new double[0];
+    private double[] NodeRight = new double[0];
+    private double[] NodeTop = new double[0];
+    private int[] NodeFirst = new int[0];
+    private int[] NodeChildren = new int[0];
+    private int NodeCount = 0;
+    private int LeafCount = 0;
+}
@@ -85,6 +85,15 @@ public class CRandomNumber {
         return (_Random.nextDouble() > 0.5);
     }
 
+    /**
+     * Seeds the shared generator so that random shapes and perturbations can be reproduced.
+     *
+     * @param lSeed The seed.
+     */
+    public static void SetSeed(long lSeed) {
+        _Random.setSeed(lSeed);
+    }
+
     /**
      * The minimum possible value.
      */
@@ -0,0 +1,398 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+
+/**
+ * Rotating calipers over the convex hull of a set of points. Create finds the hull with
+ * CConvexHull in O(n log n) and each of the measures is then a single O(h) walk round the h
+ * hull points, the calipers only ever moving forwards.
+ * <p>
+ * The diameter is the greatest distance between 2 points and the width the least distance
+ * between 2 parallel lines enclosing the points. The minimum area and minimum perimeter
+ * rectangles both have a side along an edge of the hull, so every edge is tried with the
+ * rectangle's other sides pushed out to the extreme points. The rectangles have their axis
+ * along the long side so the length is never less than the width.
+ */
+public class CRotatingCalipers {
+    /**
+     * Constructor.
+     */
+    public CRotatingCalipers() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param Points The points.
+     */
+    public CRotatingCalipers(ArrayList<C2DPoint> Points) {
+        Create(Points);
+    }
+
+    /**
+     * Finds the hull of the points ready for the measures.
+     *
+     * @param Points The points.
+     */
+    public void Create(ArrayList<C2DPoint> Points) {
+        int nCount = Points.size();
+        double[] xs = new double[nCount];
+        double[] ys = new double[nCount];
+        for (int i = 0; i < nCount; i++) {
+            C2DPoint pt = Points.get(i);
+            xs[i] = pt.x;
+            ys[i] = pt.y;
+        }
+        Create(xs, ys, nCount);
+    }
+
+    /**
+     * Finds the hull of the points ready for the measures.
+     *
+     * @param Points The points.
+     */
+    public void Create(C2DPointArraySet Points) {
+        Create(Points.GetXs(), Points.GetYs(), Points.size());
+    }
+
+    /**
+     * Finds the hull of the points, given by their coordinates, ready for the measures.
+     *
+     * @param xs     The x coordinates.
+     * @param ys     The y coordinates.
+     * @param nCount The number of points, the first nCount coordinates are used.
+     */
+    public void Create(double[] xs, double[] ys, int nCount) {
+        if (Indexes.length < nCount + 1)
+            Indexes = new int[nCount + 1];
+
+        HullCount = nCount == 0 ? 0 : new CConvexHull().GetHullIndexes(xs, ys, nCount, Indexes);
+
+        if (X.length < HullCount) {
+            X = new double[HullCount];
+            Y = new double[HullCount];
+        }
+        for (int i = 0; i < HullCount; i++) {
+            X[i] = xs[Indexes[i]];
+            Y[i] = ys[Indexes[i]];
+        }
+    }
+
+    /**
+     * The number of points on the hull.
+     */
+    public int GetHullCount() {
+        return HullCount;
+    }
+
+    /**
+     * Adds the points on the hull, clockwise, to the set.
+     *
+     * @param Hull Output. The hull points.
+     */
+    public void GetHull(ArrayList<C2DPoint> Hull) {
+        for (int i = 0; i < HullCount; i++)
+            Hull.add(new C2DPoint(X[i], Y[i]));
+    }
+
+    /**
+     * Gets the 2 points that are furthest apart.
+     *
+     * @param pt1 Output. The first point.
+     * @param pt2 Output. The second point.
+     * @return The distance between them.
+     */
+    public double GetDiameter(C2DPoint pt1, C2DPoint pt2) {
+        GeoInteger nIndex1 = new GeoInteger(0);
+        GeoInteger nIndex2 = new GeoInteger(0);
+        double dDist = GetDiameterHull(nIndex1, nIndex2);
+        if (HullCount > 0) {
+            pt1.Set(X[nIndex1.value], Y[nIndex1.value]);
+            pt2.Set(X[nIndex2.value], Y[nIndex2.value]);
+        }
+        return dDist;
+    }
+
+    /**
+     * Gets the 2 points that are furthest apart.
+     *
+     * @param nIndex1 Output. The index of the first point in the points given to Create.
+     * @param nIndex2 Output. The index of the second point in the points given to Create.
+     * @return The distance between them.
+     */
+    public double GetDiameter(GeoInteger nIndex1, GeoInteger nIndex2) {
+        double dDist = GetDiameterHull(nIndex1, nIndex2);
+        if (HullCount > 0) {
+            nIndex1.value = Indexes[nIndex1.value];
+            nIndex2.value = Indexes[nIndex2.value];
+        }
+        return dDist;
+    }
+
+    /**
+     * The least distance between 2 parallel lines with all the points between them.
+     */
+    public double GetWidth() {
+        C2DOrientedRect Rect = new C2DOrientedRect();
+        GetRect(const_nMinWidth, Rect);
+        return Rect.Width;
+    }
+
+    /**
+     * Gets the bounding rectangle with the least width. The width is the width of the points.
+     *
+     * @param Rect Output. The rectangle.
+     */
+    public void GetMinWidthRect(C2DOrientedRect Rect) {
+        GetRect(const_nMinWidth, Rect);
+    }
+
+    /**
+     * Gets the bounding rectangle with the least area.
+     *
+     * @param Rect Output. The rectangle.
+     */
+    public void GetMinAreaRect(C2DOrientedRect Rect) {
+        GetRect(const_nMinArea, Rect);
+    }
+
+    /**
+     * Gets the bounding rectangle with the least perimeter.
+     *
+     * @param Rect Output. The rectangle.
+     */
+    public void GetMinPerimeterRect(C2DOrientedRect Rect) {
+        GetRect(const_nMinPerimeter, Rect);
+    }
+
+    /**
+     * Finds the diameter as indexes into the hull.
+     */
+    private double GetDiameterHull(GeoInteger nIndex1, GeoInteger nIndex2) {
+        nIndex1.value = 0;
+        nIndex2.value = 0;
+        if (HullCount == 0) {
+            assert false : "No points. Cannot calculate diameter.";
+            return 0;
+        }
+        if (HullCount < 3) {
+            nIndex2.value = HullCount - 1;
+            return Math.sqrt(DistanceSq(0, nIndex2.value));
+        }
+
+        int n = HullCount;
+        double dMaxSq = 0;
+        if (n <= const_nBruteForceCount)
+            return Math.sqrt(GetDiameterAllPairs(nIndex1, nIndex2));
+
+        int j = 1;
+        for (int i = 0; i < n; i++) {
+            int ni = (i + 1) % n;
+            if (j == i)
+                j = ni;
+            dMaxSq = CheckDiameter(i, j, dMaxSq, nIndex1, nIndex2);
+            dMaxSq = CheckDiameter(ni, j, dMaxSq, nIndex1, nIndex2);
+            // Move on to the point furthest from the edge i, the antipodal point, trying every
+            // point passed. Equal distances are passed too as the edge there is parallel to this
+            // one and both its ends are antipodal. The caliper never goes right round.
+            for (int nStep = 0; nStep < n; nStep++) {
+                int nj = (j + 1) % n;
+                if (nj == i || EdgeDistance(i, ni, nj) < EdgeDistance(i, ni, j))
+                    break;
+                j = nj;
+                dMaxSq = CheckDiameter(i, j, dMaxSq, nIndex1, nIndex2);
+                dMaxSq = CheckDiameter(ni, j, dMaxSq, nIndex1, nIndex2);
+            }
+        }
+
+        // On a hull of nearly collinear points the distances from the edges are lost in rounding
+        // so the walk can stop short. Try every pair instead.
+        if (GetArea2() < const_dThinHull * dMaxSq)
+            dMaxSq = GetDiameterAllPairs(nIndex1, nIndex2);
+        return Math.sqrt(dMaxSq);
+    }
+
+    /**
+     * Finds the square of the diameter by trying every pair of hull points.
+     */
+    private double GetDiameterAllPairs(GeoInteger nIndex1, GeoInteger nIndex2) {
+        double dMaxSq = 0;
+        for (int i = 0; i < HullCount; i++) {
+            for (int j = i + 1; j < HullCount; j++)
+                dMaxSq = CheckDiameter(i, j, dMaxSq, nIndex1, nIndex2);
+        }
+        return dMaxSq;
+    }
+
+    /**
+     * Twice the area of the hull.
+     */
+    private double GetArea2() {
+        double dArea2 = 0;
+        for (int i = 1; i < HullCount - 1; i++)
+            dArea2 += EdgeDistance(0, i, i + 1);
+        return dArea2;
+    }
+
+    /**
+     * Sets the indexes to the pair given if they are further apart than the current best.
+     */
+    private double CheckDiameter(int n1, int n2, double dMaxSq, GeoInteger nIndex1, GeoInteger nIndex2) {
+        double dDistSq = DistanceSq(n1, n2);
+        if (dDistSq > dMaxSq) {
+            nIndex1.value = n1;
+            nIndex2.value = n2;
+            return dDistSq;
+        }
+        return dMaxSq;
+    }
+
+    /**
+     * Finds the best rectangle with a side on one of the hull edges.
+     */
+    private void GetRect(int nMeasure, C2DOrientedRect Rect) {
+        Rect.Clear();
+        if (HullCount == 0) {
+            assert false : "No points. Cannot calculate bounding rectangle.";
+            return;
+        }
+        if (HullCount == 1) {
+            Rect.Centre.Set(X[0], Y[0]);
+            return;
+        }
+        if (HullCount == 2) {
+            Rect.Set(new C2DPoint((X[0] + X[1]) / 2, (Y[0] + Y[1]) / 2),
+                    new C2DVector(X[1] - X[0], Y[1] - Y[0]), Math.sqrt(DistanceSq(0, 1)), 0);
+            return;
+        }
+
+        int n = HullCount;
+        double dBest = Double.MAX_VALUE;
+
+        // The calipers. Furthest along the edge, furthest from the edge and furthest back.
+        int nRight = 1;
+        int nTop = 1;
+        int nLeft = 1;
+
+        for (int i = 0; i < n; i++) {
+            int ni = (i + 1) % n;
+            double dLength = Math.sqrt(DistanceSq(i, ni));
+            // The unit vector along the edge and the one at right angles, into the hull.
+            double ux = (X[ni] - X[i]) / dLength;
+            double uy = (Y[ni] - Y[i]) / dLength;
+            double vx = uy;
+            double vy = -ux;
+
+            if (i == 0)
+                nRight = ni;
+            nRight = Advance(nRight, i, ux, uy);
+            if (i == 0)
+                nTop = nRight;
+            nTop = Advance(nTop, i, vx, vy);
+            if (i == 0)
+                nLeft = nTop;
+            nLeft = Advance(nLeft, i, -ux, -uy);
+
+            double dMaxU = Dot(nRight, i, ux, uy);
+            double dMinU = Dot(nLeft, i, ux, uy);
+            double dHeight = Dot(nTop, i, vx, vy);
+            double dWidth = dMaxU - dMinU;
+
+            double dValue;
+            switch (nMeasure) {
+                case const_nMinArea:
+                    dValue = dWidth * dHeight;
+                    break;
+                case const_nMinPerimeter:
+                    dValue = dWidth + dHeight;
+                    break;
+                default:
+                    dValue = dHeight;
+                    break;
+            }
+
+            if (dValue < dBest) {
+                dBest = dValue;
+                double dAlong = (dMinU + dMaxU) / 2;
+                Rect.Centre.Set(X[i] + ux * dAlong + vx * dHeight / 2,
+                        Y[i] + uy * dAlong + vy * dHeight / 2);
+                // The axis is along the long side.
+                if (dWidth >= dHeight) {
+                    Rect.Axis.Set(ux, uy);
+                    Rect.Length = dWidth;
+                    Rect.Width = dHeight;
+                } else {
+                    Rect.Axis.Set(vx, vy);
+                    Rect.Length = dHeight;
+                    Rect.Width = dWidth;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the caliper forwards round the hull while the points get further in the direction.
+     */
+    private int Advance(int nCaliper, int nOrigin, double dx, double dy) {
+        double dCurrent = Dot(nCaliper, nOrigin, dx, dy);
+        while (true) {
+            int nNext = (nCaliper + 1) % HullCount;
+            double dNext = Dot(nNext, nOrigin, dx, dy);
+            if (dNext > dCurrent) {
+                nCaliper = nNext;
+                dCurrent = dNext;
+            } else {
+                return nCaliper;
+            }
+        }
+    }
+
+    /**
+     * The distance of hull point n from hull point nOrigin in the direction given.
+     */
+    private double Dot(int n, int nOrigin, double dx, double dy) {
+        return (X[n] - X[nOrigin]) * dx + (Y[n] - Y[nOrigin]) * dy;
+    }
+
+    /**
+     * Twice the area of the triangle from the edge to the point, so proportional to the distance
+     * from the edge.
+     */
+    private double EdgeDistance(int nFrom, int nTo, int n) {
+        return Math.abs((X[nTo] - X[nFrom]) * (Y[n] - Y[nFrom]) -
+                (Y[nTo] - Y[nFrom]) * (X[n] - X[nFrom]));
+    }
+
+    /**
+     * The square of the distance between 2 hull points.
+     */
+    private double DistanceSq(int n1, int n2) {
+        double dx = X[n2] - X[n1];
+        double dy = Y[n2] - Y[n1];
+        return dx * dx + dy * dy;
+    }
+
+    private static final int const_nMinWidth = 0;
+    private static final int const_nMinArea = 1;
+    private static final int const_nMinPerimeter = 2;
+
+    /**
+     * Hulls with no more points than this have their diameter found by trying every pair.
+     */
+    private static final int const_nBruteForceCount = 16;
+
+    /**
+     * Hulls with twice their area less than this times the square of the diameter are taken as
+     * nearly collinear and have their diameter found by trying every pair.
+     */
+    private static final double const_dThinHull = 1E-8;
+
+    /**
+     * The indexes of the hull points in the points given to Create, clockwise.
+     */
+    private int[] Indexes = new int[0];
+
+    private double[] X = new double[0];
+    private double[] Y = new double[0];
+    private int HullCount = 0;
+}
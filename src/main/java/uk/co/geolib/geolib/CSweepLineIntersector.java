@@ -0,0 +1,956 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the intersections between lines using a Bentley-Ottmann sweep. Arcs are split into pieces
+ * which are monotone in x. The sweep moves left to right through an event queue of the piece ends
+ * and the crossings found so far, keeping the pieces which cut the sweep line in order in a status
+ * structure so only neighbouring pieces need testing. The cost is O((n + k) log n) for n lines
+ * and k intersections.
+ * <p>
+ * The sweep finds the pairs of lines which could intersect and each pair is then tested with the
+ * same rectangle tests and Crosses call as C2DLineBaseSet.GetIntersections, so the intersections
+ * found are the same.
+ */
+public class CSweepLineIntersector {
+    /**
+     * Constructor.
+     */
+    public CSweepLineIntersector() {
+    }
+
+    /**
+     * Returns the intersections within the set. Each intersection has an associated point and
+     * 2 indexes corresponding to the lines that created the intersection.
+     *
+     * @param Lines     The lines.
+     * @param pPoints   Output. The point set.
+     * @param pIndexes1 Output. The indexes.
+     * @param pIndexes2 Output. The indexes.
+     */
+    public void GetIntersections(ArrayList<C2DLineBase> Lines, ArrayList<C2DPoint> pPoints,
+                                 ArrayList<Integer> pIndexes1, ArrayList<Integer> pIndexes2) {
+        Clear();
+        TwoSets = false;
+
+        for (int i = 0; i < Lines.size(); i++) {
+            C2DRect Rect = new C2DRect();
+            Lines.get(i).GetBoundingRect(Rect);
+            AddEntry(Lines.get(i), Rect, i, true);
+        }
+
+        Sweep();
+
+        ArrayList<C2DPoint> IntPt = new ArrayList<C2DPoint>();
+        for (int c = 0; c < Candidates.size(); c++) {
+            CEntry First = Entries.get(GetFirst(Candidates.get(c)));
+            CEntry Second = Entries.get(GetSecond(Candidates.get(c)));
+
+            if (Second.Rect.GetLeft() < First.Rect.GetRight() &&
+                    First.Rect.Overlaps(Second.Rect) &&
+                    First.Line.Crosses(Second.Line, IntPt)) {
+                while (IntPt.size() > 0) {
+                    pPoints.add(IntPt.get(IntPt.size() - 1));
+                    IntPt.remove(IntPt.size() - 1);
+
+                    pIndexes1.add(First.nIndex);
+                    pIndexes2.add(Second.nIndex);
+                }
+            }
+        }
+
+        Clear();
+    }
+
+    /**
+     * Returns the intersections between the 2 sets. Each intersection has an associated point
+     * and 2 indexes corresponding to the lines that created the intersection.
+     *
+     * @param Lines              Input. The first line set.
+     * @param Other              Input. The other line set.
+     * @param pPoints            Output. The intersection points.
+     * @param pIndexesThis       Output. The indexes for the first set.
+     * @param pIndexesOther      Output. The indexes for the other set.
+     * @param pBoundingRectThis  Input. The bounding rect for the first set.
+     * @param pBoundingRectOther Input. The bounding rect for the other set.
+     */
+    public void GetIntersections(ArrayList<C2DLineBase> Lines, ArrayList<C2DLineBase> Other,
+                                 ArrayList<C2DPoint> pPoints,
+                                 ArrayList<Integer> pIndexesThis, ArrayList<Integer> pIndexesOther,
+                                 C2DRect pBoundingRectThis, C2DRect pBoundingRectOther) {
+        Clear();
+        TwoSets = true;
+
+        for (int i = 0; i < Lines.size(); i++) {
+            C2DRect Rect = new C2DRect();
+            Lines.get(i).GetBoundingRect(Rect);
+            if (pBoundingRectOther.Overlaps(Rect))
+                AddEntry(Lines.get(i), Rect, i, true);
+        }
+
+        for (int d = 0; d < Other.size(); d++) {
+            C2DRect Rect = new C2DRect();
+            Other.get(d).GetBoundingRect(Rect);
+            if (pBoundingRectThis.Overlaps(Rect))
+                AddEntry(Other.get(d), Rect, d, false);
+        }
+
+        Sweep();
+
+        ArrayList<C2DPoint> IntPt = new ArrayList<C2DPoint>();
+        for (int c = 0; c < Candidates.size(); c++) {
+            CEntry First = Entries.get(GetFirst(Candidates.get(c)));
+            CEntry Second = Entries.get(GetSecond(Candidates.get(c)));
+
+            if (Second.Rect.GetLeft() < First.Rect.GetRight() &&
+                    First.Rect.Overlaps(Second.Rect) &&
+                    First.Line.Crosses(Second.Line, IntPt)) {
+                while (IntPt.size() > 0) {
+                    pPoints.add(IntPt.get(IntPt.size() - 1));
+                    IntPt.remove(IntPt.size() - 1);
+
+                    if (First.bSetFlag) {
+                        pIndexesThis.add(First.nIndex);
+                        pIndexesOther.add(Second.nIndex);
+                    } else {
+                        pIndexesThis.add(Second.nIndex);
+                        pIndexesOther.add(First.nIndex);
+                    }
+                }
+            }
+        }
+
+        Clear();
+    }
+
+    /**
+     * Adds a line to be swept.
+     */
+    private void AddEntry(C2DLineBase Line, C2DRect Rect, int nIndex, boolean bSetFlag) {
+        CEntry Entry = new CEntry();
+        Entry.Line = Line;
+        Entry.Rect = Rect;
+        Entry.nIndex = nIndex;
+        Entry.bSetFlag = bSetFlag;
+        Entries.add(Entry);
+    }
+
+    /**
+     * Runs the sweep, leaving the pairs of entries which could intersect in Candidates.
+     */
+    private void Sweep() {
+        double dMaxAbs = 0;
+        for (int i = 0; i < Entries.size(); i++) {
+            C2DRect Rect = Entries.get(i).Rect;
+            dMaxAbs = Math.max(dMaxAbs, Math.max(Math.max(Math.abs(Rect.GetLeft()), Math.abs(Rect.GetRight())),
+                    Math.max(Math.abs(Rect.GetTop()), Math.abs(Rect.GetBottom()))));
+        }
+        Tolerance = dMaxAbs > 0 ? dMaxAbs * const_dRelativeTolerance : Constants.conEqualityTolerance;
+
+        ArrayList<Integer> Unswept = new ArrayList<Integer>();
+        for (int i = 0; i < Entries.size(); i++) {
+            if (!AddPieces(i))
+                Unswept.add(i);
+        }
+
+        // Lines which cannot be swept are tested against everything.
+        for (int i = 0; i < Unswept.size(); i++) {
+            int nEntry = Unswept.get(i);
+            for (int j = 0; j < Entries.size(); j++) {
+                if (j != nEntry)
+                    AddCandidate(nEntry, j);
+            }
+        }
+
+        ArrayList<CPiece> Starts = new ArrayList<CPiece>();
+        ArrayList<CPiece> Group = new ArrayList<CPiece>();
+        ArrayList<CPiece> Block = new ArrayList<CPiece>();
+        ArrayList<CPiece> Touched = new ArrayList<CPiece>();
+
+        while (!Events.isEmpty()) {
+            CEvent Event = Events.poll();
+            final double px = Event.x;
+            final double py = Event.y;
+
+            Starts.clear();
+            Group.clear();
+            Block.clear();
+            Touched.clear();
+
+            // All the events at this point.
+            AddEvent(Event, Starts, Group);
+            while (!Events.isEmpty() && Events.peek().x == px && Events.peek().y == py)
+                AddEvent(Events.poll(), Starts, Group);
+
+            // Find all the pieces in the status through the point.
+            if (Group.size() == 0) {
+                CNode Node = Locate(px, py);
+                if (Node != null && Contains(Node.Piece, px, py)) {
+                    Node.Piece.bInGroup = true;
+                    Group.add(Node.Piece);
+                } else if (Node != null && Node.Prev != null && Contains(Node.Prev.Piece, px, py)) {
+                    Node.Prev.Piece.bInGroup = true;
+                    Group.add(Node.Prev.Piece);
+                } else if (Node == null && Last() != null && Contains(Last().Piece, px, py)) {
+                    Last().Piece.bInGroup = true;
+                    Group.add(Last().Piece);
+                }
+            }
+            for (int i = 0; i < Group.size(); i++) {
+                CNode Node = Group.get(i).Node.Prev;
+                while (Node != null && !Node.Piece.bInGroup && Contains(Node.Piece, px, py)) {
+                    Node.Piece.bInGroup = true;
+                    Group.add(Node.Piece);
+                    Node = Node.Prev;
+                }
+                Node = Group.get(i).Node.Next;
+                while (Node != null && !Node.Piece.bInGroup && Contains(Node.Piece, px, py)) {
+                    Node.Piece.bInGroup = true;
+                    Group.add(Node.Piece);
+                    Node = Node.Next;
+                }
+            }
+
+            // Every pair through the point could intersect there.
+            for (int i = 0; i < Starts.size() + Group.size(); i++) {
+                CPiece Piece1 = i < Starts.size() ? Starts.get(i) : Group.get(i - Starts.size());
+                for (int j = i + 1; j < Starts.size() + Group.size(); j++) {
+                    CPiece Piece2 = j < Starts.size() ? Starts.get(j) : Group.get(j - Starts.size());
+                    AddCandidate(Piece1.nEntry, Piece2.nEntry);
+                }
+            }
+
+            // Take out the pieces through the point and put back the ones which carry on, in their
+            // order just after the point.
+            for (int i = 0; i < Group.size(); i++) {
+                CPiece Piece = Group.get(i);
+                if (Piece.Node.Prev != null && !Piece.Node.Prev.Piece.bInGroup)
+                    Touched.add(Piece.Node.Prev.Piece);
+                if (Piece.Node.Next != null && !Piece.Node.Next.Piece.bInGroup)
+                    Touched.add(Piece.Node.Next.Piece);
+                Remove(Piece.Node);
+                Piece.bInGroup = false;
+
+                if (!Piece.bEnding)
+                    Block.add(Piece);
+            }
+            Block.addAll(Starts);
+
+            for (int i = 0; i < Block.size(); i++)
+                Block.get(i).dSortSlope = Block.get(i).GetSlope(px);
+            Collections.sort(Block, SlopeComparator);
+
+            CNode Before = Locate(px, py);
+            for (int i = 0; i < Block.size(); i++) {
+                InsertBefore(Before, Block.get(i));
+                Touched.add(Block.get(i));
+            }
+
+            for (int i = 0; i < Touched.size(); i++) {
+                CNode Node = Touched.get(i).Node;
+                if (Node == null)
+                    continue;
+                if (Node.Prev != null)
+                    CheckPair(Node.Prev.Piece, Node.Piece, px, py);
+                if (Node.Next != null)
+                    CheckPair(Node.Piece, Node.Next.Piece, px, py);
+            }
+        }
+    }
+
+    /**
+     * Adds the event to the starting pieces or the pieces known to go through the point.
+     */
+    private void AddEvent(CEvent Event, ArrayList<CPiece> Starts, ArrayList<CPiece> Group) {
+        if (Event.nType == const_nStart) {
+            Starts.add(Event.Piece);
+        } else {
+            if (Event.nType == const_nEnd)
+                Event.Piece.bEnding = true;
+            if (Event.Piece.Node != null && !Event.Piece.bInGroup) {
+                Event.Piece.bInGroup = true;
+                Group.add(Event.Piece);
+            }
+            if (Event.Other != null && Event.Other.Node != null && !Event.Other.bInGroup) {
+                Event.Other.bInGroup = true;
+                Group.add(Event.Other);
+            }
+        }
+    }
+
+    /**
+     * Splits the entry into pieces which are monotone in x and adds their start and end events.
+     * Returns false if the line cannot be swept.
+     */
+    private boolean AddPieces(int nEntry) {
+        C2DLineBase Line = Entries.get(nEntry).Line;
+
+        if (Line instanceof C2DLine) {
+            C2DLine StraightLine = (C2DLine) Line;
+            double x1 = StraightLine.point.x;
+            double y1 = StraightLine.point.y;
+            double x2 = x1 + StraightLine.vector.i;
+            double y2 = y1 + StraightLine.vector.j;
+
+            // A line with no length crosses nothing.
+            if (x1 == x2 && y1 == y2)
+                return true;
+
+            AddPiece(CreatePiece(nEntry, x1, y1, x2, y2));
+            return true;
+        } else if (Line instanceof C2DArc) {
+            C2DArc Arc = (C2DArc) Line;
+            if (!Arc.IsValid())
+                return false;
+
+            C2DPoint Centre = Arc.GetCircleCentre();
+            C2DPoint ptFrom = Arc.GetPointFrom();
+            C2DPoint ptTo = Arc.GetPointTo();
+            C2DPoint ptMid = Arc.GetMidPoint();
+
+            double dStart = Math.atan2(ptFrom.y - Centre.y, ptFrom.x - Centre.x);
+            double dEnd = NormaliseAngle(Math.atan2(ptTo.y - Centre.y, ptTo.x - Centre.x) - dStart);
+            double dMid = NormaliseAngle(Math.atan2(ptMid.y - Centre.y, ptMid.x - Centre.x) - dStart);
+
+            if (dEnd == 0)
+                return false;
+
+            // Work with the angle turned through from the start, anticlockwise or clockwise.
+            boolean bAnticlockwise = dMid < dEnd;
+            double dSweep = bAnticlockwise ? dEnd : Constants.conTWOPI - dEnd;
+
+            // Split where the circle is furthest left or right.
+            double[] Splits = new double[4];
+            int nSplits = 0;
+            Splits[nSplits++] = 0;
+            for (int i = 0; i < 2; i++) {
+                double dAngle = i * Constants.conPI;
+                double dTurn = bAnticlockwise ? NormaliseAngle(dAngle - dStart) : NormaliseAngle(dStart - dAngle);
+                if (dTurn > 0 && dTurn < dSweep)
+                    Splits[nSplits++] = dTurn;
+            }
+            Splits[nSplits++] = dSweep;
+            Arrays.sort(Splits, 1, nSplits - 1);
+
+            double xFrom = ptFrom.x;
+            double yFrom = ptFrom.y;
+            for (int i = 1; i < nSplits; i++) {
+                double xTo;
+                double yTo;
+                if (i == nSplits - 1) {
+                    xTo = ptTo.x;
+                    yTo = ptTo.y;
+                } else {
+                    double dAngle = bAnticlockwise ? dStart + Splits[i] : dStart - Splits[i];
+                    xTo = Centre.x + Arc.Radius * (Math.cos(dAngle) > 0 ? 1 : -1);
+                    yTo = Centre.y;
+                }
+
+                if (xFrom != xTo || yFrom != yTo) {
+                    double dMidTurn = (Splits[i - 1] + Splits[i]) / 2;
+                    double dMidAngle = bAnticlockwise ? dStart + dMidTurn : dStart - dMidTurn;
+
+                    CPiece Piece = CreatePiece(nEntry, xFrom, yFrom, xTo, yTo);
+                    Piece.bArc = true;
+                    Piece.bUpper = Math.sin(dMidAngle) > 0;
+                    Piece.CX = Centre.x;
+                    Piece.CY = Centre.y;
+                    Piece.Radius = Arc.Radius;
+                    Piece.bVertical = false;
+                    if (Piece.bUpper && Piece.X1 < Piece.CX && Piece.X2 > Piece.CX)
+                        Piece.Top = Piece.CY + Piece.Radius;
+                    else if (!Piece.bUpper && Piece.X1 < Piece.CX && Piece.X2 > Piece.CX)
+                        Piece.Bottom = Piece.CY - Piece.Radius;
+                    AddPiece(Piece);
+                }
+
+                xFrom = xTo;
+                yFrom = yTo;
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a straight piece, ordering the ends left to right.
+     */
+    private CPiece CreatePiece(int nEntry, double x1, double y1, double x2, double y2) {
+        CPiece Piece = new CPiece();
+        Piece.nEntry = nEntry;
+        Piece.nId = PieceCount++;
+        if (x1 < x2 || (x1 == x2 && y1 < y2)) {
+            Piece.X1 = x1;
+            Piece.Y1 = y1;
+            Piece.X2 = x2;
+            Piece.Y2 = y2;
+        } else {
+            Piece.X1 = x2;
+            Piece.Y1 = y2;
+            Piece.X2 = x1;
+            Piece.Y2 = y1;
+        }
+        Piece.bVertical = Piece.X1 == Piece.X2;
+        Piece.Left = Piece.X1;
+        Piece.Right = Piece.X2;
+        Piece.Bottom = Math.min(Piece.Y1, Piece.Y2);
+        Piece.Top = Math.max(Piece.Y1, Piece.Y2);
+        return Piece;
+    }
+
+    /**
+     * Adds the start and end events for the piece.
+     */
+    private void AddPiece(CPiece Piece) {
+        CEvent Start = new CEvent();
+        Start.x = Piece.X1;
+        Start.y = Piece.Y1;
+        Start.nType = const_nStart;
+        Start.Piece = Piece;
+        Events.add(Start);
+
+        CEvent End = new CEvent();
+        End.x = Piece.X2;
+        End.y = Piece.Y2;
+        End.nType = const_nEnd;
+        End.Piece = Piece;
+        Events.add(End);
+    }
+
+    /**
+     * Records that the pieces are next to each other. They are a candidate pair if their rectangles
+     * meet and if they cross after the point a crossing event is added.
+     */
+    private void CheckPair(CPiece Lower, CPiece Upper, double px, double py) {
+        if (Lower.nEntry == Upper.nEntry)
+            return;
+
+        if (Lower.Left > Upper.Right + Tolerance || Upper.Left > Lower.Right + Tolerance ||
+                Lower.Bottom > Upper.Top + Tolerance || Upper.Bottom > Lower.Top + Tolerance)
+            return;
+
+        AddCandidate(Lower.nEntry, Upper.nEntry);
+
+        int nCount = GetIntersections(Lower, Upper, IntersectionTemp);
+
+        // The first crossing after the point.
+        boolean bFound = false;
+        double x = 0;
+        double y = 0;
+        for (int i = 0; i < nCount; i++) {
+            double dx = IntersectionTemp[i * 2];
+            double dy = IntersectionTemp[i * 2 + 1];
+            if (IsAfter(dx, dy, px, py) && (!bFound || dx < x || (dx == x && dy < y))) {
+                bFound = true;
+                x = dx;
+                y = dy;
+            }
+        }
+
+        if (!bFound)
+            return;
+
+        Long Key = GetKey(Math.min(Lower.nId, Upper.nId), Math.max(Lower.nId, Upper.nId), PieceCount);
+        C2DPoint Scheduled = Crossings.get(Key);
+        if (Scheduled != null && !(x > Scheduled.x || (x == Scheduled.x && y > Scheduled.y)))
+            return;
+        Crossings.put(Key, new C2DPoint(x, y));
+
+        CEvent Cross = new CEvent();
+        Cross.x = x;
+        Cross.y = y;
+        Cross.nType = const_nCross;
+        Cross.Piece = Lower;
+        Cross.Other = Upper;
+        Events.add(Cross);
+    }
+
+    /**
+     * True if the first point is after the second in the sweep. This must be the same order as
+     * the event queue.
+     */
+    private static boolean IsAfter(double x, double y, double px, double py) {
+        return x > px || (x == px && y > py);
+    }
+
+    /**
+     * Finds where the pieces meet. The points are written as x, y pairs to Result and the number
+     * found is returned.
+     */
+    private int GetIntersections(CPiece Piece1, CPiece Piece2, double[] Result) {
+        if (!Piece1.bArc && !Piece2.bArc) {
+            double rx = Piece1.X2 - Piece1.X1;
+            double ry = Piece1.Y2 - Piece1.Y1;
+            double sx = Piece2.X2 - Piece2.X1;
+            double sy = Piece2.Y2 - Piece2.Y1;
+            double dDenominator = rx * sy - ry * sx;
+            if (dDenominator == 0)
+                return 0;
+
+            double qx = Piece2.X1 - Piece1.X1;
+            double qy = Piece2.Y1 - Piece1.Y1;
+            double t = (qx * sy - qy * sx) / dDenominator;
+            double u = (qx * ry - qy * rx) / dDenominator;
+
+            if (t < -const_dParamTolerance || t > 1 + const_dParamTolerance ||
+                    u < -const_dParamTolerance || u > 1 + const_dParamTolerance)
+                return 0;
+
+            Result[0] = Piece1.X1 + t * rx;
+            Result[1] = Piece1.Y1 + t * ry;
+            return 1;
+        } else if (Piece1.bArc && Piece2.bArc) {
+            double dx = Piece2.CX - Piece1.CX;
+            double dy = Piece2.CY - Piece1.CY;
+            double d = Math.sqrt(dx * dx + dy * dy);
+            if (d == 0 || d > Piece1.Radius + Piece2.Radius + Tolerance ||
+                    d < Math.abs(Piece1.Radius - Piece2.Radius) - Tolerance)
+                return 0;
+
+            double a = (Piece1.Radius * Piece1.Radius - Piece2.Radius * Piece2.Radius + d * d) / (2 * d);
+            double h = Math.sqrt(Math.max(0, Piece1.Radius * Piece1.Radius - a * a));
+            double mx = Piece1.CX + a * dx / d;
+            double my = Piece1.CY + a * dy / d;
+
+            int nCount = 0;
+            for (int s = -1; s <= 1; s += 2) {
+                double x = mx - s * h * dy / d;
+                double y = my + s * h * dx / d;
+                if (IsOnArcPiece(Piece1, x, y) && IsOnArcPiece(Piece2, x, y)) {
+                    Result[nCount * 2] = x;
+                    Result[nCount * 2 + 1] = y;
+                    nCount++;
+                }
+                if (h == 0)
+                    break;
+            }
+            return nCount;
+        } else {
+            CPiece Straight = Piece1.bArc ? Piece2 : Piece1;
+            CPiece Arc = Piece1.bArc ? Piece1 : Piece2;
+
+            double rx = Straight.X2 - Straight.X1;
+            double ry = Straight.Y2 - Straight.Y1;
+            double fx = Straight.X1 - Arc.CX;
+            double fy = Straight.Y1 - Arc.CY;
+
+            double A = rx * rx + ry * ry;
+            double B = 2 * (fx * rx + fy * ry);
+            double C = fx * fx + fy * fy - Arc.Radius * Arc.Radius;
+            double dDiscriminant = B * B - 4 * A * C;
+            if (dDiscriminant < 0)
+                return 0;
+            double dRoot = Math.sqrt(dDiscriminant);
+
+            int nCount = 0;
+            for (int s = -1; s <= 1; s += 2) {
+                double t = (-B + s * dRoot) / (2 * A);
+                if (t >= -const_dParamTolerance && t <= 1 + const_dParamTolerance) {
+                    double x = Straight.X1 + t * rx;
+                    double y = Straight.Y1 + t * ry;
+                    if (IsOnArcPiece(Arc, x, y)) {
+                        Result[nCount * 2] = x;
+                        Result[nCount * 2 + 1] = y;
+                        nCount++;
+                    }
+                }
+                if (dRoot == 0)
+                    break;
+            }
+            return nCount;
+        }
+    }
+
+    /**
+     * True if the point on the circle is on the arc piece.
+     */
+    private boolean IsOnArcPiece(CPiece Piece, double x, double y) {
+        if (x < Piece.X1 - Tolerance || x > Piece.X2 + Tolerance)
+            return false;
+        if (Piece.bUpper)
+            return y >= Piece.CY - Tolerance;
+        else
+            return y <= Piece.CY + Tolerance;
+    }
+
+    /**
+     * True if the piece goes through the point, to within the tolerance.
+     */
+    private boolean Contains(CPiece Piece, double px, double py) {
+        if (Piece.bVertical) {
+            return Math.abs(px - Piece.X1) <= Tolerance && py >= Piece.Y1 - Tolerance && py <= Piece.Y2 + Tolerance;
+        }
+
+        if (px < Piece.X1 - Tolerance || px > Piece.X2 + Tolerance)
+            return false;
+
+        if (Piece.bArc) {
+            double dx = px - Piece.CX;
+            double dy = py - Piece.CY;
+            if (Math.abs(Math.sqrt(dx * dx + dy * dy) - Piece.Radius) > Tolerance)
+                return false;
+            return Piece.bUpper ? py >= Piece.CY - Tolerance : py <= Piece.CY + Tolerance;
+        } else {
+            double rx = Piece.X2 - Piece.X1;
+            double ry = Piece.Y2 - Piece.Y1;
+            double dCross = rx * (py - Piece.Y1) - ry * (px - Piece.X1);
+            return Math.abs(dCross) <= Tolerance * Math.sqrt(rx * rx + ry * ry);
+        }
+    }
+
+    /**
+     * True if the piece is below the point on the sweep line.
+     */
+    private static boolean IsBelow(CPiece Piece, double px, double py) {
+        if (Piece.bVertical)
+            return Piece.Y2 < py;
+        else
+            return Piece.GetY(px) < py;
+    }
+
+    /**
+     * Records the 2 entries as a pair to test.
+     */
+    private void AddCandidate(int nEntry1, int nEntry2) {
+        if (nEntry1 == nEntry2)
+            return;
+        if (TwoSets && Entries.get(nEntry1).bSetFlag == Entries.get(nEntry2).bSetFlag)
+            return;
+
+        // The first of the pair is the one GetIntersections would meet first, leftmost then by position.
+        C2DRect Rect1 = Entries.get(nEntry1).Rect;
+        C2DRect Rect2 = Entries.get(nEntry2).Rect;
+        boolean bSwap = Rect2.GetLeft() < Rect1.GetLeft() ||
+                (Rect2.GetLeft() == Rect1.GetLeft() && nEntry2 < nEntry1);
+
+        Long Key = bSwap ? GetKey(nEntry2, nEntry1, Entries.size()) : GetKey(nEntry1, nEntry2, Entries.size());
+        if (CandidateSet.add(Key))
+            Candidates.add(Key);
+    }
+
+    private static Long GetKey(int n1, int n2, int nCount) {
+        return (long) n1 * nCount + n2;
+    }
+
+    private int GetFirst(long lKey) {
+        return (int) (lKey / Entries.size());
+    }
+
+    private int GetSecond(long lKey) {
+        return (int) (lKey % Entries.size());
+    }
+
+    /**
+     * Clears all the working data.
+     */
+    private void Clear() {
+        Entries.clear();
+        Events.clear();
+        Candidates.clear();
+        CandidateSet.clear();
+        Crossings.clear();
+        Root = null;
+        PieceCount = 0;
+    }
+
+    /**
+     * Returns the angle in the range 0 to 2 PI.
+     */
+    private static double NormaliseAngle(double dAngle) {
+        dAngle = dAngle % Constants.conTWOPI;
+        if (dAngle < 0)
+            dAngle += Constants.conTWOPI;
+        return dAngle;
+    }
+
+    // The status: a treap of the pieces in order up the sweep line, also linked in order.
+
+    /**
+     * Returns the lowest node not below the point or null if there isn't one.
+     */
+    private CNode Locate(double px, double py) {
+        CNode Result = null;
+        CNode Node = Root;
+        while (Node != null) {
+            if (IsBelow(Node.Piece, px, py)) {
+                Node = Node.Right;
+            } else {
+                Result = Node;
+                Node = Node.Left;
+            }
+        }
+        return Result;
+    }
+
+    /**
+     * Returns the highest node.
+     */
+    private CNode Last() {
+        CNode Node = Root;
+        while (Node != null && Node.Right != null)
+            Node = Node.Right;
+        return Node;
+    }
+
+    /**
+     * Inserts the piece immediately below the node given, or at the top if the node is null.
+     */
+    private void InsertBefore(CNode Before, CPiece Piece) {
+        CNode Node = new CNode();
+        Node.Piece = Piece;
+        Node.nPriority = NextPriority();
+        Piece.Node = Node;
+
+        if (Root == null) {
+            Root = Node;
+            return;
+        }
+
+        if (Before == null) {
+            CNode Parent = Last();
+            Parent.Right = Node;
+            Node.Parent = Parent;
+            Node.Prev = Parent;
+            Parent.Next = Node;
+        } else {
+            if (Before.Left == null) {
+                Before.Left = Node;
+                Node.Parent = Before;
+            } else {
+                CNode Parent = Before.Left;
+                while (Parent.Right != null)
+                    Parent = Parent.Right;
+                Parent.Right = Node;
+                Node.Parent = Parent;
+            }
+            Node.Next = Before;
+            Node.Prev = Before.Prev;
+            if (Before.Prev != null)
+                Before.Prev.Next = Node;
+            Before.Prev = Node;
+        }
+
+        while (Node.Parent != null && Node.Parent.nPriority < Node.nPriority)
+            RotateUp(Node);
+    }
+
+    /**
+     * Removes the node.
+     */
+    private void Remove(CNode Node) {
+        while (Node.Left != null || Node.Right != null) {
+            CNode Child;
+            if (Node.Left == null)
+                Child = Node.Right;
+            else if (Node.Right == null)
+                Child = Node.Left;
+            else
+                Child = Node.Left.nPriority > Node.Right.nPriority ? Node.Left : Node.Right;
+            RotateUp(Child);
+        }
+
+        if (Node.Parent == null)
+            Root = null;
+        else if (Node.Parent.Left == Node)
+            Node.Parent.Left = null;
+        else
+            Node.Parent.Right = null;
+
+        if (Node.Prev != null)
+            Node.Prev.Next = Node.Next;
+        if (Node.Next != null)
+            Node.Next.Prev = Node.Prev;
+
+        Node.Piece.Node = null;
+    }
+
+    /**
+     * Rotates the node above its parent.
+     */
+    private void RotateUp(CNode Node) {
+        CNode Parent = Node.Parent;
+        CNode Grand = Parent.Parent;
+
+        if (Parent.Left == Node) {
+            Parent.Left = Node.Right;
+            if (Node.Right != null)
+                Node.Right.Parent = Parent;
+            Node.Right = Parent;
+        } else {
+            Parent.Right = Node.Left;
+            if (Node.Left != null)
+                Node.Left.Parent = Parent;
+            Node.Left = Parent;
+        }
+        Parent.Parent = Node;
+        Node.Parent = Grand;
+
+        if (Grand == null)
+            Root = Node;
+        else if (Grand.Left == Parent)
+            Grand.Left = Node;
+        else
+            Grand.Right = Node;
+    }
+
+    private int NextPriority() {
+        Seed ^= Seed << 13;
+        Seed ^= Seed >>> 17;
+        Seed ^= Seed << 5;
+        return Seed;
+    }
+
+    /**
+     * A line to be swept.
+     */
+    private static class CEntry {
+        C2DLineBase Line;
+        C2DRect Rect;
+        int nIndex;
+        boolean bSetFlag;
+    }
+
+    /**
+     * A part of a line which is monotone in x, a straight line or an arc of the upper or lower
+     * half of a circle, with its ends ordered left to right.
+     */
+    private static class CPiece {
+        int nEntry;
+        int nId;
+        double X1;
+        double Y1;
+        double X2;
+        double Y2;
+        double Left;
+        double Right;
+        double Bottom;
+        double Top;
+        boolean bVertical;
+        boolean bArc;
+        boolean bUpper;
+        double CX;
+        double CY;
+        double Radius;
+        CNode Node;
+        boolean bInGroup;
+        boolean bEnding;
+        double dSortSlope;
+
+        /**
+         * The y on the piece at the x given.
+         */
+        double GetY(double x) {
+            if (x <= X1)
+                return Y1;
+            if (x >= X2)
+                return Y2;
+            if (bArc) {
+                double dx = x - CX;
+                double dy = Math.sqrt(Math.max(0, Radius * Radius - dx * dx));
+                return bUpper ? CY + dy : CY - dy;
+            } else {
+                return Y1 + (x - X1) * (Y2 - Y1) / (X2 - X1);
+            }
+        }
+
+        /**
+         * The slope of the piece at the x given, infinite if vertical.
+         */
+        double GetSlope(double x) {
+            if (bVertical)
+                return Double.POSITIVE_INFINITY;
+            if (bArc) {
+                double dx = Math.max(X1, Math.min(X2, x)) - CX;
+                double dy = Math.sqrt(Math.max(0, Radius * Radius - dx * dx));
+                if (dy == 0)
+                    return (dx < 0) == bUpper ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+                return bUpper ? -dx / dy : dx / dy;
+            }
+            return (Y2 - Y1) / (X2 - X1);
+        }
+    }
+
+    /**
+     * A node in the status.
+     */
+    private static class CNode {
+        CPiece Piece;
+        CNode Left;
+        CNode Right;
+        CNode Parent;
+        CNode Prev;
+        CNode Next;
+        int nPriority;
+    }
+
+    /**
+     * A sweep event.
+     */
+    private static class CEvent {
+        double x;
+        double y;
+        int nType;
+        CPiece Piece;
+        CPiece Other;
+    }
+
+    private static final int const_nStart = 0;
+    private static final int const_nEnd = 1;
+    private static final int const_nCross = 2;
+
+    /**
+     * The tolerance on the parameters along lines for a crossing.
+     */
+    private static final double const_dParamTolerance = 0.000000001;
+
+    /**
+     * The tolerance for a point being on a piece, relative to the size of the coordinates. This is
+     * kept well below the equality tolerance so that close but separate end points are not taken
+     * to be at the event point.
+     */
+    private static final double const_dRelativeTolerance = 0.000000000001;
+
+    /**
+     * Events in sweep order, left to right then bottom to top.
+     */
+    private static final Comparator<CEvent> EventComparator = new Comparator<CEvent>() {
+        public int compare(CEvent E1, CEvent E2) {
+            if (E1.x != E2.x)
+                return E1.x < E2.x ? -1 : 1;
+            if (E1.y != E2.y)
+                return E1.y < E2.y ? -1 : 1;
+            return 0;
+        }
+    };
+
+    /**
+     * Pieces through a point in their order just after the point.
+     */
+    private static final Comparator<CPiece> SlopeComparator = new Comparator<CPiece>() {
+        public int compare(CPiece P1, CPiece P2) {
+            if (P1.dSortSlope != P2.dSortSlope)
+                return P1.dSortSlope < P2.dSortSlope ? -1 : 1;
+            return P1.nId < P2.nId ? -1 : (P1.nId == P2.nId ? 0 : 1);
+        }
+    };
+
+    private final ArrayList<CEntry> Entries = new ArrayList<CEntry>();
+    private final PriorityQueue<CEvent> Events = new PriorityQueue<CEvent>(64, EventComparator);
+    private final ArrayList<Long> Candidates = new ArrayList<Long>();
+    private final HashSet<Long> CandidateSet = new HashSet<Long>();
+    private final HashMap<Long, C2DPoint> Crossings = new HashMap<Long, C2DPoint>();
+    private final double[] IntersectionTemp = new double[4];
+    private boolean TwoSets = false;
+    private double Tolerance = 0;
+    private int PieceCount = 0;
+    private int Seed = 0x2545F491;
+    private CNode Root = null;
+}
@@ -0,0 +1,1061 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Improves tours through a set of points using 2-opt and Or-opt moves.
+ * <p>
+ * A tour is an array of point indexes. It is closed, returning from the last point to the first,
+ * or open in which case the first and last points stay at the ends. An open tour is treated as a
+ * closed one in which the edge from the last point back to the first can never be removed.
+ * <p>
+ * Only moves joining a point to one of its nearest neighbours are tried, the neighbours being
+ * found once with a CKDTree. Points are kept in a queue and taken off in turn to look for a move.
+ * A point is put back on the queue when one of its edges changes, so points with nothing to gain
+ * are not looked at again (the "don't look bits"). Each pass is then close to linear in the
+ * number of points and the tour is held in arrays with each point's position so a move costs the
+ * shorter of the 2 ways round the tour to make.
+ * <p>
+ * OptimizeIterated goes further than the moves alone can, running an iterated local search on
+ * several threads within a time or iteration limit.
+ */
+public class CTourOptimiser {
+    /**
+     * Interface to hear about progress during OptimizeIterated.
+     */
+    public interface IProgress {
+        /**
+         * Called each time a shorter tour is found. It is called from the search threads but
+         * never from 2 at once.
+         *
+         * @param Tour       The tour found. Copy it to keep it.
+         * @param dLength    The length of the tour.
+         * @param lIteration The number of iterations done so far over all the threads.
+         */
+        void Improved(int[] Tour, double dLength, long lIteration);
+    }
+
+    /**
+     * Constructor.
+     */
+    public CTourOptimiser() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param Points The points the tours go through.
+     */
+    public CTourOptimiser(ArrayList<C2DPoint> Points) {
+        Create(Points);
+    }
+
+    /**
+     * Sets the points the tours go through and finds their neighbours.
+     *
+     * @param Points The points.
+     */
+    public void Create(ArrayList<C2DPoint> Points) {
+        int nCount = Points.size();
+        double[] xs = new double[nCount];
+        double[] ys = new double[nCount];
+        for (int i = 0; i < nCount; i++) {
+            C2DPoint pt = Points.get(i);
+            xs[i] = pt.x;
+            ys[i] = pt.y;
+        }
+        Create(xs, ys, nCount);
+    }
+
+    /**
+     * Sets the points the tours go through, given by their coordinates, and finds their
+     * neighbours. The coordinates are copied.
+     *
+     * @param xs     The x coordinates.
+     * @param ys     The y coordinates.
+     * @param nCount The number of points, the first nCount coordinates are used.
+     */
+    public void Create(double[] xs, double[] ys, int nCount) {
+        Count = nCount;
+        X = new double[nCount];
+        Y = new double[nCount];
+        System.arraycopy(xs, 0, X, 0, nCount);
+        System.arraycopy(ys, 0, Y, 0, nCount);
+
+        double dMinX = 0;
+        double dMaxX = 0;
+        double dMinY = 0;
+        double dMaxY = 0;
+        for (int i = 0; i < nCount; i++) {
+            if (i == 0 || X[i] < dMinX) dMinX = X[i];
+            if (i == 0 || X[i] > dMaxX) dMaxX = X[i];
+            if (i == 0 || Y[i] < dMinY) dMinY = Y[i];
+            if (i == 0 || Y[i] > dMaxY) dMaxY = Y[i];
+        }
+        Tolerance = (dMaxX - dMinX + dMaxY - dMinY) * const_dRelativeTolerance;
+
+        MakeNeighbours();
+    }
+
+    /**
+     * The length of the tour.
+     *
+     * @param Tour The point indexes in order.
+     */
+    public double GetLength(int[] Tour) {
+        int nCount = Tour.length;
+        if (nCount < 2)
+            return 0;
+
+        double dLength = 0;
+        for (int i = 1; i < nCount; i++)
+            dLength += Distance(Tour[i - 1], Tour[i]);
+        if (Closed)
+            dLength += Distance(Tour[nCount - 1], Tour[0]);
+        return dLength;
+    }
+
+    /**
+     * Builds up a tour by inserting points one at a time where each adds least to the length.
+     * For more than a few points the edges of the tour are kept in a CDynamicRectTree so only
+     * the edges near each point need to be checked, see InsertIndexed.
+     *
+     * @param Tour         Input and output. The first nTourCount entries are the tour to start
+     *                     with. On return it holds that tour with all the points inserted so must
+     *                     have room for nTourCount + nInsertCount.
+     * @param nTourCount   The number of points in the tour to start with. At least 2.
+     * @param InsertOrder  The points to insert in the order to insert them.
+     * @param nInsertCount The number of points to insert.
+     */
+    public void InsertCheapest(int[] Tour, int nTourCount, int[] InsertOrder, int nInsertCount) {
+        assert nTourCount >= 2 : "Cannot insert into a tour of less than 2 points.";
+
+        if (nInsertCount >= const_nIndexedInsertMinimum) {
+            InsertIndexed(Tour, nTourCount, InsertOrder, nInsertCount);
+            return;
+        }
+
+        for (int n = 0; n < nInsertCount; n++) {
+            int nPoint = InsertOrder[n];
+
+            // The edge to insert into is the one from nBest to nBest + 1.
+            int nBest = 0;
+            double dBest = Double.MAX_VALUE;
+            int nEdges = Closed ? nTourCount : nTourCount - 1;
+            for (int i = 0; i < nEdges; i++) {
+                int nFrom = Tour[i];
+                int nTo = Tour[i + 1 == nTourCount ? 0 : i + 1];
+                double dIncrease = Distance(nFrom, nPoint) + Distance(nPoint, nTo) - Distance(nFrom, nTo);
+                if (dIncrease < dBest) {
+                    dBest = dIncrease;
+                    nBest = i;
+                }
+            }
+
+            System.arraycopy(Tour, nBest + 1, Tour, nBest + 2, nTourCount - nBest - 1);
+            Tour[nBest + 1] = nPoint;
+            nTourCount++;
+        }
+    }
+
+    /**
+     * Cheapest insertion with the tour edges held in a CDynamicRectTree of their bounding
+     * rectangles. The points with an increase of no more than c when inserted into an edge of
+     * length L form an ellipse with the ends of the edge as foci, which is within
+     * sqrt(c * c + 2 * L * c) / 2 of the edge. So once an edge with an increase of c is found,
+     * by searching out from the point until there is one, only the edges near enough for the
+     * longest edge need to be checked.
+     */
+    private void InsertIndexed(int[] Tour, int nTourCount, int[] InsertOrder, int nInsertCount) {
+        // The tour as the next point after each point, -1 at the end of an open tour.
+        int[] Next = new int[Count];
+        Arrays.fill(Next, -1);
+        for (int i = 0; i < nTourCount - 1; i++)
+            Next[Tour[i]] = Tour[i + 1];
+        if (Closed)
+            Next[Tour[nTourCount - 1]] = Tour[0];
+
+        CEdgeIndex Edges = new CEdgeIndex(Next);
+        for (int i = 0; i < nTourCount; i++) {
+            if (Next[Tour[i]] != -1)
+                Edges.Add(Tour[i]);
+        }
+
+        // A first guess at how far to search, the spacing of evenly spread points.
+        double dMinX = X[0];
+        double dMaxX = X[0];
+        double dMinY = Y[0];
+        double dMaxY = Y[0];
+        for (int i = 1; i < Count; i++) {
+            dMinX = Math.min(dMinX, X[i]);
+            dMaxX = Math.max(dMaxX, X[i]);
+            dMinY = Math.min(dMinY, Y[i]);
+            dMaxY = Math.max(dMaxY, Y[i]);
+        }
+        double dSpacing = Math.sqrt((dMaxX - dMinX) * (dMaxY - dMinY) / Count);
+        if (!(dSpacing > 0))
+            dSpacing = Math.max(Math.max(dMaxX - dMinX, dMaxY - dMinY), 1);
+
+        for (int n = 0; n < nInsertCount; n++) {
+            int nPoint = InsertOrder[n];
+
+            // Search out until there is an edge then check all those that might be better.
+            double dSearch = dSpacing;
+            while (!Edges.FindCheapest(nPoint, dSearch))
+                dSearch *= 2;
+            double dBest = Edges.BestIncrease;
+            double dReach = Math.sqrt(dBest * dBest + 2 * Edges.GetLongest() * dBest) / 2;
+            if (dReach > dSearch)
+                Edges.FindCheapest(nPoint, dReach);
+
+            int nFrom = Edges.BestFrom;
+            int nTo = Next[nFrom];
+            Edges.Remove(nFrom);
+            Next[nFrom] = nPoint;
+            Next[nPoint] = nTo;
+            Edges.Add(nFrom);
+            Edges.Add(nPoint);
+        }
+
+        int nPoint = Tour[0];
+        for (int i = 0; i < nTourCount + nInsertCount; i++) {
+            Tour[i] = nPoint;
+            nPoint = Next[nPoint];
+        }
+    }
+
+    /**
+     * The edges of a tour being built up, in a CDynamicRectTree and a heap by length. Edges are
+     * identified by the point they start from.
+     */
+    private class CEdgeIndex {
+        CEdgeIndex(int[] Next) {
+            this.Next = Next;
+            Handles = new int[Count];
+        }
+
+        void Add(int nFrom) {
+            int nTo = Next[nFrom];
+            Rect.Set(Math.min(X[nFrom], X[nTo]), Math.max(Y[nFrom], Y[nTo]),
+                    Math.max(X[nFrom], X[nTo]), Math.min(Y[nFrom], Y[nTo]));
+            int nHandle = Tree.Insert(Rect);
+            Handles[nFrom] = nHandle;
+            if (nHandle >= HandleFrom.length)
+                HandleFrom = Arrays.copyOf(HandleFrom, Math.max(nHandle + 1, HandleFrom.length * 2));
+            HandleFrom[nHandle] = nFrom;
+
+            PushLength(Distance(nFrom, nTo), nFrom, nTo);
+        }
+
+        void Remove(int nFrom) {
+            Tree.Remove(Handles[nFrom]);
+        }
+
+        /**
+         * Finds the edge it is cheapest to insert the point into out of those with rectangles
+         * within the distance given of it, horizontally or vertically.
+         *
+         * @return False if there are none.
+         */
+        boolean FindCheapest(int nPoint, double dDistance) {
+            Rect.Set(X[nPoint] - dDistance, Y[nPoint] + dDistance, X[nPoint] + dDistance, Y[nPoint] - dDistance);
+            Found.clear();
+            Tree.Query(Rect, Found);
+            if (Found.isEmpty())
+                return false;
+
+            BestIncrease = Double.MAX_VALUE;
+            for (int i = 0; i < Found.size(); i++) {
+                int nFrom = HandleFrom[Found.get(i)];
+                int nTo = Next[nFrom];
+                double dIncrease = Distance(nFrom, nPoint) + Distance(nPoint, nTo) - Distance(nFrom, nTo);
+                if (dIncrease < BestIncrease) {
+                    BestIncrease = dIncrease;
+                    BestFrom = nFrom;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The length of the longest edge. Edges which have gone are taken off the heap as they
+         * reach the top.
+         */
+        double GetLongest() {
+            while (HeapSize > 0 && Next[HeapFrom[0]] != HeapTo[0])
+                PopLength();
+            return HeapSize > 0 ? HeapLengths[0] : 0;
+        }
+
+        void PushLength(double dLength, int nFrom, int nTo) {
+            if (HeapSize == HeapLengths.length) {
+                HeapLengths = Arrays.copyOf(HeapLengths, HeapSize * 2);
+                HeapFrom = Arrays.copyOf(HeapFrom, HeapSize * 2);
+                HeapTo = Arrays.copyOf(HeapTo, HeapSize * 2);
+            }
+            int i = HeapSize++;
+            while (i > 0) {
+                int nParent = (i - 1) / 2;
+                if (HeapLengths[nParent] >= dLength)
+                    break;
+                HeapLengths[i] = HeapLengths[nParent];
+                HeapFrom[i] = HeapFrom[nParent];
+                HeapTo[i] = HeapTo[nParent];
+                i = nParent;
+            }
+            HeapLengths[i] = dLength;
+            HeapFrom[i] = nFrom;
+            HeapTo[i] = nTo;
+        }
+
+        void PopLength() {
+            HeapSize--;
+            double dLength = HeapLengths[HeapSize];
+            int nFrom = HeapFrom[HeapSize];
+            int nTo = HeapTo[HeapSize];
+            int i = 0;
+            while (true) {
+                int nChild = i * 2 + 1;
+                if (nChild >= HeapSize)
+                    break;
+                if (nChild + 1 < HeapSize && HeapLengths[nChild + 1] > HeapLengths[nChild])
+                    nChild++;
+                if (HeapLengths[nChild] <= dLength)
+                    break;
+                HeapLengths[i] = HeapLengths[nChild];
+                HeapFrom[i] = HeapFrom[nChild];
+                HeapTo[i] = HeapTo[nChild];
+                i = nChild;
+            }
+            HeapLengths[i] = dLength;
+            HeapFrom[i] = nFrom;
+            HeapTo[i] = nTo;
+        }
+
+        final int[] Next;
+        final CDynamicRectTree Tree = new CDynamicRectTree();
+        final C2DRect Rect = new C2DRect();
+        final ArrayList<Integer> Found = new ArrayList<Integer>();
+
+        /**
+         * The tree handle of the edge from each point and the point for each handle.
+         */
+        final int[] Handles;
+        int[] HandleFrom = new int[64];
+
+        /**
+         * Max heap of edge lengths with the edge each was for.
+         */
+        double[] HeapLengths = new double[64];
+        int[] HeapFrom = new int[64];
+        int[] HeapTo = new int[64];
+        int HeapSize = 0;
+
+        double BestIncrease;
+        int BestFrom;
+    }
+
+    /**
+     * Improves the tour with 2-opt and Or-opt moves until none of them make it shorter.
+     *
+     * @param Tour Input and output. The indexes of all the points in order.
+     * @return The length of the improved tour.
+     */
+    public double Optimize(int[] Tour) {
+        assert Tour.length == Count : "The tour must go through all the points.";
+
+        if (Count >= 4) {
+            CSearch Search = new CSearch(Tour);
+            Search.Run();
+            Search.GetTour(Tour);
+        }
+        return GetLength(Tour);
+    }
+
+    /**
+     * Looks for a shorter tour than Optimize can find, stopping at the time or iteration limit.
+     * Each thread runs its own search. The first starts from the tour given and the others from
+     * tours made by inserting the points in a random order. Each then repeatedly breaks its tour
+     * in 3 places close together, joining it up again with 2 short stretches swapped over, and
+     * improves it as Optimize does around the change. If that gives a shorter tour it is kept,
+     * otherwise the search goes back to the tour before. For an open tour the first and last
+     * points stay at the ends.
+     *
+     * @param Tour     Input and output. The indexes of all the points in order.
+     * @param Progress Told each time a shorter tour is found. May be null.
+     * @return The length of the shortest tour found.
+     */
+    public double OptimizeIterated(int[] Tour, IProgress Progress) {
+        assert Tour.length == Count : "The tour must go through all the points.";
+
+        if (Count < 4)
+            return GetLength(Tour);
+
+        CIteratedSearch Search = new CIteratedSearch(Tour, Progress);
+        if (Parallelism <= 1) {
+            Search.RunWorker(0);
+        } else {
+            ForkJoinPool Pool = new ForkJoinPool(Parallelism);
+            try {
+                Pool.invoke(new CWorkersTask(Search, Parallelism));
+            } finally {
+                Pool.shutdown();
+            }
+        }
+
+        System.arraycopy(Search.BestTour, 0, Tour, 0, Count);
+        return GetLength(Tour);
+    }
+
+    /**
+     * The state shared by the threads of an iterated search.
+     */
+    private class CIteratedSearch {
+        CIteratedSearch(int[] Tour, IProgress Progress) {
+            StartTour = Tour.clone();
+            BestTour = Tour.clone();
+            BestLength = GetLength(Tour);
+            this.Progress = Progress;
+            long lNow = System.nanoTime();
+            Deadline = TimeLimit >= (Long.MAX_VALUE - lNow) / 1000000 ? Long.MAX_VALUE : lNow + TimeLimit * 1000000;
+        }
+
+        /**
+         * Runs one thread's search.
+         */
+        void RunWorker(int nWorker) {
+            Random Rand = new Random(Seed + nWorker * const_lSeedStep);
+
+            int[] Tour = StartTour.clone();
+            if (nWorker > 0)
+                MakeRandomTour(Tour, Rand);
+
+            CSearch Search = new CSearch(Tour);
+            Search.Run();
+            Search.Save();
+            double dLength = Search.Length;
+            Report(Search, Iterations.get());
+
+            while (System.nanoTime() < Deadline) {
+                long lIteration = Iterations.incrementAndGet();
+                if (lIteration > IterationLimit)
+                    break;
+
+                if (!Search.Kick(Rand))
+                    break;
+                Search.RunQueue();
+
+                if (Search.Length < dLength - Tolerance) {
+                    dLength = Search.Length;
+                    Search.Save();
+                    Report(Search, lIteration);
+                } else {
+                    Search.Restore();
+                }
+            }
+        }
+
+        /**
+         * Makes a tour by inserting the points in a random order, keeping the ends of an open tour.
+         */
+        void MakeRandomTour(int[] Tour, Random Rand) {
+            int[] Order = new int[Count];
+            int nOrder = 0;
+            for (int i = 0; i < Count; i++) {
+                if (Closed || (i != 0 && i != Count - 1))
+                    Order[nOrder++] = Tour[i];
+            }
+            for (int i = nOrder - 1; i > 0; i--) {
+                int j = Rand.nextInt(i + 1);
+                int nTemp = Order[i];
+                Order[i] = Order[j];
+                Order[j] = nTemp;
+            }
+
+            int nStart = 0;
+            if (Closed) {
+                Tour[0] = Order[0];
+                Tour[1] = Order[1];
+                nStart = 2;
+            } else {
+                Tour[1] = Tour[Count - 1];
+            }
+            InsertCheapest(Tour, 2, Arrays.copyOfRange(Order, nStart, nOrder), nOrder - nStart);
+        }
+
+        /**
+         * Keeps the tour if it is the best so far.
+         */
+        synchronized void Report(CSearch Search, long lIteration) {
+            if (Search.Length >= BestLength - Tolerance)
+                return;
+
+            Search.GetTour(BestTour);
+            BestLength = Search.Length;
+            if (Progress != null)
+                Progress.Improved(BestTour, BestLength, lIteration);
+        }
+
+        final int[] StartTour;
+        final int[] BestTour;
+        double BestLength;
+        final IProgress Progress;
+        final long Deadline;
+        final AtomicLong Iterations = new AtomicLong();
+    }
+
+    /**
+     * Runs a search on each thread.
+     */
+    private static class CWorkersTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        CWorkersTask(CIteratedSearch Search, int nWorkers) {
+            this.Search = Search;
+            this.nWorker = -1;
+            this.nWorkers = nWorkers;
+        }
+
+        CWorkersTask(CIteratedSearch Search, int nWorker, int nWorkers) {
+            this.Search = Search;
+            this.nWorker = nWorker;
+            this.nWorkers = nWorkers;
+        }
+
+        @Override
+        protected void compute() {
+            if (nWorker >= 0) {
+                Search.RunWorker(nWorker);
+                return;
+            }
+
+            CWorkersTask[] Tasks = new CWorkersTask[nWorkers];
+            for (int i = 0; i < nWorkers; i++)
+                Tasks[i] = new CWorkersTask(Search, i, nWorkers);
+            invokeAll(Tasks);
+        }
+
+        private final CIteratedSearch Search;
+        private final int nWorker;
+        private final int nWorkers;
+    }
+
+    /**
+     * Finds the nearest points to each point.
+     */
+    private void MakeNeighbours() {
+        K = Math.max(0, Math.min(NeighbourCount, Count - 1));
+        Neighbours = new int[Count * K];
+        if (K == 0)
+            return;
+
+        CKDTree Tree = new CKDTree();
+        Tree.Create(X, Y, Count);
+
+        int[] Found = new int[K + 1];
+        double[] Distances = new double[K + 1];
+        C2DPoint pt = new C2DPoint();
+        for (int i = 0; i < Count; i++) {
+            pt.Set(X[i], Y[i]);
+            int nFound = Tree.GetNearest(pt, K + 1, Found, Distances);
+            int m = 0;
+            for (int j = 0; j < nFound && m < K; j++) {
+                if (Found[j] != i)
+                    Neighbours[i * K + m++] = Found[j];
+            }
+        }
+    }
+
+    private double Distance(int n1, int n2) {
+        double dx = X[n2] - X[n1];
+        double dy = Y[n2] - Y[n1];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * The state of the search on one tour.
+     */
+    private class CSearch {
+        CSearch(int[] InitialTour) {
+            n = InitialTour.length;
+            Tour = InitialTour.clone();
+            Pos = new int[n];
+            for (int i = 0; i < n; i++)
+                Pos[Tour[i]] = i;
+
+            Queue = new int[n];
+            InQueue = new boolean[n];
+
+            if (!Closed) {
+                FixedFrom = Tour[n - 1];
+                FixedTo = Tour[0];
+            }
+
+            Length = GetLength(Tour);
+        }
+
+        /**
+         * Looks for moves until there are no more.
+         */
+        void Run() {
+            for (int i = 0; i < n; i++)
+                Push(Tour[i]);
+
+            RunQueue();
+        }
+
+        /**
+         * Looks for moves from the points in the queue until there are no more.
+         */
+        void RunQueue() {
+            while (QueueSize > 0) {
+                int a = Queue[QueueHead];
+                QueueHead = (QueueHead + 1) % n;
+                QueueSize--;
+                InQueue[a] = false;
+
+                if (!TwoOpt(a))
+                    OrOpt(a);
+            }
+        }
+
+        /**
+         * Copies the tour out, starting from the first point for an open tour.
+         */
+        void GetTour(int[] Result) {
+            int nPos = 0;
+            int nStep = 1;
+            if (!Closed) {
+                nPos = Pos[FixedTo];
+                if (Tour[(nPos + 1) % n] == FixedFrom)
+                    nStep = n - 1;
+            }
+            for (int i = 0; i < n; i++) {
+                Result[i] = Tour[nPos];
+                nPos = (nPos + nStep) % n;
+            }
+        }
+
+        /**
+         * Tries the 2-opt moves replacing an edge of a with one to a neighbour.
+         */
+        boolean TwoOpt(int a) {
+            for (int nDirection = 0; nDirection < 2; nDirection++) {
+                boolean bForward = nDirection == 0;
+                int b = bForward ? Succ(a) : Pred(a);
+                if (IsFixed(a, b))
+                    continue;
+                double dAB = Distance(a, b);
+
+                for (int m = 0; m < K; m++) {
+                    int c = Neighbours[a * K + m];
+                    double dGainAC = dAB - Distance(a, c);
+                    if (dGainAC <= Tolerance)
+                        break;
+
+                    int d = bForward ? Succ(c) : Pred(c);
+                    if (c == b || d == a || IsFixed(c, d))
+                        continue;
+
+                    double dGain = dGainAC + Distance(c, d) - Distance(b, d);
+                    if (dGain > Tolerance) {
+                        Length -= dGain;
+                        // Edges a-b and c-d become a-c and b-d.
+                        if (bForward)
+                            Reverse(Pos[b], Pos[c]);
+                        else
+                            Reverse(Pos[a], Pos[d]);
+                        Push(a);
+                        Push(b);
+                        Push(c);
+                        Push(d);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Tries moving a segment of up to 3 points starting at a to between a neighbour of its
+         * ends and the next or previous point, either way round.
+         */
+        boolean OrOpt(int a) {
+            for (int nLength = 1; nLength <= const_nMaxOrOptLength && nLength <= n - 3; nLength++) {
+                int s1 = a;
+                int s2 = a;
+                for (int i = 1; i < nLength; i++)
+                    s2 = Succ(s2);
+                int p = Pred(s1);
+                int nx = Succ(s2);
+                if (IsFixed(p, s1) || IsFixed(s2, nx))
+                    continue;
+
+                double dRemoveGain = Distance(p, s1) + Distance(s2, nx) - Distance(p, nx);
+                if (dRemoveGain <= Tolerance)
+                    continue;
+
+                for (int nEnd = 0; nEnd < 2; nEnd++) {
+                    int s = nEnd == 0 ? s1 : s2;
+                    for (int m = 0; m < K; m++) {
+                        int c = Neighbours[s * K + m];
+                        if (Distance(s, c) >= dRemoveGain)
+                            break;
+                        if (InSegment(c, s1, nLength))
+                            continue;
+
+                        for (int nSide = 0; nSide < 2; nSide++) {
+                            // The edge u-v to go in, v after u.
+                            int u = nSide == 0 ? c : Pred(c);
+                            int v = nSide == 0 ? Succ(c) : c;
+                            if (u == p || InSegment(u, s1, nLength) || InSegment(v, s1, nLength) ||
+                                    IsFixed(u, v))
+                                continue;
+
+                            double dAdd = Distance(u, s1) + Distance(s2, v);
+                            double dAddReversed = Distance(u, s2) + Distance(s1, v);
+                            boolean bReversed = dAddReversed < dAdd;
+                            double dGain = dRemoveGain + Distance(u, v) - (bReversed ? dAddReversed : dAdd);
+                            if (dGain > Tolerance) {
+                                Length -= dGain;
+                                MoveSegment(s1, nLength, u, v, bReversed);
+                                Push(p);
+                                Push(nx);
+                                Push(s1);
+                                Push(s2);
+                                Push(u);
+                                Push(v);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Changes the tour at random by swapping 2 short stretches next to each other, the
+         * double bridge move, and queues the points whose edges changed.
+         *
+         * @return False if there is no room for the move.
+         */
+        boolean Kick(Random Rand) {
+            int nMaxLength = Math.min(const_nMaxKickLength, (n - 2) / 2);
+            if (nMaxLength < 1)
+                return false;
+
+            for (int nTry = 0; nTry < const_nKickTries; nTry++) {
+                int nLength1 = 1 + Rand.nextInt(nMaxLength);
+                int nLength2 = 1 + Rand.nextInt(nMaxLength);
+                int nPos = Rand.nextInt(n);
+
+                // a, then the 2 stretches b1-b2 and c1-c2, then d.
+                int a = Tour[nPos];
+                int b1 = Tour[(nPos + 1) % n];
+                int b2 = Tour[(nPos + nLength1) % n];
+                int c1 = Tour[(nPos + nLength1 + 1) % n];
+                int c2 = Tour[(nPos + nLength1 + nLength2) % n];
+                int d = Tour[(nPos + nLength1 + nLength2 + 1) % n];
+                if (IsFixed(a, b1) || IsFixed(b2, c1) || IsFixed(c2, d))
+                    continue;
+
+                Length += Distance(a, c1) + Distance(c2, b1) + Distance(b2, d) -
+                        Distance(a, b1) - Distance(b2, c1) - Distance(c2, d);
+
+                int nCount = nLength1 + nLength2;
+                if (KickBuffer.length < nCount)
+                    KickBuffer = new int[nCount];
+                for (int i = 0; i < nCount; i++)
+                    KickBuffer[i] = Tour[(nPos + 1 + i) % n];
+                for (int i = 0; i < nLength2; i++)
+                    Place(KickBuffer[nLength1 + i], (nPos + 1 + i) % n);
+                for (int i = 0; i < nLength1; i++)
+                    Place(KickBuffer[i], (nPos + 1 + nLength2 + i) % n);
+
+                Push(a);
+                Push(b1);
+                Push(b2);
+                Push(c1);
+                Push(c2);
+                Push(d);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Keeps a copy of the tour to go back to.
+         */
+        void Save() {
+            if (SavedTour == null) {
+                SavedTour = new int[n];
+                SavedPos = new int[n];
+            }
+            System.arraycopy(Tour, 0, SavedTour, 0, n);
+            System.arraycopy(Pos, 0, SavedPos, 0, n);
+            SavedLength = Length;
+        }
+
+        /**
+         * Goes back to the tour last saved.
+         */
+        void Restore() {
+            System.arraycopy(SavedTour, 0, Tour, 0, n);
+            System.arraycopy(SavedPos, 0, Pos, 0, n);
+            Length = SavedLength;
+        }
+
+        /**
+         * Reverses the tour from position i forwards to position j. The shorter way round is
+         * reversed, which gives the same tour.
+         */
+        void Reverse(int i, int j) {
+            int nLength = (j - i + n) % n + 1;
+            if (nLength * 2 > n) {
+                int nTemp = (j + 1) % n;
+                j = (i - 1 + n) % n;
+                i = nTemp;
+                nLength = n - nLength;
+            }
+            for (int s = 0; s < nLength / 2; s++) {
+                int nTemp = Tour[i];
+                Tour[i] = Tour[j];
+                Tour[j] = nTemp;
+                Pos[Tour[i]] = i;
+                Pos[Tour[j]] = j;
+                i = (i + 1) % n;
+                j = (j - 1 + n) % n;
+            }
+        }
+
+        /**
+         * Moves the segment starting at s1 to between u and v. The points between the segment
+         * and u, or between v and the segment, are shifted up whichever is fewer.
+         */
+        void MoveSegment(int s1, int nLength, int u, int v, boolean bReversed) {
+            int nSegmentPos = Pos[s1];
+            for (int i = 0; i < nLength; i++)
+                Segment[i] = Tour[(nSegmentPos + i) % n];
+
+            // The points after the segment up to u, and those from v up to the segment.
+            int nAfterCount = (Pos[u] - nSegmentPos - nLength + 2 * n) % n + 1;
+            int nBeforeCount = n - nLength - nAfterCount;
+
+            int nInsertPos;
+            if (nAfterCount <= nBeforeCount) {
+                for (int i = 0; i < nAfterCount; i++)
+                    Place(Tour[(nSegmentPos + nLength + i) % n], (nSegmentPos + i) % n);
+                nInsertPos = (nSegmentPos + nAfterCount) % n;
+            } else {
+                nInsertPos = Pos[v];
+                for (int i = nBeforeCount - 1; i >= 0; i--)
+                    Place(Tour[(nInsertPos + i) % n], (nInsertPos + i + nLength) % n);
+            }
+
+            for (int i = 0; i < nLength; i++)
+                Place(Segment[bReversed ? nLength - 1 - i : i], (nInsertPos + i) % n);
+        }
+
+        void Place(int nPoint, int nPos) {
+            Tour[nPos] = nPoint;
+            Pos[nPoint] = nPos;
+        }
+
+        boolean InSegment(int nPoint, int s1, int nLength) {
+            return (Pos[nPoint] - Pos[s1] + n) % n < nLength;
+        }
+
+        boolean IsFixed(int a, int b) {
+            return !Closed && ((a == FixedFrom && b == FixedTo) || (a == FixedTo && b == FixedFrom));
+        }
+
+        int Succ(int a) {
+            int i = Pos[a] + 1;
+            return Tour[i == n ? 0 : i];
+        }
+
+        int Pred(int a) {
+            int i = Pos[a];
+            return Tour[i == 0 ? n - 1 : i - 1];
+        }
+
+        void Push(int a) {
+            if (InQueue[a])
+                return;
+            Queue[(QueueHead + QueueSize) % n] = a;
+            QueueSize++;
+            InQueue[a] = true;
+        }
+
+        final int n;
+        final int[] Tour;
+        final int[] Pos;
+        final int[] Queue;
+        final boolean[] InQueue;
+        final int[] Segment = new int[const_nMaxOrOptLength];
+        int QueueHead = 0;
+        int QueueSize = 0;
+        int FixedFrom = -1;
+        int FixedTo = -1;
+        double Length;
+
+        int[] KickBuffer = new int[0];
+        int[] SavedTour;
+        int[] SavedPos;
+        double SavedLength;
+    }
+
+    /**
+     * True if the tour returns from the last point to the first.
+     */
+    public boolean isClosed() {
+        return Closed;
+    }
+
+    /**
+     * Sets whether the tour returns from the last point to the first. If not the first and last
+     * points stay at the ends.
+     */
+    public void setClosed(boolean bClosed) {
+        Closed = bClosed;
+    }
+
+    /**
+     * The number of nearest points to each point that moves are tried with.
+     */
+    public int getNeighbourCount() {
+        return NeighbourCount;
+    }
+
+    /**
+     * Sets the number of nearest points to each point that moves are tried with. Takes effect
+     * from the next Create.
+     */
+    public void setNeighbourCount(int nNeighbourCount) {
+        NeighbourCount = Math.max(1, nNeighbourCount);
+    }
+
+    /**
+     * The number of threads used by OptimizeIterated, each running its own search. Defaults to
+     * the number of processors.
+     */
+    public int getParallelism() {
+        return Parallelism;
+    }
+
+    /**
+     * Sets the number of threads used by OptimizeIterated.
+     */
+    public void setParallelism(int nParallelism) {
+        Parallelism = Math.max(1, nParallelism);
+    }
+
+    /**
+     * The time OptimizeIterated stops after, in milliseconds.
+     */
+    public long getTimeLimit() {
+        return TimeLimit;
+    }
+
+    /**
+     * Sets the time OptimizeIterated stops after, in milliseconds.
+     */
+    public void setTimeLimit(long lMilliseconds) {
+        TimeLimit = Math.max(0, lMilliseconds);
+    }
+
+    /**
+     * The number of iterations, over all the threads, OptimizeIterated stops after.
+     */
+    public long getIterationLimit() {
+        return IterationLimit;
+    }
+
+    /**
+     * Sets the number of iterations, over all the threads, OptimizeIterated stops after.
+     */
+    public void setIterationLimit(long lIterations) {
+        IterationLimit = Math.max(0, lIterations);
+    }
+
+    /**
+     * The seed for the random changes in OptimizeIterated.
+     */
+    public long getSeed() {
+        return Seed;
+    }
+
+    /**
+     * Sets the seed for the random changes in OptimizeIterated. With one thread and an iteration
+     * limit the same seed gives the same tour.
+     */
+    public void setSeed(long lSeed) {
+        Seed = lSeed;
+    }
+
+    /**
+     * The default number of neighbours.
+     */
+    public static final int const_nDefaultNeighbourCount = 10;
+
+    /**
+     * The number of points to insert from which the edges are indexed.
+     */
+    private static final int const_nIndexedInsertMinimum = 64;
+
+    /**
+     * The longest segment Or-opt moves.
+     */
+    private static final int const_nMaxOrOptLength = 3;
+
+    /**
+     * The least improvement, relative to the size of the points, counted as a gain.
+     */
+    private static final double const_dRelativeTolerance = 0.000000000001;
+
+    /**
+     * The default time limit for OptimizeIterated in milliseconds.
+     */
+    public static final long const_lDefaultTimeLimit = 1000;
+
+    /**
+     * The longest stretch swapped by a random change.
+     */
+    private static final int const_nMaxKickLength = 50;
+
+    /**
+     * Attempts at a random change before giving up if they all break the fixed edge.
+     */
+    private static final int const_nKickTries = 100;
+
+    /**
+     * Separates the seeds of the threads.
+     */
+    private static final long const_lSeedStep = 0x9E3779B97F4A7C15L;
+
+    private boolean Closed = true;
+
+    private int NeighbourCount = const_nDefaultNeighbourCount;
+
+    private int Parallelism = Runtime.getRuntime().availableProcessors();
+    private long TimeLimit = const_lDefaultTimeLimit;
+    private long IterationLimit = Long.MAX_VALUE;
+    private long Seed = 0;
+
+    private int Count = 0;
+    private double[] X = new double[0];
+    private double[] Y = new double[0];
+    private double Tolerance = 0;
+
+    /**
+     * The K nearest points to each point, nearest first, point i's from i * K.
+     */
+    private int[] Neighbours = new int[0];
+    private int K = 0;
+}
@@ -3,7 +3,8 @@ package uk.co.geolib.geolib;
 
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.ListIterator;
 
@@ -338,38 +339,85 @@ public class CTravellingSalesman extends LinkedList<C2DPoint> {
     }
 
     /**
-     * Optimises the position of the points
+     * Optimises the position of the points. The first and last stay where they are. The others
+     * are inserted where each adds least to the route, closest to the ends first, and the route
+     * is then improved with 2-opt and Or-opt moves, see CTourOptimiser.
      */
     public void Optimize() {
         if (size() < 4)
             return;
 
-        // Take out the start.
-        C2DPoint pStart = get(0);
-        this.removeFirst();
+        ArrayList<C2DPoint> Points = new ArrayList<C2DPoint>(this);
+        CTourOptimiser Optimiser = new CTourOptimiser();
+        int[] Tour = MakeTour(Points, Optimiser);
+        Optimiser.Optimize(Tour);
+        SetTour(Points, Tour);
+    }
 
-        // Take out the end.
-        C2DPoint pEnd = get(size() - 1);
-        this.removeLast();
+    /**
+     * Optimises the position of the points as Optimize does and then carries on looking for a
+     * shorter route on all the processors until the time is up, see
+     * CTourOptimiser.OptimizeIterated. The first and last stay where they are.
+     *
+     * @param lMilliseconds The time to spend.
+     * @param Progress      Told each time a shorter route is found. May be null.
+     */
+    public void OptimizeIterated(long lMilliseconds, CTourOptimiser.IProgress Progress) {
+        if (size() < 4)
+            return;
 
-        // Take all the rest out.
-        C2DPointSet Points = new C2DPointSet();
-        this.ExtractPoints(Points);
+        ArrayList<C2DPoint> Points = new ArrayList<C2DPoint>(this);
+        CTourOptimiser Optimiser = new CTourOptimiser();
+        int[] Tour = MakeTour(Points, Optimiser);
+        Optimiser.Optimize(Tour);
+        Optimiser.setTimeLimit(lMilliseconds);
+        Optimiser.OptimizeIterated(Tour, Progress);
+        SetTour(Points, Tour);
+    }
 
-        // Put the ends back in.
-        this.addFirst(pStart);
-        this.addLast(pEnd);
+    /**
+     * Sets up the optimiser for an open route through the points and makes a first route
+     * by inserting the points, closest to the ends first, in the most sensible place.
+     */
+    private static int[] MakeTour(ArrayList<C2DPoint> Points, CTourOptimiser Optimiser) {
+        int nCount = Points.size();
+
+        // Sort the rest by approx distance from the line between the ends.
+        C2DPoint ptMid = Points.get(0).GetMidPoint(Points.get(nCount - 1));
+        final double[] Distances = new double[nCount];
+        Integer[] Order = new Integer[nCount - 2];
+        for (int i = 1; i < nCount - 1; i++) {
+            Distances[i] = Points.get(i).Distance(ptMid);
+            Order[i - 1] = i;
+        }
+        Arrays.sort(Order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(Distances[a], Distances[b]);
+            }
+        });
 
-        // Sort the rest by approx distance from the line in reverse order so we can get them off the end.
-        Points.SortByDistance(pStart.GetMidPoint(pEnd));
-        Collections.reverse(Points);
+        int[] InsertOrder = new int[nCount - 2];
+        for (int i = 0; i < InsertOrder.length; i++)
+            InsertOrder[i] = Order[i];
+
+        Optimiser.setClosed(false);
+        Optimiser.Create(Points);
 
         // Add them all in the most sensible place (not gauranteed).
-        while (Points.size() > 0) {
-            this.InsertOptimally(Points.get(Points.size() - 1));
-            Points.remove(Points.size() - 1);
-        }
+        int[] Tour = new int[nCount];
+        Tour[0] = 0;
+        Tour[1] = nCount - 1;
+        Optimiser.InsertCheapest(Tour, 2, InsertOrder, InsertOrder.length);
+        return Tour;
+    }
 
+    /**
+     * Replaces the points with the points in the order of the tour.
+     */
+    private void SetTour(ArrayList<C2DPoint> Points, int[] Tour) {
+        clear();
+        for (int i = 0; i < Tour.length; i++)
+            this.addLast(Points.get(Tour[i]));
     }
 
     private static int conRefineProximity = 10;
@@ -0,0 +1,330 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A set of triangles sharing vertices, as made by CTriangulator. The vertices are held as
+ * coordinates and each triangle as 3 indexes into them, anticlockwise, in one compact array
+ * which can be used directly as an index buffer.
+ * <p>
+ * Edges used by only one triangle are the boundary. MakeDelaunay flips the other edges until
+ * the triangulation is the constrained Delaunay triangulation of the boundary and
+ * GetConvexPolygons merges the triangles into convex polygons.
+ */
+public class CTriangleMesh {
+    /**
+     * Constructor.
+     */
+    public CTriangleMesh() {
+    }
+
+    /**
+     * Removes all the vertices and triangles.
+     */
+    public void Clear() {
+        X = new double[0];
+        Y = new double[0];
+        VertexCount = 0;
+        Indexes = new int[0];
+        TriangleCount = 0;
+    }
+
+    /**
+     * Sets the vertices and triangles. The arrays are held by reference.
+     *
+     * @param xs             The x coordinates of the vertices.
+     * @param ys             The y coordinates of the vertices.
+     * @param nVertexCount   The number of vertices.
+     * @param TriIndexes     The vertex indexes of each triangle, 3 per triangle, anticlockwise.
+     * @param nTriangleCount The number of triangles.
+     */
+    void Set(double[] xs, double[] ys, int nVertexCount, int[] TriIndexes, int nTriangleCount) {
+        X = xs;
+        Y = ys;
+        VertexCount = nVertexCount;
+        Indexes = TriIndexes;
+        TriangleCount = nTriangleCount;
+    }
+
+    /**
+     * The number of vertices.
+     */
+    public int GetVertexCount() {
+        return VertexCount;
+    }
+
+    /**
+     * The number of triangles.
+     */
+    public int GetTriangleCount() {
+        return TriangleCount;
+    }
+
+    /**
+     * Returns a copy of a vertex.
+     *
+     * @param nVertex The index of the vertex.
+     */
+    public C2DPoint GetVertex(int nVertex) {
+        return new C2DPoint(X[nVertex], Y[nVertex]);
+    }
+
+    /**
+     * The index of a corner of a triangle.
+     *
+     * @param nTriangle The index of the triangle.
+     * @param nCorner   The corner, 0 to 2, anticlockwise.
+     */
+    public int GetIndex(int nTriangle, int nCorner) {
+        return Indexes[nTriangle * 3 + nCorner];
+    }
+
+    /**
+     * Returns the vertex indexes of all the triangles, 3 per triangle, anticlockwise.
+     */
+    public int[] GetIndexes() {
+        return Arrays.copyOf(Indexes, TriangleCount * 3);
+    }
+
+    /**
+     * Gets a triangle.
+     *
+     * @param nTriangle The index of the triangle.
+     * @param Triangle  Output. The triangle.
+     */
+    public void GetTriangle(int nTriangle, C2DTriangle Triangle) {
+        int nIndex = nTriangle * 3;
+        Triangle.Set(GetVertex(Indexes[nIndex]), GetVertex(Indexes[nIndex + 1]), GetVertex(Indexes[nIndex + 2]));
+    }
+
+    /**
+     * Gets all the triangles.
+     *
+     * @param Triangles Output. The triangles.
+     */
+    public void GetTriangles(ArrayList<C2DTriangle> Triangles) {
+        for (int i = 0; i < TriangleCount; i++) {
+            C2DTriangle Triangle = new C2DTriangle();
+            GetTriangle(i, Triangle);
+            Triangles.add(Triangle);
+        }
+    }
+
+    /**
+     * The area of a triangle.
+     *
+     * @param nTriangle The index of the triangle.
+     */
+    public double GetTriangleArea(int nTriangle) {
+        int nIndex = nTriangle * 3;
+        return Cross(Indexes[nIndex], Indexes[nIndex + 1], Indexes[nIndex + 2]) / 2;
+    }
+
+    /**
+     * The total area of the triangles.
+     */
+    public double GetArea() {
+        double dArea = 0;
+        for (int i = 0; i < TriangleCount; i++)
+            dArea += GetTriangleArea(i);
+        return dArea;
+    }
+
+    /**
+     * Flips the edges between pairs of triangles until no vertex is inside the circumcircle of a
+     * neighbouring triangle, giving the constrained Delaunay triangulation of the boundary. This
+     * maximises the smallest angle so avoids thin triangles where possible.
+     */
+    public void MakeDelaunay() {
+        int[] Twins = MakeTwins();
+
+        int[] Stack = new int[TriangleCount * 3];
+        int nStack = 0;
+        for (int i = 0; i < TriangleCount * 3; i++) {
+            if (Twins[i] > i)
+                Stack[nStack++] = i;
+        }
+
+        while (nStack > 0) {
+            int nEdge = Stack[--nStack];
+            int nTwin = Twins[nEdge];
+            if (nTwin == const_nNone)
+                continue;
+
+            // The triangles (a, b, c) and (b, a, d) become (a, d, c) and (d, b, c).
+            int t1 = nEdge - nEdge % 3;
+            int t2 = nTwin - nTwin % 3;
+            int nA = Indexes[nEdge];
+            int nB = Indexes[t1 + (nEdge + 1) % 3];
+            int nC = Indexes[t1 + (nEdge + 2) % 3];
+            int nD = Indexes[t2 + (nTwin + 2) % 3];
+
+            if (!InCircle(nA, nB, nC, nD) || Cross(nA, nD, nC) <= 0 || Cross(nD, nB, nC) <= 0)
+                continue;
+
+            int nBC = Twins[t1 + (nEdge + 1) % 3];
+            int nCA = Twins[t1 + (nEdge + 2) % 3];
+            int nAD = Twins[t2 + (nTwin + 1) % 3];
+            int nDB = Twins[t2 + (nTwin + 2) % 3];
+
+            Indexes[t1] = nA;
+            Indexes[t1 + 1] = nD;
+            Indexes[t1 + 2] = nC;
+            Indexes[t2] = nD;
+            Indexes[t2 + 1] = nB;
+            Indexes[t2 + 2] = nC;
+
+            SetTwins(Twins, t1, nAD);
+            SetTwins(Twins, t1 + 1, t2 + 2);
+            SetTwins(Twins, t1 + 2, nCA);
+            SetTwins(Twins, t2, nDB);
+            SetTwins(Twins, t2 + 1, nBC);
+
+            if (nStack + 4 > Stack.length)
+                Stack = Arrays.copyOf(Stack, Stack.length * 2 + 4);
+            Stack[nStack++] = t1;
+            Stack[nStack++] = t1 + 2;
+            Stack[nStack++] = t2;
+            Stack[nStack++] = t2 + 1;
+        }
+    }
+
+    /**
+     * Merges the triangles into convex polygons using the Hertel-Mehlhorn algorithm. Each edge
+     * between 2 triangles is removed if the polygon made is still convex, giving at most 4 times
+     * the fewest convex polygons possible.
+     *
+     * @param Polygons Output. The vertex indexes of each polygon, anticlockwise.
+     */
+    public void GetConvexPolygons(ArrayList<ArrayList<Integer>> Polygons) {
+        int nEdgeCount = TriangleCount * 3;
+        int[] Twins = MakeTwins();
+        int[] Next = new int[nEdgeCount];
+        int[] Prev = new int[nEdgeCount];
+        boolean[] Removed = new boolean[nEdgeCount];
+        for (int i = 0; i < nEdgeCount; i++) {
+            int nTriangle = i - i % 3;
+            Next[i] = nTriangle + (i + 1) % 3;
+            Prev[i] = nTriangle + (i + 2) % 3;
+        }
+
+        for (int i = 0; i < nEdgeCount; i++) {
+            int nTwin = Twins[i];
+            if (nTwin == const_nNone || nTwin < i)
+                continue;
+
+            // Removing the edge a to b joins the polygons either side, check both ends stay convex.
+            int nA = Indexes[i];
+            int nB = Indexes[nTwin];
+            if (Cross(Indexes[Prev[i]], nA, Indexes[Next[Next[nTwin]]]) < 0 ||
+                    Cross(Indexes[Prev[nTwin]], nB, Indexes[Next[Next[i]]]) < 0)
+                continue;
+
+            Next[Prev[i]] = Next[nTwin];
+            Prev[Next[nTwin]] = Prev[i];
+            Next[Prev[nTwin]] = Next[i];
+            Prev[Next[i]] = Prev[nTwin];
+            Removed[i] = true;
+            Removed[nTwin] = true;
+        }
+
+        boolean[] Used = new boolean[nEdgeCount];
+        for (int i = 0; i < nEdgeCount; i++) {
+            if (Removed[i] || Used[i])
+                continue;
+
+            ArrayList<Integer> Polygon = new ArrayList<Integer>();
+            int nEdge = i;
+            do {
+                Used[nEdge] = true;
+                Polygon.add(Indexes[nEdge]);
+                nEdge = Next[nEdge];
+            } while (nEdge != i);
+            Polygons.add(Polygon);
+        }
+    }
+
+    /**
+     * For each edge of each triangle, the same edge of the neighbouring triangle or const_nNone on
+     * the boundary. Edge k of triangle t is 3t + k, from corner k to the next.
+     */
+    private int[] MakeTwins() {
+        int nEdgeCount = TriangleCount * 3;
+        int[] Twins = new int[nEdgeCount];
+        Arrays.fill(Twins, const_nNone);
+
+        HashMap<Long, Integer> Edges = new HashMap<Long, Integer>(nEdgeCount * 2);
+        for (int i = 0; i < nEdgeCount; i++) {
+            int nFrom = Indexes[i];
+            int nTo = Indexes[i - i % 3 + (i + 1) % 3];
+            Integer nTwin = Edges.remove(EdgeKey(nTo, nFrom));
+            if (nTwin != null) {
+                Twins[i] = nTwin;
+                Twins[nTwin] = i;
+            } else {
+                Edges.put(EdgeKey(nFrom, nTo), i);
+            }
+        }
+        return Twins;
+    }
+
+    private static long EdgeKey(int nFrom, int nTo) {
+        return ((long) nFrom << 32) | (nTo & 0xFFFFFFFFL);
+    }
+
+    private static void SetTwins(int[] Twins, int nEdge, int nTwin) {
+        Twins[nEdge] = nTwin;
+        if (nTwin != const_nNone)
+            Twins[nTwin] = nEdge;
+    }
+
+    /**
+     * Twice the signed area of the triangle, positive if anticlockwise.
+     */
+    private double Cross(int nA, int nB, int nC) {
+        return (X[nB] - X[nA]) * (Y[nC] - Y[nA]) - (Y[nB] - Y[nA]) * (X[nC] - X[nA]);
+    }
+
+    /**
+     * True if d is clearly inside the circumcircle of the anticlockwise triangle a, b, c. Points
+     * within rounding of the circle are treated as outside so the flipping always ends.
+     */
+    private boolean InCircle(int nA, int nB, int nC, int nD) {
+        double adx = X[nA] - X[nD];
+        double ady = Y[nA] - Y[nD];
+        double bdx = X[nB] - X[nD];
+        double bdy = Y[nB] - Y[nD];
+        double cdx = X[nC] - X[nD];
+        double cdy = Y[nC] - Y[nD];
+
+        double dA = adx * adx + ady * ady;
+        double dB = bdx * bdx + bdy * bdy;
+        double dC = cdx * cdx + cdy * cdy;
+
+        double d1 = dA * (bdx * cdy - cdx * bdy);
+        double d2 = dB * (cdx * ady - adx * cdy);
+        double d3 = dC * (adx * bdy - bdx * ady);
+
+        double dTolerance = (Math.abs(d1) + Math.abs(d2) + Math.abs(d3)) * const_dInCircleTolerance;
+        return d1 + d2 + d3 > dTolerance;
+    }
+
+    private static final int const_nNone = -1;
+
+    /**
+     * The in circle determinant relative to the size of its terms below which it is taken as 0.
+     */
+    private static final double const_dInCircleTolerance = 1e-12;
+
+    private double[] X = new double[0];
+    private double[] Y = new double[0];
+    private int VertexCount = 0;
+
+    /**
+     * The vertex indexes of each triangle, 3 per triangle, anticlockwise.
+     */
+    private int[] Indexes = new int[0];
+    private int TriangleCount = 0;
+}
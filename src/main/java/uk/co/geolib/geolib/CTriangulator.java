@@ -0,0 +1,604 @@
+package uk.co.geolib.geolib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ * Triangulates polygons, with or without holes, in O(n log n) time. A sweep from top to bottom
+ * adds diagonals which split the polygon into pieces which are monotone in y, handling holes
+ * as they are met so they need not be joined to the outside first. Each piece is then
+ * triangulated in linear time by walking down its 2 sides. Optionally the edges are then
+ * flipped to give the constrained Delaunay triangulation.
+ * <p>
+ * The polygon is given as rings of points, the first the outside and any others holes, in
+ * either direction. The rings must not cross or touch each other or themselves, though a
+ * point repeated straight after itself is ignored. The vertices of the mesh made are the
+ * points of the rings in order so the triangles index the points given.
+ */
+public class CTriangulator {
+    /**
+     * Constructor.
+     */
+    public CTriangulator() {
+    }
+
+    /**
+     * Triangulates a polygon without holes.
+     *
+     * @param Points The points of the polygon in order.
+     * @param Mesh   Output. The triangles.
+     */
+    public void Triangulate(ArrayList<C2DPoint> Points, CTriangleMesh Mesh) {
+        Triangulate(Points, new ArrayList<ArrayList<C2DPoint>>(), Mesh);
+    }
+
+    /**
+     * Triangulates a polygon with holes. The vertices of the mesh are the points of the outside
+     * followed by those of each hole.
+     *
+     * @param Points The points of the outside of the polygon in order.
+     * @param Holes  The points of each hole in order.
+     * @param Mesh   Output. The triangles.
+     */
+    public void Triangulate(ArrayList<C2DPoint> Points, ArrayList<ArrayList<C2DPoint>> Holes,
+                            CTriangleMesh Mesh) {
+        ArrayList<ArrayList<C2DPoint>> Rings = new ArrayList<ArrayList<C2DPoint>>();
+        Rings.add(Points);
+        Rings.addAll(Holes);
+
+        int nCount = 0;
+        for (int r = 0; r < Rings.size(); r++)
+            nCount += Rings.get(r).size();
+
+        double[] xs = new double[nCount];
+        double[] ys = new double[nCount];
+        int[] RingEnds = new int[Rings.size()];
+        int nPoint = 0;
+        for (int r = 0; r < Rings.size(); r++) {
+            ArrayList<C2DPoint> Ring = Rings.get(r);
+            for (int i = 0; i < Ring.size(); i++) {
+                xs[nPoint] = Ring.get(i).x;
+                ys[nPoint] = Ring.get(i).y;
+                nPoint++;
+            }
+            RingEnds[r] = nPoint;
+        }
+
+        Triangulate(xs, ys, RingEnds, Mesh);
+    }
+
+    /**
+     * Triangulates a polygon with holes given as coordinate arrays. The arrays are held by the mesh.
+     *
+     * @param xs       The x coordinates of the points of all the rings.
+     * @param ys       The y coordinates of the points of all the rings.
+     * @param RingEnds The index after the last point of each ring. The first ring is the outside.
+     * @param Mesh     Output. The triangles.
+     */
+    public void Triangulate(double[] xs, double[] ys, int[] RingEnds, CTriangleMesh Mesh) {
+        X = xs;
+        Y = ys;
+        Count = RingEnds.length == 0 ? 0 : RingEnds[RingEnds.length - 1];
+
+        MakeRings(RingEnds);
+        Triangles = new int[Math.max(0, PointCount + 2 * RingEnds.length - 4) * 3];
+        TriangleCount = 0;
+
+        if (PointCount >= 3) {
+            MakeMonotone();
+            TriangulatePieces();
+        }
+
+        Mesh.Set(xs, ys, Count, Triangles, TriangleCount);
+        if (Delaunay)
+            Mesh.MakeDelaunay();
+
+        X = null;
+        Y = null;
+        Next = null;
+        Prev = null;
+        Points = null;
+        Helpers = null;
+        Triangles = null;
+        DiagonalCount = 0;
+    }
+
+    /**
+     * True if the triangles are made Delaunay.
+     */
+    public boolean getDelaunay() {
+        return Delaunay;
+    }
+
+    /**
+     * Sets whether the triangles are made into the constrained Delaunay triangulation, which
+     * avoids thin triangles where possible. Defaults to false.
+     */
+    public void setDelaunay(boolean bDelaunay) {
+        Delaunay = bDelaunay;
+    }
+
+    /**
+     * Links the points of each ring so the inside is on the left going from a point to the
+     * next, anticlockwise for the outside and clockwise for the holes. A point the same as the
+     * one before it is left out, as is a ring with less than 3 points.
+     */
+    private void MakeRings(int[] RingEnds) {
+        Next = new int[Count];
+        Prev = new int[Count];
+        Points = new int[Count];
+        PointCount = 0;
+
+        int nStart = 0;
+        for (int r = 0; r < RingEnds.length; r++) {
+            int nEnd = RingEnds[r];
+
+            int nFirst = PointCount;
+            for (int i = nStart; i < nEnd; i++) {
+                if (PointCount == nFirst || !SamePoint(i, Points[PointCount - 1]))
+                    Points[PointCount++] = i;
+            }
+            while (PointCount - nFirst > 1 && SamePoint(Points[PointCount - 1], Points[nFirst]))
+                PointCount--;
+            nStart = nEnd;
+
+            int nRingCount = PointCount - nFirst;
+            if (nRingCount < 3) {
+                if (r == 0)
+                    return;
+                PointCount = nFirst;
+                continue;
+            }
+
+            double dArea = 0;
+            for (int i = 0; i < nRingCount; i++) {
+                int a = Points[nFirst + i];
+                int b = Points[nFirst + (i + 1) % nRingCount];
+                dArea += X[a] * Y[b] - X[b] * Y[a];
+            }
+            boolean bForwards = (r == 0) == (dArea >= 0);
+
+            for (int i = 0; i < nRingCount; i++) {
+                int nPoint = Points[nFirst + i];
+                int nAfter = Points[nFirst + (i + 1) % nRingCount];
+                int nBefore = Points[nFirst + (i + nRingCount - 1) % nRingCount];
+                Next[nPoint] = bForwards ? nAfter : nBefore;
+                Prev[nPoint] = bForwards ? nBefore : nAfter;
+            }
+        }
+    }
+
+    private boolean SamePoint(int nA, int nB) {
+        return X[nA] == X[nB] && Y[nA] == Y[nB];
+    }
+
+    /**
+     * True if the first point is above the second, or level with it and to the left.
+     */
+    private boolean Above(int nA, int nB) {
+        return Y[nA] > Y[nB] || (Y[nA] == Y[nB] && X[nA] < X[nB]);
+    }
+
+    /**
+     * Twice the signed area of the triangle, positive if anticlockwise.
+     */
+    private double Cross(int nA, int nB, int nC) {
+        return (X[nB] - X[nA]) * (Y[nC] - Y[nA]) - (Y[nB] - Y[nA]) * (X[nC] - X[nA]);
+    }
+
+    /**
+     * Sweeps down the points adding the diagonals which split the polygon into monotone pieces.
+     * The edges with the inside to their right which cut the sweep line are kept in order, each
+     * with the lowest point above the sweep line it can see, which is where the diagonals go.
+     * Edges are identified by the point they start from.
+     */
+    private void MakeMonotone() {
+        Integer[] Order = new Integer[PointCount];
+        for (int i = 0; i < PointCount; i++)
+            Order[i] = Points[i];
+        Arrays.sort(Order, new Comparator<Integer>() {
+            public int compare(Integer n1, Integer n2) {
+                if (Above(n1, n2))
+                    return -1;
+                else if (Above(n2, n1))
+                    return 1;
+                else
+                    return 0;
+            }
+        });
+
+        Helpers = new int[Count];
+        DiagonalsFrom = new int[16];
+        DiagonalsTo = new int[16];
+        DiagonalCount = 0;
+
+        TreeSet<Integer> Status = new TreeSet<Integer>(new Comparator<Integer>() {
+            public int compare(Integer n1, Integer n2) {
+                return CompareEdges(n1, n2);
+            }
+        });
+
+        for (int i = 0; i < PointCount; i++) {
+            int v = Order[i];
+            int nPrev = Prev[v];
+            int nNext = Next[v];
+            SweepX = X[v];
+            SweepY = Y[v];
+
+            boolean bPrevBelow = Above(v, nPrev);
+            boolean bNextBelow = Above(v, nNext);
+            boolean bConvex = Cross(nPrev, v, nNext) >= 0;
+
+            if (bPrevBelow && bNextBelow) {
+                if (!bConvex) {
+                    // Split, join up to the edge on the left.
+                    int nLeft = LeftEdge(Status);
+                    if (nLeft != const_nNone) {
+                        AddDiagonal(v, Helpers[nLeft]);
+                        Helpers[nLeft] = v;
+                    }
+                }
+                // Start or split.
+                Helpers[v] = v;
+                Status.add(v);
+            } else if (!bPrevBelow && !bNextBelow) {
+                // End or merge.
+                if (IsMerge(Helpers[nPrev]))
+                    AddDiagonal(v, Helpers[nPrev]);
+                RemoveEdge(Status, nPrev);
+
+                if (!bConvex) {
+                    int nLeft = LeftEdge(Status);
+                    if (nLeft != const_nNone) {
+                        if (IsMerge(Helpers[nLeft]))
+                            AddDiagonal(v, Helpers[nLeft]);
+                        Helpers[nLeft] = v;
+                    }
+                }
+            } else if (bNextBelow) {
+                // Regular with the inside to the right.
+                if (IsMerge(Helpers[nPrev]))
+                    AddDiagonal(v, Helpers[nPrev]);
+                RemoveEdge(Status, nPrev);
+                Helpers[v] = v;
+                Status.add(v);
+            } else {
+                // Regular with the inside to the left.
+                int nLeft = LeftEdge(Status);
+                if (nLeft != const_nNone) {
+                    if (IsMerge(Helpers[nLeft]))
+                        AddDiagonal(v, Helpers[nLeft]);
+                    Helpers[nLeft] = v;
+                }
+            }
+        }
+    }
+
+    /**
+     * True if the point is a merge point, where 2 pieces of the inside meet going down.
+     */
+    private boolean IsMerge(int v) {
+        return Above(Prev[v], v) && Above(Next[v], v) && Cross(Prev[v], v, Next[v]) < 0;
+    }
+
+    /**
+     * The edge in the status directly to the left of the current point, const_nNone if there is none.
+     */
+    private int LeftEdge(TreeSet<Integer> Status) {
+        Integer nLeft = Status.lower(const_nProbe);
+        return nLeft == null ? const_nNone : nLeft;
+    }
+
+    /**
+     * Removes an edge from the status. If rounding has left the status out of order so it is not
+     * found, it is searched for.
+     */
+    private void RemoveEdge(TreeSet<Integer> Status, int nEdge) {
+        if (Status.remove(nEdge))
+            return;
+
+        Iterator<Integer> It = Status.iterator();
+        while (It.hasNext()) {
+            if (It.next() == nEdge) {
+                It.remove();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Orders edges by where they cut the sweep line, then by where they go below it. The probe
+     * is the current point and comes after the edges through it.
+     */
+    private int CompareEdges(int n1, int n2) {
+        if (n1 == n2)
+            return 0;
+
+        double x1 = EdgeX(n1);
+        double x2 = EdgeX(n2);
+        if (x1 < x2)
+            return -1;
+        else if (x1 > x2)
+            return 1;
+
+        if (n1 == const_nProbe)
+            return 1;
+        else if (n2 == const_nProbe)
+            return -1;
+
+        double dSlope1 = EdgeSlope(n1);
+        double dSlope2 = EdgeSlope(n2);
+        if (dSlope1 < dSlope2)
+            return -1;
+        else if (dSlope1 > dSlope2)
+            return 1;
+
+        return n1 < n2 ? -1 : 1;
+    }
+
+    /**
+     * The x coordinate where the edge cuts the sweep line. A level edge is only in the status
+     * while the sweep is at one of its ends so the sweep point is kept within it.
+     */
+    private double EdgeX(int nEdge) {
+        if (nEdge == const_nProbe)
+            return SweepX;
+
+        int nTo = Next[nEdge];
+        double y1 = Y[nEdge];
+        double y2 = Y[nTo];
+        if (y1 == y2)
+            return Math.max(Math.min(X[nEdge], X[nTo]), Math.min(Math.max(X[nEdge], X[nTo]), SweepX));
+
+        return X[nEdge] + (SweepY - y1) * (X[nTo] - X[nEdge]) / (y2 - y1);
+    }
+
+    /**
+     * How far the edge goes in x for each unit it goes down.
+     */
+    private double EdgeSlope(int nEdge) {
+        int nTo = Next[nEdge];
+        int nUpper = Above(nEdge, nTo) ? nEdge : nTo;
+        int nLower = nUpper == nEdge ? nTo : nEdge;
+        double dy = Y[nUpper] - Y[nLower];
+        if (dy == 0)
+            return Double.POSITIVE_INFINITY;
+        return (X[nLower] - X[nUpper]) / dy;
+    }
+
+    private void AddDiagonal(int nFrom, int nTo) {
+        if (DiagonalCount == DiagonalsFrom.length) {
+            DiagonalsFrom = Arrays.copyOf(DiagonalsFrom, DiagonalCount * 2);
+            DiagonalsTo = Arrays.copyOf(DiagonalsTo, DiagonalCount * 2);
+        }
+        DiagonalsFrom[DiagonalCount] = nFrom;
+        DiagonalsTo[DiagonalCount] = nTo;
+        DiagonalCount++;
+    }
+
+    /**
+     * Splits the polygon into its monotone pieces using the diagonals and triangulates each.
+     * The edges leaving each point are the one to the next point on its ring and both ways
+     * along each diagonal. Going round a piece anticlockwise, the edge after one arriving at a
+     * point is the next one clockwise from the way back.
+     */
+    private void TriangulatePieces() {
+        int nEdgeCount = PointCount + DiagonalCount * 2;
+        int[] EdgeFrom = new int[nEdgeCount];
+        int[] EdgeTo = new int[nEdgeCount];
+        for (int i = 0; i < PointCount; i++) {
+            EdgeFrom[i] = Points[i];
+            EdgeTo[i] = Next[Points[i]];
+        }
+        for (int i = 0; i < DiagonalCount; i++) {
+            EdgeFrom[PointCount + i * 2] = DiagonalsFrom[i];
+            EdgeTo[PointCount + i * 2] = DiagonalsTo[i];
+            EdgeFrom[PointCount + i * 2 + 1] = DiagonalsTo[i];
+            EdgeTo[PointCount + i * 2 + 1] = DiagonalsFrom[i];
+        }
+
+        // The edges leaving each point, grouped by point and ordered by angle.
+        int[] Starts = new int[Count + 1];
+        for (int i = 0; i < nEdgeCount; i++)
+            Starts[EdgeFrom[i] + 1]++;
+        for (int i = 0; i < Count; i++)
+            Starts[i + 1] += Starts[i];
+        int[] Leaving = new int[nEdgeCount];
+        int[] Fill = Arrays.copyOf(Starts, Count);
+        for (int i = 0; i < nEdgeCount; i++)
+            Leaving[Fill[EdgeFrom[i]]++] = i;
+
+        double[] Angles = new double[nEdgeCount];
+        for (int i = 0; i < nEdgeCount; i++)
+            Angles[i] = Math.atan2(Y[EdgeTo[i]] - Y[EdgeFrom[i]], X[EdgeTo[i]] - X[EdgeFrom[i]]);
+        for (int v = 0; v < Count; v++) {
+            // Insertion sort, only the ends of diagonals have more than 1.
+            for (int i = Starts[v] + 1; i < Starts[v + 1]; i++) {
+                int nEdge = Leaving[i];
+                int j = i - 1;
+                while (j >= Starts[v] && Angles[Leaving[j]] > Angles[nEdge]) {
+                    Leaving[j + 1] = Leaving[j];
+                    j--;
+                }
+                Leaving[j + 1] = nEdge;
+            }
+        }
+
+        boolean[] Used = new boolean[nEdgeCount];
+        int[] Piece = new int[PointCount];
+        for (int i = 0; i < nEdgeCount; i++) {
+            if (Used[i])
+                continue;
+
+            int nPieceCount = 0;
+            int nEdge = i;
+            do {
+                Used[nEdge] = true;
+                if (nPieceCount == Piece.length)
+                    Piece = Arrays.copyOf(Piece, nPieceCount * 2);
+                Piece[nPieceCount++] = EdgeFrom[nEdge];
+
+                int v = EdgeTo[nEdge];
+                double dBack = Math.atan2(Y[EdgeFrom[nEdge]] - Y[v], X[EdgeFrom[nEdge]] - X[v]);
+                int nFirst = Starts[v];
+                int nLast = Starts[v + 1] - 1;
+                int nChosen = Leaving[nLast];
+                for (int j = nFirst; j <= nLast; j++) {
+                    if (Angles[Leaving[j]] < dBack)
+                        nChosen = Leaving[j];
+                    else
+                        break;
+                }
+                nEdge = nChosen;
+            } while (nEdge != i && !Used[nEdge]);
+
+            TriangulateMonotone(Piece, nPieceCount);
+        }
+    }
+
+    /**
+     * Triangulates a monotone piece given anticlockwise. The points are taken from the top
+     * down, merging the 2 sides. A stack holds the points not yet finished, which form a
+     * concave chain. A point on the other side from the stack can see all of it, and a point
+     * on the same side cuts off triangles while the chain turns towards the inside.
+     */
+    private void TriangulateMonotone(int[] Piece, int nCount) {
+        if (nCount < 3)
+            return;
+        if (nCount == 3) {
+            AddTriangle(Piece[0], Piece[1], Piece[2]);
+            return;
+        }
+
+        int nTop = 0;
+        int nBottom = 0;
+        for (int i = 1; i < nCount; i++) {
+            if (Above(Piece[i], Piece[nTop]))
+                nTop = i;
+            if (Above(Piece[nBottom], Piece[i]))
+                nBottom = i;
+        }
+
+        // Anticlockwise from the top goes down the left side, clockwise down the right.
+        int[] Sorted = new int[nCount];
+        boolean[] OnLeft = new boolean[nCount];
+        int nLeft = (nTop + 1) % nCount;
+        int nRight = (nTop + nCount - 1) % nCount;
+        Sorted[0] = Piece[nTop];
+        OnLeft[0] = true;
+        for (int i = 1; i < nCount; i++) {
+            if (nLeft != nBottom && (nRight == nBottom || Above(Piece[nLeft], Piece[nRight]))) {
+                Sorted[i] = Piece[nLeft];
+                OnLeft[i] = true;
+                nLeft = (nLeft + 1) % nCount;
+            } else {
+                Sorted[i] = Piece[nRight];
+                OnLeft[i] = false;
+                if (nRight == nBottom)
+                    break;
+                nRight = (nRight + nCount - 1) % nCount;
+            }
+        }
+
+        int[] Stack = new int[nCount];
+        int nStack = 0;
+        Stack[nStack++] = 0;
+        Stack[nStack++] = 1;
+
+        for (int j = 2; j < nCount - 1; j++) {
+            if (OnLeft[j] != OnLeft[Stack[nStack - 1]]) {
+                while (nStack > 1) {
+                    int t = Stack[--nStack];
+                    AddTriangle(Sorted[j], Sorted[t], Sorted[Stack[nStack - 1]]);
+                }
+                nStack = 0;
+                Stack[nStack++] = j - 1;
+                Stack[nStack++] = j;
+            } else {
+                int nLast = Stack[--nStack];
+                while (nStack > 0) {
+                    int s = Stack[nStack - 1];
+                    double dTurn = OnLeft[j] ? Cross(Sorted[s], Sorted[nLast], Sorted[j])
+                            : Cross(Sorted[j], Sorted[nLast], Sorted[s]);
+                    if (dTurn <= 0)
+                        break;
+                    AddTriangle(Sorted[s], Sorted[nLast], Sorted[j]);
+                    nLast = Stack[--nStack];
+                }
+                Stack[nStack++] = nLast;
+                Stack[nStack++] = j;
+            }
+        }
+
+        int nLowest = Sorted[nCount - 1];
+        while (nStack > 1) {
+            int t = Stack[--nStack];
+            AddTriangle(nLowest, Sorted[t], Sorted[Stack[nStack - 1]]);
+        }
+    }
+
+    /**
+     * Adds a triangle, anticlockwise.
+     */
+    private void AddTriangle(int nA, int nB, int nC) {
+        if (TriangleCount * 3 == Triangles.length)
+            Triangles = Arrays.copyOf(Triangles, Triangles.length * 2 + 3);
+
+        int nIndex = TriangleCount * 3;
+        Triangles[nIndex] = nA;
+        if (Cross(nA, nB, nC) >= 0) {
+            Triangles[nIndex + 1] = nB;
+            Triangles[nIndex + 2] = nC;
+        } else {
+            Triangles[nIndex + 1] = nC;
+            Triangles[nIndex + 2] = nB;
+        }
+        TriangleCount++;
+    }
+
+    private static final int const_nNone = -1;
+
+    /**
+     * The edge id used to search the status for the current point.
+     */
+    private static final int const_nProbe = -2;
+
+    private boolean Delaunay = false;
+
+    /**
+     * The points being triangulated and the next and previous point on each ring.
+     */
+    private double[] X;
+    private double[] Y;
+    private int Count;
+    private int[] Next;
+    private int[] Prev;
+
+    /**
+     * The points used, without repeats.
+     */
+    private int[] Points;
+    private int PointCount;
+
+    /**
+     * The current sweep point.
+     */
+    private double SweepX;
+    private double SweepY;
+
+    /**
+     * For each edge in the status, the lowest point above the sweep line between it and the next
+     * edge to the right.
+     */
+    private int[] Helpers;
+
+    private int[] DiagonalsFrom;
+    private int[] DiagonalsTo;
+    private int DiagonalCount;
+
+    private int[] Triangles;
+    private int TriangleCount;
+}
@@ -0,0 +1,504 @@
+package uk.co.geolib.geopolygons;
+
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geolib.C2DVector;
+import uk.co.geolib.geolib.CDynamicRectTree;
+import uk.co.geolib.geolib.Constants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A set of polygons which can move, for finding the pairs that overlap without testing every
+ * pair. The bounding rectangles are held in a CDynamicRectTree which gives the candidate pairs
+ * whose rectangles overlap, and only those are tested with C2DPolygon.Overlaps. The tests read
+ * the polygons only so they are run in parallel.
+ * <p>
+ * Polygons are held by reference and identified by the id returned when they are added, which
+ * stays the same until the polygon is removed, after which it may be reused. When a polygon is
+ * changed call Update, or use Move, so the tree is kept up to date. The tree can hold each
+ * rectangle enlarged by a margin so small moves do not change the tree.
+ * <p>
+ * Overlaps is approximate for concave polygons unless their convex sub areas have been created.
+ * <p>
+ * Query, GetOverlapping, GetCandidatePairs and FindOverlaps only read the world so can be
+ * called from several threads at once, but not while polygons are being added, removed or moved.
+ */
+public class C2DCollisionWorld {
+    /**
+     * Constructor.
+     */
+    public C2DCollisionWorld() {
+        Clear();
+    }
+
+    /**
+     * Removes all the polygons.
+     */
+    public void Clear() {
+        Tree.Clear();
+        Polygons.clear();
+        FreeIds.clear();
+        Handles = new int[const_nInitialCapacity];
+        Fixed = new boolean[const_nInitialCapacity];
+        Left = new double[const_nInitialCapacity];
+        Bottom = new double[const_nInitialCapacity];
+        Right = new double[const_nInitialCapacity];
+        Top = new double[const_nInitialCapacity];
+        Owners = new int[const_nInitialCapacity];
+        Count = 0;
+    }
+
+    /**
+     * The number of polygons.
+     */
+    public int size() {
+        return Count;
+    }
+
+    /**
+     * Adds a polygon. The polygon is held by reference.
+     *
+     * @param Polygon The polygon.
+     * @return The id of the polygon.
+     */
+    public int Add(C2DPolygon Polygon) {
+        int nId;
+        if (FreeIds.size() > 0) {
+            nId = FreeIds.remove(FreeIds.size() - 1);
+            Polygons.set(nId, Polygon);
+        } else {
+            nId = Polygons.size();
+            Polygons.add(Polygon);
+            if (nId == Handles.length)
+                GrowIds(nId * 2);
+        }
+
+        SetRect(nId);
+        Fixed[nId] = false;
+
+        GetFatRect(nId, TempRect);
+        int nHandle = Tree.Insert(TempRect);
+        Handles[nId] = nHandle;
+        if (nHandle >= Owners.length)
+            Owners = Arrays.copyOf(Owners, Math.max(nHandle + 1, Owners.length * 2));
+        Owners[nHandle] = nId;
+
+        Count++;
+        return nId;
+    }
+
+    /**
+     * Removes a polygon.
+     *
+     * @param nId The id of the polygon.
+     */
+    public void Remove(int nId) {
+        assert IsValid(nId) : "Invalid id";
+        Tree.Remove(Handles[nId]);
+        Polygons.set(nId, null);
+        FreeIds.add(nId);
+        Count--;
+    }
+
+    /**
+     * The polygon with the id given.
+     *
+     * @param nId The id of the polygon.
+     */
+    public C2DPolygon Get(int nId) {
+        assert IsValid(nId) : "Invalid id";
+        return Polygons.get(nId);
+    }
+
+    /**
+     * Call when the polygon has been moved or changed in any other way.
+     *
+     * @param nId The id of the polygon.
+     */
+    public void Update(int nId) {
+        assert IsValid(nId) : "Invalid id";
+        SetRect(nId);
+
+        int nHandle = Handles[nId];
+        Tree.GetRect(nHandle, TempRect);
+        if (Left[nId] < TempRect.GetLeft() || Right[nId] > TempRect.GetRight() ||
+                Bottom[nId] < TempRect.GetBottom() || Top[nId] > TempRect.GetTop()) {
+            GetFatRect(nId, TempRect);
+            Tree.Update(nHandle, TempRect);
+        }
+    }
+
+    /**
+     * Moves the polygon and updates the world.
+     *
+     * @param nId    The id of the polygon.
+     * @param Vector The vector to move it by.
+     */
+    public void Move(int nId, C2DVector Vector) {
+        Get(nId).Move(Vector);
+        Update(nId);
+    }
+
+    /**
+     * True if the polygon is not moved by Avoid.
+     *
+     * @param nId The id of the polygon.
+     */
+    public boolean IsFixed(int nId) {
+        assert IsValid(nId) : "Invalid id";
+        return Fixed[nId];
+    }
+
+    /**
+     * Sets whether the polygon is moved by Avoid. Fixed polygons are obstacles the others are
+     * moved away from.
+     *
+     * @param nId    The id of the polygon.
+     * @param bFixed True if the polygon is not to be moved.
+     */
+    public void SetFixed(int nId, boolean bFixed) {
+        assert IsValid(nId) : "Invalid id";
+        Fixed[nId] = bFixed;
+    }
+
+    /**
+     * Finds the polygons whose bounding rectangles overlap the rectangle given.
+     *
+     * @param Rect The rectangle to search.
+     * @param Ids  Output. The ids of the polygons, in no particular order.
+     */
+    public void Query(C2DRect Rect, ArrayList<Integer> Ids) {
+        ArrayList<Integer> Found = new ArrayList<Integer>();
+        Tree.Query(Rect, Found);
+
+        double dLeft = Rect.GetLeft();
+        double dBottom = Rect.GetBottom();
+        double dRight = Rect.GetRight();
+        double dTop = Rect.GetTop();
+
+        for (int i = 0; i < Found.size(); i++) {
+            int nId = Owners[Found.get(i)];
+            if (RectsOverlap(nId, dLeft, dBottom, dRight, dTop))
+                Ids.add(nId);
+        }
+    }
+
+    /**
+     * Finds the polygons which overlap a polygon, which need not be in the world. Useful for
+     * testing a position before moving a polygon there.
+     *
+     * @param Polygon The polygon.
+     * @param Ids     Output. The ids of the polygons which overlap it, other than itself.
+     */
+    public void GetOverlapping(C2DPolygon Polygon, ArrayList<Integer> Ids) {
+        C2DRect Rect = new C2DRect();
+        Polygon.GetBoundingRect(Rect);
+        ArrayList<Integer> Candidates = new ArrayList<Integer>();
+        Query(Rect, Candidates);
+        Collections.sort(Candidates);
+
+        C2DVector vTrans = new C2DVector();
+        for (int i = 0; i < Candidates.size(); i++) {
+            C2DPolygon Other = Polygons.get(Candidates.get(i));
+            if (Other != Polygon && Polygon.Overlaps(Other, vTrans))
+                Ids.add(Candidates.get(i));
+        }
+    }
+
+    /**
+     * Finds the pairs of polygons whose bounding rectangles overlap. These are the only pairs
+     * which can overlap. Each pair is given once with the lower id first, ordered by the first
+     * then the second.
+     *
+     * @param Firsts  Output. The first id of each pair.
+     * @param Seconds Output. The second id of each pair.
+     */
+    public void GetCandidatePairs(ArrayList<Integer> Firsts, ArrayList<Integer> Seconds) {
+        ArrayList<Integer> Found = new ArrayList<Integer>();
+        ArrayList<Integer> Others = new ArrayList<Integer>();
+        C2DRect Rect = new C2DRect();
+
+        for (int i = 0; i < Polygons.size(); i++) {
+            if (Polygons.get(i) == null)
+                continue;
+
+            Rect.Set(Left[i], Top[i], Right[i], Bottom[i]);
+            Found.clear();
+            Tree.Query(Rect, Found);
+
+            Others.clear();
+            for (int j = 0; j < Found.size(); j++) {
+                int nOther = Owners[Found.get(j)];
+                if (nOther > i && RectsOverlap(nOther, Left[i], Bottom[i], Right[i], Top[i]))
+                    Others.add(nOther);
+            }
+            Collections.sort(Others);
+
+            for (int j = 0; j < Others.size(); j++) {
+                Firsts.add(i);
+                Seconds.add(Others.get(j));
+            }
+        }
+    }
+
+    /**
+     * Finds the pairs of polygons which overlap using C2DPolygon.Overlaps on the candidate pairs.
+     * Each pair is given once with the lower id first, ordered by the first then the second.
+     *
+     * @param Firsts       Output. The first id of each pair.
+     * @param Seconds      Output. The second id of each pair.
+     * @param Translations Output. For each pair, the vector to move the first by to move it away
+     *                     from the second.
+     */
+    public void FindOverlaps(ArrayList<Integer> Firsts, ArrayList<Integer> Seconds,
+                             ArrayList<C2DVector> Translations) {
+        ArrayList<Integer> CandidateFirsts = new ArrayList<Integer>();
+        ArrayList<Integer> CandidateSeconds = new ArrayList<Integer>();
+        GetCandidatePairs(CandidateFirsts, CandidateSeconds);
+
+        int nCount = CandidateFirsts.size();
+        C2DPolygon[] Polys1 = new C2DPolygon[nCount];
+        C2DPolygon[] Polys2 = new C2DPolygon[nCount];
+        for (int i = 0; i < nCount; i++) {
+            Polys1[i] = Polygons.get(CandidateFirsts.get(i));
+            Polys2[i] = Polygons.get(CandidateSeconds.get(i));
+        }
+        C2DVector[] Results = new C2DVector[nCount];
+
+        if (Parallelism <= 1 || nCount <= const_nParallelGroupSize) {
+            new COverlapsTask(Polys1, Polys2, Results, 0, nCount).compute();
+        } else {
+            ForkJoinPool Pool = new ForkJoinPool(Parallelism);
+            try {
+                Pool.invoke(new COverlapsTask(Polys1, Polys2, Results, 0, nCount));
+            } finally {
+                Pool.shutdown();
+            }
+        }
+
+        for (int i = 0; i < nCount; i++) {
+            if (Results[i] != null) {
+                Firsts.add(CandidateFirsts.get(i));
+                Seconds.add(CandidateSeconds.get(i));
+                Translations.add(Results[i]);
+            }
+        }
+    }
+
+    /**
+     * Moves the polygons which overlap apart. Both polygons of an overlapping pair are moved by
+     * half the translation found by C2DPolygon.Overlaps unless one is fixed, in which case the
+     * other is moved by all of it. A polygon overlapping several others is moved by the sum.
+     * Pairs whose translation is within the equality tolerance are only touching and are not
+     * moved. Moving may cause new overlaps so call this until it returns 0, or for a limited
+     * number of passes.
+     *
+     * @return The number of overlapping pairs moved apart.
+     */
+    public int Avoid() {
+        ArrayList<Integer> Firsts = new ArrayList<Integer>();
+        ArrayList<Integer> Seconds = new ArrayList<Integer>();
+        ArrayList<C2DVector> Translations = new ArrayList<C2DVector>();
+        FindOverlaps(Firsts, Seconds, Translations);
+
+        int nIds = Polygons.size();
+        double[] MoveX = new double[nIds];
+        double[] MoveY = new double[nIds];
+        int nMoved = 0;
+
+        for (int i = 0; i < Firsts.size(); i++) {
+            int nFirst = Firsts.get(i);
+            int nSecond = Seconds.get(i);
+            C2DVector vTrans = Translations.get(i);
+
+            double dMaxAbs = Math.max(Math.max(Math.abs(Left[nFirst]), Math.abs(Right[nFirst])),
+                    Math.max(Math.abs(Bottom[nFirst]), Math.abs(Top[nFirst])));
+            if (vTrans.GetLength() <= dMaxAbs * Constants.conEqualityTolerance)
+                continue;
+            nMoved++;
+
+            double dFirstShare = 0;
+            double dSecondShare = 0;
+            if (!Fixed[nFirst] && !Fixed[nSecond]) {
+                dFirstShare = 0.5;
+                dSecondShare = 0.5;
+            } else if (!Fixed[nFirst]) {
+                dFirstShare = 1;
+            } else if (!Fixed[nSecond]) {
+                dSecondShare = 1;
+            }
+
+            MoveX[nFirst] += vTrans.i * dFirstShare;
+            MoveY[nFirst] += vTrans.j * dFirstShare;
+            MoveX[nSecond] -= vTrans.i * dSecondShare;
+            MoveY[nSecond] -= vTrans.j * dSecondShare;
+        }
+
+        for (int i = 0; i < nIds; i++) {
+            if (MoveX[i] != 0 || MoveY[i] != 0)
+                Move(i, new C2DVector(MoveX[i], MoveY[i]));
+        }
+
+        return nMoved;
+    }
+
+    /**
+     * The margin the rectangles are enlarged by in the tree.
+     */
+    public double getMargin() {
+        return Margin;
+    }
+
+    /**
+     * Sets the margin the rectangles are enlarged by in the tree. The tree is only changed when a
+     * polygon moves outside its enlarged rectangle, so a margin about the size of the usual move
+     * makes updates cheaper at the cost of more rectangles checked in the searches. Applies to
+     * the polygons added or updated after it is set. Defaults to 0.
+     */
+    public void setMargin(double dMargin) {
+        Margin = Math.max(0, dMargin);
+    }
+
+    /**
+     * The number of threads used to test the candidate pairs. Defaults to the number of processors.
+     */
+    public int getParallelism() {
+        return Parallelism;
+    }
+
+    /**
+     * Sets the number of threads used to test the candidate pairs. 1 to test them on the calling thread.
+     */
+    public void setParallelism(int nParallelism) {
+        Parallelism = Math.max(1, nParallelism);
+    }
+
+    /**
+     * Tests a range of candidate pairs, splitting it in half until it is small enough.
+     */
+    private static class COverlapsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        COverlapsTask(C2DPolygon[] Polys1, C2DPolygon[] Polys2, C2DVector[] Results, int nStart, int nEnd) {
+            this.Polys1 = Polys1;
+            this.Polys2 = Polys2;
+            this.Results = Results;
+            this.nStart = nStart;
+            this.nEnd = nEnd;
+        }
+
+        @Override
+        protected void compute() {
+            if (nEnd - nStart <= const_nParallelGroupSize) {
+                for (int i = nStart; i < nEnd; i++) {
+                    C2DVector vTrans = new C2DVector();
+                    if (Polys1[i].Overlaps(Polys2[i], vTrans))
+                        Results[i] = vTrans;
+                }
+                return;
+            }
+
+            int nMid = (nStart + nEnd) >>> 1;
+            invokeAll(new COverlapsTask(Polys1, Polys2, Results, nStart, nMid),
+                    new COverlapsTask(Polys1, Polys2, Results, nMid, nEnd));
+        }
+
+        private final C2DPolygon[] Polys1;
+        private final C2DPolygon[] Polys2;
+        private final C2DVector[] Results;
+        private final int nStart;
+        private final int nEnd;
+    }
+
+    /**
+     * True if the id is of a polygon in the world.
+     */
+    private boolean IsValid(int nId) {
+        return nId >= 0 && nId < Polygons.size() && Polygons.get(nId) != null;
+    }
+
+    /**
+     * Sets the rectangle held for the polygon from its bounding rectangle.
+     */
+    private void SetRect(int nId) {
+        Polygons.get(nId).GetBoundingRect(TempRect);
+        Left[nId] = TempRect.GetLeft();
+        Bottom[nId] = TempRect.GetBottom();
+        Right[nId] = TempRect.GetRight();
+        Top[nId] = TempRect.GetTop();
+    }
+
+    /**
+     * Gets the rectangle of the polygon enlarged by the margin.
+     */
+    private void GetFatRect(int nId, C2DRect Rect) {
+        Rect.Set(Left[nId] - Margin, Top[nId] + Margin, Right[nId] + Margin, Bottom[nId] - Margin);
+    }
+
+    /**
+     * True if the rectangle of the polygon overlaps the one given, as C2DRect.Overlaps.
+     */
+    private boolean RectsOverlap(int nId, double dLeft, double dBottom, double dRight, double dTop) {
+        return !(Left[nId] >= dRight || Right[nId] <= dLeft || Bottom[nId] >= dTop || Top[nId] <= dBottom);
+    }
+
+    private void GrowIds(int nCapacity) {
+        Handles = Arrays.copyOf(Handles, nCapacity);
+        Fixed = Arrays.copyOf(Fixed, nCapacity);
+        Left = Arrays.copyOf(Left, nCapacity);
+        Bottom = Arrays.copyOf(Bottom, nCapacity);
+        Right = Arrays.copyOf(Right, nCapacity);
+        Top = Arrays.copyOf(Top, nCapacity);
+    }
+
+    private static final int const_nInitialCapacity = 16;
+
+    /**
+     * The number of pairs tested by each task.
+     */
+    private static final int const_nParallelGroupSize = 256;
+
+    /**
+     * The tree of the rectangles enlarged by the margin.
+     */
+    private final CDynamicRectTree Tree = new CDynamicRectTree();
+
+    /**
+     * The polygons by id, null for a free id.
+     */
+    private final ArrayList<C2DPolygon> Polygons = new ArrayList<C2DPolygon>();
+
+    private final ArrayList<Integer> FreeIds = new ArrayList<Integer>();
+
+    private int Count;
+
+    /**
+     * The handle in the tree of each polygon.
+     */
+    private int[] Handles;
+
+    /**
+     * The id of the polygon for each handle in the tree.
+     */
+    private int[] Owners;
+
+    private boolean[] Fixed;
+
+    /**
+     * The bounding rectangle of each polygon.
+     */
+    private double[] Left;
+    private double[] Bottom;
+    private double[] Right;
+    private double[] Top;
+
+    private double Margin = 0;
+
+    private int Parallelism = Runtime.getRuntime().availableProcessors();
+
+    private final C2DRect TempRect = new C2DRect();
+}
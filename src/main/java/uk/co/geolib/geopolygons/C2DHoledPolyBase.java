@@ -881,6 +881,19 @@ public class C2DHoledPolyBase {
         }
     }
 
+    /**
+     * True if the rim and holes have only straight lines.
+     */
+    private boolean IsStraight() {
+        if (!C2DSweepBoolean.IsStraight(Rim))
+            return false;
+        for (int i = 0; i < Holes.size(); i++) {
+            if (!C2DSweepBoolean.IsStraight(Holes.get(i)))
+                return false;
+        }
+        return true;
+    }
+
     /**
      * Returns the boolean result (e.g. union) of 2 shapes. Boolean Operation defined by
      * the inside / outside flags.
@@ -898,6 +911,17 @@ public class C2DHoledPolyBase {
             return;
 
         if (Rim.BoundingRect.Overlaps(Other.Rim.BoundingRect)) {
+            if (grid.BooleanEngine == CGrid.eBooleanEngine.Sweep && IsStraight() && Other.IsStraight()) {
+                ArrayList<C2DPolyBase> Rings1 = new ArrayList<C2DPolyBase>();
+                ArrayList<C2DPolyBase> Rings2 = new ArrayList<C2DPolyBase>();
+                Rings1.add(Rim);
+                Rings1.addAll(Holes);
+                Rings2.add(Other.Rim);
+                Rings2.addAll(Other.Holes);
+                new C2DSweepBoolean().GetBoolean(Rings1, bThisInside, Rings2, bOtherInside, HoledPolys);
+                return;
+            }
+
             switch (grid.DegenerateHandling) {
                 case None: {
                     ArrayList<C2DPolyBase> CompleteHoles1 = new ArrayList<C2DPolyBase>();
@@ -910,7 +934,7 @@ public class C2DHoledPolyBase {
                     Routes1.ExtractAllOf(Routes2);
 
                     if (Routes1.size() > 0) {
-                        Routes1.MergeJoining();
+                        Routes1.MergeJoiningHashed();
 
                         ArrayList<C2DPolyBase> Polygons = new ArrayList<C2DPolyBase>();
 
@@ -0,0 +1,37 @@
+package uk.co.geolib.geopolygons;
+
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DRect;
+
+import java.util.ArrayList;
+
+/**
+ * R-tree index of a set of holed polygons by their bounding rectangles for finding the polygons
+ * near or containing a point. The polygons are identified by their index in the set. The set is
+ * held by reference so create the index again if the set or the polygons change.
+ */
+public class C2DHoledPolyBaseRTree extends C2DPolyRTreeBase<C2DHoledPolyBase> {
+    /**
+     * Constructor.
+     *
+     * @param Polys The polygons to index.
+     */
+    public C2DHoledPolyBaseRTree(ArrayList<? extends C2DHoledPolyBase> Polys) {
+        Create(Polys);
+    }
+
+    protected void GetBoundingRect(C2DHoledPolyBase Poly, C2DRect Rect) {
+        Poly.GetBoundingRect(Rect);
+    }
+
+    protected boolean Contains(C2DHoledPolyBase Poly, C2DPoint pt) {
+        return Poly.Contains(pt);
+    }
+
+    protected double Distance(C2DHoledPolyBase Poly, C2DPoint pt) {
+        if (Poly.Contains(pt))
+            return 0;
+        else
+            return Math.abs(Poly.Distance(pt));
+    }
+}
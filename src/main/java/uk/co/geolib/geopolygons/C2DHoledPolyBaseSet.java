@@ -2,10 +2,21 @@
 
 package uk.co.geolib.geopolygons;
 
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geolib.CDynamicRectTree;
 import uk.co.geolib.geolib.CGrid;
+import uk.co.geolib.geolib.CRTree;
 import uk.co.geolib.geolib.CTransformation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class C2DHoledPolyBaseSet extends ArrayList<C2DHoledPolyBase> {
     /**
@@ -45,34 +56,26 @@ public class C2DHoledPolyBaseSet extends ArrayList<C2DHoledPolyBase> {
 //    }
 
     /**
-     * Basic multiple unification.
+     * Basic multiple unification. Only polygons whose rims' bounding rects overlap are tried.
      */
     public void UnifyBasic() {
         C2DHoledPolyBaseSet TempSet = new C2DHoledPolyBaseSet();
         C2DHoledPolyBaseSet UnionSet = new C2DHoledPolyBaseSet();
+        CGrid grid = new CGrid();
 
-        while (size() > 0) {
-            C2DHoledPolyBase pLast = this.get(size() - 1);
-            this.remove(size() - 1);
+        CUnionIndex Index = new CUnionIndex();
+        Index.AddAll(this);
+        this.clear();
 
-            boolean bIntersect = false;
-            int i = 0;
+        while (!Index.isEmpty()) {
+            C2DHoledPolyBase pLast = Index.PopLast();
 
-            while (i < size() && !bIntersect) {
-                CGrid grid = new CGrid();
-                this.get(i).GetUnion(pLast, UnionSet, grid);
+            int nHandle = Index.FindUnion(pLast, UnionSet, grid);
 
-                if (UnionSet.size() == 1) {
-                    this.set(i, UnionSet.get(0));
-                    bIntersect = true;
-                } else {
-                    //Debug.Assert(UnionSet.size() == 0);
-                    UnionSet.clear();
-                    i++;
-                }
-            }
-
-            if (!bIntersect) {
+            if (nHandle >= 0) {
+                Index.Replace(nHandle, UnionSet.get(0));
+                UnionSet.clear();
+            } else {
                 TempSet.add(pLast);
             }
         }
@@ -81,33 +84,15 @@ public class C2DHoledPolyBaseSet extends ArrayList<C2DHoledPolyBase> {
     }
 
     /**
-     * Unification by growing shapes of fairly equal size (fastest for large groups).
+     * Unification by growing shapes of fairly equal size (fastest for large groups). Only
+     * polygons whose rims' bounding rects overlap are tried.
      *
      * @param grid The CGrid with the degenerate settings.
      */
     public void UnifyProgressive(CGrid grid) {
         // Record the degenerate handling so we can reset.
         CGrid.eDegenerateHandling DegenerateHandling = grid.DegenerateHandling;
-        switch (grid.DegenerateHandling) {
-            case RandomPerturbation:
-                for (int i = 0; i < size(); i++) {
-                    this.get(i).RandomPerturb();
-                }
-                grid.DegenerateHandling = CGrid.eDegenerateHandling.None;
-                break;
-            case DynamicGrid:
-
-                break;
-            case PreDefinedGrid:
-                for (int i = 0; i < size(); i++) {
-                    this.get(i).SnapToGrid(grid);
-                }
-                grid.DegenerateHandling = CGrid.eDegenerateHandling.PreDefinedGridPreSnapped;
-                break;
-            case PreDefinedGridPreSnapped:
-
-                break;
-        }
+        PreProcessDegenerates(grid);
 
 
         C2DHoledPolyBaseSet NoUnionSet = new C2DHoledPolyBaseSet();
@@ -115,6 +100,8 @@ public class C2DHoledPolyBaseSet extends ArrayList<C2DHoledPolyBase> {
         C2DHoledPolyBaseSet SizeHoldSet = new C2DHoledPolyBaseSet();
         C2DHoledPolyBaseSet UnionSet = new C2DHoledPolyBaseSet();
         C2DHoledPolyBaseSet TempSet = new C2DHoledPolyBaseSet();
+        CUnionIndex Index = new CUnionIndex();
+        CUnionIndex SizeHoldIndex = new CUnionIndex();
 
         int nThreshold = GetMinLineCount();
 
@@ -147,51 +134,32 @@ public class C2DHoledPolyBaseSet extends ArrayList<C2DHoledPolyBase> {
             SizeHoldSet.addAll(TempSet);
             TempSet.clear();
 
+            // Index this and the size held by their bounding rects.
+            Index.Clear();
+            Index.AddAll(this);
+            this.clear();
+            SizeHoldIndex.Clear();
+            SizeHoldIndex.AddAll(SizeHoldSet);
 
             // Cycle through all popping the last and finding a union
-            while (size() > 0) {
-                C2DHoledPolyBase pLast = this.get(size() - 1);
-                this.remove(size() - 1);
-
-                boolean bIntersect = false;
-
-                int i = 0;
-                while (i < size() && !bIntersect) {
-                    this.get(i).GetUnion(pLast, UnionSet, grid);
-
-                    if (UnionSet.size() == 1) {
-                        C2DHoledPolyBase pUnion = UnionSet.get(UnionSet.size() - 1);
-                        UnionSet.remove(UnionSet.size() - 1);
-
-                        if (pUnion.GetLineCount() > nThreshold) {
-                            remove(i);
-                            SizeHoldSet.add(pUnion);
-                        } else {
-                            this.set(i, pUnion);
-                            i++;
-                        }
+            while (!Index.isEmpty()) {
+                C2DHoledPolyBase pLast = Index.PopLast();
 
-                        bIntersect = true;
-                    } else {
-                        if (UnionSet.size() != 0) {
-                            grid.LogDegenerateError();
-                        }
-                        UnionSet.clear();
-                        i++;
-                    }
-                }
+                int nHandle = Index.FindUnion(pLast, UnionSet, grid);
 
-                if (!bIntersect) {
-                    boolean bPosInterSect = false;
-                    for (int j = 0; j < SizeHoldSet.size(); j++) {
-                        if (pLast.Rim.BoundingRect.Overlaps(
-                                SizeHoldSet.get(j).Rim.BoundingRect)) {
-                            bPosInterSect = true;
-                            break;
-                        }
-                    }
+                if (nHandle >= 0) {
+                    C2DHoledPolyBase pUnion = UnionSet.get(UnionSet.size() - 1);
+                    UnionSet.remove(UnionSet.size() - 1);
 
-                    if (bPosInterSect) {
+                    if (pUnion.GetLineCount() > nThreshold) {
+                        Index.Remove(nHandle);
+                        SizeHoldSet.add(pUnion);
+                        SizeHoldIndex.Add(pUnion);
+                    } else {
+                        Index.Replace(nHandle, pUnion);
+                    }
+                } else {
+                    if (SizeHoldIndex.Overlaps(pLast.Rim.BoundingRect)) {
                         PossUnionSet.add(pLast);
                     } else {
                         NoUnionSet.add(pLast);
@@ -208,6 +176,53 @@ public class C2DHoledPolyBaseSet extends ArrayList<C2DHoledPolyBase> {
         grid.DegenerateHandling = DegenerateHandling;
     }
 
+    /**
+     * Unification in parallel using all the available processors. See UnifyParallel(CGrid, int).
+     *
+     * @param grid The CGrid with the degenerate settings.
+     */
+    public void UnifyParallel(CGrid grid) {
+        UnifyParallel(grid, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Unification in parallel by a cascaded union. The polygons are sorted along a Hilbert curve
+     * through the centres of their bounding rectangles so that neighbouring polygons are close in
+     * the order. The order is split in halves recursively down to small groups which are unified
+     * with UnifyProgressive, then the results are merged back up. Merging 2 halves only unifies
+     * the polygons whose bounding rectangles overlap one from the other half. The groups and the
+     * merges are run on a ForkJoinPool. Each task uses a copy of the grid, the degenerate errors
+     * are added to the grid given at the end.
+     *
+     * @param grid         The CGrid with the degenerate settings.
+     * @param nParallelism The number of threads to use.
+     */
+    public void UnifyParallel(CGrid grid, int nParallelism) {
+        // Record the degenerate handling so we can reset.
+        CGrid.eDegenerateHandling DegenerateHandling = grid.DegenerateHandling;
+        PreProcessDegenerates(grid);
+
+        if (size() > 1) {
+            C2DHoledPolyBase[] Polys = toArray(new C2DHoledPolyBase[size()]);
+            SortByHilbertOrder(Polys);
+
+            AtomicInteger DegenerateErrors = new AtomicInteger(0);
+            ForkJoinPool Pool = new ForkJoinPool(Math.max(1, nParallelism));
+            try {
+                C2DHoledPolyBaseSet Result = Pool.invoke(
+                        new CUnionTask(Polys, 0, Polys.length, grid, DegenerateErrors));
+                this.clear();
+                this.addAll(Result);
+            } finally {
+                Pool.shutdown();
+            }
+
+            grid.LogDegenerateErrors(DegenerateErrors.get());
+        }
+
+        grid.DegenerateHandling = DegenerateHandling;
+    }
+
     /**
      * Adds a new polygon and looks for a possible unification.
      * Assumes current set is distinct.
@@ -332,6 +347,367 @@ public class C2DHoledPolyBaseSet extends ArrayList<C2DHoledPolyBase> {
         return nMin;
     }
 
+    /**
+     * Applies the degenerate handling to the polygons before unification, perturbing them or
+     * snapping them to the grid, and sets the grid so it is not done again.
+     */
+    private void PreProcessDegenerates(CGrid grid) {
+        switch (grid.DegenerateHandling) {
+            case RandomPerturbation:
+                for (int i = 0; i < size(); i++) {
+                    this.get(i).RandomPerturb();
+                }
+                grid.DegenerateHandling = CGrid.eDegenerateHandling.None;
+                break;
+            case DynamicGrid:
+
+                break;
+            case PreDefinedGrid:
+                for (int i = 0; i < size(); i++) {
+                    this.get(i).SnapToGrid(grid);
+                }
+                grid.DegenerateHandling = CGrid.eDegenerateHandling.PreDefinedGridPreSnapped;
+                break;
+            case PreDefinedGridPreSnapped:
+
+                break;
+        }
+    }
+
+    /**
+     * Sorts the polygons by the Hilbert curve index of the centre of their bounding rectangles.
+     */
+    private static void SortByHilbertOrder(C2DHoledPolyBase[] Polys) {
+        C2DRect Bounds = new C2DRect();
+        Bounds.Set(Polys[0].Rim.BoundingRect);
+        for (int i = 1; i < Polys.length; i++)
+            Bounds.ExpandToInclude(Polys[i].Rim.BoundingRect);
+
+        double dWidth = Bounds.Width();
+        double dHeight = Bounds.Height();
+        double dScaleX = dWidth > 0 ? (const_nHilbertSize - 1) / dWidth : 0;
+        double dScaleY = dHeight > 0 ? (const_nHilbertSize - 1) / dHeight : 0;
+
+        final long[] Keys = new long[Polys.length];
+        Integer[] Order = new Integer[Polys.length];
+        for (int i = 0; i < Polys.length; i++) {
+            C2DRect Rect = Polys[i].Rim.BoundingRect;
+            double dCentreX = (Rect.GetLeft() + Rect.GetRight()) / 2;
+            double dCentreY = (Rect.GetTop() + Rect.GetBottom()) / 2;
+            int x = (int) ((dCentreX - Bounds.GetLeft()) * dScaleX);
+            int y = (int) ((dCentreY - Bounds.GetBottom()) * dScaleY);
+            Keys[i] = GetHilbertIndex(x, y);
+            Order[i] = i;
+        }
+
+        Arrays.sort(Order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Long.compare(Keys[a], Keys[b]);
+            }
+        });
+
+        C2DHoledPolyBase[] Sorted = new C2DHoledPolyBase[Polys.length];
+        for (int i = 0; i < Polys.length; i++)
+            Sorted[i] = Polys[Order[i]];
+        System.arraycopy(Sorted, 0, Polys, 0, Polys.length);
+    }
+
+    /**
+     * The distance along a Hilbert curve of the cell given, in a grid of const_nHilbertSize.
+     */
+    private static long GetHilbertIndex(int x, int y) {
+        long nResult = 0;
+        for (int s = const_nHilbertSize / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            nResult += (long) s * s * ((3 * rx) ^ ry);
+
+            // Rotate the quadrant.
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = const_nHilbertSize - 1 - x;
+                    y = const_nHilbertSize - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return nResult;
+    }
+
+    /**
+     * Merges 2 sets of distinct polygons. Only the polygons whose bounding rectangles overlap one
+     * in the other set can unify, so these are grouped by overlap and each group is unified.
+     */
+    private static C2DHoledPolyBaseSet Merge(C2DHoledPolyBaseSet Set1, C2DHoledPolyBaseSet Set2,
+                                             CGrid grid, AtomicInteger DegenerateErrors) {
+        C2DHoledPolyBaseSet Result = new C2DHoledPolyBaseSet();
+
+        int nCount1 = Set1.size();
+        int nCount = nCount1 + Set2.size();
+
+        ArrayList<C2DRect> Rects = new ArrayList<C2DRect>();
+        for (int i = 0; i < nCount1; i++)
+            Rects.add(Set1.get(i).Rim.BoundingRect);
+        CRTree Tree = new CRTree(Rects);
+
+        // Union find over both sets joining those with overlapping rectangles.
+        int[] Parents = new int[nCount];
+        for (int i = 0; i < nCount; i++)
+            Parents[i] = i;
+
+        ArrayList<Integer> Found = new ArrayList<Integer>();
+        for (int i = 0; i < Set2.size(); i++) {
+            Found.clear();
+            Tree.Query(Set2.get(i).Rim.BoundingRect, Found);
+            for (int j = 0; j < Found.size(); j++) {
+                int nRoot1 = FindRoot(Parents, Found.get(j));
+                int nRoot2 = FindRoot(Parents, nCount1 + i);
+                if (nRoot1 != nRoot2)
+                    Parents[nRoot1] = nRoot2;
+            }
+        }
+
+        HashMap<Integer, C2DHoledPolyBaseSet> Groups = new HashMap<Integer, C2DHoledPolyBaseSet>();
+        for (int i = 0; i < nCount; i++) {
+            C2DHoledPolyBase Poly = i < nCount1 ? Set1.get(i) : Set2.get(i - nCount1);
+            int nRoot = FindRoot(Parents, i);
+            C2DHoledPolyBaseSet Group = Groups.get(nRoot);
+            if (Group == null) {
+                Group = new C2DHoledPolyBaseSet();
+                Groups.put(nRoot, Group);
+            }
+            Group.add(Poly);
+        }
+
+        ArrayList<CUnifyTask> Tasks = new ArrayList<CUnifyTask>();
+        for (C2DHoledPolyBaseSet Group : Groups.values()) {
+            if (Group.size() == 1)
+                Result.add(Group.get(0));
+            else
+                Tasks.add(new CUnifyTask(Group, grid, DegenerateErrors));
+        }
+
+        ForkJoinTask.invokeAll(Tasks);
+
+        for (int i = 0; i < Tasks.size(); i++)
+            Result.addAll(Tasks.get(i).Polys);
+
+        return Result;
+    }
+
+    /**
+     * Finds the root of the item in the union find array, compressing the path.
+     */
+    private static int FindRoot(int[] Parents, int n) {
+        while (Parents[n] != n) {
+            Parents[n] = Parents[Parents[n]];
+            n = Parents[n];
+        }
+        return n;
+    }
+
+    /**
+     * Unifies the set with UnifyProgressive using a copy of the grid.
+     */
+    private static void Unify(C2DHoledPolyBaseSet Polys, CGrid grid, AtomicInteger DegenerateErrors) {
+        CGrid TaskGrid = new CGrid(grid);
+        Polys.UnifyProgressive(TaskGrid);
+        DegenerateErrors.addAndGet(TaskGrid.getDegenerateErrors());
+    }
+
+    /**
+     * Task unifying a range of the sorted polygons.
+     */
+    private static class CUnionTask extends RecursiveTask<C2DHoledPolyBaseSet> {
+        private static final long serialVersionUID = 1L;
+
+        CUnionTask(C2DHoledPolyBase[] Polys, int nStart, int nEnd, CGrid grid,
+                   AtomicInteger DegenerateErrors) {
+            this.Polys = Polys;
+            this.nStart = nStart;
+            this.nEnd = nEnd;
+            this.grid = grid;
+            this.DegenerateErrors = DegenerateErrors;
+        }
+
+        @Override
+        protected C2DHoledPolyBaseSet compute() {
+            if (nEnd - nStart <= const_nParallelGroupSize) {
+                C2DHoledPolyBaseSet Result = new C2DHoledPolyBaseSet();
+                for (int i = nStart; i < nEnd; i++)
+                    Result.add(Polys[i]);
+                Unify(Result, grid, DegenerateErrors);
+                return Result;
+            }
+
+            int nMid = (nStart + nEnd) / 2;
+            CUnionTask Task1 = new CUnionTask(Polys, nStart, nMid, grid, DegenerateErrors);
+            CUnionTask Task2 = new CUnionTask(Polys, nMid, nEnd, grid, DegenerateErrors);
+            Task2.fork();
+            C2DHoledPolyBaseSet Set1 = Task1.compute();
+            C2DHoledPolyBaseSet Set2 = Task2.join();
+
+            return Merge(Set1, Set2, grid, DegenerateErrors);
+        }
+
+        private final C2DHoledPolyBase[] Polys;
+        private final int nStart;
+        private final int nEnd;
+        private final CGrid grid;
+        private final AtomicInteger DegenerateErrors;
+    }
+
+    /**
+     * Task unifying a group of polygons found to overlap in a merge.
+     */
+    private static class CUnifyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        CUnifyTask(C2DHoledPolyBaseSet Polys, CGrid grid, AtomicInteger DegenerateErrors) {
+            this.Polys = Polys;
+            this.grid = grid;
+            this.DegenerateErrors = DegenerateErrors;
+        }
+
+        @Override
+        protected void compute() {
+            Unify(Polys, grid, DegenerateErrors);
+        }
+
+        final C2DHoledPolyBaseSet Polys;
+        private final CGrid grid;
+        private final AtomicInteger DegenerateErrors;
+    }
+
+    /**
+     * Polygons being unified, indexed by the bounding rects of their rims so that only those which
+     * overlap are tried for a union. The index is kept up to date as unions replace polygons.
+     * Polygons are popped in the reverse of the order they were added.
+     */
+    private static class CUnionIndex {
+        /**
+         * Removes all the polygons.
+         */
+        void Clear() {
+            Tree.Clear();
+            Polys.clear();
+            Order.clear();
+        }
+
+        /**
+         * Adds all the polygons in the set.
+         */
+        void AddAll(ArrayList<C2DHoledPolyBase> Set) {
+            for (int i = 0; i < Set.size(); i++)
+                Add(Set.get(i));
+        }
+
+        /**
+         * Adds a polygon.
+         */
+        void Add(C2DHoledPolyBase Poly) {
+            int nHandle = Tree.Insert(Poly.Rim.BoundingRect);
+            while (Polys.size() <= nHandle)
+                Polys.add(null);
+            Polys.set(nHandle, Poly);
+            Order.add(nHandle);
+        }
+
+        /**
+         * True if there are no polygons.
+         */
+        boolean isEmpty() {
+            return Tree.size() == 0;
+        }
+
+        /**
+         * Removes and returns the last polygon still in the index.
+         */
+        C2DHoledPolyBase PopLast() {
+            while (Order.size() > 0) {
+                int nHandle = Order.remove(Order.size() - 1);
+                C2DHoledPolyBase Poly = Polys.get(nHandle);
+                if (Poly != null) {
+                    Remove(nHandle);
+                    return Poly;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Removes the polygon with the handle given.
+         */
+        void Remove(int nHandle) {
+            Tree.Remove(nHandle);
+            Polys.set(nHandle, null);
+        }
+
+        /**
+         * Replaces the polygon with the handle given, keeping its position in the order.
+         */
+        void Replace(int nHandle, C2DHoledPolyBase Poly) {
+            Polys.set(nHandle, Poly);
+            Tree.Update(nHandle, Poly.Rim.BoundingRect);
+        }
+
+        /**
+         * True if any polygon's rim bounding rect overlaps the rect given.
+         */
+        boolean Overlaps(C2DRect Rect) {
+            Found.clear();
+            Tree.Query(Rect, Found);
+            for (int i = 0; i < Found.size(); i++) {
+                if (Rect.Overlaps(Polys.get(Found.get(i)).Rim.BoundingRect))
+                    return true;
+            }
+            return false;
+        }
+
+        /**
+         * Finds a polygon which unifies with the one given. Returns its handle with the union
+         * as the only polygon in UnionSet, or -1 if there is none.
+         */
+        int FindUnion(C2DHoledPolyBase Poly, C2DHoledPolyBaseSet UnionSet, CGrid grid) {
+            Found.clear();
+            Tree.Query(Poly.Rim.BoundingRect, Found);
+            for (int i = 0; i < Found.size(); i++) {
+                int nHandle = Found.get(i);
+                C2DHoledPolyBase Other = Polys.get(nHandle);
+                if (!Poly.Rim.BoundingRect.Overlaps(Other.Rim.BoundingRect))
+                    continue;
+
+                Other.GetUnion(Poly, UnionSet, grid);
+
+                if (UnionSet.size() == 1)
+                    return nHandle;
+
+                if (UnionSet.size() != 0) {
+                    grid.LogDegenerateError();
+                }
+                UnionSet.clear();
+            }
+            return -1;
+        }
+
+        private final CDynamicRectTree Tree = new CDynamicRectTree();
+        private final ArrayList<C2DHoledPolyBase> Polys = new ArrayList<C2DHoledPolyBase>();
+        private final ArrayList<Integer> Order = new ArrayList<Integer>();
+        private final ArrayList<Integer> Found = new ArrayList<Integer>();
+    }
+
+    /**
+     * The number of polygons below which UnifyParallel unifies a group in one task.
+     */
+    private static final int const_nParallelGroupSize = 32;
+
+    /**
+     * The size of the grid for the Hilbert curve ordering.
+     */
+    private static final int const_nHilbertSize = 1 << 16;
+
     /**
      * Transformation.
      */
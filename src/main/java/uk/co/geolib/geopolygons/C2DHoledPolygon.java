@@ -4,6 +4,8 @@ package uk.co.geolib.geopolygons;
 import uk.co.geolib.geolib.C2DPoint;
 import uk.co.geolib.geolib.C2DVector;
 import uk.co.geolib.geolib.CGrid;
+import uk.co.geolib.geolib.CTriangleMesh;
+import uk.co.geolib.geolib.CTriangulator;
 
 import java.util.ArrayList;
 
@@ -312,4 +314,28 @@ public class C2DHoledPolygon extends C2DHoledPolyBase {
         Holes.remove(i);
     }
 
+    /**
+     * Triangulates the polygon. The vertices of the mesh are the points of the rim in order
+     * followed by those of each hole.
+     *
+     * @param Mesh      Output. The triangles.
+     * @param bDelaunay True for the constrained Delaunay triangulation, which avoids thin triangles.
+     */
+    public void Triangulate(CTriangleMesh Mesh, boolean bDelaunay) {
+        ArrayList<C2DPoint> Points = new ArrayList<C2DPoint>();
+        if (Rim != null)
+            getRim().GetPointsCopy(Points);
+
+        ArrayList<ArrayList<C2DPoint>> HolePoints = new ArrayList<ArrayList<C2DPoint>>();
+        for (int i = 0; i < Holes.size(); i++) {
+            ArrayList<C2DPoint> Hole = new ArrayList<C2DPoint>();
+            GetHole(i).GetPointsCopy(Hole);
+            HolePoints.add(Hole);
+        }
+
+        CTriangulator Triangulator = new CTriangulator();
+        Triangulator.setDelaunay(bDelaunay);
+        Triangulator.Triangulate(Points, HolePoints, Mesh);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package uk.co.geolib.geopolygons;
+
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geolib.CGrid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Overlay of 2 layers of polygons, e.g. parcels and flood zones, finding the intersection of each
+ * polygon in the first layer with each polygon in the second that it overlaps. The second layer
+ * is indexed by a C2DHoledPolyBaseRTree so only the pairs whose bounding rectangles overlap are
+ * tried. The first layer is split into groups which are run in parallel, each with its own copy
+ * of the grid.
+ * <p>
+ * The pieces of each pair are given to a callback as soon as they are found rather than
+ * collected, so the memory used does not grow with the number of pairs. The polygons are only
+ * read, so they must not be changed while the overlay runs.
+ */
+public class C2DLayerOverlay {
+    /**
+     * Receives the intersections found.
+     */
+    public interface IOverlap {
+        /**
+         * Called for each pair of polygons whose intersection is not empty. It is called from the
+         * worker threads but never from 2 at once. The pairs for a polygon in the first layer are
+         * given in the order of the second layer but the polygons of the first layer can come in
+         * any order.
+         *
+         * @param nIndex1 The index of the polygon in the first layer.
+         * @param nIndex2 The index of the polygon in the second layer.
+         * @param Pieces  The intersection of the 2 polygons. The list is not used again so can be kept.
+         */
+        void Overlap(int nIndex1, int nIndex2, ArrayList<C2DHoledPolyBase> Pieces);
+    }
+
+    /**
+     * Constructor.
+     */
+    public C2DLayerOverlay() {
+    }
+
+    /**
+     * Finds the intersection of each polygon in the first layer with each polygon in the second.
+     *
+     * @param Layer1   The first layer.
+     * @param Layer2   The second layer.
+     * @param grid     The degenerate settings and boolean engine. Each group uses a copy and the
+     *                 degenerate errors are added to this at the end.
+     * @param Callback Receives the intersections.
+     */
+    public void GetOverlaps(ArrayList<? extends C2DHoledPolyBase> Layer1, ArrayList<? extends C2DHoledPolyBase> Layer2,
+                            CGrid grid, IOverlap Callback) {
+        if (Layer1.size() == 0 || Layer2.size() == 0)
+            return;
+
+        C2DHoledPolyBaseRTree Index = new C2DHoledPolyBaseRTree(Layer2);
+        AtomicInteger DegenerateErrors = new AtomicInteger(0);
+        COverlayTask Task = new COverlayTask(Layer1, Layer2, Index, grid, new CSerialCallback(Callback),
+                DegenerateErrors, 0, Layer1.size());
+
+        if (Parallelism <= 1 || Layer1.size() <= const_nParallelGroupSize) {
+            Task.compute();
+        } else {
+            ForkJoinPool Pool = new ForkJoinPool(Parallelism);
+            try {
+                Pool.invoke(Task);
+            } finally {
+                Pool.shutdown();
+            }
+        }
+
+        grid.LogDegenerateErrors(DegenerateErrors.get());
+    }
+
+    /**
+     * The number of threads used. Defaults to the number of processors.
+     */
+    public int getParallelism() {
+        return Parallelism;
+    }
+
+    /**
+     * Sets the number of threads used. 1 to run on the calling thread.
+     */
+    public void setParallelism(int nParallelism) {
+        Parallelism = Math.max(1, nParallelism);
+    }
+
+    /**
+     * Passes the results on to the callback one at a time.
+     */
+    private static class CSerialCallback {
+        CSerialCallback(IOverlap Callback) {
+            this.Callback = Callback;
+        }
+
+        synchronized void Overlap(int nIndex1, int nIndex2, ArrayList<C2DHoledPolyBase> Pieces) {
+            Callback.Overlap(nIndex1, nIndex2, Pieces);
+        }
+
+        private final IOverlap Callback;
+    }
+
+    /**
+     * Overlays a range of the first layer, splitting it in half until it is small enough.
+     */
+    private static class COverlayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        COverlayTask(ArrayList<? extends C2DHoledPolyBase> Layer1, ArrayList<? extends C2DHoledPolyBase> Layer2,
+                     C2DHoledPolyBaseRTree Index, CGrid grid, CSerialCallback Callback,
+                     AtomicInteger DegenerateErrors, int nStart, int nEnd) {
+            this.Layer1 = Layer1;
+            this.Layer2 = Layer2;
+            this.Index = Index;
+            this.grid = grid;
+            this.Callback = Callback;
+            this.DegenerateErrors = DegenerateErrors;
+            this.nStart = nStart;
+            this.nEnd = nEnd;
+        }
+
+        @Override
+        protected void compute() {
+            if (nEnd - nStart <= const_nParallelGroupSize) {
+                CGrid Grid = new CGrid(grid);
+                C2DRect Rect = new C2DRect();
+                ArrayList<Integer> Candidates = new ArrayList<Integer>();
+
+                for (int i = nStart; i < nEnd; i++) {
+                    C2DHoledPolyBase Poly1 = Layer1.get(i);
+                    if (Poly1.getRim() == null || Poly1.getRim().getLines().size() == 0)
+                        continue;
+                    Poly1.GetBoundingRect(Rect);
+                    Candidates.clear();
+                    Index.Query(Rect, Candidates);
+                    Collections.sort(Candidates);
+
+                    for (int j = 0; j < Candidates.size(); j++) {
+                        C2DHoledPolyBase Poly2 = Layer2.get(Candidates.get(j));
+                        if (Poly2.getRim() == null || Poly2.getRim().getLines().size() == 0)
+                            continue;
+
+                        ArrayList<C2DHoledPolyBase> Pieces = new ArrayList<C2DHoledPolyBase>();
+                        Poly1.GetOverlaps(Poly2, Pieces, Grid);
+                        if (Pieces.size() > 0)
+                            Callback.Overlap(i, Candidates.get(j), Pieces);
+                    }
+                }
+
+                DegenerateErrors.addAndGet(Grid.getDegenerateErrors());
+                return;
+            }
+
+            int nMid = (nStart + nEnd) >>> 1;
+            invokeAll(new COverlayTask(Layer1, Layer2, Index, grid, Callback, DegenerateErrors, nStart, nMid),
+                    new COverlayTask(Layer1, Layer2, Index, grid, Callback, DegenerateErrors, nMid, nEnd));
+        }
+
+        private final ArrayList<? extends C2DHoledPolyBase> Layer1;
+        private final ArrayList<? extends C2DHoledPolyBase> Layer2;
+        private final C2DHoledPolyBaseRTree Index;
+        private final CGrid grid;
+        private final CSerialCallback Callback;
+        private final AtomicInteger DegenerateErrors;
+        private final int nStart;
+        private final int nEnd;
+    }
+
+    /**
+     * The number of polygons of the first layer overlaid by each task.
+     */
+    private static final int const_nParallelGroupSize = 32;
+
+    private int Parallelism = Runtime.getRuntime().availableProcessors();
+}
@@ -0,0 +1,550 @@
+package uk.co.geolib.geopolygons;
+
+import uk.co.geolib.geolib.*;
+
+import java.util.ArrayList;
+
+/**
+ * A read only polygon held as a single array of interleaved x y coordinates rather than line
+ * objects. The ring is implicitly closed i.e. the last point joins the first. Uses 16 bytes per
+ * point so suits large data sets which only need to be queried.
+ */
+public class C2DPackedPolygon {
+    /**
+     * Constructor.
+     */
+    public C2DPackedPolygon() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param Other The polygon to copy the points from.
+     */
+    public C2DPackedPolygon(C2DPolyBase Other) {
+        Set(Other);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param Points The points to create from.
+     */
+    public C2DPackedPolygon(ArrayList<C2DPoint> Points) {
+        Create(Points);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param Other The other packed polygon.
+     */
+    public C2DPackedPolygon(C2DPackedPolygon Other) {
+        Set(Other);
+    }
+
+    /**
+     * Assignment.
+     *
+     * @param Other The other packed polygon.
+     */
+    public void Set(C2DPackedPolygon Other) {
+        Coords = new double[Other.PointCount * 2];
+        System.arraycopy(Other.Coords, 0, Coords, 0, Coords.length);
+        PointCount = Other.PointCount;
+        BoundingRect.Set(Other.BoundingRect);
+    }
+
+    /**
+     * Sets from the start points of the lines of the polygon given. The lines must be straight.
+     *
+     * @param Other The polygon to copy the points from.
+     */
+    public void Set(C2DPolyBase Other) {
+        C2DLineBaseSet OtherLines = Other.getLines();
+
+        Coords = new double[OtherLines.size() * 2];
+        PointCount = OtherLines.size();
+
+        for (int i = 0; i < OtherLines.size(); i++) {
+            assert OtherLines.get(i) instanceof C2DLine : "C2DPackedPolygon creation with none straight line";
+
+            C2DPoint pt = OtherLines.get(i).GetPointFrom();
+            Coords[i * 2] = pt.x;
+            Coords[i * 2 + 1] = pt.y;
+        }
+
+        MakeBoundingRect();
+    }
+
+    /**
+     * Creates from the points given.
+     *
+     * @param Points The points to create from.
+     */
+    public void Create(ArrayList<C2DPoint> Points) {
+        Coords = new double[Points.size() * 2];
+        PointCount = Points.size();
+
+        for (int i = 0; i < Points.size(); i++) {
+            Coords[i * 2] = Points.get(i).x;
+            Coords[i * 2 + 1] = Points.get(i).y;
+        }
+
+        MakeBoundingRect();
+    }
+
+    /**
+     * Creates directly from interleaved x y coordinates. The array is used, not copied, so must not
+     * be changed afterwards.
+     *
+     * @param NewCoords   The coordinates x0, y0, x1, y1...
+     * @param nPointCount The number of points to use from the start of the array.
+     */
+    public void CreateDirect(double[] NewCoords, int nPointCount) {
+        assert NewCoords.length >= nPointCount * 2;
+
+        Coords = NewCoords;
+        PointCount = nPointCount;
+
+        MakeBoundingRect();
+    }
+
+    /**
+     * Sets the polygon provided to the points of this.
+     *
+     * @param Polygon Output. The polygon to set.
+     */
+    public void GetPolygon(C2DPolygon Polygon) {
+        ArrayList<C2DPoint> Points = new ArrayList<C2DPoint>();
+        GetPointsCopy(Points);
+
+        Polygon.Create(Points, false);
+    }
+
+    /**
+     * Copies the points into the set object provided.
+     *
+     * @param PointCopy The point set to recieve the result.
+     */
+    public void GetPointsCopy(ArrayList<C2DPoint> PointCopy) {
+        for (int i = 0; i < PointCount; i++) {
+            PointCopy.add(new C2DPoint(Coords[i * 2], Coords[i * 2 + 1]));
+        }
+    }
+
+    /**
+     * Clears all.
+     */
+    public void Clear() {
+        Coords = new double[0];
+        PointCount = 0;
+        BoundingRect.Clear();
+    }
+
+    /**
+     * The number of points, which is also the number of lines.
+     */
+    public int GetPointsCount() {
+        return PointCount;
+    }
+
+    /**
+     * The x of the point at the index given.
+     *
+     * @param nIndex The point index.
+     */
+    public double GetX(int nIndex) {
+        return Coords[nIndex * 2];
+    }
+
+    /**
+     * The y of the point at the index given.
+     *
+     * @param nIndex The point index.
+     */
+    public double GetY(int nIndex) {
+        return Coords[nIndex * 2 + 1];
+    }
+
+    /**
+     * True if the point is in the shape. Same rules as C2DPolyBase.Contains.
+     *
+     * @param pt The point to test.
+     */
+    public boolean Contains(C2DPoint pt) {
+        return Contains(pt.x, pt.y);
+    }
+
+    /**
+     * True if the point is in the shape. Same rules as C2DPolyBase.Contains i.e. a ray is cast to
+     * the right and if the nearest crossing is the point itself then it is inside, otherwise the
+     * number of crossings decides.
+     *
+     * @param x The x of the point to test.
+     * @param y The y of the point to test.
+     */
+    public boolean Contains(double x, double y) {
+        if (PointCount == 0)
+            return false;
+
+        if (!(x >= BoundingRect.GetLeft() && x <= BoundingRect.GetRight() &&
+                y <= BoundingRect.GetTop() && y >= BoundingRect.GetBottom()))
+            return false;
+
+        // The same ray as the line based version.
+        double dRayEndX = x + BoundingRect.Width();
+        double dRayEndY = y + 0.000001;
+        double dRayI = dRayEndX - x;
+        double dRayJ = dRayEndY - y;
+
+        double dRayLeft = Math.min(x, dRayEndX);
+        double dRayRight = Math.max(x, dRayEndX);
+        double dRayBottom = Math.min(y, dRayEndY);
+        double dRayTop = Math.max(y, dRayEndY);
+
+        int nCrossings = 0;
+        double dNearestDistSq = 0;
+        double dNearestX = 0;
+        double dNearestY = 0;
+
+        double x1 = Coords[PointCount * 2 - 2];
+        double y1 = Coords[PointCount * 2 - 1];
+        for (int i = 0; i < PointCount; i++) {
+            double x2 = Coords[i * 2];
+            double y2 = Coords[i * 2 + 1];
+
+            // Only lines whose bounding rect overlaps the ray's.
+            if (!(dRayLeft >= Math.max(x1, x2) || dRayRight <= Math.min(x1, x2) ||
+                    dRayBottom >= Math.max(y1, y2) || dRayTop <= Math.min(y1, y2))) {
+                double Ua = dRayI * (y1 - y) - dRayJ * (x1 - x);
+                double Ub = (x2 - x1) * (y1 - y) - (y2 - y1) * (x1 - x);
+                double dDenominator = dRayJ * (x2 - x1) - dRayI * (y2 - y1);
+
+                if (dDenominator != 0) {
+                    Ua = Ua / dDenominator;
+                    Ub = Ub / dDenominator;
+
+                    if (Ua >= 0 && Ua < 1 && Ub >= 0 && Ub < 1) {
+                        double dIntX = x1 + Ua * (x2 - x1);
+                        double dIntY = y1 + Ua * (y2 - y1);
+                        double dDistSq = (dIntX - x) * (dIntX - x) + (dIntY - y) * (dIntY - y);
+
+                        if (nCrossings == 0 || dDistSq < dNearestDistSq) {
+                            dNearestDistSq = dDistSq;
+                            dNearestX = dIntX;
+                            dNearestY = dIntY;
+                        }
+                        nCrossings++;
+                    }
+                }
+            }
+
+            x1 = x2;
+            y1 = y2;
+        }
+
+        if (nCrossings == 0)
+            return false;
+
+        // A point on a line is inside.
+        if (C2DPoint.PointEqualTo(dNearestX, dNearestY, x, y))
+            return true;
+
+        return (nCrossings & 1) > 0;
+    }
+
+    /**
+     * Distance of the point from the shape. Returns -ve if inside.
+     *
+     * @param pt The point to test.
+     */
+    public double Distance(C2DPoint pt) {
+        return Distance(pt.x, pt.y);
+    }
+
+    /**
+     * Distance of the point from the shape. Returns -ve if inside.
+     *
+     * @param x The x of the point to test.
+     * @param y The y of the point to test.
+     */
+    public double Distance(double x, double y) {
+        if (PointCount == 0)
+            return 0;
+
+        double dMinSq = Double.MAX_VALUE;
+
+        double x1 = Coords[PointCount * 2 - 2];
+        double y1 = Coords[PointCount * 2 - 1];
+        for (int i = 0; i < PointCount; i++) {
+            double x2 = Coords[i * 2];
+            double y2 = Coords[i * 2 + 1];
+
+            double dDistSq = DistanceSquaredToLine(x, y, x1, y1, x2, y2);
+            if (dDistSq < dMinSq)
+                dMinSq = dDistSq;
+
+            x1 = x2;
+            y1 = y2;
+        }
+
+        double dResult = Math.sqrt(dMinSq);
+
+        if (Contains(x, y))
+            return -dResult;
+        else
+            return dResult;
+    }
+
+    /**
+     * Returns the bounding rectangle.
+     *
+     * @param Rect Output. The bounding rectangle.
+     */
+    public void GetBoundingRect(C2DRect Rect) {
+        Rect.Set(BoundingRect);
+    }
+
+    /**
+     * Returns the area.
+     */
+    public double GetArea() {
+        return Math.abs(GetAreaSigned());
+    }
+
+    /**
+     * Returns the area signed (-ve if clockwise).
+     */
+    public double GetAreaSigned() {
+        if (PointCount == 0)
+            return 0;
+
+        double dArea = 0;
+
+        double x1 = Coords[PointCount * 2 - 2];
+        double y1 = Coords[PointCount * 2 - 1];
+        for (int i = 0; i < PointCount; i++) {
+            double x2 = Coords[i * 2];
+            double y2 = Coords[i * 2 + 1];
+
+            dArea += x1 * y2 - x2 * y1;
+
+            x1 = x2;
+            y1 = y2;
+        }
+
+        return dArea / 2.0;
+    }
+
+    /**
+     * Calculates the perimeter.
+     */
+    public double GetPerimeter() {
+        if (PointCount == 0)
+            return 0;
+
+        double dResult = 0;
+
+        double x1 = Coords[PointCount * 2 - 2];
+        double y1 = Coords[PointCount * 2 - 1];
+        for (int i = 0; i < PointCount; i++) {
+            double x2 = Coords[i * 2];
+            double y2 = Coords[i * 2 + 1];
+
+            dResult += Math.sqrt((x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1));
+
+            x1 = x2;
+            y1 = y2;
+        }
+
+        return dResult;
+    }
+
+    /**
+     * True if the line crosses this.
+     *
+     * @param Line The line.
+     */
+    public boolean Crosses(C2DLine Line) {
+        C2DPoint ptTo = Line.GetPointTo();
+
+        return CrossesLine(Line.point.x, Line.point.y, ptTo.x, ptTo.y, null);
+    }
+
+    /**
+     * True if the line crosses this. Provides the intersection points.
+     *
+     * @param Line            The line.
+     * @param IntersectionPts Output. The intersection points.
+     */
+    public boolean Crosses(C2DLine Line, ArrayList<C2DPoint> IntersectionPts) {
+        C2DPoint ptTo = Line.GetPointTo();
+
+        ArrayList<C2DPoint> IntersectionTemp = new ArrayList<C2DPoint>();
+
+        boolean bResult = CrossesLine(Line.point.x, Line.point.y, ptTo.x, ptTo.y, IntersectionTemp);
+
+        IntersectionPts.addAll(0, IntersectionTemp);
+
+        return bResult;
+    }
+
+    /**
+     * True if any of the lines of this cross the other.
+     *
+     * @param Other The other packed polygon.
+     */
+    public boolean Crosses(C2DPackedPolygon Other) {
+        if (PointCount == 0 || Other.PointCount == 0)
+            return false;
+
+        if (!BoundingRect.Overlaps(Other.BoundingRect))
+            return false;
+
+        double x1 = Coords[PointCount * 2 - 2];
+        double y1 = Coords[PointCount * 2 - 1];
+        for (int i = 0; i < PointCount; i++) {
+            double x2 = Coords[i * 2];
+            double y2 = Coords[i * 2 + 1];
+
+            if (Other.CrossesLine(x1, y1, x2, y2, null))
+                return true;
+
+            x1 = x2;
+            y1 = y2;
+        }
+
+        return false;
+    }
+
+    /**
+     * True if the line from x3, y3 to x4, y4 crosses any line of this. Lines are tested as in
+     * C2DLine.Crosses with the line of this first. Adds the intersection points if a collection
+     * is provided, otherwise returns on the first.
+     */
+    private boolean CrossesLine(double x3, double y3, double x4, double y4, ArrayList<C2DPoint> IntersectionPts) {
+        if (PointCount == 0)
+            return false;
+
+        double dLineLeft = Math.min(x3, x4);
+        double dLineRight = Math.max(x3, x4);
+        double dLineBottom = Math.min(y3, y4);
+        double dLineTop = Math.max(y3, y4);
+
+        if (dLineLeft >= BoundingRect.GetRight() || dLineRight <= BoundingRect.GetLeft() ||
+                dLineBottom >= BoundingRect.GetTop() || dLineTop <= BoundingRect.GetBottom())
+            return false;
+
+        boolean bResult = false;
+
+        double x1 = Coords[PointCount * 2 - 2];
+        double y1 = Coords[PointCount * 2 - 1];
+        for (int i = 0; i < PointCount; i++) {
+            double x2 = Coords[i * 2];
+            double y2 = Coords[i * 2 + 1];
+
+            if (!(dLineLeft >= Math.max(x1, x2) || dLineRight <= Math.min(x1, x2) ||
+                    dLineBottom >= Math.max(y1, y2) || dLineTop <= Math.min(y1, y2))) {
+                double Ua = (x4 - x3) * (y1 - y3) - (y4 - y3) * (x1 - x3);
+                double Ub = (x2 - x1) * (y1 - y3) - (y2 - y1) * (x1 - x3);
+                double dDenominator = (y4 - y3) * (x2 - x1) - (x4 - x3) * (y2 - y1);
+
+                if (dDenominator != 0) {
+                    Ua = Ua / dDenominator;
+                    Ub = Ub / dDenominator;
+
+                    if (Ua >= 0 && Ua < 1 && Ub >= 0 && Ub < 1) {
+                        if (IntersectionPts == null)
+                            return true;
+
+                        IntersectionPts.add(new C2DPoint(x1 + Ua * (x2 - x1), y1 + Ua * (y2 - y1)));
+                        bResult = true;
+                    }
+                }
+            }
+
+            x1 = x2;
+            y1 = y2;
+        }
+
+        return bResult;
+    }
+
+    /**
+     * The squared distance from the point to the line from x1, y1 to x2, y2.
+     */
+    private static double DistanceSquaredToLine(double x, double y, double x1, double y1, double x2, double y2) {
+        double dI = x2 - x1;
+        double dJ = y2 - y1;
+        double dLengthSq = dI * dI + dJ * dJ;
+
+        double dFactor = 0;
+        if (dLengthSq > 0) {
+            dFactor = ((x - x1) * dI + (y - y1) * dJ) / dLengthSq;
+            if (dFactor < 0)
+                dFactor = 0;
+            else if (dFactor > 1)
+                dFactor = 1;
+        }
+
+        double dX = x1 + dI * dFactor - x;
+        double dY = y1 + dJ * dFactor - y;
+
+        return dX * dX + dY * dY;
+    }
+
+    /**
+     * Forms the bounding rectangle.
+     */
+    private void MakeBoundingRect() {
+        if (PointCount == 0) {
+            BoundingRect.Clear();
+            return;
+        }
+
+        double dLeft = Coords[0];
+        double dRight = Coords[0];
+        double dBottom = Coords[1];
+        double dTop = Coords[1];
+
+        for (int i = 1; i < PointCount; i++) {
+            double x = Coords[i * 2];
+            double y = Coords[i * 2 + 1];
+
+            if (x < dLeft)
+                dLeft = x;
+            else if (x > dRight)
+                dRight = x;
+
+            if (y < dBottom)
+                dBottom = y;
+            else if (y > dTop)
+                dTop = y;
+        }
+
+        BoundingRect.Set(dLeft, dTop, dRight, dBottom);
+    }
+
+    /**
+     * The interleaved x y coordinates. May be longer than needed.
+     */
+    protected double[] Coords = new double[0];
+
+    /**
+     * The number of points.
+     */
+    protected int PointCount = 0;
+
+    /**
+     * The bounding rectangle.
+     */
+    protected C2DRect BoundingRect = new C2DRect();
+
+    /**
+     * The bounding rectangle.
+     */
+    public C2DRect getBoundingRect() {
+        return BoundingRect;
+    }
+}
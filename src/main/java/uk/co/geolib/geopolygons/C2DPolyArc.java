@@ -148,6 +148,7 @@ public class C2DPolyArc extends C2DPolyBase {
                 Lines.set(i, pNew);
                 pNew.GetBoundingRect(LineRects.get(i));
                 BoundingRect.ExpandToInclude(LineRects.get(i));
+                InvalidateEdgeIndex();
             }
         }
 
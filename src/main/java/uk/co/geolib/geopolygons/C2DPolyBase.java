@@ -6,6 +6,20 @@ import uk.co.geolib.geolib.*;
 import java.util.ArrayList;
 
 public class C2DPolyBase {
+    /**
+     * Enumeration for the methods used to test whether a point is inside.
+     */
+    public enum eContainmentMode {
+        /// <summary> Sort the intersections of a ray from the point with the lines. </summary>
+        RayIntersection,
+        /// <summary> Count the crossings of the same ray using an edge index made when first needed. Straight lines only. </summary>
+        EdgeIndex,
+        /// <summary> Count the crossings of a horizontal ray from the point without allocating. Handles arcs. </summary>
+        CrossingNumber,
+    }
+
+    ;
+
     /**
      * Constructor
      */
@@ -32,6 +46,8 @@ public class C2DPolyBase {
 
         Lines.MakeValueCopy(Other.Lines);
 
+        ContainmentMode = Other.ContainmentMode;
+
         BoundingRect.Set(Other.BoundingRect);
 
         for (int i = 0; i < Other.LineRects.size(); i++) {
@@ -73,6 +89,14 @@ public class C2DPolyBase {
         if (!BoundingRect.Contains(pt))
             return false;
 
+        if (ContainmentMode == eContainmentMode.EdgeIndex) {
+            C2DPolyEdgeIndex Index = GetEdgeIndex();
+            if (Index != null)
+                return Index.Contains(pt.x, pt.y);
+        } else if (ContainmentMode == eContainmentMode.CrossingNumber) {
+            return ContainsByCrossingNumber(pt.x, pt.y);
+        }
+
         C2DPointSet IntersectedPts = new C2DPointSet();
 
         C2DLine Ray = new C2DLine(pt, new C2DVector(BoundingRect.Width(), 0.000001)); // Make sure to leave
@@ -98,6 +122,116 @@ public class C2DPolyBase {
     }
 
 
+    /**
+     * True if the point is in the shape by counting the crossings of a horizontal ray from the point
+     * to the right. A point on a line, to within the point equality tolerance, is inside. An arc
+     * counts as its chord plus the segment of the circle between the chord and the arc.
+     *
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     */
+    private boolean ContainsByCrossingNumber(double x, double y) {
+        assert Lines.size() == LineRects.size();
+
+        if (Lines.size() != LineRects.size())
+            return false;
+
+        double dToleranceX = Math.abs(x) * Constants.conEqualityTolerance;
+        double dToleranceY = Math.abs(y) * Constants.conEqualityTolerance;
+
+        boolean bInside = false;
+
+        for (int i = 0; i < Lines.size(); i++) {
+            C2DRect Rect = LineRects.get(i);
+            // Only lines level with the point and not entirely to its left can be crossed or touched.
+            if (Rect.GetBottom() > y + dToleranceY || Rect.GetTop() < y - dToleranceY ||
+                    Rect.GetRight() < x - dToleranceX)
+                continue;
+
+            C2DLineBase LineBase = Lines.get(i);
+            C2DLine Line;
+            if (LineBase instanceof C2DLine)
+                Line = (C2DLine) LineBase;
+            else if (LineBase instanceof C2DArc)
+                Line = ((C2DArc) LineBase).getline();
+            else {
+                assert false : "Invalid Line type";
+                continue;
+            }
+
+            double x1 = Line.point.x;
+            double y1 = Line.point.y;
+            double x2 = x1 + Line.vector.i;
+            double y2 = y1 + Line.vector.j;
+
+            if (LineBase instanceof C2DArc) {
+                C2DArc Arc = (C2DArc) LineBase;
+                double dRadius = Arc.Radius;
+
+                // The circle centre as C2DArc.GetCircleCentre.
+                double dLength = Math.sqrt(Line.vector.i * Line.vector.i + Line.vector.j * Line.vector.j);
+                double dHalf = dLength / 2;
+                double dMidToCentre = Math.sqrt(Math.max(0, dRadius * dRadius - dHalf * dHalf));
+                double dCentreX = x1 + Line.vector.i / 2;
+                double dCentreY = y1 + Line.vector.j / 2;
+                if (dLength > 0) {
+                    if (Arc.CentreOnRight) {
+                        dCentreX += Line.vector.j * dMidToCentre / dLength;
+                        dCentreY -= Line.vector.i * dMidToCentre / dLength;
+                    } else {
+                        dCentreX -= Line.vector.j * dMidToCentre / dLength;
+                        dCentreY += Line.vector.i * dMidToCentre / dLength;
+                    }
+                }
+
+                double dToCentre = Math.sqrt((x - dCentreX) * (x - dCentreX) + (y - dCentreY) * (y - dCentreY));
+
+                // On the arc if the closest point on the arc is the point.
+                if (dToCentre > 0) {
+                    double dClosestX = dCentreX + (x - dCentreX) * dRadius / dToCentre;
+                    double dClosestY = dCentreY + (y - dCentreY) * dRadius / dToCentre;
+                    if (Arc.ArcOnRight != IsOnRight(x1, y1, x2, y2, dClosestX, dClosestY)) {
+                        // The closest point on the circle isn't on the arc so it is an end.
+                        if ((x - x1) * (x - x1) + (y - y1) * (y - y1) < (x - x2) * (x - x2) + (y - y2) * (y - y2)) {
+                            dClosestX = x1;
+                            dClosestY = y1;
+                        } else {
+                            dClosestX = x2;
+                            dClosestY = y2;
+                        }
+                    }
+                    if (C2DPoint.PointEqualTo(dClosestX, dClosestY, x, y))
+                        return true;
+                }
+
+                // In the segment between the chord and the arc.
+                if (dToCentre < dRadius && Arc.ArcOnRight == IsOnRight(x1, y1, x2, y2, x, y))
+                    bInside = !bInside;
+            } else {
+                // On the line if the closest point on the line is the point.
+                double dLengthSq = Line.vector.i * Line.vector.i + Line.vector.j * Line.vector.j;
+                double dFactor = 0;
+                if (dLengthSq > 0)
+                    dFactor = Math.max(0, Math.min(1, ((x - x1) * Line.vector.i + (y - y1) * Line.vector.j) / dLengthSq));
+                if (C2DPoint.PointEqualTo(x1 + dFactor * Line.vector.i, y1 + dFactor * Line.vector.j, x, y))
+                    return true;
+            }
+
+            // The straight line or the arc's chord, including the lower end only.
+            if ((y1 > y) != (y2 > y) && x < x1 + (y - y1) * (x2 - x1) / (y2 - y1))
+                bInside = !bInside;
+        }
+
+        return bInside;
+    }
+
+    /**
+     * True if the point is on the right of the line from the first point to the second, as C2DLine.IsOnRight.
+     */
+    private static boolean IsOnRight(double x1, double y1, double x2, double y2, double x, double y) {
+        return (x2 - x1) * (y - y1) - (y2 - y1) * (x - x1) < 0;
+    }
+
     /**
      * True if it entirely contains the other.
      *
@@ -336,6 +470,7 @@ public class C2DPolyBase {
         BoundingRect.Clear();
         Lines.clear();
         LineRects.clear();
+        InvalidateEdgeIndex();
     }
 
     /**
@@ -355,6 +490,8 @@ public class C2DPolyBase {
         }
 
         BoundingRect.Move(vector);
+
+        InvalidateEdgeIndex();
     }
 
     /**
@@ -376,6 +513,8 @@ public class C2DPolyBase {
 
         MakeBoundingRect();
 
+        InvalidateEdgeIndex();
+
     }
 
     /**
@@ -397,6 +536,8 @@ public class C2DPolyBase {
 
         BoundingRect.Grow(dFactor, Origin);
 
+        InvalidateEdgeIndex();
+
     }
 
     /**
@@ -600,6 +741,8 @@ public class C2DPolyBase {
             LineRects.get(i).SnapToGrid(grid);
         }
         BoundingRect.SnapToGrid(grid);
+
+        InvalidateEdgeIndex();
     }
 
     /**
@@ -731,6 +874,16 @@ public class C2DPolyBase {
                            CGrid grid) {
 
         if (BoundingRect.Overlaps(Other.BoundingRect)) {
+            if (grid.BooleanEngine == CGrid.eBooleanEngine.Sweep &&
+                    C2DSweepBoolean.IsStraight(this) && C2DSweepBoolean.IsStraight(Other)) {
+                ArrayList<C2DPolyBase> Rings1 = new ArrayList<C2DPolyBase>();
+                ArrayList<C2DPolyBase> Rings2 = new ArrayList<C2DPolyBase>();
+                Rings1.add(this);
+                Rings2.add(Other);
+                new C2DSweepBoolean().GetBoolean(Rings1, bThisInside, Rings2, bOtherInside, HoledPolys);
+                return;
+            }
+
             switch (grid.DegenerateHandling) {
                 case None: {
                     C2DLineBaseSetSet Routes1 = new C2DLineBaseSetSet();
@@ -740,7 +893,7 @@ public class C2DPolyBase {
 
                     if (Routes1.size() > 0) {
                         // Add all the joining routes together to form closed routes
-                        Routes1.MergeJoining();
+                        Routes1.MergeJoiningHashed();
                         // Set up some temporary polygons.
                         ArrayList<C2DPolyBase> Polygons = new ArrayList<C2DPolyBase>();
                         // Turn the routes into polygons.
@@ -974,6 +1127,7 @@ public class C2DPolyBase {
      */
     protected void MakeLineRects() {
         LineRects.clear();
+        InvalidateEdgeIndex();
 
         for (int i = 0; i < Lines.size(); i++) {
             C2DRect pRect = new C2DRect();
@@ -983,6 +1137,34 @@ public class C2DPolyBase {
 
     }
 
+    /**
+     * Returns the edge index, making it if needed, or null if it cannot be used because not all the
+     * lines are straight.
+     */
+    protected C2DPolyEdgeIndex GetEdgeIndex() {
+        C2DPolyEdgeIndex Index = EdgeIndex;
+        if (Index == null) {
+            if (Lines.size() != LineRects.size())
+                return null;
+
+            for (int i = 0; i < Lines.size(); i++) {
+                if (!(Lines.get(i) instanceof C2DLine))
+                    return null;
+            }
+
+            Index = new C2DPolyEdgeIndex(Lines, LineRects, BoundingRect.Width());
+            EdgeIndex = Index;
+        }
+        return Index;
+    }
+
+    /**
+     * Discards the edge index. Must be called whenever the lines or their bounding rectangles change.
+     */
+    protected void InvalidateEdgeIndex() {
+        EdgeIndex = null;
+    }
+
     /**
      * Reverses the direction of the lines.
      */
@@ -1003,6 +1185,8 @@ public class C2DPolyBase {
         }
 
         this.MakeBoundingRect();
+
+        InvalidateEdgeIndex();
     }
 
     /**
@@ -1017,6 +1201,8 @@ public class C2DPolyBase {
 
         this.MakeBoundingRect();
 
+        InvalidateEdgeIndex();
+
     }
 
 
@@ -1117,4 +1303,30 @@ public class C2DPolyBase {
         return LineRects;
     }
 
+    /**
+     * The method used to test whether a point is inside.
+     */
+    protected eContainmentMode ContainmentMode = eContainmentMode.RayIntersection;
+
+    /**
+     * The method used to test whether a point is inside.
+     */
+    public eContainmentMode getContainmentMode() {
+        return ContainmentMode;
+    }
+
+    /**
+     * Sets the method used to test whether a point is inside.
+     *
+     * @param Mode The containment mode.
+     */
+    public void setContainmentMode(eContainmentMode Mode) {
+        ContainmentMode = Mode;
+    }
+
+    /**
+     * The edge index used by the EdgeIndex containment mode. Made when first needed.
+     */
+    private volatile C2DPolyEdgeIndex EdgeIndex = null;
+
 }
\ No newline at end of file
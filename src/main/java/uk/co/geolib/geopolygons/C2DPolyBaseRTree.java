@@ -0,0 +1,35 @@
+package uk.co.geolib.geopolygons;
+
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DRect;
+
+import java.util.ArrayList;
+
+/**
+ * R-tree index of a set of polygons by their bounding rectangles for finding the polygons
+ * near or containing a point. The polygons are identified by their index in the set. The set is
+ * held by reference so create the index again if the set or the polygons change.
+ */
+public class C2DPolyBaseRTree extends C2DPolyRTreeBase<C2DPolyBase> {
+    /**
+     * Constructor.
+     *
+     * @param Polys The polygons to index.
+     */
+    public C2DPolyBaseRTree(ArrayList<? extends C2DPolyBase> Polys) {
+        Create(Polys);
+    }
+
+    protected void GetBoundingRect(C2DPolyBase Poly, C2DRect Rect) {
+        Poly.GetBoundingRect(Rect);
+    }
+
+    protected boolean Contains(C2DPolyBase Poly, C2DPoint pt) {
+        return Poly.Contains(pt);
+    }
+
+    protected double Distance(C2DPolyBase Poly, C2DPoint pt) {
+        // The distance is negative inside.
+        return Math.max(0, Poly.Distance(pt));
+    }
+}
@@ -0,0 +1,266 @@
+package uk.co.geolib.geopolygons;
+
+import uk.co.geolib.geolib.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Index of the straight edges of a polygon by their vertical extent, used to test whether a point
+ * is in the polygon without looking at every edge. The edges are held in a centred interval tree
+ * so finding the edges a horizontal ray could cross is O(log n + k). The ray and the crossing
+ * tests are the same as those used by C2DPolyBase.Contains so the results are the same, but
+ * nothing is allocated. The index is not updated if the polygon changes.
+ */
+public class C2DPolyEdgeIndex {
+    /**
+     * Constructor.
+     *
+     * @param Lines     The lines of the polygon which must all be straight.
+     * @param LineRects The bounding rectangles of the lines.
+     * @param dRayLength The length of the ray to test with, the width of the polygon.
+     */
+    public C2DPolyEdgeIndex(ArrayList<C2DLineBase> Lines, ArrayList<C2DRect> LineRects, double dRayLength) {
+        assert Lines.size() == LineRects.size();
+
+        int nCount = Lines.size();
+        RayLength = dRayLength;
+
+        X1 = new double[nCount];
+        Y1 = new double[nCount];
+        X2 = new double[nCount];
+        Y2 = new double[nCount];
+        Left = new double[nCount];
+        Bottom = new double[nCount];
+        Right = new double[nCount];
+        Top = new double[nCount];
+
+        for (int i = 0; i < nCount; i++) {
+            C2DLine Line = (C2DLine) Lines.get(i);
+            C2DPoint ptTo = Line.GetPointTo();
+            X1[i] = Line.point.x;
+            Y1[i] = Line.point.y;
+            X2[i] = ptTo.x;
+            Y2[i] = ptTo.y;
+
+            C2DRect Rect = LineRects.get(i);
+            Left[i] = Rect.GetLeft();
+            Bottom[i] = Rect.GetBottom();
+            Right[i] = Rect.GetRight();
+            Top[i] = Rect.GetTop();
+        }
+
+        NodeCentre = new double[nCount];
+        NodeBelow = new int[nCount];
+        NodeAbove = new int[nCount];
+        NodeFirst = new int[nCount];
+        NodeEdges = new int[nCount];
+        ByBottom = new int[nCount];
+        ByTop = new int[nCount];
+
+        Integer[] Edges = new Integer[nCount];
+        for (int i = 0; i < nCount; i++)
+            Edges[i] = i;
+
+        Root = nCount > 0 ? Build(Edges) : -1;
+    }
+
+    /**
+     * True if the point is in the polygon. The point is assumed to be in the bounding rectangle.
+     *
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     */
+    public boolean Contains(double x, double y) {
+        if (Root < 0)
+            return false;
+
+        int nCrossings = CountCrossings(Root, x, y, x + RayLength, y + 0.000001);
+
+        if (nCrossings < 0)
+            return true;    // On an edge.
+        else
+            return (nCrossings & 1) != 0;
+    }
+
+    /**
+     * Counts the crossings of the ray with the edges in the node and its children, whose vertical
+     * extents overlap the ray's. Returns -1 if the ray crosses an edge at the point itself.
+     */
+    private int CountCrossings(int nNode, double x, double y, double dRayEndX, double dRayEndY) {
+        int nResult = 0;
+
+        while (nNode >= 0) {
+            double dCentre = NodeCentre[nNode];
+            int nFirst = NodeFirst[nNode];
+            int nEnd = nFirst + NodeEdges[nNode];
+
+            if (dRayEndY <= dCentre) {
+                for (int i = nFirst; i < nEnd && Bottom[ByBottom[i]] < dRayEndY; i++) {
+                    int nCross = Crosses(ByBottom[i], x, y, dRayEndX, dRayEndY);
+                    if (nCross < 0)
+                        return -1;
+                    nResult += nCross;
+                }
+                nNode = NodeBelow[nNode];
+            } else if (y >= dCentre) {
+                for (int i = nFirst; i < nEnd && Top[ByTop[i]] > y; i++) {
+                    int nCross = Crosses(ByTop[i], x, y, dRayEndX, dRayEndY);
+                    if (nCross < 0)
+                        return -1;
+                    nResult += nCross;
+                }
+                nNode = NodeAbove[nNode];
+            } else {
+                // The ray spans the centre so all the edges here and possibly both sides.
+                for (int i = nFirst; i < nEnd; i++) {
+                    int nCross = Crosses(ByBottom[i], x, y, dRayEndX, dRayEndY);
+                    if (nCross < 0)
+                        return -1;
+                    nResult += nCross;
+                }
+                if (NodeBelow[nNode] >= 0) {
+                    int nCross = CountCrossings(NodeBelow[nNode], x, y, dRayEndX, dRayEndY);
+                    if (nCross < 0)
+                        return -1;
+                    nResult += nCross;
+                }
+                nNode = NodeAbove[nNode];
+            }
+        }
+
+        return nResult;
+    }
+
+    /**
+     * Returns 1 if the ray crosses the edge, 0 if not and -1 if it crosses at the point itself.
+     */
+    private int Crosses(int nEdge, double x, double y, double dRayEndX, double dRayEndY) {
+        // Only lines whose bounding rect overlaps the ray's.
+        if (Left[nEdge] >= dRayEndX || Right[nEdge] <= x ||
+                Bottom[nEdge] >= dRayEndY || Top[nEdge] <= y)
+            return 0;
+
+        double x1 = X1[nEdge];
+        double y1 = Y1[nEdge];
+        double x2 = X2[nEdge];
+        double y2 = Y2[nEdge];
+
+        double Ua = (dRayEndX - x) * (y1 - y) - (dRayEndY - y) * (x1 - x);
+        double Ub = (x2 - x1) * (y1 - y) - (y2 - y1) * (x1 - x);
+        double dDenominator = (dRayEndY - y) * (x2 - x1) - (dRayEndX - x) * (y2 - y1);
+
+        if (dDenominator == 0)
+            return 0;
+
+        Ua = Ua / dDenominator;
+        Ub = Ub / dDenominator;
+
+        if (!(Ua >= 0 && Ua < 1 && Ub >= 0 && Ub < 1))
+            return 0;
+
+        if (C2DPoint.PointEqualTo(x1 + Ua * (x2 - x1), y1 + Ua * (y2 - y1), x, y))
+            return -1;
+
+        return 1;
+    }
+
+    /**
+     * Builds the node for the edges given and its children. Returns the node index.
+     */
+    private int Build(Integer[] Edges) {
+        // The centre is the median of the middles of the edges so each side has at most half.
+        double[] Middles = new double[Edges.length];
+        for (int i = 0; i < Edges.length; i++)
+            Middles[i] = (Bottom[Edges[i]] + Top[Edges[i]]) / 2;
+        Arrays.sort(Middles);
+        double dCentre = Middles[Middles.length / 2];
+
+        int nBelow = 0;
+        int nAbove = 0;
+        for (int i = 0; i < Edges.length; i++) {
+            if (Top[Edges[i]] < dCentre)
+                nBelow++;
+            else if (Bottom[Edges[i]] > dCentre)
+                nAbove++;
+        }
+
+        Integer[] Below = new Integer[nBelow];
+        Integer[] Above = new Integer[nAbove];
+        Integer[] Here = new Integer[Edges.length - nBelow - nAbove];
+        nBelow = 0;
+        nAbove = 0;
+        int nHere = 0;
+        for (int i = 0; i < Edges.length; i++) {
+            if (Top[Edges[i]] < dCentre)
+                Below[nBelow++] = Edges[i];
+            else if (Bottom[Edges[i]] > dCentre)
+                Above[nAbove++] = Edges[i];
+            else
+                Here[nHere++] = Edges[i];
+        }
+
+        int nNode = NodeCount++;
+        NodeCentre[nNode] = dCentre;
+        NodeFirst[nNode] = EdgeCount;
+        NodeEdges[nNode] = Here.length;
+
+        Arrays.sort(Here, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(Bottom[a], Bottom[b]);
+            }
+        });
+        for (int i = 0; i < Here.length; i++)
+            ByBottom[EdgeCount + i] = Here[i];
+
+        Arrays.sort(Here, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(Top[b], Top[a]);
+            }
+        });
+        for (int i = 0; i < Here.length; i++)
+            ByTop[EdgeCount + i] = Here[i];
+
+        EdgeCount += Here.length;
+
+        NodeBelow[nNode] = Below.length > 0 ? Build(Below) : -1;
+        NodeAbove[nNode] = Above.length > 0 ? Build(Above) : -1;
+
+        return nNode;
+    }
+
+    /**
+     * The length of the test ray.
+     */
+    private final double RayLength;
+
+    /**
+     * The edge end points and bounding rectangles.
+     */
+    private final double[] X1;
+    private final double[] Y1;
+    private final double[] X2;
+    private final double[] Y2;
+    private final double[] Left;
+    private final double[] Bottom;
+    private final double[] Right;
+    private final double[] Top;
+
+    /**
+     * The interval tree nodes. Each node has the edges which span its centre, NodeEdges of them
+     * from NodeFirst in ByBottom ordered by bottom and in ByTop ordered by top descending. Edges
+     * wholly below or above the centre are in the child nodes.
+     */
+    private final double[] NodeCentre;
+    private final int[] NodeBelow;
+    private final int[] NodeAbove;
+    private final int[] NodeFirst;
+    private final int[] NodeEdges;
+    private final int[] ByBottom;
+    private final int[] ByTop;
+    private final int Root;
+
+    private int NodeCount = 0;
+    private int EdgeCount = 0;
+}
@@ -0,0 +1,123 @@
+package uk.co.geolib.geopolygons;
+
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DRect;
+import uk.co.geolib.geolib.CRTree;
+
+import java.util.ArrayList;
+
+/**
+ * R-tree index of a set of polygons by their bounding rectangles for finding the polygons
+ * near or containing a point. The polygons are identified by their index in the set. The set is
+ * held by reference so create the index again if the set or the polygons change. The derived
+ * classes give the bounding rectangle, containment and distance for their type of polygon.
+ */
+public abstract class C2DPolyRTreeBase<T> {
+    /**
+     * Creates the index.
+     *
+     * @param Polys The polygons to index.
+     */
+    public void Create(ArrayList<? extends T> Polys) {
+        this.Polys = Polys;
+
+        ArrayList<C2DRect> Rects = new ArrayList<C2DRect>(Polys.size());
+        for (int i = 0; i < Polys.size(); i++) {
+            C2DRect Rect = new C2DRect();
+            GetBoundingRect(Polys.get(i), Rect);
+            Rects.add(Rect);
+        }
+
+        Tree.Create(Rects);
+    }
+
+    /**
+     * The number of polygons.
+     */
+    public int size() {
+        return Tree.size();
+    }
+
+    /**
+     * Finds the polygons whose bounding rectangles overlap or touch the rectangle given.
+     *
+     * @param Rect    The rectangle to search.
+     * @param Indexes Output. The indexes of the polygons, in no particular order.
+     */
+    public void Query(C2DRect Rect, ArrayList<Integer> Indexes) {
+        Tree.Query(Rect, Indexes);
+    }
+
+    /**
+     * Finds the polygons which contain the point.
+     *
+     * @param pt      The point.
+     * @param Indexes Output. The indexes of the polygons, in no particular order.
+     */
+    public void GetContaining(C2DPoint pt, ArrayList<Integer> Indexes) {
+        ArrayList<Integer> Candidates = new ArrayList<Integer>();
+        Tree.Query(pt, Candidates);
+
+        for (int i = 0; i < Candidates.size(); i++) {
+            if (Contains(Polys.get(Candidates.get(i)), pt))
+                Indexes.add(Candidates.get(i));
+        }
+    }
+
+    /**
+     * Finds the first polygon found which contains the point. Useful where the polygons do not overlap.
+     *
+     * @param pt The point.
+     * @return The index of the polygon or -1 if none contain it.
+     */
+    public int GetFirstContaining(C2DPoint pt) {
+        ArrayList<Integer> Candidates = new ArrayList<Integer>();
+        Tree.Query(pt, Candidates);
+
+        for (int i = 0; i < Candidates.size(); i++) {
+            if (Contains(Polys.get(Candidates.get(i)), pt))
+                return Candidates.get(i);
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the k nearest polygons to the point. Polygons containing the point are at distance 0.
+     *
+     * @param pt      The point.
+     * @param k       The number of polygons required.
+     * @param Indexes Output. The indexes of the polygons, nearest first.
+     */
+    public void GetNearest(C2DPoint pt, int k, ArrayList<Integer> Indexes) {
+        Tree.GetNearest(pt, k, new CRTree.IDistance() {
+            public double Distance(int nIndex, C2DPoint ptTest) {
+                return C2DPolyRTreeBase.this.Distance(Polys.get(nIndex), ptTest);
+            }
+        }, Indexes);
+    }
+
+    /**
+     * Gets the bounding rectangle of the polygon.
+     */
+    protected abstract void GetBoundingRect(T Poly, C2DRect Rect);
+
+    /**
+     * True if the polygon contains the point.
+     */
+    protected abstract boolean Contains(T Poly, C2DPoint pt);
+
+    /**
+     * The distance from the point to the polygon, 0 if the polygon contains it.
+     */
+    protected abstract double Distance(T Poly, C2DPoint pt);
+
+    /**
+     * The polygons indexed.
+     */
+    private ArrayList<? extends T> Polys;
+
+    /**
+     * The tree of bounding rectangles.
+     */
+    private CRTree Tree = new CRTree();
+}
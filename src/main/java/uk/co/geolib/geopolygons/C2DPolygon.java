@@ -5,8 +5,11 @@ package uk.co.geolib.geopolygons;
 import uk.co.geolib.geolib.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class C2DPolygon extends C2DPolyBase {
     /**
@@ -159,21 +162,62 @@ public class C2DPolygon extends C2DPolyBase {
     }
 
     /**
-     * Creates a convex hull from another polygon. Uses Graham's algorithm.
+     * Creates a convex hull from another polygon. Uses Andrew's monotone chain algorithm.
      *
      * @param Other The other polygon.
      */
     public boolean CreateConvexHull(C2DPolygon Other) {
-        Clear();
-
         C2DPointSet Points = new C2DPointSet();
         Other.GetPointsCopy(Points);
 
+        return CreateConvexHull(Points, new CConvexHull());
+    }
+
+    /**
+     * Creates a convex hull of the points using the hull engine given, which has the settings
+     * for the Akl-Toussaint heuristic and parallelism. The points are not changed.
+     *
+     * @param Points The points.
+     * @param Engine The convex hull engine.
+     */
+    public boolean CreateConvexHull(ArrayList<C2DPoint> Points, CConvexHull Engine) {
+        Clear();
+
         C2DPointSet Hull = new C2DPointSet();
-        Hull.ExtractConvexHull(Points);
+        Engine.GetHull(Points, Hull);
 
         return Create(Hull, false);
+    }
 
+    /**
+     * Creates the Voronoi cell of each point, the part of the boundary closer to it than to any
+     * other point, using the Delaunay triangulation engine given.
+     *
+     * @param Points   The points.
+     * @param Boundary The rectangle the cells are cut to.
+     * @param Engine   The Delaunay triangulation engine, which has the setting for parallelism.
+     * @param Cells    Output. The cell of each point in turn. Empty if the cell is outside the
+     *                 boundary or the point is a repeat of an earlier one.
+     */
+    public static void CreateVoronoiCells(ArrayList<C2DPoint> Points, C2DRect Boundary,
+                                          CDelaunayTriangulator Engine, ArrayList<C2DPolygon> Cells) {
+        ArrayList<ArrayList<C2DPoint>> Rings = new ArrayList<ArrayList<C2DPoint>>();
+        Engine.GetVoronoiCells(Points, Boundary, Rings);
+
+        C2DPolygon[] Polygons = new C2DPolygon[Rings.size()];
+        CCellsTask Task = new CCellsTask(Rings, Polygons, 0, Polygons.length);
+        if (Engine.getParallelism() <= 1 || Polygons.length <= const_nCellGroupSize) {
+            Task.compute();
+        } else {
+            ForkJoinPool Pool = new ForkJoinPool(Engine.getParallelism());
+            try {
+                Pool.invoke(Task);
+            } finally {
+                Pool.shutdown();
+            }
+        }
+
+        Cells.addAll(Arrays.asList(Polygons));
     }
 
     /**
@@ -355,6 +399,70 @@ public class C2DPolygon extends C2DPolyBase {
 
     }
 
+    /**
+     * Creates convex sub areas of the current polygon as CreateConvexSubAreas does but from a
+     * triangulation, whose triangles are merged into convex pieces. This takes O(n log n) rather
+     * than O(n^2) and gives at most 4 times the fewest pieces possible. The sub areas are split
+     * along the diagonals between the pieces, each time choosing the diagonal which splits the
+     * area most evenly. Fails if the polygon has repeated points.
+     */
+    public boolean CreateConvexSubAreasByTriangulation() {
+        subArea1 = null;
+        subArea2 = null;
+
+        int nLineCount = Lines.size();
+
+        if (nLineCount < 4)
+            return true;
+
+        ArrayList<C2DPoint> Points = new ArrayList<C2DPoint>();
+        GetPointsCopy(Points);
+
+        // A repeated point pinches the polygon, which the triangulator does not support.
+        C2DPoint[] Sorted = Points.toArray(new C2DPoint[nLineCount]);
+        Arrays.sort(Sorted, new Comparator<C2DPoint>() {
+            public int compare(C2DPoint P1, C2DPoint P2) {
+                int nCompare = Double.compare(P1.x, P2.x);
+                return nCompare != 0 ? nCompare : Double.compare(P1.y, P2.y);
+            }
+        });
+        for (int i = 1; i < nLineCount; i++) {
+            if (Sorted[i].x == Sorted[i - 1].x && Sorted[i].y == Sorted[i - 1].y)
+                return false;
+        }
+
+        CTriangleMesh Mesh = new CTriangleMesh();
+        new CTriangulator().Triangulate(Points, Mesh);
+        if (Mesh.GetTriangleCount() != nLineCount - 2)
+            return false;
+
+        ArrayList<ArrayList<Integer>> Pieces = new ArrayList<ArrayList<Integer>>();
+        Mesh.GetConvexPolygons(Pieces);
+
+        // Each diagonal is in the 2 pieces either side, once each way.
+        ArrayList<Integer> DiagonalsFrom = new ArrayList<Integer>();
+        ArrayList<Integer> DiagonalsTo = new ArrayList<Integer>();
+        for (int i = 0; i < Pieces.size(); i++) {
+            ArrayList<Integer> Piece = Pieces.get(i);
+            for (int j = 0; j < Piece.size(); j++) {
+                int nFrom = Piece.get(j);
+                int nTo = Piece.get((j + 1) % Piece.size());
+                if (nFrom < nTo && nTo != nFrom + 1 && !(nFrom == 0 && nTo == nLineCount - 1)) {
+                    DiagonalsFrom.add(nFrom);
+                    DiagonalsTo.add(nTo);
+                }
+            }
+        }
+
+        ArrayList<Integer> Ring = new ArrayList<Integer>();
+        for (int i = 0; i < nLineCount; i++)
+            Ring.add(i);
+
+        int[] Positions = new int[nLineCount];
+        CreateSubAreas(Points, Ring, DiagonalsFrom, DiagonalsTo, Positions);
+        return true;
+    }
+
     /**
      * Removes the convex sub areas.
      */
@@ -363,6 +471,21 @@ public class C2DPolygon extends C2DPolyBase {
         subArea2 = null;
     }
 
+    /**
+     * Triangulates the polygon. The vertices of the mesh are the points of the polygon in order.
+     *
+     * @param Mesh      Output. The triangles.
+     * @param bDelaunay True for the constrained Delaunay triangulation, which avoids thin triangles.
+     */
+    public void Triangulate(CTriangleMesh Mesh, boolean bDelaunay) {
+        ArrayList<C2DPoint> Points = new ArrayList<C2DPoint>();
+        GetPointsCopy(Points);
+
+        CTriangulator Triangulator = new CTriangulator();
+        Triangulator.setDelaunay(bDelaunay);
+        Triangulator.Triangulate(Points, Mesh);
+    }
+
     /**
      * True if the polygon is convex.
      */
@@ -541,42 +664,61 @@ public class C2DPolygon extends C2DPolyBase {
                 MinimumTranslationVector.Reverse();
             return bRes;
         } else {
-            CInterval ThisProj = new CInterval();
-            CInterval OtherProj = new CInterval();
-
-            C2DLine ProjLine = new C2DLine();
+            CEdgeNormals ThisNormals = GetEdgeNormals();
+            CEdgeNormals OtherNormals = Other.GetEdgeNormals();
+            CProjectedPoints ThisPoints = GetProjectedPoints();
+            CProjectedPoints OtherPoints = Other.GetProjectedPoints();
 
+            int nThisCount = ThisNormals.X.length;
             boolean bVecFound = false;
+            double dVecLength = 0;
+
+            for (int i = 0; i < nThisCount + OtherNormals.X.length; i++) {
+                // Each polygon's projection on its own normals is cached so only the other is projected.
+                int nNormal = i < nThisCount ? i : i - nThisCount;
+                CEdgeNormals Normals = i < nThisCount ? ThisNormals : OtherNormals;
+                CProjectedPoints Projected = i < nThisCount ? OtherPoints : ThisPoints;
+                double dNormalX = Normals.X[nNormal];
+                double dNormalY = Normals.Y[nNormal];
+                double dNormalLength = Normals.Lengths[nNormal];
+
+                double dMin = (Projected.X[0] * dNormalX + Projected.Y[0] * dNormalY) / dNormalLength;
+                double dMax = dMin;
+                for (int j = 1; j < Projected.X.length; j++) {
+                    double dProj = (Projected.X[j] * dNormalX + Projected.Y[j] * dNormalY) / dNormalLength;
+                    if (dProj > dMax) dMax = dProj;
+                    if (dProj < dMin) dMin = dProj;
+                }
 
-            for (int i = 0; i < Lines.size() + Other.Lines.size(); i++) {
-                if (i < Lines.size())
-                    ProjLine.Set(GetPoint(i), GetPoint(i + 1));
-                else
-                    ProjLine.Set(Other.GetPoint(i - Lines.size()),
-                            Other.GetPoint(i - Lines.size() + 1));
-
-                ProjLine.vector.TurnRight();
-                ProjLine.vector.MakeUnit();
-
-                this.Project(ProjLine.vector, ThisProj);
-                Other.Project(ProjLine.vector, OtherProj);
+                double dThisMin, dThisMax, dOtherMin, dOtherMax;
+                if (i < nThisCount) {
+                    dThisMin = ThisPoints.Min[nNormal];
+                    dThisMax = ThisPoints.Max[nNormal];
+                    dOtherMin = dMin;
+                    dOtherMax = dMax;
+                } else {
+                    dThisMin = dMin;
+                    dThisMax = dMax;
+                    dOtherMin = OtherPoints.Min[nNormal];
+                    dOtherMax = OtherPoints.Max[nNormal];
+                }
 
-                if (ThisProj.dMin < OtherProj.dMax && ThisProj.dMax > OtherProj.dMax) {
-                    if (!bVecFound ||
-                            (OtherProj.dMax - ThisProj.dMin) < MinimumTranslationVector.GetLength()) {
-                        MinimumTranslationVector.Set(ProjLine.vector);
-                        MinimumTranslationVector.SetLength(OtherProj.dMax - ThisProj.dMin);
+                if (dThisMin < dOtherMax && dThisMax > dOtherMax) {
+                    if (!bVecFound || (dOtherMax - dThisMin) < dVecLength) {
+                        MinimumTranslationVector.Set(dNormalX, dNormalY);
+                        MinimumTranslationVector.SetLength(dOtherMax - dThisMin);
                         MinimumTranslationVector.Multiply(1.001);
+                        dVecLength = MinimumTranslationVector.GetLength();
 
                         bVecFound = true;
                     }
-                } else if (OtherProj.dMin < ThisProj.dMax && OtherProj.dMax > ThisProj.dMax) {
-                    if (!bVecFound ||
-                            (ThisProj.dMax - OtherProj.dMin) < MinimumTranslationVector.GetLength()) {
-                        MinimumTranslationVector.Set(ProjLine.vector);
-                        MinimumTranslationVector.SetLength(ThisProj.dMax - OtherProj.dMin);
+                } else if (dOtherMin < dThisMax && dOtherMax > dThisMax) {
+                    if (!bVecFound || (dThisMax - dOtherMin) < dVecLength) {
+                        MinimumTranslationVector.Set(dNormalX, dNormalY);
+                        MinimumTranslationVector.SetLength(dThisMax - dOtherMin);
                         MinimumTranslationVector.Reverse();
                         MinimumTranslationVector.Multiply(1.001);
+                        dVecLength = MinimumTranslationVector.GetLength();
                         bVecFound = true;
                     }
                 } else {
@@ -832,6 +974,77 @@ public class C2DPolygon extends C2DPolyBase {
     }
 
 
+    /**
+     * Splits this into sub areas along diagonals which split it into convex pieces.
+     *
+     * @param Points        The points of the original polygon.
+     * @param Ring          The indexes of the points of this in the original polygon.
+     * @param DiagonalsFrom The first point index of each diagonal within this.
+     * @param DiagonalsTo   The second point index of each diagonal within this.
+     * @param Positions     Work space of the same size as the points.
+     */
+    private void CreateSubAreas(ArrayList<C2DPoint> Points, ArrayList<Integer> Ring,
+                                ArrayList<Integer> DiagonalsFrom, ArrayList<Integer> DiagonalsTo, int[] Positions) {
+        if (DiagonalsFrom.size() == 0)
+            return;
+
+        int nCount = Ring.size();
+        for (int i = 0; i < nCount; i++)
+            Positions[Ring.get(i)] = i;
+
+        // The diagonal closest to splitting the points in half.
+        int nBest = 0;
+        int nBestDifference = Integer.MAX_VALUE;
+        for (int i = 0; i < DiagonalsFrom.size(); i++) {
+            int nSize = (Positions[DiagonalsTo.get(i)] - Positions[DiagonalsFrom.get(i)] + nCount) % nCount + 1;
+            int nDifference = Math.abs(nCount + 2 - 2 * nSize);
+            if (nDifference < nBestDifference) {
+                nBestDifference = nDifference;
+                nBest = i;
+            }
+        }
+
+        int nStart = Positions[DiagonalsFrom.get(nBest)];
+        int nEnd = (Positions[DiagonalsTo.get(nBest)] - nStart + nCount) % nCount;
+
+        ArrayList<Integer> Ring1 = new ArrayList<Integer>();
+        ArrayList<Integer> Ring2 = new ArrayList<Integer>();
+        for (int i = 0; i <= nEnd; i++)
+            Ring1.add(Ring.get((nStart + i) % nCount));
+        for (int i = nEnd; i <= nCount; i++)
+            Ring2.add(Ring.get((nStart + i) % nCount));
+
+        ArrayList<Integer> From1 = new ArrayList<Integer>();
+        ArrayList<Integer> To1 = new ArrayList<Integer>();
+        ArrayList<Integer> From2 = new ArrayList<Integer>();
+        ArrayList<Integer> To2 = new ArrayList<Integer>();
+        for (int i = 0; i < DiagonalsFrom.size(); i++) {
+            if (i == nBest)
+                continue;
+            int nFrom = (Positions[DiagonalsFrom.get(i)] - nStart + nCount) % nCount;
+            int nTo = (Positions[DiagonalsTo.get(i)] - nStart + nCount) % nCount;
+            if (nFrom <= nEnd && nTo <= nEnd) {
+                From1.add(DiagonalsFrom.get(i));
+                To1.add(DiagonalsTo.get(i));
+            } else {
+                From2.add(DiagonalsFrom.get(i));
+                To2.add(DiagonalsTo.get(i));
+            }
+        }
+
+        subArea1 = new C2DPolygon(GetRingPoints(Points, Ring1), false);
+        subArea2 = new C2DPolygon(GetRingPoints(Points, Ring2), false);
+        subArea1.CreateSubAreas(Points, Ring1, From1, To1, Positions);
+        subArea2.CreateSubAreas(Points, Ring2, From2, To2, Positions);
+    }
+
+    private static ArrayList<C2DPoint> GetRingPoints(ArrayList<C2DPoint> Points, ArrayList<Integer> Ring) {
+        ArrayList<C2DPoint> RingPoints = new ArrayList<C2DPoint>(Ring.size());
+        for (int i = 0; i < Ring.size(); i++)
+            RingPoints.add(Points.get(Ring.get(i)));
+        return RingPoints;
+    }
+
     /**
      * Creates sub areas given 2 point indexes and pointers to the new areas.
      *
@@ -980,6 +1193,8 @@ public class C2DPolygon extends C2DPolyBase {
         if (nPointIndex >= Lines.size())
             nPointIndex -= Lines.size();
 
+        InvalidateEdgeIndex();
+
         int nPointIndexBefore;
         if (nPointIndex == 0)
             nPointIndexBefore = Lines.size() - 1;
@@ -1019,6 +1234,8 @@ public class C2DPolygon extends C2DPolyBase {
     private void InsertPoint(int nPointIndex, C2DPoint Point) {
         nPointIndex = nPointIndex % Lines.size();
 
+        InvalidateEdgeIndex();
+
         int nPointIndexBefore = 0;
         if (nPointIndex == 0)
             nPointIndexBefore = Lines.size() - 1;
@@ -1429,123 +1646,249 @@ public class C2DPolygon extends C2DPolyBase {
     /**
      * Returns the minimum bounding box that is not necassarily horiztonal i.e.
      * the box can be at an angle and is defined by a line and the width to the right.
+     * The width cannot be passed back through a Double so use GetMinBoundingBox(C2DOrientedRect).
      *
      * @param Line
      * @param dWidthToRight
      */
     public void GetMinBoundingBox(C2DLine Line, Double dWidthToRight) {
-        int nCount = Lines.size();
-        if (nCount == 0)
-            return;
-
-        if (!IsConvex()) {
-            C2DPolygon CH = new C2DPolygon();
-            CH.CreateConvexHull(this);
-            CH.GetMinBoundingBox(Line, dWidthToRight);
+        if (Lines.size() == 0)
             return;
-        }
 
+        C2DOrientedRect Rect = new C2DOrientedRect();
+        GetMinBoundingBox(Rect);
+        Rect.GetLine(Line);
+    }
 
-        int nP1 = 0;//index of vertex with minimum y-coordinate;
-        int nP2 = 0;//index of vertex with maximum y-coordinate;
+    /**
+     * Returns the minimum area bounding box that is not necassarily horiztonal. Uses rotating
+     * calipers round the convex hull, see CRotatingCalipers.
+     *
+     * @param Rect Output. The bounding box.
+     */
+    public void GetMinBoundingBox(C2DOrientedRect Rect) {
+        CreateCalipers().GetMinAreaRect(Rect);
+    }
 
-        int nP3 = 0;//index of vertex with minimum x-coordinate;
-        int nP4 = 0;//index of vertex with maximum x-coordinate;
+    /**
+     * Returns the minimum perimeter bounding box that is not necassarily horiztonal.
+     *
+     * @param Rect Output. The bounding box.
+     */
+    public void GetMinPerimeterBoundingBox(C2DOrientedRect Rect) {
+        CreateCalipers().GetMinPerimeterRect(Rect);
+    }
 
-        double dMinY = Lines.get(0).GetPointFrom().y;
-        double dMaxY = dMinY;
+    /**
+     * The greatest distance between any 2 points on the polygon.
+     *
+     * @param pt1 Output. The first point.
+     * @param pt2 Output. The second point.
+     */
+    public double GetDiameter(C2DPoint pt1, C2DPoint pt2) {
+        return CreateCalipers().GetDiameter(pt1, pt2);
+    }
 
-        double dMinX = Lines.get(0).GetPointFrom().x;
-        double dMaxX = dMinX;
+    /**
+     * The least distance between 2 parallel lines with the polygon between them.
+     */
+    public double GetWidth() {
+        return CreateCalipers().GetWidth();
+    }
 
-        for (int i = 1; i < Lines.size(); i++) {
+    /**
+     * Rotating calipers round the polygon's points.
+     */
+    private CRotatingCalipers CreateCalipers() {
+        int nCount = Lines.size();
+        double[] xs = new double[nCount];
+        double[] ys = new double[nCount];
+        for (int i = 0; i < nCount; i++) {
             C2DPoint pt = Lines.get(i).GetPointFrom();
-            if (pt.y < dMinY) {
-                dMinY = pt.y;
-                nP1 = i;
-            } else if (pt.y > dMaxY) {
-                dMaxY = pt.y;
-                nP2 = i;
+            xs[i] = pt.x;
+            ys[i] = pt.y;
+        }
+
+        CRotatingCalipers Calipers = new CRotatingCalipers();
+        Calipers.Create(xs, ys, nCount);
+        return Calipers;
+    }
+
+    /**
+     * Discards the edge index and the normals and points cached for Overlaps.
+     */
+    protected void InvalidateEdgeIndex() {
+        super.InvalidateEdgeIndex();
+        EdgeNormals = null;
+        ProjectedPoints = null;
+    }
+
+    /**
+     * Returns the unit normal to the right of each edge, making them if needed.
+     */
+    private CEdgeNormals GetEdgeNormals() {
+        CEdgeNormals Normals = EdgeNormals;
+        if (Normals == null) {
+            int nCount = Lines.size();
+            double[] X = new double[nCount];
+            double[] Y = new double[nCount];
+            double[] Lengths = new double[nCount];
+
+            C2DVector Normal = new C2DVector();
+            for (int i = 0; i < nCount; i++) {
+                Normal.Set(GetPoint(i), GetPoint(i + 1));
+                Normal.TurnRight();
+                Normal.MakeUnit();
+                X[i] = Normal.i;
+                Y[i] = Normal.j;
+                Lengths[i] = Normal.GetLength();
             }
 
-            if (pt.x < dMinX) {
-                dMinX = pt.x;
-                nP3 = i;
-            } else if (pt.x > dMaxX) {
-                dMaxX = pt.x;
-                nP4 = i;
+            Normals = new CEdgeNormals(X, Y, Lengths);
+            EdgeNormals = Normals;
+        }
+        return Normals;
+    }
+
+    /**
+     * Returns the points projected by Overlaps and the projection on each normal, making them if needed.
+     */
+    private CProjectedPoints GetProjectedPoints() {
+        CProjectedPoints Points = ProjectedPoints;
+        if (Points == null) {
+            int nLines = Lines.size();
+            double[] X = new double[nLines * 2];
+            double[] Y = new double[nLines * 2];
+            int nCount = 0;
+
+            // The lines are projected from both ends so include any end which is not exactly
+            // the start of the next line.
+            for (int i = 0; i < nLines; i++) {
+                C2DPoint ptFrom = Lines.get(i).GetPointFrom();
+                X[nCount] = ptFrom.x;
+                Y[nCount] = ptFrom.y;
+                nCount++;
+            }
+            for (int i = 0; i < nLines; i++) {
+                C2DPoint ptTo = Lines.get(i).GetPointTo();
+                C2DPoint ptNext = Lines.get((i + 1) % nLines).GetPointFrom();
+                if (ptTo.x != ptNext.x || ptTo.y != ptNext.y) {
+                    X[nCount] = ptTo.x;
+                    Y[nCount] = ptTo.y;
+                    nCount++;
+                }
             }
+            X = Arrays.copyOf(X, nCount);
+            Y = Arrays.copyOf(Y, nCount);
+
+            CEdgeNormals Normals = GetEdgeNormals();
+            double[] Min = new double[Normals.X.length];
+            double[] Max = new double[Normals.X.length];
+            for (int i = 0; i < Normals.X.length; i++) {
+                double dMin = (X[0] * Normals.X[i] + Y[0] * Normals.Y[i]) / Normals.Lengths[i];
+                double dMax = dMin;
+                for (int j = 1; j < nCount; j++) {
+                    double dProj = (X[j] * Normals.X[i] + Y[j] * Normals.Y[i]) / Normals.Lengths[i];
+                    if (dProj > dMax) dMax = dProj;
+                    if (dProj < dMin) dMin = dProj;
+                }
+                Min[i] = dMin;
+                Max[i] = dMax;
+            }
+
+            Points = new CProjectedPoints(X, Y, Min, Max);
+            ProjectedPoints = Points;
         }
+        return Points;
+    }
 
+    /**
+     * Makes the polygons for a range of Voronoi cells, splitting the range between threads.
+     */
+    private static class CCellsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        CCellsTask(ArrayList<ArrayList<C2DPoint>> Rings, C2DPolygon[] Polygons, int nStart, int nEnd) {
+            this.Rings = Rings;
+            this.Polygons = Polygons;
+            this.nStart = nStart;
+            this.nEnd = nEnd;
+        }
 
-        double dRotatedAngle = 0;
-        double dMinArea = 1.7E+308;
-
-        // 222222
-        // 3	4
-        // 3    4
-        // 3    4
-        // 111111
-
-        C2DLine Caliper1 = new C2DLine(Lines.get(nP1).GetPointFrom(), new C2DVector(-1, 0));    // Caliper 1 points along the negative x-axis
-        C2DLine Caliper2 = new C2DLine(Lines.get(nP2).GetPointFrom(), new C2DVector(1, 0));   // Caliper 2 points along the positive x-axis
-
-        C2DLine Caliper3 = new C2DLine(Lines.get(nP3).GetPointFrom(), new C2DVector(0, 1));    // Caliper 3 points along the positive y-axis
-        C2DLine Caliper4 = new C2DLine(Lines.get(nP4).GetPointFrom(), new C2DVector(0, -1));   // Caliper 4 points along the negative y-axis
-
-        while (dRotatedAngle < Constants.conPI) {
-            int nMod = Lines.size();
-            // Determine the angle between each caliper and the next adjacent edge in the polygon
-            double dAngle1 = Caliper1.vector.AngleToRight(((C2DLine) Lines.get(nP1 % nMod)).vector);
-            double dAngle2 = Caliper2.vector.AngleToRight(((C2DLine) Lines.get(nP2 % nMod)).vector);
-            double dAngle3 = Caliper3.vector.AngleToRight(((C2DLine) Lines.get(nP3 % nMod)).vector);
-            double dAngle4 = Caliper4.vector.AngleToRight(((C2DLine) Lines.get(nP4 % nMod)).vector);
-
-            double dMinAngle;
-            if (dAngle1 < dAngle2 &&
-                    dAngle1 < dAngle3 &&
-                    dAngle1 < dAngle4) {
-                dMinAngle = dAngle1;
-                nP1++;
-                Caliper1.point = Lines.get(nP1 % Lines.size()).GetPointFrom();
-            } else if (dAngle2 < dAngle3 &&
-                    dAngle2 < dAngle4) {
-                dMinAngle = dAngle2;
-                nP2++;
-                Caliper2.point = Lines.get(nP2 % Lines.size()).GetPointFrom();
-            } else if (dAngle3 < dAngle4) {
-                dMinAngle = dAngle3;
-                nP3++;
-                Caliper3.point = Lines.get(nP3 % Lines.size()).GetPointFrom();
-            } else {
-                dMinAngle = dAngle4;
-                nP4++;
-                Caliper4.point = Lines.get(nP4 % Lines.size()).GetPointFrom();
+        @Override
+        protected void compute() {
+            if (nEnd - nStart <= const_nCellGroupSize) {
+                for (int i = nStart; i < nEnd; i++) {
+                    if (Rings.get(i).size() == 0)
+                        Polygons[i] = new C2DPolygon();
+                    else
+                        Polygons[i] = new C2DPolygon(Rings.get(i), false);
+                }
+                return;
             }
-            dRotatedAngle += dMinAngle;
-            dMinAngle -= 0.00000001;
-            Caliper1.vector.TurnRight(dMinAngle);
-            Caliper2.vector.TurnRight(dMinAngle);
-            Caliper3.vector.TurnRight(dMinAngle);
-            Caliper4.vector.TurnRight(dMinAngle);
 
+            int nMid = (nStart + nEnd) >>> 1;
+            invokeAll(new CCellsTask(Rings, Polygons, nStart, nMid),
+                    new CCellsTask(Rings, Polygons, nMid, nEnd));
+        }
 
-            double dWidth1 = Caliper1.DistanceAsRay(Caliper2.point);
-            double dWidth2 = Caliper3.DistanceAsRay(Caliper4.point);
+        private final ArrayList<ArrayList<C2DPoint>> Rings;
+        private final C2DPolygon[] Polygons;
+        private final int nStart;
+        private final int nEnd;
+    }
 
-            double dArea = dWidth1 * dWidth2;
+    /**
+     * The number of Voronoi cells made into polygons by each thread at once.
+     */
+    private static final int const_nCellGroupSize = 1024;
 
-            if (dArea < dMinArea) {
-                dMinArea = dArea;
-                Line.Set(Caliper1);
-                Line.point.ProjectOnRay(Caliper4);
-                Line.vector.SetLength(dWidth2);
+    /**
+     * The unit normal to the right of each edge, the directions Overlaps projects on.
+     */
+    private static final class CEdgeNormals {
+        CEdgeNormals(double[] X, double[] Y, double[] Lengths) {
+            this.X = X;
+            this.Y = Y;
+            this.Lengths = Lengths;
+        }
 
-                dWidthToRight = dWidth1;
-            }
+        final double[] X;
+        final double[] Y;
+
+        /**
+         * The length of each normal as calculated, which projections are divided by as in C2DPoint.Project.
+         */
+        final double[] Lengths;
+    }
+
+    /**
+     * The points Overlaps projects and the range of their projections on each of the edge normals.
+     */
+    private static final class CProjectedPoints {
+        CProjectedPoints(double[] X, double[] Y, double[] Min, double[] Max) {
+            this.X = X;
+            this.Y = Y;
+            this.Min = Min;
+            this.Max = Max;
         }
+
+        final double[] X;
+        final double[] Y;
+        final double[] Min;
+        final double[] Max;
     }
 
+    /**
+     * The edge normals used by Overlaps. Made when first needed.
+     */
+    private volatile CEdgeNormals EdgeNormals = null;
+
+    /**
+     * The points used by Overlaps. Made when first needed.
+     */
+    private volatile CProjectedPoints ProjectedPoints = null;
+
     /**
      * Sub area 1.
      */
@@ -0,0 +1,908 @@
+package uk.co.geolib.geopolygons;
+
+import uk.co.geolib.geolib.C2DLine;
+import uk.co.geolib.geolib.C2DLineBaseSet;
+import uk.co.geolib.geolib.C2DPoint;
+import uk.co.geolib.geolib.C2DRect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Boolean operations on sets of polygons with holes by a single plane sweep, the algorithm of
+ * Martinez, Rueda and Feito. The edges are swept from left to right, split where they cross,
+ * and each piece is kept or not by whether the other set is on either side of it. The kept
+ * pieces are joined into rings and the holes given to their rims as they are found, so the
+ * whole operation takes O((n + k) log n) for n edges crossing k times.
+ * <p>
+ * Points which are shared and edges which lie along each other are handled directly so no
+ * perturbation or snapping to a grid is needed. The polygons must have straight lines and
+ * those within each set must not overlap each other. All the rings made are clockwise.
+ */
+public class C2DSweepBoolean {
+    /**
+     * Enumeration for the operations.
+     */
+    public enum eOperation {
+        /// <summary> The areas in either set. </summary>
+        Union,
+        /// <summary> The areas in both sets. </summary>
+        Intersection,
+        /// <summary> The areas in the subject but not the clip. </summary>
+        Difference,
+        /// <summary> The areas in one set but not the other. </summary>
+        ExclusiveOr,
+    }
+
+    ;
+
+    /**
+     * Constructor.
+     */
+    public C2DSweepBoolean() {
+    }
+
+    /**
+     * Finds the result of the operation on 2 polygons.
+     *
+     * @param Subject   The first polygon.
+     * @param Clip      The second polygon.
+     * @param Operation The operation.
+     * @param Result    Output. The polygons made.
+     */
+    public void GetBoolean(C2DHoledPolyBase Subject, C2DHoledPolyBase Clip, eOperation Operation,
+                           ArrayList<C2DHoledPolyBase> Result) {
+        ArrayList<C2DPolyBase> SubjectRings = new ArrayList<C2DPolyBase>();
+        ArrayList<C2DPolyBase> ClipRings = new ArrayList<C2DPolyBase>();
+        AddRings(Subject, SubjectRings);
+        AddRings(Clip, ClipRings);
+
+        Compute(SubjectRings, ClipRings, Operation, Result);
+    }
+
+    /**
+     * Finds the result of the operation on 2 sets of polygons in one pass.
+     *
+     * @param Subject   The first set of polygons, which must not overlap each other.
+     * @param Clip      The second set of polygons, which must not overlap each other.
+     * @param Operation The operation.
+     * @param Result    Output. The polygons made.
+     */
+    public void GetBoolean(ArrayList<? extends C2DHoledPolyBase> Subject, ArrayList<? extends C2DHoledPolyBase> Clip,
+                           eOperation Operation, ArrayList<C2DHoledPolyBase> Result) {
+        ArrayList<C2DPolyBase> SubjectRings = new ArrayList<C2DPolyBase>();
+        ArrayList<C2DPolyBase> ClipRings = new ArrayList<C2DPolyBase>();
+        for (int i = 0; i < Subject.size(); i++)
+            AddRings(Subject.get(i), SubjectRings);
+        for (int i = 0; i < Clip.size(); i++)
+            AddRings(Clip.get(i), ClipRings);
+
+        Compute(SubjectRings, ClipRings, Operation, Result);
+    }
+
+    /**
+     * Finds the result of the boolean operation given in the form used by the route based
+     * C2DPolyBase.GetBoolean, by whether the routes inside or outside each polygon are wanted.
+     * As there, nothing is added if the polygons do not overlap.
+     *
+     * @param Rings1   The rings of the first polygon, the rim first.
+     * @param bInside1 True for the routes of the first polygon inside the second.
+     * @param Rings2   The rings of the second polygon, the rim first.
+     * @param bInside2 True for the routes of the second polygon inside the first.
+     * @param Result   Output. The polygons made.
+     */
+    void GetBoolean(ArrayList<C2DPolyBase> Rings1, boolean bInside1, ArrayList<C2DPolyBase> Rings2,
+                    boolean bInside2, ArrayList<C2DHoledPolyBase> Result) {
+        ArrayList<C2DHoledPolyBase> NewPolys = new ArrayList<C2DHoledPolyBase>();
+        boolean bOverlap;
+        if (bInside1 && bInside2)
+            bOverlap = Compute(Rings1, Rings2, eOperation.Intersection, NewPolys);
+        else if (!bInside1 && !bInside2)
+            bOverlap = Compute(Rings1, Rings2, eOperation.Union, NewPolys);
+        else if (!bInside1)
+            bOverlap = Compute(Rings1, Rings2, eOperation.Difference, NewPolys);
+        else
+            bOverlap = Compute(Rings2, Rings1, eOperation.Difference, NewPolys);
+
+        if (bOverlap)
+            Result.addAll(NewPolys);
+    }
+
+    /**
+     * True if the polygon has only straight lines, so can be used by this.
+     */
+    static boolean IsStraight(C2DPolyBase Poly) {
+        for (int i = 0; i < Poly.Lines.size(); i++) {
+            if (!(Poly.Lines.get(i) instanceof C2DLine))
+                return false;
+        }
+        return true;
+    }
+
+    private static void AddRings(C2DHoledPolyBase Poly, ArrayList<C2DPolyBase> Rings) {
+        if (Poly.Rim != null)
+            Rings.add(Poly.Rim);
+        for (int i = 0; i < Poly.getHoleCount(); i++)
+            Rings.add(Poly.GetHole(i));
+    }
+
+    /**
+     * Does the operation. Returns true if the insides of the 2 sets overlap.
+     */
+    private boolean Compute(ArrayList<C2DPolyBase> SubjectRings, ArrayList<C2DPolyBase> ClipRings,
+                            eOperation Operation, ArrayList<C2DHoledPolyBase> Result) {
+        if (Operation == eOperation.ExclusiveOr) {
+            // Joined in one pass the rings can cross from one side to the other where the edges
+            // cross, so find the 2 differences, which only touch.
+            boolean bOverlap = Compute(SubjectRings, ClipRings, eOperation.Difference, Result);
+            Compute(ClipRings, SubjectRings, eOperation.Difference, Result);
+            return bOverlap;
+        }
+
+        this.Operation = Operation;
+        NextId = 0;
+        Queue = new PriorityQueue<CSweepEvent>(64, EventOrder);
+
+        C2DRect SubjectRect = new C2DRect();
+        C2DRect ClipRect = new C2DRect();
+        int nContour = 0;
+        for (int i = 0; i < SubjectRings.size(); i++)
+            AddRing(SubjectRings.get(i), true, nContour++, SubjectRect, i == 0);
+        for (int i = 0; i < ClipRings.size(); i++)
+            AddRing(ClipRings.get(i), false, nContour++, ClipRect, i == 0);
+
+        // Nothing crosses if the rectangles don't overlap.
+        if (SubjectRings.size() == 0 || ClipRings.size() == 0 || !SubjectRect.Overlaps(ClipRect)) {
+            if (Operation != eOperation.Intersection)
+                Result.addAll(MakePolygons(Connect(GetAllEvents())));
+            Queue = null;
+            return false;
+        }
+
+        // Nothing to the right of these can be in the result.
+        double dRightBound = Double.MAX_VALUE;
+        if (Operation == eOperation.Intersection)
+            dRightBound = Math.min(SubjectRect.GetRight(), ClipRect.GetRight());
+        else if (Operation == eOperation.Difference)
+            dRightBound = SubjectRect.GetRight();
+
+        ArrayList<CSweepEvent> Processed = new ArrayList<CSweepEvent>();
+        Status = new TreeSet<CSweepEvent>(SegmentOrder);
+        while (!Queue.isEmpty()) {
+            CSweepEvent Event = Queue.poll();
+            if (Event.x > dRightBound)
+                break;
+
+            if (Event.Left) {
+                Status.add(Event);
+                CSweepEvent Prev = Status.lower(Event);
+                CSweepEvent Next = Status.higher(Event);
+                if (SplitThrough(Prev, Event) | SplitThrough(Next, Event)) {
+                    // Do this after the pieces of the segment which ends here.
+                    Status.remove(Event);
+                    Queue.add(Event);
+                    continue;
+                }
+                Processed.add(Event);
+                ComputeFields(Event, Prev);
+                if (Next != null && PossibleIntersection(Event, Next) == 2) {
+                    ComputeFields(Event, Prev);
+                    ComputeFields(Next, Event);
+                }
+                if (Prev != null && PossibleIntersection(Prev, Event) == 2) {
+                    ComputeFields(Prev, Status.lower(Prev));
+                    ComputeFields(Event, Prev);
+                }
+            } else {
+                Processed.add(Event);
+                CSweepEvent Segment = Event.Other;
+                CSweepEvent[] Neighbours = RemoveFromStatus(Segment);
+                if (Neighbours[0] != null && Neighbours[1] != null)
+                    PossibleIntersection(Neighbours[0], Neighbours[1]);
+            }
+        }
+
+        boolean bOverlap = false;
+        for (int i = 0; i < Processed.size() && !bOverlap; i++) {
+            CSweepEvent Event = Processed.get(i);
+            if (Event.Left && (Event.Type == const_nSameTransition ||
+                    (Event.Type == const_nNormal && !Event.OtherInOut)))
+                bOverlap = true;
+        }
+
+        Result.addAll(MakePolygons(Connect(Processed)));
+
+        Queue = null;
+        Status = null;
+        return bOverlap;
+    }
+
+    /**
+     * Adds the events for the edges of a ring.
+     */
+    private void AddRing(C2DPolyBase Ring, boolean bSubject, int nContour, C2DRect Rect, boolean bFirst) {
+        // The next line's start rather than the end of each, which can differ in the last place.
+        int nCount = Ring.Lines.size();
+        for (int i = 0; i < nCount; i++) {
+            C2DPoint From = Ring.Lines.get(i).GetPointFrom();
+            C2DPoint To = Ring.Lines.get((i + 1) % nCount).GetPointFrom();
+            if (bFirst && i == 0)
+                Rect.Set(From);
+            else
+                Rect.ExpandToInclude(From);
+
+            if (From.x == To.x && From.y == To.y)
+                continue;
+
+            CSweepEvent E1 = new CSweepEvent(From.x, From.y, bSubject, NextId++);
+            CSweepEvent E2 = new CSweepEvent(To.x, To.y, bSubject, NextId++);
+            E1.Other = E2;
+            E2.Other = E1;
+            E1.Contour = nContour;
+            E2.Contour = nContour;
+            if (CompareEvents(E1, E2) < 0)
+                E1.Left = true;
+            else
+                E2.Left = true;
+            Queue.add(E1);
+            Queue.add(E2);
+        }
+    }
+
+    /**
+     * All the events when there are no crossings.
+     */
+    private ArrayList<CSweepEvent> GetAllEvents() {
+        ArrayList<CSweepEvent> Events = new ArrayList<CSweepEvent>(Queue.size());
+        Status = new TreeSet<CSweepEvent>(SegmentOrder);
+        while (!Queue.isEmpty()) {
+            CSweepEvent Event = Queue.poll();
+            Events.add(Event);
+            if (Event.Left) {
+                Status.add(Event);
+                ComputeFields(Event, Status.lower(Event));
+            } else {
+                RemoveFromStatus(Event.Other);
+            }
+        }
+        Status = null;
+        return Events;
+    }
+
+    /**
+     * Removes a segment from the status, returning the segments below and above it.
+     */
+    private CSweepEvent[] RemoveFromStatus(CSweepEvent Segment) {
+        CSweepEvent[] Neighbours = new CSweepEvent[2];
+        Neighbours[0] = Status.lower(Segment);
+        Neighbours[1] = Status.higher(Segment);
+        if (Status.remove(Segment))
+            return Neighbours;
+
+        // Rounding has left the order inconsistent, find it by walking.
+        Neighbours[0] = null;
+        Neighbours[1] = null;
+        Iterator<CSweepEvent> It = Status.iterator();
+        CSweepEvent Prev = null;
+        while (It.hasNext()) {
+            CSweepEvent Next = It.next();
+            if (Next == Segment) {
+                It.remove();
+                Neighbours[0] = Prev;
+                Neighbours[1] = It.hasNext() ? It.next() : null;
+                break;
+            }
+            Prev = Next;
+        }
+        return Neighbours;
+    }
+
+    /**
+     * Sets whether the segment is inside its own set and the other set from the segment below.
+     */
+    private void ComputeFields(CSweepEvent Event, CSweepEvent Prev) {
+        if (Prev == null) {
+            Event.InOut = false;
+            Event.OtherInOut = true;
+        } else {
+            if (Event.Subject == Prev.Subject) {
+                Event.InOut = !Prev.InOut;
+                Event.OtherInOut = Prev.OtherInOut;
+            } else {
+                Event.InOut = !Prev.OtherInOut;
+                Event.OtherInOut = Prev.IsVertical() ? !Prev.InOut : Prev.InOut;
+            }
+            Event.PrevInResult = (!InResult(Prev) || Prev.IsVertical()) ? Prev.PrevInResult : Prev;
+        }
+
+        Event.ResultTransition = InResult(Event) ? GetResultTransition(Event) : 0;
+    }
+
+    /**
+     * True if the segment is part of the result.
+     */
+    private boolean InResult(CSweepEvent Event) {
+        switch (Event.Type) {
+            case const_nNormal:
+                switch (Operation) {
+                    case Intersection:
+                        return !Event.OtherInOut;
+                    case Union:
+                        return Event.OtherInOut;
+                    default:
+                        return Event.Subject == Event.OtherInOut;
+                }
+            case const_nSameTransition:
+                return Operation == eOperation.Intersection || Operation == eOperation.Union;
+            case const_nDifferentTransition:
+                return Operation == eOperation.Difference;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 1 if the result is above the segment, -1 if below. Where the segment lies along one of the
+     * other set the other set changes with it, so OtherInOut, taken from the segment below, does
+     * not say what is above.
+     */
+    private int GetResultTransition(CSweepEvent Event) {
+        boolean bThisIn = !Event.InOut;
+        boolean bThatIn;
+        switch (Event.Type) {
+            case const_nSameTransition:
+                bThatIn = bThisIn;
+                break;
+            case const_nDifferentTransition:
+                bThatIn = !bThisIn;
+                break;
+            default:
+                bThatIn = !Event.OtherInOut;
+                break;
+        }
+        boolean bIn;
+        switch (Operation) {
+            case Intersection:
+                bIn = bThisIn && bThatIn;
+                break;
+            case Union:
+                bIn = bThisIn || bThatIn;
+                break;
+            default:
+                bIn = Event.Subject ? bThisIn && !bThatIn : bThatIn && !bThisIn;
+                break;
+        }
+        return bIn ? 1 : -1;
+    }
+
+    /**
+     * Splits the 2 segments, now next to each other, where they cross. Returns 2 if they lie
+     * along each other from the same left end, when the fields need working out again.
+     */
+    private int PossibleIntersection(CSweepEvent Se1, CSweepEvent Se2) {
+        double[] Points = new double[4];
+        int nCount = Intersection(Se1.x, Se1.y, Se1.Other.x, Se1.Other.y,
+                Se2.x, Se2.y, Se2.Other.x, Se2.Other.y, Points);
+
+        if (nCount == 0)
+            return 0;
+
+        // They only meet at an end of both.
+        if (nCount == 1 && (Se1.SamePoint(Se2) || Se1.Other.SamePoint(Se2.Other)))
+            return 0;
+
+        // Edges of the same set along each other.
+        if (nCount == 2 && Se1.Subject == Se2.Subject)
+            return 0;
+
+        if (nCount == 1) {
+            double x = Points[0];
+            double y = Points[1];
+            if (!Se1.SamePoint(x, y) && !Se1.Other.SamePoint(x, y))
+                DivideSegment(Se1, x, y);
+            if (!Se2.SamePoint(x, y) && !Se2.Other.SamePoint(x, y))
+                DivideSegment(Se2, x, y);
+            return 1;
+        }
+
+        // The segments lie along each other.
+        CSweepEvent[] Events = new CSweepEvent[4];
+        int nEvents = 0;
+        boolean bLeftCoincide = false;
+        boolean bRightCoincide = false;
+
+        if (Se1.SamePoint(Se2)) {
+            bLeftCoincide = true;
+        } else if (CompareEvents(Se1, Se2) > 0) {
+            Events[nEvents++] = Se2;
+            Events[nEvents++] = Se1;
+        } else {
+            Events[nEvents++] = Se1;
+            Events[nEvents++] = Se2;
+        }
+
+        if (Se1.Other.SamePoint(Se2.Other)) {
+            bRightCoincide = true;
+        } else if (CompareEvents(Se1.Other, Se2.Other) > 0) {
+            Events[nEvents++] = Se2.Other;
+            Events[nEvents++] = Se1.Other;
+        } else {
+            Events[nEvents++] = Se1.Other;
+            Events[nEvents++] = Se2.Other;
+        }
+
+        if (bLeftCoincide) {
+            // One of the 2 is kept for both.
+            Se2.Type = const_nNonContributing;
+            Se1.Type = Se2.InOut == Se1.InOut ? const_nSameTransition : const_nDifferentTransition;
+            if (!bRightCoincide)
+                DivideSegment(Events[1].Other, Events[0].x, Events[0].y);
+            return 2;
+        }
+
+        if (bRightCoincide) {
+            DivideSegment(Events[0], Events[1].x, Events[1].y);
+            return 3;
+        }
+
+        if (Events[0] != Events[3].Other) {
+            // Neither contains the other.
+            DivideSegment(Events[0], Events[1].x, Events[1].y);
+            DivideSegment(Events[1], Events[2].x, Events[2].y);
+            return 3;
+        }
+
+        // One contains the other.
+        DivideSegment(Events[0], Events[1].x, Events[1].y);
+        DivideSegment(Events[3].Other, Events[2].x, Events[2].y);
+        return 3;
+    }
+
+    /**
+     * Splits the segment if the left end of the event is on it but not at one of its ends.
+     */
+    private boolean SplitThrough(CSweepEvent Segment, CSweepEvent Event) {
+        if (Segment == null || Segment.SamePoint(Event) || Segment.Other.SamePoint(Event))
+            return false;
+        if (SignedArea(Segment.x, Segment.y, Segment.Other.x, Segment.Other.y, Event.x, Event.y) != 0)
+            return false;
+        if (CompareEvents(Segment.Other, Event) < 0)
+            return false;
+
+        DivideSegment(Segment, Event.x, Event.y);
+        return true;
+    }
+
+    /**
+     * Splits the segment of the left event at the point, adding the new events to the queue.
+     */
+    private void DivideSegment(CSweepEvent Event, double x, double y) {
+        CSweepEvent Right = new CSweepEvent(x, y, Event.Subject, NextId++);
+        CSweepEvent Left = new CSweepEvent(x, y, Event.Subject, NextId++);
+        Right.Left = false;
+        Right.Other = Event;
+        Left.Left = true;
+        Left.Other = Event.Other;
+        Right.Contour = Event.Contour;
+        Left.Contour = Event.Contour;
+
+        // Rounding could put the new left event after the old right one.
+        if (CompareEvents(Left, Event.Other) > 0) {
+            Event.Other.Left = true;
+            Left.Left = false;
+        }
+
+        Event.Other.Other = Left;
+        Event.Other = Right;
+        Queue.add(Left);
+        Queue.add(Right);
+    }
+
+    /**
+     * Finds where 2 segments meet. Returns 0 if they don't, 1 with the point if they meet at a
+     * point, or 2 with the ends of the part they share if they lie along each other. Ends are
+     * returned exactly rather than recalculated.
+     */
+    private static int Intersection(double a1x, double a1y, double a2x, double a2y,
+                                    double b1x, double b1y, double b2x, double b2y, double[] Points) {
+        double vax = a2x - a1x;
+        double vay = a2y - a1y;
+        double vbx = b2x - b1x;
+        double vby = b2y - b1y;
+        double ex = b1x - a1x;
+        double ey = b1y - a1y;
+
+        double dKross = vax * vby - vay * vbx;
+        if (dKross != 0) {
+            double s = (ex * vby - ey * vbx) / dKross;
+            if (s < 0 || s > 1)
+                return 0;
+            double t = (ex * vay - ey * vax) / dKross;
+            if (t < 0 || t > 1)
+                return 0;
+            if (s == 0 || s == 1) {
+                Points[0] = s == 0 ? a1x : a2x;
+                Points[1] = s == 0 ? a1y : a2y;
+            } else if (t == 0 || t == 1) {
+                Points[0] = t == 0 ? b1x : b2x;
+                Points[1] = t == 0 ? b1y : b2y;
+            } else {
+                Points[0] = a1x + s * vax;
+                Points[1] = a1y + s * vay;
+            }
+            return 1;
+        }
+
+        // Parallel, check they are on the same line.
+        if (ex * vay - ey * vax != 0)
+            return 0;
+
+        double dLengthSquared = vax * vax + vay * vay;
+        double sa = (vax * ex + vay * ey) / dLengthSquared;
+        double sb = sa + (vax * vbx + vay * vby) / dLengthSquared;
+        double dMin = Math.min(sa, sb);
+        double dMax = Math.max(sa, sb);
+        if (dMin > 1 || dMax < 0)
+            return 0;
+
+        if (dMin == 1) {
+            Points[0] = a2x;
+            Points[1] = a2y;
+            return 1;
+        }
+        if (dMax == 0) {
+            Points[0] = a1x;
+            Points[1] = a1y;
+            return 1;
+        }
+
+        SetOnSegment(a1x, a1y, a2x, a2y, b1x, b1y, b2x, b2y, dMin, sa, sb, Points, 0);
+        SetOnSegment(a1x, a1y, a2x, a2y, b1x, b1y, b2x, b2y, dMax, sa, sb, Points, 2);
+        return 2;
+    }
+
+    /**
+     * Sets the point at the parameter along segment a, using the exact end point where it is one.
+     */
+    private static void SetOnSegment(double a1x, double a1y, double a2x, double a2y,
+                                     double b1x, double b1y, double b2x, double b2y,
+                                     double s, double sa, double sb, double[] Points, int nIndex) {
+        if (s <= 0) {
+            Points[nIndex] = a1x;
+            Points[nIndex + 1] = a1y;
+        } else if (s >= 1) {
+            Points[nIndex] = a2x;
+            Points[nIndex + 1] = a2y;
+        } else if (s == sa) {
+            Points[nIndex] = b1x;
+            Points[nIndex + 1] = b1y;
+        } else if (s == sb) {
+            Points[nIndex] = b2x;
+            Points[nIndex + 1] = b2y;
+        } else {
+            Points[nIndex] = a1x + s * (a2x - a1x);
+            Points[nIndex + 1] = a1y + s * (a2y - a1y);
+        }
+    }
+
+    /**
+     * Joins the events in the result into rings, working out which are holes of which from the
+     * segment below the start of each.
+     */
+    private ArrayList<CContour> Connect(ArrayList<CSweepEvent> Events) {
+        ArrayList<CSweepEvent> ResultEvents = new ArrayList<CSweepEvent>();
+        for (int i = 0; i < Events.size(); i++) {
+            CSweepEvent Event = Events.get(i);
+            if ((Event.Left && Event.ResultTransition != 0) || (!Event.Left && Event.Other.ResultTransition != 0))
+                ResultEvents.add(Event);
+        }
+
+        // Splitting edges which lie along each other can leave these slightly out of order.
+        Collections.sort(ResultEvents, EventOrder);
+
+        int nCount = ResultEvents.size();
+        for (int i = 0; i < nCount; i++)
+            ResultEvents.get(i).Pos = i;
+        for (int i = 0; i < nCount; i++) {
+            CSweepEvent Event = ResultEvents.get(i);
+            if (!Event.Left) {
+                int nTemp = Event.Pos;
+                Event.Pos = Event.Other.Pos;
+                Event.Other.Pos = nTemp;
+            }
+        }
+
+        boolean[] Done = new boolean[nCount];
+        ArrayList<CContour> Contours = new ArrayList<CContour>();
+        for (int i = 0; i < nCount; i++) {
+            if (Done[i])
+                continue;
+
+            int nContour = Contours.size();
+            CContour Contour = MakeContour(ResultEvents.get(i), Contours);
+
+            int nPos = i;
+            Contour.Add(ResultEvents.get(i));
+            while (true) {
+                Done[nPos] = true;
+                ResultEvents.get(nPos).OutputContour = nContour;
+                nPos = ResultEvents.get(nPos).Pos;
+                Done[nPos] = true;
+                ResultEvents.get(nPos).OutputContour = nContour;
+                Contour.Add(ResultEvents.get(nPos));
+                nPos = NextPos(nPos, ResultEvents, Done, i);
+                if (nPos == i || nPos < 0 || nPos >= nCount)
+                    break;
+            }
+            Contours.add(Contour);
+        }
+        return Contours;
+    }
+
+    /**
+     * Starts a ring, as a hole of the ring below if the result is above that.
+     */
+    private static CContour MakeContour(CSweepEvent Event, ArrayList<CContour> Contours) {
+        CContour Contour = new CContour();
+        CSweepEvent Below = Event.PrevInResult;
+        if (Below == null || Below.OutputContour < 0)
+            return Contour;
+
+        CContour Lower = Contours.get(Below.OutputContour);
+        if (Below.ResultTransition > 0) {
+            // Inside, so a hole of the polygon the one below is part of.
+            int nParent = Lower.HoleOf >= 0 ? Lower.HoleOf : Below.OutputContour;
+            Contour.HoleOf = nParent;
+            Contours.get(nParent).Holes.add(Contours.size());
+        }
+        return Contour;
+    }
+
+    /**
+     * The next event to follow from the one at the position, another at the same point if there
+     * is one not yet used.
+     */
+    private static int NextPos(int nPos, ArrayList<CSweepEvent> ResultEvents, boolean[] Done, int nOrigin) {
+        int nCount = ResultEvents.size();
+        int nNext = nPos + 1;
+        CSweepEvent Event = ResultEvents.get(nPos);
+        while (nNext < nCount && ResultEvents.get(nNext).SamePoint(Event)) {
+            if (!Done[nNext])
+                return nNext;
+            nNext++;
+        }
+
+        nNext = nPos - 1;
+        while (nNext > nOrigin && Done[nNext])
+            nNext--;
+        return nNext;
+    }
+
+    /**
+     * Makes the polygons from the rings, each outside ring with its holes.
+     */
+    private static ArrayList<C2DHoledPolyBase> MakePolygons(ArrayList<CContour> Contours) {
+        ArrayList<C2DHoledPolyBase> Polygons = new ArrayList<C2DHoledPolyBase>();
+        for (int i = 0; i < Contours.size(); i++) {
+            CContour Contour = Contours.get(i);
+            if (Contour.HoleOf >= 0)
+                continue;
+            C2DPolyBase Rim = Contour.MakePolygon();
+            if (Rim == null)
+                continue;
+
+            C2DHoledPolyBase Polygon = new C2DHoledPolyBase();
+            Polygon.Rim = Rim;
+            for (int h = 0; h < Contour.Holes.size(); h++) {
+                C2DPolyBase Hole = Contours.get(Contour.Holes.get(h)).MakePolygon();
+                if (Hole != null)
+                    Polygon.AddHole(Hole);
+            }
+            Polygons.add(Polygon);
+        }
+        return Polygons;
+    }
+
+    /**
+     * Orders events left to right, then bottom to top, right ends before left ends at the same
+     * point, then lower segments first.
+     */
+    private static int CompareEvents(CSweepEvent E1, CSweepEvent E2) {
+        if (E1.x != E2.x)
+            return E1.x > E2.x ? 1 : -1;
+        if (E1.y != E2.y)
+            return E1.y > E2.y ? 1 : -1;
+        if (E1.Left != E2.Left)
+            return E1.Left ? 1 : -1;
+        if (SignedArea(E1.x, E1.y, E1.Other.x, E1.Other.y, E2.Other.x, E2.Other.y) != 0)
+            return E1.IsBelow(E2.Other.x, E2.Other.y) ? -1 : 1;
+        if (E1.Subject != E2.Subject)
+            return E1.Subject ? -1 : 1;
+        return E1.Id < E2.Id ? -1 : (E1.Id > E2.Id ? 1 : 0);
+    }
+
+    /**
+     * Orders the segments crossing the sweep line from bottom to top.
+     */
+    private static int CompareSegments(CSweepEvent Le1, CSweepEvent Le2) {
+        if (Le1 == Le2)
+            return 0;
+
+        if (SignedArea(Le1.x, Le1.y, Le1.Other.x, Le1.Other.y, Le2.x, Le2.y) != 0 ||
+                SignedArea(Le1.x, Le1.y, Le1.Other.x, Le1.Other.y, Le2.Other.x, Le2.Other.y) != 0) {
+            // Not on the same line.
+            if (Le1.SamePoint(Le2))
+                return Le1.IsBelow(Le2.Other.x, Le2.Other.y) ? -1 : 1;
+            if (Le1.x == Le2.x)
+                return Le1.y < Le2.y ? -1 : 1;
+            // The one added later is on the other at its left end, so use its right end.
+            if (CompareEvents(Le1, Le2) > 0) {
+                double dArea = SignedArea(Le2.x, Le2.y, Le2.Other.x, Le2.Other.y, Le1.x, Le1.y);
+                if (dArea == 0)
+                    dArea = SignedArea(Le2.x, Le2.y, Le2.Other.x, Le2.Other.y, Le1.Other.x, Le1.Other.y);
+                return dArea > 0 ? 1 : -1;
+            }
+            double dArea = SignedArea(Le1.x, Le1.y, Le1.Other.x, Le1.Other.y, Le2.x, Le2.y);
+            if (dArea == 0)
+                dArea = SignedArea(Le1.x, Le1.y, Le1.Other.x, Le1.Other.y, Le2.Other.x, Le2.Other.y);
+            return dArea > 0 ? -1 : 1;
+        }
+
+        // On the same line.
+        if (Le1.Subject != Le2.Subject)
+            return Le1.Subject ? -1 : 1;
+        if (Le1.SamePoint(Le2)) {
+            if (Le1.Contour != Le2.Contour)
+                return Le1.Contour > Le2.Contour ? 1 : -1;
+            return Le1.Id < Le2.Id ? -1 : 1;
+        }
+        return CompareEvents(Le1, Le2) > 0 ? 1 : -1;
+    }
+
+    /**
+     * Twice the signed area of the triangle, positive if anticlockwise.
+     */
+    private static double SignedArea(double x0, double y0, double x1, double y1, double x2, double y2) {
+        return (x0 - x2) * (y1 - y2) - (x1 - x2) * (y0 - y2);
+    }
+
+    private static final Comparator<CSweepEvent> EventOrder = new Comparator<CSweepEvent>() {
+        public int compare(CSweepEvent E1, CSweepEvent E2) {
+            return CompareEvents(E1, E2);
+        }
+    };
+
+    private static final Comparator<CSweepEvent> SegmentOrder = new Comparator<CSweepEvent>() {
+        public int compare(CSweepEvent Le1, CSweepEvent Le2) {
+            return CompareSegments(Le1, Le2);
+        }
+    };
+
+    /**
+     * An end of a segment.
+     */
+    private static final class CSweepEvent {
+        CSweepEvent(double x, double y, boolean bSubject, long lId) {
+            this.x = x;
+            this.y = y;
+            Subject = bSubject;
+            Id = lId;
+        }
+
+        boolean SamePoint(CSweepEvent Other) {
+            return x == Other.x && y == Other.y;
+        }
+
+        boolean SamePoint(double dx, double dy) {
+            return x == dx && y == dy;
+        }
+
+        /**
+         * True if the segment is below the point.
+         */
+        boolean IsBelow(double px, double py) {
+            return Left ? SignedArea(x, y, Other.x, Other.y, px, py) > 0
+                    : SignedArea(Other.x, Other.y, x, y, px, py) > 0;
+        }
+
+        boolean IsVertical() {
+            return x == Other.x;
+        }
+
+        final double x;
+        final double y;
+        final boolean Subject;
+        final long Id;
+        boolean Left;
+        CSweepEvent Other;
+        int Contour;
+        int Type = const_nNormal;
+
+        /**
+         * True if the segment is a change from inside to outside its own set going up.
+         */
+        boolean InOut;
+
+        /**
+         * True if the segment is outside the other set.
+         */
+        boolean OtherInOut;
+
+        /**
+         * The nearest segment below in the result.
+         */
+        CSweepEvent PrevInResult;
+
+        /**
+         * 1 if the result is above, -1 if below, 0 if not in the result.
+         */
+        int ResultTransition;
+        int OutputContour = -1;
+        int Pos;
+    }
+
+    /**
+     * A ring of the result.
+     */
+    private static final class CContour {
+        void Add(CSweepEvent Event) {
+            if (Count == X.length) {
+                X = java.util.Arrays.copyOf(X, Count * 2);
+                Y = java.util.Arrays.copyOf(Y, Count * 2);
+            }
+            X[Count] = Event.x;
+            Y[Count] = Event.y;
+            Count++;
+        }
+
+        /**
+         * Makes the ring into a clockwise polygon, null if it has no area.
+         */
+        C2DPolyBase MakePolygon() {
+            int nCount = Count;
+            if (nCount > 1 && X[nCount - 1] == X[0] && Y[nCount - 1] == Y[0])
+                nCount--;
+            if (nCount < 3)
+                return null;
+
+            double dArea = 0;
+            for (int i = 0; i < nCount; i++) {
+                int j = (i + 1) % nCount;
+                dArea += X[i] * Y[j] - X[j] * Y[i];
+            }
+            if (dArea == 0)
+                return null;
+
+            C2DLineBaseSet Lines = new C2DLineBaseSet();
+            for (int i = 0; i < nCount; i++) {
+                int nFrom = dArea < 0 ? i : nCount - 1 - i;
+                int nTo = dArea < 0 ? (i + 1) % nCount : (2 * nCount - 2 - i) % nCount;
+                Lines.add(new C2DLine(new C2DPoint(X[nFrom], Y[nFrom]), new C2DPoint(X[nTo], Y[nTo])));
+            }
+
+            C2DPolyBase Polygon = new C2DPolyBase();
+            Polygon.CreateDirect(Lines);
+            return Polygon;
+        }
+
+        double[] X = new double[8];
+        double[] Y = new double[8];
+        int Count;
+        int HoleOf = -1;
+        ArrayList<Integer> Holes = new ArrayList<Integer>();
+    }
+
+    private static final int const_nNormal = 0;
+    private static final int const_nNonContributing = 1;
+    private static final int const_nSameTransition = 2;
+    private static final int const_nDifferentTransition = 3;
+
+    private eOperation Operation;
+    private long NextId;
+    private PriorityQueue<CSweepEvent> Queue;
+    private TreeSet<CSweepEvent> Status;
+}
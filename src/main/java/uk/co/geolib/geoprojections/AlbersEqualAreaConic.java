@@ -86,6 +86,48 @@ public class AlbersEqualAreaConic extends Projection {
         rLatLong.SetLongDegrees(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double dn = m_dn;
+        double dC = m_dC;
+        double dP0 = m_dP0;
+        double dOriginLong = m_dOriginLong;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dLongX = Long[i] * Constants.conRadiansPerDegree;
+
+            double theta = dn * (dLongX - dOriginLong);
+            double dP = Math.sqrt(dC - 2 * dn * Math.sin(dLatY)) / dn;
+
+            outX[i] = dP * Math.sin(theta);
+            outY[i] = dP0 - dP * Math.cos(theta);
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double dn = m_dn;
+        double dC = m_dC;
+        double dP0 = m_dP0;
+        double dOriginLong = m_dOriginLong;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dP0LessY = dP0 - y[i];
+
+            double theta = Math.atan2(dLongX, dP0LessY);
+            double dP = Math.sqrt(dLongX * dLongX + dP0LessY * dP0LessY);
+
+            outLat[i] = Math.asin((dC - dP * dP * dn * dn) / (2 * dn)) * Constants.conDegreesPerRadian;
+            outLong[i] = (dOriginLong + theta / dn) * Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      *
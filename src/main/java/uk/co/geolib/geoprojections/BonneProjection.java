@@ -96,6 +96,61 @@ public class BonneProjection extends Projection {
         rLatLong.SetLongDegrees(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double cot_SP = m_cot_SP;
+        double dCentralMeridian = m_dCentralMeridian;
+        double dPLessLat = m_cot_SP + m_dStandardParallel;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dLongX = Long[i] * Constants.conRadiansPerDegree;
+
+            double dP = dPLessLat - dLatY;
+            double dE = (dLongX - dCentralMeridian) * Math.cos(dLatY) / dP;
+
+            outX[i] = dP * Math.sin(dE);
+            outY[i] = cot_SP - dP * Math.cos(dE);
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double cot_SP = m_cot_SP;
+        double dCentralMeridian = m_dCentralMeridian;
+        double dPPlusLat = m_cot_SP + m_dStandardParallel;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            double cot_SPLessY = cot_SP - dLatY;
+            double dP = Math.sqrt(dLongX * dLongX + cot_SPLessY * cot_SPLessY);
+            if (dLatY >= cot_SP)
+                dP = -dP;
+
+            double dLat = dPPlusLat - dP;
+            // Same fix as the single point version around the extremes of longitude.
+            boolean bfix = false;
+            if (dLat > Constants.conHALFPI) {
+                bfix = true;
+                dLat = dPPlusLat + dP;
+            }
+
+            double dA = Math.atan2(dLongX, cot_SPLessY);
+            double dLong = dCentralMeridian + (dP * dA) / Math.cos(dLat);
+            if (bfix)
+                dLong *= -1;
+
+            outLat[i] = dLat * Constants.conDegreesPerRadian;
+            outLong[i] = dLong * Constants.conDegreesPerRadian;
+        }
+    }
+
     /**
      * Sets the origin.
      */
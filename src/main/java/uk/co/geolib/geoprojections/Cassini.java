@@ -77,6 +77,37 @@ public class Cassini extends Projection {
         rLatLong.SetLong(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dDLong = Long[i] * Constants.conRadiansPerDegree - dStandardLongitude;
+
+            outX[i] = Math.asin(Math.cos(dLatY) * Math.sin(dDLong));
+            outY[i] = Math.atan2(Math.tan(dLatY), Math.cos(dDLong));
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dD = y[i] + dStandardLongitude;
+
+            outLat[i] = Math.asin(Math.sin(dD) * Math.cos(dLongX)) * Constants.conDegreesPerRadian;
+            outLong[i] = (dStandardLongitude + Math.atan2(Math.tan(dLongX), Math.cos(dD))) *
+                    Constants.conDegreesPerRadian;
+        }
+    }
+
     /**
      * Set Standard Longitude.
      */
@@ -93,6 +93,48 @@ public class ConicEquidistant extends Projection {
         rLatLong.SetLong(dLongX);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double dn = m_dn;
+        double dG = m_dG;
+        double dP0 = m_dP0;
+        double dOriginLong = m_dOriginLong;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dTheta = dn * (Long[i] * Constants.conRadiansPerDegree - dOriginLong);
+            double dP = dG - Lat[i] * Constants.conRadiansPerDegree;
+
+            outX[i] = dP * Math.sin(dTheta);
+            outY[i] = dP0 - dP * Math.cos(dTheta);
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double dn = m_dn;
+        double dG = m_dG;
+        double dP0 = m_dP0;
+        double dOriginLong = m_dOriginLong;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dP0LessY = dP0 - y[i];
+
+            double dP = Math.sqrt(dLongX * dLongX + dP0LessY * dP0LessY);
+            if (dn < 0)
+                dP = -dP;
+
+            double dTheta = Math.atan2(dLongX, dP0LessY);
+
+            outLat[i] = (dG - dP) * Constants.conDegreesPerRadian;
+            outLong[i] = (dOriginLong + dTheta / dn) * Constants.conDegreesPerRadian;
+        }
+    }
+
     /**
      *
      */
@@ -69,6 +69,38 @@ public class CylindricalEquidistant extends Projection {
         rLatLong.SetLong(dLongX);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double cos_SL = Math.cos(m_dStandardLatitude);
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dLongX = Long[i] * Constants.conRadiansPerDegree;
+
+            outX[i] = (dLongX - dStandardLongitude) * cos_SL;
+            outY[i] = dLatY;
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double cos_SL = Math.cos(m_dStandardLatitude);
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            outLat[i] = dLatY * Constants.conDegreesPerRadian;
+            outLong[i] = (dStandardLongitude + dLongX / cos_SL) * Constants.conDegreesPerRadian;
+        }
+    }
+
     /**
      *
      */
@@ -114,6 +114,69 @@ public class EckertIV extends Projection {
         rLatLong.SetLong(dLongX);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y. Points for which the iteration does not
+     * converge are set to NaN.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double dTolerance = 0.00000001;
+        int nMaxIt = 50;
+        double dStandardLongitude = m_dStandardLongitude;
+        double dSinLatFactor = 2.0 + Constants.conHALFPI;
+        double dXFactor = 2.0 / Math.sqrt(Constants.conPI * (4.0 + Constants.conPI));
+        double dYFactor = 2.0 * Math.sqrt(Constants.conPI / (4.0 + Constants.conPI));
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dLongX = Long[i] * Constants.conRadiansPerDegree;
+
+            double theta1 = dLatY / 2.0; // Iteration start at lat / 2
+            double theta0 = theta1 + dTolerance * 10.0;
+            int nIt = 0;
+            double sin_lat = Math.sin(dLatY);
+            while (Math.abs(theta1 - theta0) > dTolerance && nIt < nMaxIt) {
+                theta0 = theta1;
+                double dSinTheta = Math.sin(theta0);
+                double dCosTheta = Math.cos(theta0);
+                theta1 -= (theta0 + dSinTheta * dCosTheta + 2.0 * dSinTheta - dSinLatFactor * sin_lat) /
+                        (2.0 * dCosTheta * (1.0 + dCosTheta));
+                nIt++;
+            }
+
+            if (nIt == nMaxIt) {
+                outX[i] = Double.NaN;
+                outY[i] = Double.NaN;
+            } else {
+                outX[i] = (dLongX - dStandardLongitude) * (1.0 + Math.cos(theta1)) * dXFactor;
+                outY[i] = dYFactor * Math.sin(theta1);
+            }
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double dStandardLongitude = m_dStandardLongitude;
+        double dSinThetaFactor = Math.sqrt((4.0 + Constants.conPI) / Constants.conPI) / 2.0;
+        double dLatFactor = 2.0 + Constants.conHALFPI;
+        double dLongFactor = 1.00730304626 * Constants.conPI / Math.sqrt(1.0 + Constants.conHALFPI / 2.0);
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            double sin_theta = dLatY * dSinThetaFactor;
+            double theta = Math.asin(sin_theta);
+            double cos_theta = Math.cos(theta);
+
+            outLat[i] = Math.asin((theta + sin_theta * cos_theta + 2.0 * sin_theta) / dLatFactor) *
+                    Constants.conDegreesPerRadian;
+            outLong[i] = (dStandardLongitude + dLongFactor * dLongX / (1.0 + cos_theta)) *
+                    Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      * Sets the standard longitude.
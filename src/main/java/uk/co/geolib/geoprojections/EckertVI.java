@@ -106,6 +106,60 @@ public class EckertVI extends Projection {
         rLatLong.SetLong(dLongX);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y. Points for which the iteration does not
+     * converge are set to NaN.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double dTolerance = 0.00000001;
+        int nMaxIt = 50;
+        double dStandardLongitude = m_dStandardLongitude;
+        double dSinLatFactor = 1 + Constants.conHALFPI;
+        double dDen = Math.sqrt(2 + Constants.conPI);
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dLongX = Long[i] * Constants.conRadiansPerDegree;
+
+            double theta1 = dLatY; // Iteration start at lat
+            double theta0 = theta1 + dTolerance * 10;
+            int nIt = 0;
+            double sin_lat = Math.sin(dLatY);
+            while (Math.abs(theta1 - theta0) > dTolerance && nIt < nMaxIt) {
+                theta0 = theta1;
+                theta1 -= (theta0 + Math.sin(theta0) - dSinLatFactor * sin_lat) /
+                        (1 + Math.cos(theta0));
+                nIt++;
+            }
+
+            if (nIt == nMaxIt) {
+                outX[i] = Double.NaN;
+                outY[i] = Double.NaN;
+            } else {
+                outX[i] = (dLongX - dStandardLongitude) * (1 + Math.cos(theta1)) / dDen;
+                outY[i] = 2 * theta1 / dDen;
+            }
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double dStandardLongitude = m_dStandardLongitude;
+        double dA = Math.sqrt(2 + Constants.conPI);
+        double dLatFactor = 1 + Constants.conHALFPI;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double theta = 0.5 * dA * y[i];
+
+            outLat[i] = Math.asin((theta + Math.sin(theta)) / dLatFactor) * Constants.conDegreesPerRadian;
+            outLong[i] = (dStandardLongitude + (dA * dLongX) / (1 + Math.cos(theta))) *
+                    Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      *
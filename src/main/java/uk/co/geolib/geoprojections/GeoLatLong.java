@@ -319,6 +319,117 @@ public class GeoLatLong {
     }
 
 
+    /**
+     * Calculates the range and heading from this to each of the lat longs (in degrees) from index nOff
+     * to nOff + nLen - 1 of the arrays given. Ranges are in metres and headings in radians. The output
+     * arrays may be the input arrays.
+     */
+    public void RangeAndHeading(double[] Lat, double[] Long, double[] RangesMetres, double[] Headings,
+                                int nOff, int nLen) {
+        double sin_lat = Math.sin(m_dLat);
+        double cos_lat = Math.cos(m_dLat);
+
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double latO = Lat[i] * Constants.conRadiansPerDegree;
+            double longO = Long[i] * Constants.conRadiansPerDegree;
+
+            if (m_dLat == latO && m_dLong == longO) {
+                RangesMetres[i] = 0.0;
+                Headings[i] = 0.0;
+                continue;
+            }
+
+            double sin_latO = Math.sin(latO);
+            double cos_alpha = sin_latO * sin_lat + Math.cos(latO) * cos_lat * Math.cos(longO - m_dLong);
+            double alpha = Math.acos(cos_alpha);
+
+            RangesMetres[i] = alpha * Constants.conEARTH_RADIUS_METRES;
+            Headings[i] = GetHeading(latO, longO, sin_lat, cos_lat, sin_latO, cos_alpha, alpha);
+        }
+    }
+
+
+    /**
+     * The heading in radians to another location given the terms already calculated for the range.
+     * Follows RangeAndHeading.
+     */
+    private double GetHeading(double latO, double longO, double sin_lat, double cos_lat,
+                              double sin_latO, double cos_alpha, double alpha) {
+        //check to see if they are on the same line of longitude
+        if (m_dLong == longO) {
+            if (m_dLat > latO)
+                return Constants.conPI;
+            else
+                return 0.0;
+        }
+
+        if (Math.abs(latO) == Constants.conHALFPI) {
+            //check to see if the first is at the south pole or the second is at the north pole
+            if ((m_dLat == -Constants.conHALFPI) | (latO == Constants.conHALFPI))
+                return 0.0;
+
+            //check to see if the first is at the north pole or the second is at the south
+            if ((m_dLat == Constants.conHALFPI) | (latO == -Constants.conHALFPI))
+                return Constants.conPI;
+        }
+
+        double hdng;
+
+        if (longO > m_dLong) {
+            hdng = Math.acos((sin_latO - sin_lat * cos_alpha) / (cos_lat * Math.sin(alpha)));
+            if ((longO - m_dLong) > Constants.conPI) {
+                // gone from e.g. e179 to w179
+                hdng = Constants.conTWOPI - hdng;
+            }
+        } else {
+            hdng = Constants.conTWOPI - Math.acos((sin_latO - sin_lat * cos_alpha) / (cos_lat * Math.sin(alpha)));
+            if ((m_dLong - longO) > Constants.conPI) {
+                // gone from e.g. w179 to e179
+                hdng = Constants.conTWOPI - hdng;
+            }
+        }
+
+        if (hdng == Constants.conTWOPI)
+            return 0.0;
+
+        return hdng;
+    }
+
+
+    /**
+     * Calculates the lat longs (in degrees) at each heading and range from this as the origin, for
+     * index nOff to nOff + nLen - 1 of the arrays given. Ranges are in metres and headings in radians.
+     * The output arrays may be the input arrays.
+     */
+    public void GetLatLongs(double[] Headings, double[] RangesMetres, double[] outLat, double[] outLong,
+                            int nOff, int nLen) {
+        double sin_Olat = Math.sin(m_dLat);
+        double cos_Olat = Math.cos(m_dLat);
+        double longO = m_dLong;
+
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dHeading = Headings[i];
+            // alpha is the angular Distance travelled round the earths surface
+            double alpha = RangesMetres[i] / Constants.conEARTH_RADIUS_METRES;
+            double sin_alpha = Math.sin(alpha);
+            double cos_alpha = Math.cos(alpha);
+
+            double dLat = Math.asin(sin_Olat * cos_alpha + cos_Olat * sin_alpha * Math.cos(dHeading));
+            double dLong = longO + Math.atan2(Math.sin(dHeading) * sin_alpha * cos_Olat, cos_alpha - sin_Olat * Math.sin(dLat));
+
+            while (dLong > Constants.conPI)
+                dLong -= Constants.conTWOPI;
+            while (dLong < -Constants.conPI)
+                dLong += Constants.conTWOPI;
+
+            outLat[i] = dLat * Constants.conDegreesPerRadian;
+            outLong[i] = dLong * Constants.conDegreesPerRadian;
+        }
+    }
+
+
     /**
      * Rotation.
      */
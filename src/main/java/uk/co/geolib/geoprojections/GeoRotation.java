@@ -29,6 +29,24 @@ public class GeoRotation extends Transformation {
         InverseRotate(dy, dx);
     }
 
+    /**
+     * Transform the given arrays of points. Lat longs are in degrees.
+     */
+    public void Transform(double[] x, double[] y, double[] outX, double[] outY, int nOff, int nLen) {
+        // Ranges go into y and headings into x then on from a zero origin.
+        m_Origin.RangeAndHeading(y, x, outY, outX, nOff, nLen);
+        new GeoLatLong().GetLatLongs(outX, outY, outY, outX, nOff, nLen);
+    }
+
+    /**
+     * Inverse transform the given arrays of points. Lat longs are in degrees.
+     */
+    public void InverseTransform(double[] x, double[] y, double[] outX, double[] outY, int nOff, int nLen) {
+        // Ranges go into y and headings into x then on from the origin.
+        new GeoLatLong().RangeAndHeading(y, x, outY, outX, nOff, nLen);
+        m_Origin.GetLatLongs(outX, outY, outY, outX, nOff, nLen);
+    }
+
 
     /**
      * Set origin.
@@ -97,6 +97,54 @@ public class Gnomonic extends Projection {
         rLatLong.SetLongDegrees(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double sin_Olat = Math.sin(m_dStandardLatitude);
+        double cos_Olat = Math.cos(m_dStandardLatitude);
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dDLong = Long[i] * Constants.conRadiansPerDegree - dStandardLongitude;
+
+            double cos_lat = Math.cos(dLatY);
+            double sin_lat = Math.sin(dLatY);
+            double cos_Dlong = Math.cos(dDLong);
+            double cos_C = sin_Olat * sin_lat + cos_Olat * cos_lat * cos_Dlong;
+
+            outX[i] = cos_lat * Math.sin(dDLong) / cos_C;
+            outY[i] = (cos_Olat * sin_lat - sin_Olat * cos_lat * cos_Dlong) / cos_C;
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double sin_Olat = Math.sin(m_dStandardLatitude);
+        double cos_Olat = Math.cos(m_dStandardLatitude);
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            double P = Math.sqrt(dLongX * dLongX + dLatY * dLatY);
+            double C = Math.atan(P);
+            double sin_C = Math.sin(C);
+            double cos_C = Math.cos(C);
+
+            double dLat = Math.asin(cos_C * sin_Olat + (dLatY * sin_C * cos_Olat) / P);
+            double dLong = dStandardLongitude +
+                    Math.atan2(dLongX * sin_C, (P * cos_Olat * cos_C - dLatY * sin_Olat * sin_C));
+
+            outLat[i] = dLat * Constants.conDegreesPerRadian;
+            outLong[i] = dLong * Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      *
@@ -81,6 +81,41 @@ public class HorizontalRangeHeading extends Projection {
         rLatLong.SetLongDegrees(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        // Ranges go into y and headings into x to start with.
+        m_Origin.RangeAndHeading(Lat, Long, outY, outX, nOff, nLen);
+
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dRange = Constants.conEARTH_RADIUS_METRES * Math.sin(outY[i] / Constants.conEARTH_RADIUS_METRES);
+            double dHeading = outX[i];
+
+            outY[i] = dRange * Math.cos(dHeading);
+            outX[i] = dRange * Math.sin(dHeading);
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        // Headings go into the longitudes and ranges into the latitudes to start with.
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            double dRange = Math.sqrt(dLongX * dLongX + dLatY * dLatY);
+            outLong[i] = Math.atan2(dLongX, dLatY);
+            outLat[i] = Math.asin(dRange / Constants.conEARTH_RADIUS_METRES) * Constants.conEARTH_RADIUS_METRES;
+        }
+
+        m_Origin.GetLatLongs(outLong, outLat, outLat, outLong, nOff, nLen);
+    }
+
 
     /**
      *
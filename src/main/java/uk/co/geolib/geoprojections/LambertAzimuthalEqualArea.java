@@ -109,6 +109,63 @@ public class LambertAzimuthalEqualArea extends Projection {
         rLatLong.SetLongDegrees(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double sin_SP = Math.sin(m_dStandardParallel);
+        double cos_SP = Math.cos(m_dStandardParallel);
+        double dCentralLongitude = m_dCentralLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dDLong = Long[i] * Constants.conRadiansPerDegree - dCentralLongitude;
+
+            double sin_lat = Math.sin(dLatY);
+            double cos_lat = Math.cos(dLatY);
+            double cos_Dlong = Math.cos(dDLong);
+
+            double dK = Math.sqrt(2.0 / (1 + sin_SP * sin_lat + cos_SP * cos_lat * cos_Dlong));
+
+            outX[i] = dK * cos_lat * Math.sin(dDLong);
+            outY[i] = dK * (cos_SP * sin_lat - sin_SP * cos_lat * cos_Dlong);
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double sin_SP = -Math.sin(m_dStandardParallel);
+        double cos_SP = Math.cos(m_dStandardParallel);
+        double dCentralLongitude = m_dCentralLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            double P1 = dLongX * dLongX + dLatY * dLatY;
+            double P = Math.sqrt(P1);
+            double C = 2 * Math.asin(0.5 * P);
+            double cos_C = Math.cos(C);
+            double sin_C = Math.sin(C);
+
+            double dLat = Math.asin(cos_C * sin_SP + (dLatY * sin_C * cos_SP) / P);
+
+            double dLong = dCentralLongitude + Math.atan(dLongX * sin_C /
+                    (P * cos_SP * cos_C - dLatY * sin_SP * sin_C));
+            if (P1 >= 2) {
+                if (dLongX > 0)
+                    dLong += Constants.conPI;
+                else
+                    dLong -= Constants.conPI;
+            }
+
+            outLat[i] = dLat * Constants.conDegreesPerRadian;
+            outLong[i] = dLong * Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      *
@@ -96,6 +96,52 @@ public class LambertConformalConic extends Projection {
         rLatLong.SetLong(dLongX);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double dn = m_dn;
+        double dF = m_dF;
+        double dOriginLong = m_dOriginLong;
+        double p0 = dF * Math.pow(1 / Math.tan(Constants.conQUARTPI + m_dOriginLat / 2), dn);
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dTheta = dn * (Long[i] * Constants.conRadiansPerDegree - dOriginLong);
+
+            double p = dF * Math.pow(1 / Math.tan(Constants.conQUARTPI + dLatY / 2), dn);
+
+            outX[i] = p * Math.sin(dTheta);
+            outY[i] = p0 - p * Math.cos(dTheta);
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double dn = m_dn;
+        double dF = m_dF;
+        double dInvN = 1 / m_dn;
+        double dOriginLong = m_dOriginLong;
+        double p0 = dF * Math.pow(1 / Math.tan(Constants.conQUARTPI + m_dOriginLat / 2), dn);
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dP0LessY = p0 - y[i];
+
+            double p = Math.sqrt(dLongX * dLongX + dP0LessY * dP0LessY);
+            if (dn < 0)
+                p = -p;
+
+            double theta = Math.atan(dLongX / dP0LessY);
+
+            outLat[i] = (2 * Math.atan(Math.pow(dF / p, dInvN)) - Constants.conHALFPI) *
+                    Constants.conDegreesPerRadian;
+            outLong[i] = (dOriginLong + theta / dn) * Constants.conDegreesPerRadian;
+        }
+    }
+
     /**
      *
      */
@@ -71,6 +71,36 @@ public class Mercator extends Projection {
         rLatLong.SetLong(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dLongX = Long[i] * Constants.conRadiansPerDegree;
+
+            outX[i] = dLongX - dStandardLongitude;
+            outY[i] = Math.log(Math.tan(dLatY) + 1 / Math.cos(dLatY));
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            outLat[i] = Math.atan(Math.sinh(dLatY)) * Constants.conDegreesPerRadian;
+            outLong[i] = (dLongX + dStandardLongitude) * Constants.conDegreesPerRadian;
+        }
+    }
+
     /**
      *
      */
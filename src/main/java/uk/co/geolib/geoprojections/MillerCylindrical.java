@@ -74,6 +74,38 @@ public class MillerCylindrical extends Projection {
         rLatLong.SetLong(dLongX);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dLongX = Long[i] * Constants.conRadiansPerDegree;
+
+            outX[i] = dLongX - dStandardLongitude;
+            outY[i] = 1.25 * Math.log(Math.tan(Constants.conQUARTPI + 0.2 * dLatY));
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double dStandardLongitude = m_dStandardLongitude;
+        double dLatOffset = 1.25 * Constants.conPI;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            outLat[i] = (5 * Math.atan(Math.pow(Constants.conE, 0.8 * dLatY)) - dLatOffset) *
+                    Constants.conDegreesPerRadian;
+            outLong[i] = (dLongX + dStandardLongitude) * Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      *
@@ -102,6 +102,60 @@ public class Mollweide extends Projection {
         rLatLong.SetLong(dLongX);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y. Points for which the iteration does not
+     * converge are set to NaN.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double dTolerance = 0.00000001;
+        int nMaxIt = 50;
+        double dStandardLongitude = m_dStandardLongitude;
+        double dXFactor = 2.0 * Constants.conRoot2 / Constants.conPI;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dLongX = Long[i] * Constants.conRadiansPerDegree;
+
+            double theta1 = 2 * Math.asin(2 * dLatY / Constants.conPI); // Iteration start
+            double theta0 = theta1 + dTolerance * 10.0;
+            int nIt = 0;
+            double sin_lat = Math.sin(dLatY);
+            while (Math.abs(theta1 - theta0) > dTolerance && nIt < nMaxIt) {
+                theta0 = theta1;
+                theta1 -= (theta0 + Math.sin(theta0) - Constants.conPI * sin_lat) /
+                        (1 + Math.cos(theta0));
+                nIt++;
+            }
+
+            if (nIt == nMaxIt) {
+                outX[i] = Double.NaN;
+                outY[i] = Double.NaN;
+            } else {
+                theta1 = theta1 / 2.0;
+                outX[i] = dXFactor * (dLongX - dStandardLongitude) * Math.cos(theta1);
+                outY[i] = Constants.conRoot2 * Math.sin(theta1);
+            }
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double dStandardLongitude = m_dStandardLongitude;
+        double dLongFactor = Constants.conPI / (2 * Constants.conRoot2);
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double theta = Math.asin(y[i] / Constants.conRoot2);
+
+            outLat[i] = Math.asin((2 * theta + Math.sin(2 * theta)) / Constants.conPI) *
+                    Constants.conDegreesPerRadian;
+            outLong[i] = (dStandardLongitude + dLongFactor * dLongX / Math.cos(theta)) *
+                    Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      *
@@ -92,6 +92,51 @@ public class Orthographic extends Projection {
         rLatLong.SetLongDegrees(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double sin_olat = Math.sin(m_dStandardLatitude);
+        double cos_olat = Math.cos(m_dStandardLatitude);
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dDLong = Long[i] * Constants.conRadiansPerDegree - dStandardLongitude;
+
+            double cos_Lat = Math.cos(dLatY);
+
+            outX[i] = cos_Lat * Math.sin(dDLong);
+            outY[i] = cos_olat * Math.sin(dLatY) - sin_olat * cos_Lat * Math.cos(dDLong);
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double sin_olat = Math.sin(m_dStandardLatitude);
+        double cos_olat = Math.cos(m_dStandardLatitude);
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            double p = Math.sqrt(dLongX * dLongX + dLatY * dLatY);
+            double c = Math.asin(p);
+            double cos_c = Math.cos(c);
+            double sin_c = Math.sin(c);
+
+            double dLat = Math.asin(cos_c * sin_olat + dLatY * sin_c * cos_olat / p);
+            double dLong = dStandardLongitude +
+                    Math.atan2(dLongX * sin_c, p * cos_olat * cos_c - dLatY * sin_olat * sin_c);
+
+            outLat[i] = dLat * Constants.conDegreesPerRadian;
+            outLong[i] = dLong * Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      *
@@ -104,6 +104,60 @@ public class Polyconic extends Projection {
         rLatLong.SetLongDegrees(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double dStandardLatitude = m_dStandardLatitude;
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dLongX = Long[i] * Constants.conRadiansPerDegree;
+
+            double E = (dLongX - dStandardLongitude) * Math.sin(dLatY);
+            double tan_lat = Math.tan(dLatY);
+
+            outX[i] = Math.sin(E) / tan_lat;
+            outY[i] = (dLatY - dStandardLatitude) + (1 - Math.cos(E)) / tan_lat;
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double dTolerance = 0.00000001;
+        int nMaxIt = 500;
+        double dStandardLatitude = m_dStandardLatitude;
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            double A = dStandardLatitude + dLatY;
+            double B = dLongX * dLongX + A * A;
+
+            double theta1 = A;
+            if (dLongX != 0)
+                theta1 = A * Math.abs(dLongX) * 0.1; // Iteration start
+            double theta0 = theta1 + dTolerance * 10.0;
+            int nIt = 0;
+            while (Math.abs(theta1 - theta0) > dTolerance && nIt < nMaxIt) {
+                theta0 = theta1;
+                double tan_theta = Math.tan(theta0);
+                theta1 -= (A * (theta0 * tan_theta + 1) - theta0 - 0.5 * (theta0 * theta0 + B) * tan_theta) /
+                        ((theta0 - A) / tan_theta - 1);
+                nIt++;
+            }
+
+            outLat[i] = theta1 * Constants.conDegreesPerRadian;
+            outLong[i] = (Math.asin(dLongX * Math.tan(theta1)) / Math.sin(theta1) + dStandardLongitude) *
+                    Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      *
@@ -28,6 +28,32 @@ public abstract class Projection extends Transformation {
     /// Project the given x y to lat long using the input lat long class to get the result.
     public abstract void InverseProject(GeoLatLong rLatLong, double dX, double dY);
 
+    /**
+     * Project the lat longs from index nOff to nOff + nLen - 1 of the input arrays to x, y in the same
+     * positions of the output arrays. Lat longs are in degrees. The output arrays may be the input arrays.
+     *
+     * @param Lat  The latitudes.
+     * @param Long The longitudes.
+     * @param outX Output. The x values.
+     * @param outY Output. The y values.
+     * @param nOff The index of the first point.
+     * @param nLen The number of points.
+     */
+    public abstract void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen);
+
+    /**
+     * Project the x y values from index nOff to nOff + nLen - 1 of the input arrays to lat long in the same
+     * positions of the output arrays. Lat longs are in degrees. The output arrays may be the input arrays.
+     *
+     * @param x       The x values.
+     * @param y       The y values.
+     * @param outLat  Output. The latitudes.
+     * @param outLong Output. The longitudes.
+     * @param nOff    The index of the first point.
+     * @param nLen    The number of points.
+     */
+    public abstract void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen);
+
     /**
      * Transform override function.
      */
@@ -42,6 +68,20 @@ public abstract class Projection extends Transformation {
         InverseProject(dy, dx);
     }
 
+    /**
+     * Transform override function for arrays of points.
+     */
+    public void Transform(double[] x, double[] y, double[] outX, double[] outY, int nOff, int nLen) {
+        Project(y, x, outX, outY, nOff, nLen);
+    }
+
+    /**
+     * Inverse transform override function for arrays of points.
+     */
+    public void InverseTransform(double[] x, double[] y, double[] outX, double[] outY, int nOff, int nLen) {
+        InverseProject(x, y, outY, outX, nOff, nLen);
+    }
+
 
     /**
      * GetProjectionName.
@@ -36,6 +36,36 @@ public class SlantRangeHeading extends LambertAzimuthalEqualArea {
 
         super.InverseProject(dLatY, dLongX);
     }
-}
 
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        super.Project(Lat, Long, outX, outY, nOff, nLen);
+
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            outX[i] *= Constants.conEARTH_RADIUS_METRES;
+            outY[i] *= Constants.conEARTH_RADIUS_METRES;
+        }
+    }
+
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        // Scale into the output arrays and project them in place.
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            outLong[i] = dLongX / Constants.conEARTH_RADIUS_METRES;
+            outLat[i] = dLatY / Constants.conEARTH_RADIUS_METRES;
+        }
+
+        super.InverseProject(outLong, outLat, outLat, outLong, nOff, nLen);
+    }
+}
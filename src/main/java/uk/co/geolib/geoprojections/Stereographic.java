@@ -94,6 +94,57 @@ public class Stereographic extends Projection {
         rLatLong.SetLongDegrees(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double sin_olat = Math.sin(m_dStandardLatitude);
+        double cos_olat = Math.cos(m_dStandardLatitude);
+        double dStandardLongitude = m_dStandardLongitude;
+        double dDiameter = 2 * Constants.conEARTH_RADIUS_METRES;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dDLong = Long[i] * Constants.conRadiansPerDegree - dStandardLongitude;
+
+            double sin_lat = Math.sin(dLatY);
+            double cos_lat = Math.cos(dLatY);
+            double cos_dlong = Math.cos(dDLong);
+
+            double k = dDiameter / (1 + sin_olat * sin_lat + cos_olat * cos_lat * cos_dlong);
+
+            outX[i] = k * cos_lat * Math.sin(dDLong);
+            outY[i] = k * (cos_olat * sin_lat - sin_olat * cos_lat * cos_dlong);
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double sin_olat = Math.sin(m_dStandardLatitude);
+        double cos_olat = Math.cos(m_dStandardLatitude);
+        double dStandardLongitude = m_dStandardLongitude;
+        double dDiameter = 2 * Constants.conEARTH_RADIUS_METRES;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            double p = Math.sqrt(dLongX * dLongX + dLatY * dLatY);
+            double c = 2 * Math.atan2(p, dDiameter);
+            double cos_c = Math.cos(c);
+            double sin_c = Math.sin(c);
+
+            double dLat = Math.asin(cos_c * sin_olat + dLatY * sin_c * cos_olat / p);
+            double dLong = Math.atan2(dLongX * sin_c, p * cos_olat * cos_c - dLatY * sin_olat * sin_c);
+            dLong += dStandardLongitude;
+
+            outLat[i] = dLat * Constants.conDegreesPerRadian;
+            outLong[i] = dLong * Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      *
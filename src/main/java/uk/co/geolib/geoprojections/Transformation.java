@@ -1,5 +1,4 @@
 
-
 package uk.co.geolib.geoprojections;
 
 /**
@@ -16,4 +15,30 @@ public abstract class Transformation {
      */
     public abstract void InverseTransform(double dx, double dy);
 
-};
\ No newline at end of file
+    /**
+     * Transform the points from index nOff to nOff + nLen - 1 of the input arrays into the same
+     * positions of the output arrays. The output arrays may be the input arrays.
+     *
+     * @param x    The x values.
+     * @param y    The y values.
+     * @param outX Output. The transformed x values.
+     * @param outY Output. The transformed y values.
+     * @param nOff The index of the first point.
+     * @param nLen The number of points.
+     */
+    public abstract void Transform(double[] x, double[] y, double[] outX, double[] outY, int nOff, int nLen);
+
+    /**
+     * Inverse transform the points from index nOff to nOff + nLen - 1 of the input arrays into the same
+     * positions of the output arrays. The output arrays may be the input arrays.
+     *
+     * @param x    The x values.
+     * @param y    The y values.
+     * @param outX Output. The inverse transformed x values.
+     * @param outY Output. The inverse transformed y values.
+     * @param nOff The index of the first point.
+     * @param nLen The number of points.
+     */
+    public abstract void InverseTransform(double[] x, double[] y, double[] outX, double[] outY, int nOff, int nLen);
+
+};
@@ -139,6 +139,89 @@ public class VanDerGrinten extends Projection {
         rLatLong.SetLongDegrees(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dLongX = Long[i] * Constants.conRadiansPerDegree;
+
+            double A1 = Constants.conPI / (dLongX - dStandardLongitude);
+            double A = 0.5 * Math.abs(A1 - 1.0 / A1);
+            double theta = Math.asin(Math.abs(2.0 * dLatY / Constants.conPI));
+            double cos_theta = Math.cos(theta);
+            double sin_theta = Math.sin(theta);
+            double G = cos_theta / (sin_theta + cos_theta - 1.0);
+            double P = G * (2.0 / sin_theta - 1.0);
+            double P2 = P * P;
+            double A2 = A * A;
+            double Q = A2 + G;
+            double P2A2 = P2 + A2;
+            double x0 = G - P2;
+            double x1 = A * x0;
+            double x2 = A2 * x0 * x0 - (P2A2) * (G * G - P2);
+
+            double x = Constants.conPI * (x1 + Math.sqrt(x2)) / P2A2;
+            if (dLongX < dStandardLongitude)
+                x = -x;
+
+            double y = Constants.conPI * Math.abs(P * Q - A * Math.sqrt((A2 + 1) * (P2A2) - Q * Q)) / P2A2;
+            if (dLatY < 0)
+                y = -y;
+
+            outX[i] = x;
+            outY[i] = y;
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            double X = dLongX / Constants.conPI;
+            double X2 = X * X;
+            double Y = dLatY / Constants.conPI;
+            double Y2 = Y * Y;
+            double X2Y2 = X2 + Y2;
+            double c1 = -Math.abs(Y) * (1 + X2Y2);
+            double c2 = c1 - 2.0 * Y2 + X2;
+            double c3 = -2.0 * c1 + 1 + 2 * Y2 + X2Y2 * X2Y2;
+            double d = Y2 / c3 + (2 * c2 * c2 * c2 / (c3 * c3 * c3) - 9 * c1 * c2 / (c3 * c3)) / 27.0;
+            double a1 = (c1 - c2 * c2 / (3 * c3)) / c3;
+            double m1 = 2 * Math.sqrt(-a1 / 3.0);
+            double theta1 = Math.acos(3.0 * d / (a1 * m1)) / 3.0;
+
+            double dLat = Constants.conPI * (-m1 * Math.cos(theta1 + Constants.conTHIRDPI) - c2 / (3 * c3));
+            if (dLatY < 0)
+                dLat = -dLat;
+
+            double dLong = Constants.conPI * (X2 + Y2 - 1 + Math.sqrt(1.0 + 2.0 * (X2 - Y2) + X2Y2 * X2Y2)) /
+                    (2.0 * X);
+            dLong += dStandardLongitude;
+
+            if (dLong > Constants.conPI)
+                dLong = Constants.conPI;
+            if (dLong < -Constants.conPI)
+                dLong = -Constants.conPI;
+            if (dLat > Constants.conHALFPI)
+                dLat = Constants.conHALFPI;
+            if (dLat < -Constants.conHALFPI)
+                dLat = -Constants.conHALFPI;
+
+            outLat[i] = dLat * Constants.conDegreesPerRadian;
+            outLong[i] = dLong * Constants.conDegreesPerRadian;
+        }
+    }
+
     /**
      *
      */
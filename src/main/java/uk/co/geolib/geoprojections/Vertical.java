@@ -108,6 +108,60 @@ public class Vertical extends Projection {
         rLatLong.SetLongDegrees(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double sin_olat = Math.sin(m_dStandardLatitude);
+        double cos_olat = Math.cos(m_dStandardLatitude);
+        double dStandardLongitude = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dDLong = Long[i] * Constants.conRadiansPerDegree - dStandardLongitude;
+
+            double sin_lat = Math.sin(dLatY);
+            double cos_lat = Math.cos(dLatY);
+            double cos_dlong = Math.cos(dDLong);
+
+            outX[i] = cos_lat * Math.sin(dDLong);
+            outY[i] = cos_olat * sin_lat - sin_olat * cos_lat * cos_dlong;
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double sin_Olat = Math.sin(m_dStandardLatitude);
+        double cos_Olat = Math.cos(m_dStandardLatitude);
+        double longO = m_dStandardLongitude;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            double dHeading = Math.atan2(dLongX, dLatY);
+            double dHRange = Math.sqrt(dLongX * dLongX + dLatY * dLatY);
+
+            // alpha is the angular Distance travelled round the earths surface
+            double alpha = Math.asin(dHRange);
+            double sin_alpha = dHRange;
+            double cos_alpha = Math.cos(alpha);
+
+            double dLat = Math.asin(sin_Olat * cos_alpha + cos_Olat * sin_alpha * Math.cos(dHeading));
+            double dLong = longO + Math.atan2(Math.sin(dHeading) * sin_alpha * cos_Olat, cos_alpha - sin_Olat * Math.sin(dLat));
+
+            while (dLong > Constants.conPI)
+                dLong -= Constants.conTWOPI;
+            while (dLong < -Constants.conPI)
+                dLong += Constants.conTWOPI;
+
+            outLat[i] = dLat * Constants.conDegreesPerRadian;
+            outLong[i] = dLong * Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      *
@@ -117,6 +117,69 @@ public class VerticalPerspective extends Projection {
         rLatLong.SetLongDegrees(dLong);
     }
 
+    /**
+     * Project the given arrays of lat longs to x, y.
+     */
+    public void Project(double[] Lat, double[] Long, double[] outX, double[] outY, int nOff, int nLen) {
+        double sin_olat = Math.sin(m_dStandardLatitude);
+        double cos_olat = Math.cos(m_dStandardLatitude);
+        double dStandardLongitude = m_dStandardLongitude;
+        double P = m_P;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLatY = Lat[i] * Constants.conRadiansPerDegree;
+            double dDLong = Long[i] * Constants.conRadiansPerDegree - dStandardLongitude;
+
+            double sin_lat = Math.sin(dLatY);
+            double cos_lat = Math.cos(dLatY);
+            double cos_dlong = Math.cos(dDLong);
+            double cos_c = sin_olat * sin_lat + cos_olat * cos_lat * cos_dlong;
+
+            double k = (P - 1) / (P - cos_c);
+
+            outX[i] = k * cos_lat * Math.sin(dDLong);
+            outY[i] = k * (cos_olat * sin_lat - sin_olat * cos_lat * cos_dlong);
+        }
+    }
+
+    /**
+     * Project the given arrays of x y to lat long. Unlike the single point version this is the
+     * full inverse for the point of perspective P, taking the point on the near side of the earth.
+     */
+    public void InverseProject(double[] x, double[] y, double[] outLat, double[] outLong, int nOff, int nLen) {
+        double sin_Olat = Math.sin(m_dStandardLatitude);
+        double cos_Olat = Math.cos(m_dStandardLatitude);
+        double longO = m_dStandardLongitude;
+        double P = m_P;
+        int nEnd = nOff + nLen;
+        for (int i = nOff; i < nEnd; i++) {
+            double dLongX = x[i];
+            double dLatY = y[i];
+
+            double rho = Math.sqrt(dLongX * dLongX + dLatY * dLatY);
+            if (rho == 0) {
+                outLat[i] = m_dStandardLatitude * Constants.conDegreesPerRadian;
+                outLong[i] = longO * Constants.conDegreesPerRadian;
+                continue;
+            }
+
+            // c is the angular Distance travelled round the earths surface
+            double sin_c = (P - Math.sqrt(1 - rho * rho * (P + 1) / (P - 1))) / ((P - 1) / rho + rho / (P - 1));
+            double cos_c = Math.sqrt(1 - sin_c * sin_c);
+
+            double dLat = Math.asin(cos_c * sin_Olat + dLatY * sin_c * cos_Olat / rho);
+            double dLong = longO + Math.atan2(dLongX * sin_c, rho * cos_Olat * cos_c - dLatY * sin_Olat * sin_c);
+
+            while (dLong > Constants.conPI)
+                dLong -= Constants.conTWOPI;
+            while (dLong < -Constants.conPI)
+                dLong += Constants.conTWOPI;
+
+            outLat[i] = dLat * Constants.conDegreesPerRadian;
+            outLong[i] = dLong * Constants.conDegreesPerRadian;
+        }
+    }
+
 
     /**
      *